@@ -168,7 +168,7 @@ class CacheControllerImpl implements CacheController {
       listeners = liveTagController.getUpdateListeners();
       liveTagController.removeAllUpdateListeners();
 
-      historyTagController = new TagController(liveTagController.getTagImpl().clone());
+      historyTagController = liveTagController.copySnapshot();
       historyTagController.addUpdateListeners(listeners);
 
       historyCache.put(entry.getKey(), historyTagController);
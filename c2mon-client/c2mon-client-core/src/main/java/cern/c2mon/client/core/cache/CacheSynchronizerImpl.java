@@ -33,6 +33,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import cern.c2mon.client.common.tag.Tag;
 import cern.c2mon.client.core.jms.ConnectionListener;
 import cern.c2mon.client.core.jms.JmsProxy;
 import cern.c2mon.client.core.jms.RequestHandler;
@@ -40,7 +41,6 @@ import cern.c2mon.client.core.listener.HeartbeatListener;
 import cern.c2mon.client.core.service.CoreSupervisionService;
 import cern.c2mon.client.core.service.impl.SupervisionServiceImpl;
 import cern.c2mon.client.core.tag.TagController;
-import cern.c2mon.client.core.tag.TagImpl;
 import cern.c2mon.shared.client.supervision.Heartbeat;
 import cern.c2mon.shared.client.tag.TagUpdate;
 import cern.c2mon.shared.client.tag.TagValueUpdate;
@@ -159,7 +159,7 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
       for (Long tagId : tagIds) {
         if (!liveCache.containsKey(tagId)) {
           cdt = new TagController(tagId, true);
-          liveCache.put(cdt.getTagImpl().getId(), cdt);
+          liveCache.put(cdt.getSnapshot().getId(), cdt);
           newTags.add(tagId);
         }
       }
@@ -204,9 +204,9 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
 
               cdt.update(tagUpdate);
               subscribeToSupervisionManager(cdt);
-              liveCache.put(cdt.getTagImpl().getId(), cdt);
+              liveCache.put(cdt.getSnapshot().getId(), cdt);
 
-              newTags.add(cdt.getTagImpl().getId());
+              newTags.add(cdt.getSnapshot().getId());
             }
           } finally {
             controller.getWriteLock().unlock();
@@ -252,7 +252,7 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
           historyCache.remove(tagId);
         }
         TagController liveTag = liveCache.remove(tagId);
-        if (liveTag.getTagImpl().getDataTagQuality().isExistingTag()) {
+        if (liveTag.getSnapshot().getDataTagQuality().isExistingTag()) {
           try {
             jmsProxy.unregisterUpdateListener(liveTag);
           } catch (Exception e) {
@@ -324,7 +324,7 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
         // Please note that we do not touch at this point the history cache.
         for (Long tagId : unsynchronizedTagIds) {
           final TagController liveTag = liveCache.get(tagId);
-          if (liveTag.getTagImpl().getDataTagQuality().isExistingTag()) {
+          if (liveTag.getSnapshot().getDataTagQuality().isExistingTag()) {
             if (jmsProxy.isRegisteredListener(liveTag)) {
               try {
                 jmsProxy.unregisterUpdateListener(liveTag);
@@ -365,7 +365,7 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
     for (TagUpdate tagUpdate : tagUpdates) {
       try {
         TagController liveTag = liveCache.get(tagUpdate.getId());
-        boolean wasUnknown = !liveTag.getTagImpl().getDataTagQuality().isExistingTag();
+        boolean wasUnknown = !liveTag.getSnapshot().getDataTagQuality().isExistingTag();
 
         liveTag.update(tagUpdate);
 
@@ -487,10 +487,11 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
      *           for live updates.
      */
     private boolean handleLiveTagRegistration(final TagController liveTag) throws JMSException {
-      final DataTagQuality tagQuality = liveTag.getTagImpl().getDataTagQuality();
+      final DataTagQuality tagQuality = liveTag.getSnapshot().getDataTagQuality();
 
       if (tagQuality.isExistingTag()) {
         if (!jmsProxy.isRegisteredListener(liveTag)) {
+          // registered with the live tag, so that a re-subscription after a reconnection uses its current topic
           jmsProxy.registerUpdateListener(liveTag, liveTag.getTagImpl());
           return true;
         }
@@ -525,7 +526,7 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
       TagController historyTag = null;
       for (Long tagId : historyCacheUpdateList) {
         cdt = liveCache.get(tagId);
-        historyTag = new TagController(cdt.getTagImpl().clone());
+        historyTag = cdt.copySnapshot();
         // Adds the clone (without listeners) to the history cache.
         historyCache.put(tagId, historyTag);
       }
@@ -620,9 +621,9 @@ public class CacheSynchronizerImpl implements CacheSynchronizer, HeartbeatListen
    */
   private void subscribeToSupervisionManager(final TagController cdt) {
     // In case of a CommFault- or Status control tag, we don't register to supervision invalidations
-    TagImpl tagImpl = cdt.getTagImpl();
-    if (!tagImpl.isControlTag() || tagImpl.isAliveTag()) {
-      supervisionManager.addSupervisionListener(cdt, tagImpl.getProcessIds(), tagImpl.getEquipmentIds(), tagImpl.getSubEquipmentIds());
+    Tag tag = cdt.getSnapshot();
+    if (!tag.isControlTag() || tag.isAliveTag()) {
+      supervisionManager.addSupervisionListener(cdt, tag.getProcessIds(), tag.getEquipmentIds(), tag.getSubEquipmentIds());
     }
   }
 }
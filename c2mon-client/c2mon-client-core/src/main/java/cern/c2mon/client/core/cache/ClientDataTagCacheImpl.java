@@ -99,7 +99,7 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
 
     cacheReadLock.lock();
     try {
-      cdt = controller.getActiveCache().get(tagId).getTagImpl();
+      cdt = controller.getActiveCache().get(tagId).getSnapshot();
     } finally {
       cacheReadLock.unlock();
     }
@@ -113,8 +113,8 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     try {
       Collection<TagController> values = controller.getActiveCache().values();
       for (TagController cdt : values) {
-        if (cdt.getTagImpl().getName().equalsIgnoreCase(tagName)) {
-          return cdt.getTagImpl();
+        if (cdt.getSnapshot().getName().equalsIgnoreCase(tagName)) {
+          return cdt.getSnapshot();
         }
       }
     } finally {
@@ -132,7 +132,7 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     try {
       for (TagController cdt : controller.getActiveCache().values()) {
         if (cdt.hasUpdateListeners()) {
-          list.add(cdt.getTagImpl());
+          list.add(cdt.getSnapshot());
         }
       }
     } finally {
@@ -149,8 +149,8 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     cacheReadLock.lock();
     try {
       for (TagController cdt : controller.getActiveCache().values()) {
-        if (cdt.getTagImpl().getEquipmentIds().contains(equipmentId)) {
-          list.add(cdt.getTagImpl());
+        if (cdt.getSnapshot().getEquipmentIds().contains(equipmentId)) {
+          list.add(cdt.getSnapshot());
         }
       }
     } finally {
@@ -168,7 +168,7 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     try {
       for (TagController cdt : controller.getActiveCache().values()) {
         if (cdt.isUpdateListenerRegistered(listener)) {
-          list.add(cdt.getTagImpl());
+          list.add(cdt.getSnapshot());
         }
       }
     } finally {
@@ -186,7 +186,7 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     try {
       for (TagController cdt : controller.getActiveCache().values()) {
         if (cdt.isUpdateListenerRegistered(listener)) {
-          list.add(cdt.getTagImpl().getId());
+          list.add(cdt.getSnapshot().getId());
         }
       }
     } finally {
@@ -203,8 +203,8 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
     cacheReadLock.lock();
     try {
       for (TagController cdt : controller.getActiveCache().values()) {
-        if (cdt.getTagImpl().getProcessIds().contains(processId)) {
-          list.add(cdt.getTagImpl());
+        if (cdt.getSnapshot().getProcessIds().contains(processId)) {
+          list.add(cdt.getSnapshot());
         }
       }
     } finally {
@@ -242,7 +242,7 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
       for (Long tagId : tagIds) {
         TagController tagBean = controller.getActiveCache().get(tagId);
         if (tagBean != null) {
-          resultMap.put(tagId, tagBean.getTagImpl());
+          resultMap.put(tagId, tagBean.getSnapshot());
         } else {
           resultMap.put(tagId, null);
         }
@@ -268,8 +268,8 @@ public class ClientDataTagCacheImpl implements ClientDataTagCache {
       Collection<TagController> values = controller.getActiveCache().values();
       for (TagController cdt : values) {
         for (String tagName : tagNames) {
-          if (cdt.getTagImpl().getName().equalsIgnoreCase(tagName)) {
-            resultMap.put(tagName, cdt.getTagImpl());
+          if (cdt.getSnapshot().getName().equalsIgnoreCase(tagName)) {
+            resultMap.put(tagName, cdt.getSnapshot());
           }
         }
       }
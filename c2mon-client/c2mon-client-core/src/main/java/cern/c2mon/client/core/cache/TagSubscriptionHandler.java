@@ -120,7 +120,7 @@ class TagSubscriptionHandler {
     for (Long tagId : subscriptionList) {
       cdt = controller.getActiveCache().get(tagId);
       if (sendInitialUpdateSeperately) {
-        initialUpdates.put(tagId, cdt.getTagImpl().clone());
+        initialUpdates.put(tagId, cdt.getSnapshot());
       }
     } // end for
 
@@ -169,7 +169,7 @@ class TagSubscriptionHandler {
         if (cdt.isUpdateListenerRegistered(listener)) {
           cdt.removeUpdateListener(listener);
           if (!cdt.hasUpdateListeners()) {
-            tagsToRemove.add(cdt.getTagImpl().getId());
+            tagsToRemove.add(cdt.getSnapshot().getId());
           }
         }
       }
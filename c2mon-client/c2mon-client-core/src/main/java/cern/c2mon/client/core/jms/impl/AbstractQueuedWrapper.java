@@ -106,6 +106,17 @@ public abstract class AbstractQueuedWrapper<U> implements Lifecycle, MessageList
    */
   protected abstract void notifyListeners(U event);
 
+  /**
+   * Called before the message is converted, to drop the messages which
+   * are of no interest to the listeners based on the message properties.
+   * @param message the JMS message
+   * @return false if the message shall be ignored; true by default
+   * @throws JMSException if error in reading the message properties
+   */
+  protected boolean isExpected(Message message) throws JMSException {
+    return true;
+  }
+
   public AbstractQueuedWrapper(final int queueCapacity, final SlowConsumerListener slowConsumerListener,
                                     final ExecutorService executorService) {
     super();
@@ -145,6 +156,9 @@ public abstract class AbstractQueuedWrapper<U> implements Lifecycle, MessageList
   public void onMessage(final Message message) {
     try {
       if (message instanceof TextMessage) {
+        if (!isExpected(message)) {
+          return;
+        }
 
         if (log.isTraceEnabled()) {
           log.trace("AbstractQueuedWrapper received message for {}: {}", this.getClass().getSimpleName(), ((TextMessage)message).getText());
@@ -72,7 +72,7 @@ class AlarmListenerWrapper extends AbstractListenerWrapper<AlarmListener, TagUpd
     TagController controller = new TagController(tagWithAlarmChange.getId());
     try {
       controller.update(tagWithAlarmChange);
-      listener.onAlarmUpdate(controller.getTagImpl());
+      listener.onAlarmUpdate(controller.getSnapshot());
     } catch (RuleFormatException e) {
       log.error("Rule format error. Cannot inform listeners about alarm change on tag #{}", tagWithAlarmChange.getId(), e);
     } catch (Exception ex) {
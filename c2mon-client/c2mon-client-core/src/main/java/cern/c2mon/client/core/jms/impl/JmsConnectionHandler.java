@@ -22,9 +22,11 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
 import javax.annotation.PreDestroy;
 import javax.jms.*;
@@ -39,10 +41,12 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import cern.c2mon.client.core.config.C2monClientProperties;
 import cern.c2mon.client.core.jms.ConnectionListener;
 import cern.c2mon.client.core.jms.JmsProxy;
 import cern.c2mon.client.core.jms.TopicRegistrationDetails;
 import cern.c2mon.client.core.listener.TagUpdateListener;
+import cern.c2mon.shared.client.tag.TagValueUpdate;
 
 /**
  * This is a helper class of {@link JmsProxyImpl} and takes care of the JMS connection lifecycle.
@@ -158,6 +162,17 @@ class JmsConnectionHandler {
    * used for Tag update subscriptions are referenced here.
    */
   private Map<MessageListenerWrapper, Session> sessions = new ConcurrentHashMap<>();
+
+  /**
+   * The tag id selector used by the session of a given wrapper, or an empty
+   * string if the wrapper receives all messages of its topic.
+   */
+  private Map<MessageListenerWrapper, String> selectors = new ConcurrentHashMap<>();
+
+  /**
+   * Maximum number of tags for which a topic is subscribed with a selector.
+   */
+  private final int maxTagsPerSelector;
   
   /**
    * Threads used for polling topic queues.
@@ -170,8 +185,10 @@ class JmsConnectionHandler {
   @Autowired
   public JmsConnectionHandler(@Qualifier("clientJmsConnectionFactory") final ConnectionFactory connectionFactory,
       final SlowConsumerListener slowConsumerListener,
-      @Qualifier("topicPollingExecutor") final ExecutorService topicPollingExecutor) {
+      @Qualifier("topicPollingExecutor") final ExecutorService topicPollingExecutor,
+      final C2monClientProperties properties) {
     this.topicPollingExecutor = topicPollingExecutor;
+    this.maxTagsPerSelector = properties.getJms().getMaxTagsPerSelector();
     this.jmsConnectionFactory = connectionFactory;
     this.slowConsumerListener = slowConsumerListener;
 
@@ -191,11 +208,16 @@ class JmsConnectionHandler {
     try {
       if (!registeredListeners.isEmpty()) {
         sessions.clear();
+        selectors.clear();
         topicToWrapper.clear();
         // refresh all registered listeners for Tag updates
         for (Map.Entry<TagUpdateListener, TopicRegistrationDetails> entry : registeredListeners.entrySet()) {
           registerUpdateListener(entry.getKey(), entry.getValue());
         }
+        // and subscribe each topic once all its listeners are known
+        for (Map.Entry<String, MessageListenerWrapper> entry : topicToWrapper.entrySet()) {
+          subscribe(entry.getKey(), entry.getValue());
+        }
       }
       jmsSubscriptionHandler.refreshAllSubscriptions(connection);
     } catch (JMSException e) {
@@ -295,21 +317,18 @@ class JmsConnectionHandler {
           try {
             if (refreshSubscriptions || connected) {
               String topicName = topicRegistrationDetails.getTopicName();
-              if (topicToWrapper.containsKey(topicName)) {
-                topicToWrapper.get(topicName).addListener(serverUpdateListener, topicRegistrationDetails.getId());
+              MessageListenerWrapper wrapper = topicToWrapper.get(topicName);
+              if (wrapper != null) {
+                wrapper.addListener(serverUpdateListener, topicRegistrationDetails.getId());
               } else {
-                Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-                Topic topic = session.createTopic(topicRegistrationDetails.getTopicName());
-                MessageConsumer consumer = session.createConsumer(topic);
-                MessageListenerWrapper wrapper = new MessageListenerWrapper(topicRegistrationDetails.getId(), serverUpdateListener, HIGH_LISTENER_QUEUE_SIZE,
+                wrapper = new MessageListenerWrapper(topicRegistrationDetails.getId(), serverUpdateListener, HIGH_LISTENER_QUEUE_SIZE,
                     slowConsumerListener, topicPollingExecutor);
                 wrapper.start();
-                consumer.setMessageListener(wrapper);
                 topicToWrapper.put(topicName, wrapper);
-                sessions.put(wrapper, session);
               }
 
               if (!refreshSubscriptions) {
+                subscribe(topicName, wrapper);
                 registeredListeners.put(serverUpdateListener, topicRegistrationDetails);
               }
             } else {
@@ -354,8 +373,16 @@ class JmsConnectionHandler {
             } finally {
               wrapper.stop();
               sessions.remove(wrapper);
+              selectors.remove(wrapper);
               topicToWrapper.remove(subsribedToTag.getTopicName());
             }
+          } else {
+            try {
+              subscribe(subsribedToTag.getTopicName(), wrapper);
+            } catch (JMSException ex) {
+              log.warn("Failed to update the selector of topic {}; the updates of unregistered tags are filtered locally.",
+                  subsribedToTag.getTopicName(), ex);
+            }
           }
           registeredListeners.remove(serverUpdateListener);
         }
@@ -367,6 +394,49 @@ class JmsConnectionHandler {
     }
   }
   
+  /**
+   * Subscribes the wrapper to its topic in a new session. The topic is
+   * subscribed with a selector on the tag id message property if the wrapper
+   * has at most {@link #maxTagsPerSelector} listeners, so that the broker only
+   * forwards the updates of these tags. Nothing is done if the current session
+   * of the wrapper already uses the right selector.
+   * <p>
+   * The previous session is only closed once the new consumer is created, so
+   * that no update is lost while changing the selector.
+   *
+   * @param topicName the topic of the wrapper
+   * @param wrapper the wrapper to subscribe
+   * @throws JMSException if problem subscribing
+   */
+  private void subscribe(final String topicName, final MessageListenerWrapper wrapper) throws JMSException {
+    String selector = selectorFor(wrapper);
+    Session previous = sessions.get(wrapper);
+    if (previous != null && selector.equals(selectors.get(wrapper))) {
+      return;
+    }
+
+    Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+    Topic topic = session.createTopic(topicName);
+    MessageConsumer consumer = selector.isEmpty() ? session.createConsumer(topic) : session.createConsumer(topic, selector);
+    consumer.setMessageListener(wrapper);
+    sessions.put(wrapper, session);
+    selectors.put(wrapper, selector);
+
+    if (previous != null) {
+      previous.close();
+    }
+  }
+
+  private String selectorFor(final MessageListenerWrapper wrapper) {
+    Set<Long> tagIds = wrapper.getTagIds();
+    if (tagIds.isEmpty() || tagIds.size() > maxTagsPerSelector) {
+      return "";
+    }
+    return tagIds.stream()
+        .map(id -> "'" + id + "'")
+        .collect(Collectors.joining(",", TagValueUpdate.TAG_ID_PROPERTY + " IN (", ")"));
+  }
+
   boolean isRegisteredListener(final TagUpdateListener serverUpdateListener) {
     if (serverUpdateListener == null) {
       throw new NullPointerException("isRegisteredListener() method called with null parameter!");
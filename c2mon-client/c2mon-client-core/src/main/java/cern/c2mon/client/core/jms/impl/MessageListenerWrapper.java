@@ -16,8 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.client.core.jms.impl;
 
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
@@ -47,9 +48,9 @@ import cern.c2mon.shared.client.tag.TransferTagValueImpl;
 class MessageListenerWrapper extends AbstractQueuedWrapper<TagValueUpdate> {
 
     /**
-     * Wrapped listener. Methods accessing this field are synchronized.
+     * Wrapped listener. Methods modifying this field are synchronized.
      */
-    private Map<Long, TagUpdateListener> listeners = new HashMap<>();
+    private Map<Long, TagUpdateListener> listeners = new ConcurrentHashMap<>();
 
     /**
      * Timestamps of tag updates used to filter out older events.
@@ -101,6 +102,23 @@ class MessageListenerWrapper extends AbstractQueuedWrapper<TagValueUpdate> {
         return listeners.isEmpty();
     }
 
+    /**
+     * @return the ids of the Tags for which a listener is registered
+     */
+    public synchronized Set<Long> getTagIds() {
+        return new HashSet<>(listeners.keySet());
+    }
+
+    /**
+     * Drops the messages of Tags without registered listener before decoding
+     * them, if the server has set the tag id message property.
+     */
+    @Override
+    protected boolean isExpected(Message message) throws JMSException {
+      String tagId = message.getStringProperty(TagValueUpdate.TAG_ID_PROPERTY);
+      return tagId == null || listeners.containsKey(Long.valueOf(tagId));
+    }
+
     @Override
     protected TagValueUpdate convertMessage(Message message) throws JMSException {
       return TransferTagSerializer.fromJson(((TextMessage) message).getText(), TransferTagValueImpl.class);
@@ -307,7 +307,7 @@ public class TagServiceImpl implements AdvancedTagService {
             }
 
             missingTags.remove(tagImpl.getId());
-            resultList.add(tagImpl.clone());
+            resultList.add(tagController.getSnapshot());
 
             if (!tagUpdate.isControlTag() || tagUpdate.isAliveTag()) {
               supervisionService.removeSupervisionListener(tagController);
@@ -431,7 +431,7 @@ public class TagServiceImpl implements AdvancedTagService {
             supervisionService.addSupervisionListener(tagController, tagImpl.getProcessIds(), tagImpl.getEquipmentIds(), tagImpl.getSubEquipmentIds());
           }
 
-          resultList.add(tagImpl.clone());
+          resultList.add(tagController.getSnapshot());
 
           if (!tagUpdate.isControlTag() || tagUpdate.isAliveTag()) {
             supervisionService.removeSupervisionListener(tagController);
@@ -21,7 +21,10 @@ import java.sql.Timestamp;
 import java.util.*;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import cern.c2mon.client.common.listener.BaseTagListener;
@@ -55,6 +58,14 @@ public class TagController implements TagUpdateListener, SupervisionListener {
    */
   private ReentrantReadWriteLock updateTagLock = new ReentrantReadWriteLock();
 
+  /**
+   * Immutable copy of {@link #tagImpl}, replaced under the write lock after
+   * every change of the tag
+   */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile TagImpl snapshot;
+
   /**
    * Concurrent modifiable collection of DataTagUpdateListeners registered for
    * updates on this DataTag
@@ -68,10 +79,12 @@ public class TagController implements TagUpdateListener, SupervisionListener {
 
   public TagController() {
     this.tagImpl = new TagImpl();
+    publishSnapshot();
   }
 
   public TagController(long id) {
     this.tagImpl = new TagImpl(id);
+    publishSnapshot();
   }
 
   public TagController(long id, boolean unknown) {
@@ -80,10 +93,46 @@ public class TagController implements TagUpdateListener, SupervisionListener {
     if (unknown) {
       this.tagImpl.setUnknown();
     }
+    publishSnapshot();
   }
 
   public TagController(TagImpl tagImpl) {
     this.tagImpl = tagImpl.clone();
+    publishSnapshot();
+  }
+
+  /**
+   * Returns a consistent copy of the tag as of its last update, without
+   * locking. The returned instance is shared with the listeners notified of
+   * that update, and is therefore only exposed through the read-only
+   * {@link Tag} interface.
+   *
+   * @return the latest snapshot of the tag
+   */
+  public Tag getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Creates a new controller without listeners, holding a private copy of
+   * the latest snapshot of this tag.
+   *
+   * @return a new controller with the state of the tag as of its last update
+   */
+  public TagController copySnapshot() {
+    return new TagController(snapshot);
+  }
+
+  /**
+   * Publishes a copy of the current tag state. Must be called while holding
+   * the write lock (or from the constructor).
+   *
+   * @return the published snapshot
+   */
+  private TagImpl publishSnapshot() {
+    TagImpl copy = tagImpl.clone();
+    snapshot = copy;
+    return copy;
   }
 
   @org.simpleframework.xml.core.Persist
@@ -149,7 +198,7 @@ public class TagController implements TagUpdateListener, SupervisionListener {
 
         if (oldEvent == null || !supervisionEvent.equals(oldEvent)) {
           // Notify all listeners of the update
-          clone = tagImpl.clone();
+          clone = publishSnapshot();
         }
       }
     } finally {
@@ -278,7 +327,7 @@ public class TagController implements TagUpdateListener, SupervisionListener {
       if (valid) {
         doUpdateValues(tagValueUpdate);
         // Notify all listeners of the update
-        clone = tagImpl.clone();
+        clone = publishSnapshot();
       }
     } finally {
       updateTagLock.writeLock().unlock();
@@ -354,7 +403,7 @@ public class TagController implements TagUpdateListener, SupervisionListener {
         tagImpl.setMetadata(tagUpdate.getMetadata());
 
         // Notify all listeners of the update
-        clone = tagImpl.clone();
+        clone = publishSnapshot();
       }
     } finally {
       updateTagLock.writeLock().unlock();
@@ -523,19 +572,10 @@ public class TagController implements TagUpdateListener, SupervisionListener {
     }
     this.getListeners().add(listener);
 
-    Tag clone = null;
-    this.getTagImpl().getUpdateTagLock().readLock().lock();
-    try {
-      boolean sendInitialUpdate = !TagComparator.compare(this.getTagImpl(), initialValue);
-
-      if (sendInitialUpdate) {
-        clone = this.getTagImpl().clone();
-      }
-    } finally {
-      this.getTagImpl().getUpdateTagLock().readLock().unlock();
-    }
+    Tag clone = snapshot;
+    boolean sendInitialUpdate = !TagComparator.compare(clone, initialValue);
 
-    if (clone != null) {
+    if (sendInitialUpdate) {
       try {
         listener.onUpdate(clone);
       }
@@ -630,10 +670,15 @@ public class TagController implements TagUpdateListener, SupervisionListener {
     if (log.isTraceEnabled()) {
       log.trace("validate() - Removing " + statusToRemove + " quality status from tag " + this.getTagImpl().getId());
     }
-    if (this.getTagImpl().getDataTagQuality().isInvalidStatusSet(statusToRemove)) {
-      // remove the quality status
-      this.getTagImpl().getDataTagQuality().removeInvalidStatus(statusToRemove);
-      clone = this.getTagImpl().clone();
+    updateTagLock.writeLock().lock();
+    try {
+      if (this.getTagImpl().getDataTagQuality().isInvalidStatusSet(statusToRemove)) {
+        // remove the quality status
+        this.getTagImpl().getDataTagQuality().removeInvalidStatus(statusToRemove);
+        clone = publishSnapshot();
+      }
+    } finally {
+      updateTagLock.writeLock().unlock();
     }
 
     if (clone != null) {
@@ -652,7 +697,7 @@ public class TagController implements TagUpdateListener, SupervisionListener {
    */
   public void invalidate(final TagQualityStatus status, final String description) {
     TagImpl clone = null;
-    this.getTagImpl().getUpdateTagLock().writeLock().lock();
+    updateTagLock.writeLock().lock();
     try {
       if (log.isTraceEnabled()) {
         log.trace("invalidate() - Invalidating tag " + this.getTagImpl().getId() + " with quality status " + status);
@@ -660,9 +705,9 @@ public class TagController implements TagUpdateListener, SupervisionListener {
       // Invalidate the object.
       this.getTagImpl().getDataTagQuality().addInvalidStatus(status, description);
 
-      clone = this.getTagImpl().clone();
+      clone = publishSnapshot();
     } finally {
-      this.getTagImpl().getUpdateTagLock().writeLock().unlock();
+      updateTagLock.writeLock().unlock();
     }
 
     if (clone != null) {
@@ -695,6 +740,7 @@ public class TagController implements TagUpdateListener, SupervisionListener {
       for (Long id : tagImpl.getSubEquipmentSupervisionStatus().keySet()) {
         tagImpl.getSubEquipmentSupervisionStatus().put(id, null);
       }
+      publishSnapshot();
     } finally {
       updateTagLock.writeLock().unlock();
     }
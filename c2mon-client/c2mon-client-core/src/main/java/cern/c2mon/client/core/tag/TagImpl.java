@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import lombok.AccessLevel;
@@ -47,6 +46,14 @@ import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 import cern.c2mon.shared.rule.RuleExpression;
 
 /**
+ * Client-side representation of a tag.
+ * <p>
+ * The getters do not take any lock. The instance kept up to date by a
+ * {@link TagController} is only modified under the lock of the controller,
+ * which then publishes a copy of it as immutable snapshot (see
+ * {@link TagController#getSnapshot()}). All instances handed out to users
+ * are such snapshots or copies of them.
+ *
  * @author Szymon Halastra
  */
 @Slf4j
@@ -205,11 +212,6 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
    */
   private Map<String, Object> metadata = new HashMap<>();
 
-  /**
-   * Lock to prevent more than one thread at a time to update the value
-   */
-  private ReentrantReadWriteLock updateTagLock = new ReentrantReadWriteLock();
-
   /**
    * Protected default constructor that initializes the tag id with -1L
    */
@@ -257,104 +259,64 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
 
   @Override
   public String getName() {
-    updateTagLock.readLock().lock();
-    try {
-      if (this.tagName == null) {
-        return "UNKNOWN";
-      }
-      else {
-        return tagName;
-      }
-    } finally {
-      updateTagLock.readLock().unlock();
+    if (this.tagName == null) {
+      return "UNKNOWN";
+    }
+    else {
+      return tagName;
     }
   }
 
   @Override
   public TagMode getMode() {
-    updateTagLock.readLock().lock();
-    try {
-      return mode;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return mode;
   }
 
   @Override
   public boolean isSimulated() {
-    updateTagLock.readLock().lock();
-    try {
-      return simulated;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return simulated;
   }
 
   @Override
   public boolean isValid() {
-    updateTagLock.readLock().lock();
-    try {
-      return tagQuality.isValid();
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return tagQuality.isValid();
   }
 
   @Override
   public DataTagQuality getDataTagQuality() {
-    updateTagLock.readLock().lock();
-    try {
-      return tagQuality;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return tagQuality;
   }
 
   @Override
   public Object getValue() {
-    updateTagLock.readLock().lock();
-    try {
-      return tagValue;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return tagValue;
   }
 
-  private String getLockedString(String str) {
-    updateTagLock.readLock().lock();
-    try {
-      if (str != null) {
-        return str;
-      }
-      return "";
-    } finally {
-      updateTagLock.readLock().unlock();
+  private static String emptyIfNull(String str) {
+    if (str != null) {
+      return str;
     }
+    return "";
   }
 
   @Override
   public String getDescription() {
-    return getLockedString(description);
+    return emptyIfNull(description);
   }
 
   @Override
   public String getValueDescription() {
-    return this.getLockedString(valueDescription);
+    return emptyIfNull(valueDescription);
   }
 
   @Override
   public String getUnit() {
-    return this.getLockedString(unit);
+    return emptyIfNull(unit);
   }
 
   @Override
   public Collection<Long> getAlarmIds() {
-    updateTagLock.readLock().lock();
-    try {
-      return alarms.stream().map(AlarmValue::getId).collect(Collectors.toList());
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return alarms.stream().map(AlarmValue::getId).collect(Collectors.toList());
   }
 
   @Override
@@ -374,76 +336,46 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
 
   @Override
   public boolean isRuleResult() {
-    updateTagLock.readLock().lock();
-    try {
-      return this.ruleExpression != null;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return this.ruleExpression != null;
   }
 
   @Override
   public RuleExpression getRuleExpression() {
-    updateTagLock.readLock().lock();
-    try {
-      return this.ruleExpression;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return this.ruleExpression;
   }
 
   @Override
   public Timestamp getTimestamp() {
-    updateTagLock.readLock().lock();
-    try {
-      if (sourceTimestamp == null) {
-        // Use the server timestamp, because the tag might never been
-        // sent by an equipment. In that case the sourceTimestamp is null.
-        return serverTimestamp;
-      }
-      else {
-        return sourceTimestamp;
-      }
-    } finally {
-      updateTagLock.readLock().unlock();
+    if (sourceTimestamp == null) {
+      // Use the server timestamp, because the tag might never been
+      // sent by an equipment. In that case the sourceTimestamp is null.
+      return serverTimestamp;
+    }
+    else {
+      return sourceTimestamp;
     }
   }
 
   @Override
   public Timestamp getDaqTimestamp() {
-    updateTagLock.readLock().lock();
-    try {
-      return daqTimestamp;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return daqTimestamp;
   }
 
   @Override
   public Timestamp getServerTimestamp() {
-    updateTagLock.readLock().lock();
-    try {
-      return serverTimestamp;
-    } finally {
-      updateTagLock.readLock().unlock();
-    }
+    return serverTimestamp;
   }
 
   @Override
   public TypeNumeric getTypeNumeric() {
-    updateTagLock.readLock().lock();
-    try {
-      Class<?> type = getType();
-      if (type != null) {
-        int typeNumeric = type.hashCode();
-        for (TypeNumeric t : TypeNumeric.values()) {
-          if (t.getCode() == typeNumeric) {
-            return t;
-          }
+    Class<?> type = getType();
+    if (type != null) {
+      int typeNumeric = type.hashCode();
+      for (TypeNumeric t : TypeNumeric.values()) {
+        if (t.getCode() == typeNumeric) {
+          return t;
         }
       }
-    } finally {
-      updateTagLock.readLock().unlock();
     }
 
     return TypeNumeric.TYPE_UNKNOWN;
@@ -471,15 +403,10 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
 
   @Override
   public String getTopicName() {
-    updateTagLock.readLock().lock();
-    try {
-      if (this.topicName != null) {
-        return this.topicName;
-      }
-      return "";
-    } finally {
-      updateTagLock.readLock().unlock();
+    if (this.topicName != null) {
+      return this.topicName;
     }
+    return "";
   }
 
   /**
@@ -494,12 +421,9 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
   @SuppressWarnings("unchecked")
   @Override
   public TagImpl clone() {
-    updateTagLock.readLock().lock();
     try {
       TagImpl clone = (TagImpl) super.clone();
 
-      clone.updateTagLock = new ReentrantReadWriteLock();
-
       // clone the process id map
       clone.processSupervisionStatus = new HashMap<>(processSupervisionStatus.size());
       for (Map.Entry<Long, SupervisionEvent> entry : processSupervisionStatus.entrySet()) {
@@ -571,9 +495,6 @@ public class TagImpl implements Tag, TopicRegistrationDetails, Cloneable {
               "clone() - Cloning the TagImpl object failed! No update sent to the client.");
       throw new RuntimeException(cloneException);
     }
-    finally {
-      updateTagLock.readLock().unlock();
-    }
   }
 
   @Override
@@ -11,6 +11,8 @@ import cern.c2mon.server.elasticsearch.MappingFactory;
 import cern.c2mon.server.elasticsearch.client.ElasticsearchClientRest;
 import cern.c2mon.server.elasticsearch.config.ElasticsearchProperties;
 import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
+import cern.c2mon.server.elasticsearch.tag.SupervisionNameCache;
+import cern.c2mon.server.elasticsearch.tag.TagFieldWriter;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentConverter;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentIndexer;
 import cern.c2mon.server.elasticsearch.tag.config.TagConfigDocumentListener;
@@ -55,7 +57,8 @@ public class ElasticsearchServiceTest {
     ProcessCache processCache = createNiceMock(ProcessCache.class);
     EquipmentCache equipmentCache = createNiceMock(EquipmentCache.class);
     SubEquipmentCache subequipmentCache = createNiceMock(SubEquipmentCache.class);
-    TagConfigDocumentConverter converter = new TagConfigDocumentConverter(processCache, equipmentCache, subequipmentCache);
+    TagFieldWriter fieldWriter = new TagFieldWriter(new SupervisionNameCache(processCache, equipmentCache, subequipmentCache));
+    TagConfigDocumentConverter converter = new TagConfigDocumentConverter(fieldWriter);
     tagFacadeGateway = createNiceMock(TagFacadeGateway.class);
     TagConfigDocumentIndexer indexer = new TagConfigDocumentIndexer(elasticsearchProperties, indexManager, tagFacadeGateway, converter);
     tagDocumentListener = new TagConfigDocumentListener(elasticsearchProperties, indexer, converter, tagFacadeGateway);
@@ -66,7 +66,7 @@ public class JmsProxyImplTest {
     SlowConsumerListener slowConsumerListener = EasyMock.createNiceMock(SlowConsumerListener.class);
     JmsConfig jmsConfig = new JmsConfig();
     ExecutorService topicPollingExecutor = jmsConfig.topicPollingExecutor();
-    connetionHandler = new JmsConnectionHandler(connectionFactory, slowConsumerListener, topicPollingExecutor);
+    connetionHandler = new JmsConnectionHandler(connectionFactory, slowConsumerListener, topicPollingExecutor, new C2monClientProperties());
     
     jmsProxy = new JmsProxyImpl(connetionHandler, slowConsumerListener, topicPollingExecutor, new C2monClientProperties());
   }
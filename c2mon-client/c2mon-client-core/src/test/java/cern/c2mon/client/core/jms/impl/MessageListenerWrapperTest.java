@@ -0,0 +1,87 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.client.core.jms.impl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.jms.JMSException;
+import javax.jms.TextMessage;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.client.core.listener.TagUpdateListener;
+import cern.c2mon.shared.client.tag.TagValueUpdate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the tag id filtering of the MessageListenerWrapper.
+ */
+public class MessageListenerWrapperTest {
+
+  private ExecutorService executorService;
+
+  private MessageListenerWrapper wrapper;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newSingleThreadExecutor();
+    wrapper = new MessageListenerWrapper(1L, EasyMock.createNiceMock(TagUpdateListener.class), 10,
+        EasyMock.createNiceMock(SlowConsumerListener.class), executorService);
+  }
+
+  @After
+  public void tearDown() {
+    wrapper.stop();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testMessageOfRegisteredTagIsExpected() throws JMSException {
+    assertTrue(wrapper.isExpected(messageWithTagId("1")));
+  }
+
+  @Test
+  public void testMessageOfUnknownTagIsDropped() throws JMSException {
+    assertFalse(wrapper.isExpected(messageWithTagId("2")));
+
+    wrapper.addListener(EasyMock.createNiceMock(TagUpdateListener.class), 2L);
+    assertTrue(wrapper.isExpected(messageWithTagId("2")));
+    assertEquals(2, wrapper.getTagIds().size());
+
+    wrapper.removeListener(2L);
+    assertFalse(wrapper.isExpected(messageWithTagId("2")));
+  }
+
+  @Test
+  public void testMessageWithoutTagIdIsExpected() throws JMSException {
+    assertTrue(wrapper.isExpected(messageWithTagId(null)));
+  }
+
+  private static TextMessage messageWithTagId(String tagId) throws JMSException {
+    TextMessage message = EasyMock.createMock(TextMessage.class);
+    EasyMock.expect(message.getStringProperty(TagValueUpdate.TAG_ID_PROPERTY)).andReturn(tagId).anyTimes();
+    EasyMock.replay(message);
+    return message;
+  }
+}
@@ -1,6 +1,8 @@
 package cern.c2mon.client.core.tag;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
@@ -8,6 +10,7 @@ import java.util.Arrays;
 
 import org.junit.Test;
 
+import cern.c2mon.client.common.tag.Tag;
 import cern.c2mon.client.core.tag.utils.TestTagUpdate;
 import cern.c2mon.shared.client.supervision.SupervisionEvent;
 import cern.c2mon.shared.client.supervision.SupervisionEventImpl;
@@ -113,4 +116,34 @@ public class TagControllerTest {
     tagController.onSupervisionUpdate(processDownEvent);
     assertFalse("The data tag should be invalid", tagController.getTagImpl().getDataTagQuality().isValid());
   }
+
+  @Test
+  public void testSnapshotIsPublishedOnUpdate() throws RuleFormatException {
+    TagController tagController = new TagController(TAG_ID);
+    Tag initial = tagController.getSnapshot();
+    assertFalse(initial.getDataTagQuality().isInitialised());
+
+    TestTagUpdate tagUpdate1 = TestTagUpdate.create();
+    tagUpdate1.setServerTimestamp(CURRENT_TIME);
+    tagUpdate1.setDaqTimestamp(CURRENT_TIME);
+    tagUpdate1.setSourceTimestamp(CURRENT_TIME);
+    tagUpdate1.getDataTagQuality().removeInvalidStatus(TagQualityStatus.UNINITIALISED);
+
+    tagController.update(tagUpdate1);
+
+    Tag snapshot = tagController.getSnapshot();
+    assertNotSame(tagController.getTagImpl(), snapshot);
+    assertEquals(tagController.getTagImpl(), snapshot);
+    assertTrue(snapshot.getDataTagQuality().isValid());
+    assertFalse("The previous snapshot must not change", initial.getDataTagQuality().isInitialised());
+
+    tagController.invalidate(TagQualityStatus.INACCESSIBLE, "Connection lost");
+    assertTrue("The published snapshot must not change", snapshot.getDataTagQuality().isValid());
+    assertFalse(tagController.getSnapshot().getDataTagQuality().isValid());
+
+    TagController copy = tagController.copySnapshot();
+    assertNotSame(tagController.getSnapshot(), copy.getTagImpl());
+    assertEquals(tagController.getSnapshot(), copy.getTagImpl());
+    assertFalse(copy.hasUpdateListeners());
+  }
 }
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.daq.common;
 
+import java.util.Map;
+
 import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
 import cern.c2mon.shared.common.datatag.ValueUpdate;
 
@@ -52,6 +54,21 @@ public interface IEquipmentMessageSender {
    */
   boolean update(String tagName, ValueUpdate update);
 
+  /**
+   * Sends a block of value updates to the server, e.g. all values read from
+   * a PLC block at once. Each update goes through the same validation,
+   * filtering and deadband checks as with {@link #update(Long, ValueUpdate)},
+   * but all values which pass them are handed over to the process message
+   * sender in one operation.
+   *
+   * @param updates The tag value updates to send, by tag id. Updates are
+   *                processed in the iteration order of the map.
+   * @return The number of updates which have been sent to the server. The
+   *         other ones have been invalidated, filtered out or passed to the
+   *         time deadband scheduler.
+   */
+  int update(Map<Long, ValueUpdate> updates);
+
   /**
    * Invalidates the given tag and sends a quality update to the server, if not yet done.
    * The value remains the same.
@@ -329,8 +329,8 @@ public class ConfigurationController {
 
     SourceDataTag sourceDataTag = dataTagAddChange.getSourceDataTag();
     Long dataTagId = sourceDataTag.getId();
-    Map<Long, SourceDataTag> sourceDataTags = getSourceDataTags(equipmentId);
-    if (sourceDataTags == null) {
+    EquipmentConfiguration equipmentConfiguration = getDataTagEquipmentConfiguration(equipmentId);
+    if (equipmentConfiguration == null) {
       log.warn("cannot add data tag - equipment id: " + dataTagAddChange.getEquipmentId() + " is unknown");
       changeReport.appendError("Equipment does not exist: " + equipmentId);
       return changeReport;
@@ -343,14 +343,14 @@ public class ConfigurationController {
       return changeReport;
     }
 
-    if (sourceDataTags.containsKey(dataTagId)) {
+    if (equipmentConfiguration.hasSourceDataTag(dataTagId)) {
 
       log.warn("onDataTagAdd - cannot add data tag id: " + dataTagId + " to equipment id: " + dataTagAddChange.getEquipmentId() + " This equipment already" +
           " has tag with that id");
 
       changeReport.appendError("DataTag " + dataTagId + " is already in equipment " + equipmentId);
     } else {
-      sourceDataTags.put(dataTagId, sourceDataTag);
+      equipmentConfiguration.putSourceDataTag(sourceDataTag);
       changeReport.appendInfo("Core added data tag with id " + sourceDataTag.getId() + " successfully to equipment " + equipmentId);
       List<ICoreDataTagChanger> coreChangers = coreDataTagChangers.get(equipmentId);
       if (coreChangers != null) {
@@ -452,14 +452,14 @@ public class ConfigurationController {
 
     ChangeReport changeReport = new ChangeReport(dataTagRemoveChange);
     Long equipmentId = dataTagRemoveChange.getEquipmentId();
-    Map<Long, SourceDataTag> sourceDataTags = getSourceDataTags(equipmentId);
-    if (sourceDataTags == null) {
+    EquipmentConfiguration equipmentConfiguration = getDataTagEquipmentConfiguration(equipmentId);
+    if (equipmentConfiguration == null) {
       changeReport.appendError("Equipment does not exist: " + equipmentId);
       return changeReport;
     }
 
     log.debug("onDataTagRemove - removing " + dataTagRemoveChange.getDataTagId());
-    SourceDataTag sourceDataTag = sourceDataTags.get(dataTagRemoveChange.getDataTagId());
+    SourceDataTag sourceDataTag = equipmentConfiguration.getDataTags().get(dataTagRemoveChange.getDataTagId());
 
     if (sourceDataTag != null) {
       log.debug("onDataTagRemove - Core removed data tag with id " + dataTagRemoveChange.getDataTagId() + " successfully from equipment " + equipmentId);
@@ -484,7 +484,7 @@ public class ConfigurationController {
       freshnessMonitor.removeDataTag(sourceDataTag);
 
       // remove the tag from the core's map
-      sourceDataTags.remove(dataTagRemoveChange.getDataTagId());
+      equipmentConfiguration.removeSourceDataTag(dataTagRemoveChange.getDataTagId());
 
     } else {
       log.debug("onDataTagRemove - The data tag with id " + dataTagRemoveChange.getDataTagId() + " to remove was not found" + " in equipment with id " +
@@ -525,14 +525,14 @@ public class ConfigurationController {
     }
 
     long dataTagId = dataTagUpdateChange.getDataTagId();
-    Map<Long, SourceDataTag> sourceDataTags = getSourceDataTags(equipmentId);
-    if (sourceDataTags == null) {
+    EquipmentConfiguration equipmentConfiguration = getDataTagEquipmentConfiguration(equipmentId);
+    if (equipmentConfiguration == null) {
       changeReport.appendError("Equipment does not exists: " + equipmentId);
       return changeReport;
     }
-    if (sourceDataTags.containsKey(dataTagId)) {
+    if (equipmentConfiguration.hasSourceDataTag(dataTagId)) {
       try {
-        SourceDataTag sourceDataTag = sourceDataTags.get(dataTagId);
+        SourceDataTag sourceDataTag = equipmentConfiguration.getDataTags().get(dataTagId);
         SourceDataTag oldSourceDataTag = sourceDataTag.clone();
         synchronized (sourceDataTag) {
           configurationUpdater.updateDataTag(dataTagUpdateChange, sourceDataTag);
@@ -540,11 +540,14 @@ public class ConfigurationController {
         try {
           sourceDataTag.validate();
         } catch (ConfigurationException e) {
-          sourceDataTags.put(dataTagId, oldSourceDataTag);
+          equipmentConfiguration.putSourceDataTag(oldSourceDataTag);
           changeReport.appendError("Error validating data tag");
           changeReport.appendError(StackTraceHelper.getStackTrace(e));
           return changeReport;
         }
+        if (DataTagChangerHelper.hasNameChanged(sourceDataTag, oldSourceDataTag)) {
+          equipmentConfiguration.updateSourceDataTagName(sourceDataTag, oldSourceDataTag.getName());
+        }
         changeReport.appendInfo("Core Data Tag update successfully applied.");
         IDataTagChanger dataTagChanger = dataTagChangers.get(equipmentId);
         dataTagChanger.onUpdateDataTag(sourceDataTag, oldSourceDataTag, changeReport);
@@ -559,7 +562,7 @@ public class ConfigurationController {
           }
           changeReport.appendInfo("Change fully applied.");
         } else {
-          sourceDataTags.put(dataTagId, oldSourceDataTag);
+          equipmentConfiguration.putSourceDataTag(oldSourceDataTag);
         }
       } catch (Exception e) {
         changeReport.appendError("Error while applying data tag changes\n" + StackTraceHelper.getStackTrace(e));
@@ -863,31 +866,29 @@ public class ConfigurationController {
   }
 
   /**
-   * Gets the source data tags for a provided equipment id.
+   * Gets the equipment configuration holding the source data tags for a
+   * provided equipment id.
    *
-   * @param equipmentId The equipment id to get the source command tags.
+   * @param equipmentId The equipment or SubEquipment id to get the source data tags.
    *
-   * @return The SourceDataTags or null if the equipment does not exist.
+   * @return The equipment configuration or null if the equipment does not exist.
    */
-  private Map<Long, SourceDataTag> getSourceDataTags(final Long equipmentId) {
+  private EquipmentConfiguration getDataTagEquipmentConfiguration(final Long equipmentId) {
     ProcessConfiguration processConfiguration = ProcessConfigurationHolder.getInstance();
     Map<Long, EquipmentConfiguration> equipmentConfigurations = processConfiguration.getEquipmentConfigurations();
-    Map<Long, SourceDataTag> sourceDataTags = null;
 
     EquipmentConfiguration equipmentConfiguration = equipmentConfigurations.get(equipmentId);
-    if (equipmentConfiguration != null) {
-      sourceDataTags = equipmentConfiguration.getDataTags();
-    } else {
+    if (equipmentConfiguration == null) {
       // Try to find a SubEquipment that matches the given equipment ID
       for (EquipmentConfiguration configuration : processConfiguration.getEquipmentConfigurations().values()) {
         if (configuration.getSubEquipmentConfigurations().containsKey(equipmentId)) {
           log.debug("Getting source data tags of equipment " + configuration.getId() + " which is parent of SubEquipment " + equipmentId);
-          sourceDataTags = configuration.getDataTags();
+          equipmentConfiguration = configuration;
         }
       }
     }
 
-    return sourceDataTags;
+    return equipmentConfiguration;
   }
 
   /**
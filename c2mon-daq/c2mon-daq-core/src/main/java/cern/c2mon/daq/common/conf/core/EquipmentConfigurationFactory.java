@@ -182,7 +182,7 @@ public class EquipmentConfigurationFactory extends XMLTagValueExtractor implemen
           log.warn("\tEquipment alive tag " + sourceDataTag.getId() + " is not configured as control tag! Please correct this in the configuration.");
         }
       }
-      equipmentConfiguration.getDataTags().put(sourceDataTag.getId(), sourceDataTag);
+      equipmentConfiguration.putSourceDataTag(sourceDataTag);
 
 //      // register tag in the ValueChangeMonitorEngine if needed
 //      if (sourceDataTag.hasValueCheckMonitor()) {
@@ -17,6 +17,8 @@
 package cern.c2mon.daq.common.impl;
 
 import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -217,6 +219,32 @@ public class EquipmentMessageSender implements ICoreDataTagChanger, IEquipmentMe
     }
   }
 
+  @Override
+  public int update(Map<Long, ValueUpdate> updates) {
+    // resolve all tags first, so that an unknown tag id does not leave the block half processed
+    Map<Long, SourceDataTag> tags = new HashMap<>();
+    for (Long tagId : updates.keySet()) {
+      tags.put(tagId, getTag(tagId));
+    }
+
+    int sent = 0;
+    Map<SourceDataTag, ValueUpdate> valueUpdates = new LinkedHashMap<>();
+    for (Map.Entry<Long, ValueUpdate> entry : updates.entrySet()) {
+      SourceDataTag sdt = tags.get(entry.getKey());
+      freshnessMonitor.reset(sdt);
+
+      if (isAliveTag(entry.getKey())) {
+        if (this.equipmentAliveSender.sendEquipmentAlive(sdt, entry.getValue())) {
+          sent++;
+        }
+      } else {
+        valueUpdates.put(sdt, entry.getValue());
+      }
+    }
+
+    return sent + this.equipmentSenderValid.update(valueUpdates);
+  }
+
   @Override
   public void update(String tagName, SourceDataTagQuality quality) {
     update(equipmentConfiguration.getSourceDataTagIdByName(tagName), quality);
@@ -16,16 +16,12 @@
  *****************************************************************************/
 package cern.c2mon.daq.common.impl;
 
-import static cern.c2mon.shared.common.type.TypeConverter.cast;
-import static cern.c2mon.shared.common.type.TypeConverter.getType;
-import static cern.c2mon.shared.common.type.TypeConverter.isKnownClass;
-import static cern.c2mon.shared.common.type.TypeConverter.isNumber;
 import static java.lang.String.format;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,6 +34,7 @@ import cern.c2mon.shared.common.datatag.*;
 import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
 import cern.c2mon.shared.common.filter.FilteredDataTagValue.FilterType;
 import cern.c2mon.shared.common.type.TypeConverter;
+import cern.c2mon.shared.common.type.ValueConverter;
 
 /**
  * This class is used to send valid messages to the server.
@@ -48,12 +45,6 @@ import cern.c2mon.shared.common.type.TypeConverter;
 @Slf4j
 class EquipmentSenderValid {
 
-  private static ObjectMapper mapper = new ObjectMapper();
-
-  static {
-    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-  }
-
   /**
    * The process message sender takes the messages actually send to the server.
    */
@@ -127,14 +118,55 @@ class EquipmentSenderValid {
     try {
       successfullySent = doUpdate(currentSourceDataTag, update);
     } catch (Exception ex) {
-      log.error("update - Unexpected exception caught for tag " + currentSourceDataTag.getId() + ", " + ex.getStackTrace(), ex);
-
-      SourceDataTagQuality quality = new SourceDataTagQuality(SourceDataTagQualityCode.UNKNOWN, "Could not send incoming valid source update to server: " + ex.getMessage());
-      this.equipmentSender.update(currentSourceDataTag.getId(), quality, update.getSourceTimestamp());
+      handleUpdateException(currentSourceDataTag, update, ex);
     }
     return successfullySent;
   }
 
+  /**
+   * Runs the checks of {@link #update(SourceDataTag, ValueUpdate)} over a block
+   * of updates, and sends all values which passed them to the server with a
+   * single call to the process message sender.
+   *
+   * @param updates The tag values to send, processed in the iteration order of the map.
+   * @return The number of values sent to the server.
+   */
+  public int update(final Map<SourceDataTag, ValueUpdate> updates) {
+    List<SourceDataTagValue> tagValues = new ArrayList<>(updates.size());
+    List<SourceDataTag> sentTags = new ArrayList<>(updates.size());
+
+    for (Map.Entry<SourceDataTag, ValueUpdate> entry : updates.entrySet()) {
+      try {
+        SourceDataTagValue tagValue = checkAndUpdate(entry.getKey(), entry.getValue());
+        if (tagValue != null) {
+          tagValues.add(tagValue);
+          sentTags.add(entry.getKey());
+        }
+      } catch (Exception ex) {
+        handleUpdateException(entry.getKey(), entry.getValue(), ex);
+      }
+    }
+
+    if (!tagValues.isEmpty()) {
+      try {
+        this.processMessageSender.addValues(tagValues);
+      } catch (InterruptedException e) {
+        log.error("Data for {} tags could not be sent and is lost!", tagValues.size());
+      }
+
+      // Checks if the dynamic TimeDeadband filter is enabled, Static disable and record it depending on the priority
+      sentTags.forEach(this.dynamicTimeDeadbandFilterer::recordTag);
+    }
+    return tagValues.size();
+  }
+
+  private void handleUpdateException(final SourceDataTag currentSourceDataTag, final ValueUpdate update, final Exception ex) {
+    log.error("update - Unexpected exception caught for tag " + currentSourceDataTag.getId() + ", " + ex.getStackTrace(), ex);
+
+    SourceDataTagQuality quality = new SourceDataTagQuality(SourceDataTagQualityCode.UNKNOWN, "Could not send incoming valid source update to server: " + ex.getMessage());
+    this.equipmentSender.update(currentSourceDataTag.getId(), quality, update.getSourceTimestamp());
+  }
+
 
   /**
    * Internal method to send only Tags with primitive Types to the server.
@@ -144,14 +176,41 @@ class EquipmentSenderValid {
    * False if the tag has been invalidated or filtered out.
    */
   private boolean doUpdate(final SourceDataTag currentSourceDataTag, final ValueUpdate update) {
+    SourceDataTagValue tagValue = checkAndUpdate(currentSourceDataTag, update);
+    if (tagValue == null) {
+      return false;
+    }
+
+    try {
+      this.processMessageSender.addValue(tagValue);
+    } catch (InterruptedException e) {
+      log.error("Data for tag #{} could not be sent and is lost!: {}", currentSourceDataTag.getId(), tagValue.toString());
+    }
+
+    // Checks if the dynamic TimeDeadband filter is enabled, Static disable and record it depending on the priority
+    this.dynamicTimeDeadbandFilterer.recordTag(currentSourceDataTag);
+
+    // no validation detected --> dataValue is okay return true
+    return true;
+  }
+
+  /**
+   * Runs the validation, filtering and time deadband checks on the update and
+   * applies it to the tag, if it passed them.
+   *
+   * @return The new tag value to send to the server, or <code>null</code> if
+   * the update has been invalidated, filtered out or passed to the time deadband scheduler.
+   */
+  private SourceDataTagValue checkAndUpdate(final SourceDataTag currentSourceDataTag, final ValueUpdate update) {
     // do a validation check on the new value:
     if (!checkValidation(currentSourceDataTag, update)) {
-      return false;
+      return null;
     }
 
     // cast the value to the defined dataType if the type is not 'ArbitraryObject':
-    if (isKnownClass(currentSourceDataTag.getDataType())) {
-      Object newValueCasted = cast(update.getValue(), currentSourceDataTag.getDataType());
+    ValueConverter converter = currentSourceDataTag.getValueConverter();
+    if (converter.isKnownType()) {
+      Object newValueCasted = converter.convert(update.getValue());
       if (newValueCasted != null) {
         update.setValue(newValueCasted);
       }
@@ -160,28 +219,17 @@ class EquipmentSenderValid {
     // do a filtering on the new value:
     if (!checkFiltering(currentSourceDataTag, update)) {
       log.trace("Value update for tag #{} was filtered out and has not been sent to server. Redundant or old value?: {}", currentSourceDataTag.getId(), update.toString());
-      return false;
+      return null;
     }
 
     // check if the new value is in a time deadband:
     if (!checkTimeDeadband(currentSourceDataTag, update)) {
       log.trace("Value update for tag #{} was passed to the static time deadband scheduler and has not (yet) been sent to server: {}", currentSourceDataTag.getId(), update.toString());
-      return false;
+      return null;
     }
 
     log.trace("All checks and filters are fine for for tag update of #{}. Sending update to server: {}", currentSourceDataTag.getId(), update.toString());
-    SourceDataTagValue tagValue = currentSourceDataTag.update(update);
-    try {
-      this.processMessageSender.addValue(tagValue);
-    } catch (InterruptedException e) {
-      log.error("Data for tag #{} could not be sent and is lost!: {}", currentSourceDataTag.getId(), tagValue.toString());
-    }
-
-    // Checks if the dynamic TimeDeadband filter is enabled, Static disable and record it depending on the priority
-    this.dynamicTimeDeadbandFilterer.recordTag(currentSourceDataTag);
-
-    // no validation detected --> dataValue is okay return true
-    return true;
+    return currentSourceDataTag.update(update);
   }
 
 
@@ -204,7 +252,7 @@ class EquipmentSenderValid {
     
     if (!isValid) {
       log.error("Value update for tag #{} could not be sent because it did not pass the validation. Please check the configuration. Data is lost!: {}", currentSourceDataTag.getId(), update.toString());
-    } else if (isNumber(currentSourceDataTag.getDataType()) && !isInRange(currentSourceDataTag, update)) {
+    } else if (currentSourceDataTag.getValueConverter().isNumber() && !isInRange(currentSourceDataTag, update)) {
       // if the dataType is a number check if the value is convertible and in the defined range.  
       isValid =  false;
     }
@@ -335,7 +383,8 @@ class EquipmentSenderValid {
   /**
    * Checks if the new value is convertible. That is the case if the defined class of the value is known by the daq
    * and the {@link TypeConverter} can cast the value.
-   * If the {@link TypeConverter} cannot cast the value check also if the value can be instantiated through jackson.
+   * If the {@link TypeConverter} cannot cast the value check also if the value can be instantiated through the tag's
+   * {@link ValueConverter}.
    * <p>
    * If both fail, the value is invalid and the method returns false.
    *
@@ -347,9 +396,10 @@ class EquipmentSenderValid {
   private boolean isConvertible(final SourceDataTag currentSourceDataTag, final ValueUpdate update) {
     boolean result = false;
 
-    if ((isKnownClass(currentSourceDataTag.getDataType())
+    ValueConverter converter = currentSourceDataTag.getValueConverter();
+    if ((converter.isKnownType()
         && !(this.dataTagValueValidator.isConvertible(currentSourceDataTag, update.getValue())
-        || isInstantiable(update.getValue(), getType(currentSourceDataTag.getDataType()))))) {
+        || converter.isInstantiable(update.getValue())))) {
       String description = format(
           "\tconvertible : The value (%s) received for tag[%d] and the tag's type (" + currentSourceDataTag.getDataType() + ") are not compatible.",
           update.getValue(), currentSourceDataTag.getId());
@@ -398,17 +448,4 @@ class EquipmentSenderValid {
     }
     return result;
   }
-
-
-  private static boolean isInstantiable(Object tagValue, final Class<?> dataType) {
-    return instantiate(tagValue, dataType) != null;
-  }
-
-  private static Object instantiate(Object tagValue, final Class<?> dataType) {
-    try {
-      return mapper.readValue(mapper.writeValueAsString(tagValue), dataType);
-    } catch (IOException e) {
-      return null;
-    }
-  }
 }
@@ -20,7 +20,6 @@ import static java.lang.String.format;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -57,9 +56,9 @@ class EquipmentTimeDeadband {
   private IProcessMessageSender processMessageSender;
 
   /**
-   * This is the time deadband scheduler timer where all schedulers are scheduled on.
+   * This is the time deadband scheduler wheel where all schedulers are scheduled on.
    */
-  private static Timer timeDeadbandTimer = new Timer("Time deadband timer", true);
+  private static TimeDeadbandWheel timeDeadbandWheel = new TimeDeadbandWheel("Time deadband timer", TimeDeadbandWheel.DEFAULT_TICK);
 
   /**
    * The dynamic time dead band filterer for recording the current source data tag
@@ -97,7 +96,7 @@ class EquipmentTimeDeadband {
     if (currentTag.getAddress().isTimeDeadbandEnabled() ) {
       log.debug("createSDTtimeDeadbandScheduler - creating time-deadband scheduler for tag #{}", currentTag.getId());
       this.sdtTimeDeadbandSchedulers.put(currentTag.getId(), new SDTTimeDeadbandScheduler(currentTag, this.processMessageSender,
-      this.equipmentSenderFilterModule, timeDeadbandTimer, this.dataTagValueFilter, this.dynamicTimeDeadbandFilterer));
+      this.equipmentSenderFilterModule, timeDeadbandWheel, this.dataTagValueFilter, this.dynamicTimeDeadbandFilterer));
     }
   }
 
@@ -244,6 +243,13 @@ class EquipmentTimeDeadband {
     }
   }
 
+  /**
+   * @return the wheel on which the time deadband schedulers of all equipment are scheduled
+   */
+  static TimeDeadbandWheel getTimeDeadbandWheel() {
+    return timeDeadbandWheel;
+  }
+
   /**
    * @return sdtTimeDeadbandSchedulers
    */
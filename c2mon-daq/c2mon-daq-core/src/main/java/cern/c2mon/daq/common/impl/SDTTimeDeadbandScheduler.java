@@ -16,9 +16,6 @@
  *****************************************************************************/
 package cern.c2mon.daq.common.impl;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import lombok.extern.slf4j.Slf4j;
 
 import cern.c2mon.daq.common.IDynamicTimeDeadbandFilterer;
@@ -33,9 +30,12 @@ import cern.c2mon.shared.common.type.TypeConverter;
 /**
  * The SourceDataTagTimeDeadbandScheduler class models threads responsible for
  * handling source time deadband filtering. It will work with the Static TimeDeadband
+ * <p>
+ * The schedulers are run periodically by a {@link TimeDeadbandWheel}, which
+ * sends the values of all schedulers due at the same time in one batch.
  */
 @Slf4j
-public class SDTTimeDeadbandScheduler extends TimerTask {
+public class SDTTimeDeadbandScheduler implements Runnable {
 
   /**
    * The process message sender takes the messages actually send to the server.
@@ -68,9 +68,9 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
   private DataTagValueFilter dataTagValueFilter;
 
   /**
-   * The timer to schedule this task on
+   * The wheel to schedule this task on
    */
-  private Timer timeDeadbandTimer;
+  private TimeDeadbandWheel timeDeadbandWheel;
 
   /**
    * The dynamic time dead band filterer for recording the current source data tag
@@ -93,14 +93,14 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
    * @param sourceDataTag               The source data tag controlled by this object.
    * @param processMessageSender        Takes the messages sent to the server
    * @param equipmentSenderValid        Used to send messages to the server.
-   * @param timeDeadbandTimer           The timer to schedule this task on.
+   * @param timeDeadbandWheel           The wheel to schedule this task on.
    * @param valueChecker                Value checker object to avoid repeated values.
    * @param dynamicTimeDeadbandFilterer The dynamic time dead band filterer for recording the current source data tag
    */
   public SDTTimeDeadbandScheduler(final SourceDataTag sourceDataTag,
                                   final IProcessMessageSender processMessageSender,
                                   final EquipmentSenderFilterModule equipmentSenderFilterModule,
-                                  final Timer timeDeadbandTimer,
+                                  final TimeDeadbandWheel timeDeadbandWheel,
                                   final DataTagValueFilter dataTagValueFilter,
                                   final IDynamicTimeDeadbandFilterer dynamicTimeDeadbandFilterer) {
     this.dataTagValueFilter = dataTagValueFilter;
@@ -108,7 +108,7 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
     this.equipmentSenderFilterModule = equipmentSenderFilterModule;
     this.dynamicTimeDeadbandFilterer = dynamicTimeDeadbandFilterer;
 
-    this.timeDeadbandTimer = timeDeadbandTimer;
+    this.timeDeadbandWheel = timeDeadbandWheel;
 
     log.debug("creating time-deadband scheduler for tag : " + sourceDataTag.getId());
 
@@ -122,11 +122,25 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
     // create timers
     if (sourceDataTag.getAddress().isTimeDeadbandEnabled()) {
       log.debug("\tscheduler[{}] : setting scheduling interval to : {} miliseconds", this.sourceDataTag.getId(), this.sourceDataTag.getAddress().getTimeDeadband());
-      this.timeDeadbandTimer.scheduleAtFixedRate(this, 0, this.sourceDataTag.getAddress().getTimeDeadband());
+      this.timeDeadbandWheel.schedule(this, System.currentTimeMillis(), this.sourceDataTag.getAddress().getTimeDeadband());
       log.debug("\tscheduler[{}] : setting scheduled", this.sourceDataTag.getId());
     }
   }
 
+  /**
+   * Removes this scheduler from the time deadband wheel.
+   */
+  public void cancel() {
+    this.timeDeadbandWheel.cancel(this);
+  }
+
+  /**
+   * @return the process message sender to which the values of this scheduler are sent
+   */
+  IProcessMessageSender getProcessMessageSender() {
+    return this.processMessageSender;
+  }
+
   /**
    * flushes and resets the scheduler
    */
@@ -150,11 +164,31 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
   }
 
   /**
-   * The run method called from the timer.
+   * Sends the current value of the tag to the server, if a new value was
+   * scheduled for sending since the last run and it is not filtered out.
    */
   @Override
   public void run() {
-    log.debug("scheduler[{}] : entering run()..", this.sourceDataTag.getId());
+    SourceDataTagValue currentSDValue = pollValueToSend();
+    if (currentSDValue != null) {
+      try {
+        this.processMessageSender.addValue(currentSDValue);
+      } catch (Exception exception) {
+        log.error("Critical error in scheduler for tag #{}", this.sourceDataTag.getId(), exception);
+      }
+    }
+  }
+
+  /**
+   * Checks the value scheduled for sending against the last value sent. Filtered
+   * values are sent to the filter module.
+   *
+   * @return the value to send to the server, or <code>null</code> if there is
+   *         no new value or if it was filtered out
+   */
+  SourceDataTagValue pollValueToSend() {
+    log.debug("scheduler[{}] : entering pollValueToSend()..", this.sourceDataTag.getId());
+    SourceDataTagValue valueToSend = null;
 
     try {
       synchronized (this.sourceDataTag) {
@@ -187,7 +221,7 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
 
             currentSDValue.setValueDescription("Time-deadband filtering enabled. " + currentSDValue.getValueDescription());
             // Add the value sent
-            this.processMessageSender.addValue(currentSDValue);
+            valueToSend = currentSDValue;
 
             log.debug("\tscheduler[{}] : sending value: {}", this.sourceDataTag.getId(), currentSDValue.getValue());
           } else {
@@ -217,7 +251,8 @@ public class SDTTimeDeadbandScheduler extends TimerTask {
     } catch (Exception exception) {
       log.error("Critical error in scheduler for tag #{}", this.sourceDataTag.getId(), exception);
     }
-    log.debug("scheduler[#{}] : leaving run()", this.sourceDataTag.getId());
+    log.debug("scheduler[#{}] : leaving pollValueToSend()", this.sourceDataTag.getId());
+    return valueToSend;
   }
 
 }
@@ -0,0 +1,355 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.daq.common.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+
+/**
+ * Hashed timing wheel on which all {@link SDTTimeDeadbandScheduler}s are
+ * scheduled. A single daemon thread advances the wheel every tick, runs all
+ * due schedulers in one pass and hands the values to send over to the
+ * {@link IProcessMessageSender} as one batch.
+ * <p>
+ * Scheduling and cancelling a scheduler are O(1) operations, so the cost of a
+ * tick only depends on the number of schedulers hashed into the elapsed slots,
+ * and not on the total number of time-deadband filtered tags.
+ * <p>
+ * The wheel keeps track of the scheduling lag, i.e. the delay between the
+ * moment a scheduler was due and the moment it actually ran.
+ */
+@Slf4j
+public class TimeDeadbandWheel {
+
+  /**
+   * Default duration of a tick in milliseconds
+   */
+  public static final long DEFAULT_TICK = 10L;
+
+  /**
+   * Number of slots, must be a power of two
+   */
+  private static final int WHEEL_SIZE = 1024;
+
+  /**
+   * Lag (in ms) above which a warning is logged
+   */
+  private static final long LAG_WARNING_THRESHOLD = 1000L;
+
+  /**
+   * Minimal interval (in ms) between two lag warnings
+   */
+  private static final long LAG_WARNING_INTERVAL = 60_000L;
+
+  private final String name;
+
+  private final long tick;
+
+  private final boolean startThread;
+
+  /**
+   * Head of the doubly-linked entry list of each slot
+   */
+  private final Entry[] slots = new Entry[WHEEL_SIZE];
+
+  /**
+   * All scheduled entries
+   */
+  private final Map<SDTTimeDeadbandScheduler, Entry> entries = new HashMap<>();
+
+  /**
+   * Last processed tick
+   */
+  private long cursor;
+
+  private Thread thread;
+
+  private volatile long lastSchedulingLag;
+
+  private volatile long maxSchedulingLag;
+
+  private final AtomicLong flushCount = new AtomicLong();
+
+  private final AtomicLong flushedValueCount = new AtomicLong();
+
+  private long lastLagWarning;
+
+  /**
+   * Creates a new wheel. The wheel thread is started with the first
+   * scheduled task.
+   *
+   * @param name the name of the wheel thread
+   * @param tick the duration of a tick in milliseconds
+   */
+  public TimeDeadbandWheel(final String name, final long tick) {
+    this(name, tick, true);
+  }
+
+  /**
+   * @param startThread if <code>false</code>, the wheel is only advanced by
+   *                    explicit calls to {@link #advance(long)}
+   */
+  TimeDeadbandWheel(final String name, final long tick, final boolean startThread) {
+    if (tick <= 0) {
+      throw new IllegalArgumentException("The tick must be positive: " + tick);
+    }
+    this.name = name;
+    this.tick = tick;
+    this.startThread = startThread;
+    this.cursor = System.currentTimeMillis() / tick - 1;
+  }
+
+  /**
+   * Schedules the given scheduler to run at the given time, and then
+   * repeatedly at its time-deadband interval until it is cancelled. If the
+   * scheduler was already scheduled, its previous schedule is replaced.
+   *
+   * @param scheduler the scheduler to run
+   * @param firstRun  the time (in ms) of the first run
+   * @param period    the time (in ms) between two runs
+   */
+  public synchronized void schedule(final SDTTimeDeadbandScheduler scheduler, final long firstRun, final long period) {
+    Entry entry = entries.get(scheduler);
+    if (entry == null) {
+      entry = new Entry(scheduler, period);
+      entries.put(scheduler, entry);
+    } else {
+      unlink(entry);
+      entry.period = period;
+    }
+    link(entry, firstRun);
+
+    if (startThread && (thread == null || !thread.isAlive())) {
+      thread = new Thread(this::runWheel, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Removes the given scheduler from the wheel. Does nothing if it is not
+   * scheduled.
+   *
+   * @param scheduler the scheduler to cancel
+   */
+  public synchronized void cancel(final SDTTimeDeadbandScheduler scheduler) {
+    Entry entry = entries.remove(scheduler);
+    if (entry != null) {
+      unlink(entry);
+    }
+  }
+
+  /**
+   * @return the number of scheduled schedulers
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the scheduling lag (in ms) of the last tick which ran schedulers
+   */
+  public long getLastSchedulingLag() {
+    return lastSchedulingLag;
+  }
+
+  /**
+   * @return the highest scheduling lag (in ms) observed so far
+   */
+  public long getMaxSchedulingLag() {
+    return maxSchedulingLag;
+  }
+
+  /**
+   * @return the number of batches handed over to the process message senders
+   */
+  public long getFlushCount() {
+    return flushCount.get();
+  }
+
+  /**
+   * @return the total number of values handed over to the process message senders
+   */
+  public long getFlushedValueCount() {
+    return flushedValueCount.get();
+  }
+
+  private void runWheel() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(tick - System.currentTimeMillis() % tick);
+      } catch (InterruptedException e) {
+        log.warn("Time deadband wheel interrupted - stopping the time deadband filtering");
+        Thread.currentThread().interrupt();
+        break;
+      }
+      try {
+        advance(System.currentTimeMillis());
+      } catch (Exception e) {
+        log.error("Unexpected exception while running the time deadband schedulers", e);
+      }
+    }
+  }
+
+  /**
+   * Runs all schedulers due at the given time and sends the collected values
+   * in one batch per process message sender.
+   *
+   * @param now the current time in ms
+   */
+  void advance(final long now) {
+    List<Entry> due = pollDue(now);
+    if (due.isEmpty()) {
+      return;
+    }
+
+    Map<IProcessMessageSender, List<SourceDataTagValue>> batches = new LinkedHashMap<>();
+    long lag = 0;
+    for (Entry entry : due) {
+      lag = Math.max(lag, now - entry.deadline);
+      SourceDataTagValue value = entry.scheduler.pollValueToSend();
+      if (value != null) {
+        batches.computeIfAbsent(entry.scheduler.getProcessMessageSender(), sender -> new ArrayList<>()).add(value);
+      }
+      reschedule(entry, now);
+    }
+
+    for (Map.Entry<IProcessMessageSender, List<SourceDataTagValue>> batch : batches.entrySet()) {
+      try {
+        batch.getKey().addValues(batch.getValue());
+        flushCount.incrementAndGet();
+        flushedValueCount.addAndGet(batch.getValue().size());
+      } catch (InterruptedException e) {
+        log.error("Interrupted while sending {} time deadband filtered values - the values are lost", batch.getValue().size());
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        log.error("Unexpected exception while sending {} time deadband filtered values - the values are lost", batch.getValue().size(), e);
+      }
+    }
+
+    recordLag(now, lag);
+  }
+
+  private void recordLag(final long now, final long lag) {
+    lastSchedulingLag = lag;
+    if (lag > maxSchedulingLag) {
+      maxSchedulingLag = lag;
+    }
+    if (lag > LAG_WARNING_THRESHOLD && now - lastLagWarning > LAG_WARNING_INTERVAL) {
+      lastLagWarning = now;
+      log.warn("Time deadband schedulers are running {} ms late ({} scheduled tags)", lag, size());
+    }
+  }
+
+  /**
+   * Unlinks and returns all entries due at the given time.
+   */
+  private synchronized List<Entry> pollDue(final long now) {
+    List<Entry> due = new ArrayList<>();
+    long nowTick = now / tick;
+    long ticks = Math.min(nowTick - cursor, WHEEL_SIZE);
+    for (long i = 1; i <= ticks; i++) {
+      Entry entry = slots[slot(cursor + i)];
+      while (entry != null) {
+        Entry next = entry.next;
+        if (entry.tick <= nowTick) {
+          unlink(entry);
+          due.add(entry);
+        }
+        entry = next;
+      }
+    }
+    if (nowTick > cursor) {
+      cursor = nowTick;
+    }
+    return due;
+  }
+
+  /**
+   * Schedules the next run of an entry which just ran, unless it was
+   * cancelled or rescheduled in the meantime. Runs which were missed because
+   * of scheduling lag are skipped.
+   */
+  private synchronized void reschedule(final Entry entry, final long now) {
+    if (entries.get(entry.scheduler) != entry || entry.linked) {
+      return;
+    }
+    long next = entry.deadline + entry.period;
+    if (next <= now) {
+      next = now + entry.period;
+    }
+    link(entry, next);
+  }
+
+  private void link(final Entry entry, final long deadline) {
+    entry.deadline = deadline;
+    entry.tick = Math.max(deadline / tick, cursor + 1);
+    int slot = slot(entry.tick);
+    entry.prev = null;
+    entry.next = slots[slot];
+    if (entry.next != null) {
+      entry.next.prev = entry;
+    }
+    slots[slot] = entry;
+    entry.linked = true;
+  }
+
+  private void unlink(final Entry entry) {
+    if (!entry.linked) {
+      return;
+    }
+    if (entry.prev == null) {
+      slots[slot(entry.tick)] = entry.next;
+    } else {
+      entry.prev.next = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.prev = entry.prev;
+    }
+    entry.prev = null;
+    entry.next = null;
+    entry.linked = false;
+  }
+
+  private static int slot(final long tick) {
+    return (int) (tick & (WHEEL_SIZE - 1));
+  }
+
+  private static final class Entry {
+    private final SDTTimeDeadbandScheduler scheduler;
+    private long period;
+    private long deadline;
+    private long tick;
+    private boolean linked;
+    private Entry prev;
+    private Entry next;
+
+    private Entry(final SDTTimeDeadbandScheduler scheduler, final long period) {
+      this.scheduler = scheduler;
+      this.period = period;
+    }
+  }
+}
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.daq.common.messaging;
 
+import java.util.Collection;
+
 import cern.c2mon.shared.common.datatag.SourceDataTagValue;
 import cern.c2mon.shared.util.buffer.SynchroBufferQueue;
 
@@ -41,6 +43,17 @@ public interface IProcessMessageSender {
      */
     void addValue(SourceDataTagValue dataTagValue) throws InterruptedException;
 
+    /**
+     * Adds a batch of SourceDataTagValue objects, with the same semantics as
+     * {@link #addValue(SourceDataTagValue)} for each of them. The values are
+     * put into the buffers with one call per buffer.
+     *
+     * @param dataTagValues the SourceDataTagValue objects
+     * @exception InterruptedException Thrown in case the {@link SynchroBufferQueue}
+     *            is interrupted while waiting for the put to return
+     */
+    void addValues(Collection<SourceDataTagValue> dataTagValues) throws InterruptedException;
+
     /**
      * Sends a communication fault tag message.
      * @param tagId The tag ID to use.
@@ -17,7 +17,11 @@
 package cern.c2mon.daq.common.messaging.impl;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.jms.JMSException;
 
@@ -164,6 +168,31 @@ public class ProcessMessageSender implements IProcessMessageSender {
     }
   }
 
+  @Override
+  public final void addValues(final Collection<SourceDataTagValue> dataTagValues) throws InterruptedException {
+    Map<QosSettings, List<SourceDataTagValue>> buffered = new HashMap<>();
+    for (SourceDataTagValue dataTagValue : dataTagValues) {
+      if (dataTagValue.getPriority() == JmsMessagePriority.PRIORITY_HIGHEST.getPriority()) {
+        distributeValue(dataTagValue);
+      } else {
+        QosSettings settings = QosSettingsFactory.extractQosSettings(dataTagValue);
+        buffered.computeIfAbsent(settings, s -> new ArrayList<>()).add(dataTagValue);
+      }
+    }
+    for (Map.Entry<QosSettings, List<SourceDataTagValue>> entry : buffered.entrySet()) {
+      synchroBufferFactory.getSynchroBuffer(entry.getKey()).addAll(entry.getValue());
+    }
+  }
+
+  /**
+   * @return the number of tag updates which were not sent because a newer
+   *         update of the same tag replaced them in a conflating buffer
+   * @see DaqProperties.Jms#isConflatePriorityLow()
+   */
+  public long getConflatedUpdateCount() {
+    return synchroBufferFactory == null ? 0 : synchroBufferFactory.getConflatedCount();
+  }
+
   /**
    * Connects to all the registered brokers (individual JMSSenders should
    * implement this on separate threads if the connection is unessential).
@@ -28,6 +28,7 @@ import cern.c2mon.daq.config.DaqProperties;
 import cern.c2mon.shared.common.datatag.*;
 import cern.c2mon.shared.common.datatag.util.JmsMessagePriority;
 import cern.c2mon.shared.common.process.ProcessConfiguration;
+import cern.c2mon.shared.util.buffer.ConflatingSynchroBufferQueue;
 import cern.c2mon.shared.util.buffer.SynchroBufferQueue;
 
 /**
@@ -69,31 +70,53 @@ class SynchroBufferFactory {
    * @param settings Quality-of-Service JMS settings
    */
   private void createSynchroBufferQueue(QosSettings settings) {
-    SynchroBufferQueue<SourceDataTagValue> buffer = new SynchroBufferQueue<>();
-    synchroBufferMap.put(settings, buffer);
     String name = "LOW-MSG-BUFFER-";
     long timeout = daqProperties.getJms().getMaxMessageDelayPriorityLow();
+    boolean conflate = daqProperties.getJms().isConflatePriorityLow();
     
     switch (JmsMessagePriority.getJmsMessagePriority(settings.getPriority())) {
       case PRIORITY_HIGH:
         timeout = daqProperties.getJms().getMaxMessageDelayPriorityHigh();
+        conflate = daqProperties.getJms().isConflatePriorityHigh();
         name = "HIGH-MSG-BUFFER-";
         break;
       case PRIORITY_MEDIUM:
         timeout = daqProperties.getJms().getMaxMessageDelayPriorityMedium();
+        conflate = daqProperties.getJms().isConflatePriorityMedium();
         name = "MEDIUM-MSG-BUFFER-";
         break;
       case PRIORITY_LOW:
         timeout = daqProperties.getJms().getMaxMessageDelayPriorityLow();
+        conflate = daqProperties.getJms().isConflatePriorityLow();
         name = "LOW-MSG-BUFFER-";
         break;
       default:
         log.warn("Got unsupported JMS priority: {}. Please check the DAQ configuration. Will use PRIORITY_LOW", settings.getPriority());
         break;
     }
+    
+    SynchroBufferQueue<SourceDataTagValue> buffer;
+    if (conflate) {
+      log.info("Conflating tag updates of buffer {}", name + settings.getTimeToLive());
+      buffer = new ConflatingSynchroBufferQueue<Long, SourceDataTagValue>(SourceDataTagValue::getId);
+    } else {
+      buffer = new SynchroBufferQueue<>();
+    }
+    synchroBufferMap.put(settings, buffer);
     startMessageConsumer(name + settings.getTimeToLive(), buffer, timeout);
   }
   
+  /**
+   * @return the total number of tag updates which were replaced by a newer
+   *         update of the same tag before being sent, over all conflating buffers
+   */
+  synchronized long getConflatedCount() {
+    return synchroBufferMap.values().stream()
+        .filter(buffer -> buffer instanceof ConflatingSynchroBufferQueue)
+        .mapToLong(buffer -> ((ConflatingSynchroBufferQueue<?, ?>) buffer).getConflatedCount())
+        .sum();
+  }
+  
   private void startMessageConsumer(String name, SynchroBufferQueue<SourceDataTagValue> buffer, long timeout) {
     Thread thread = new Thread(() ->  {
       List<SourceDataTagValue> events;
@@ -23,6 +23,7 @@ import lombok.Data;
 import cern.c2mon.shared.common.config.CommonJmsProperties;
 import cern.c2mon.shared.common.datatag.DataTagAddress;
 import cern.c2mon.shared.daq.config.DaqJmsProperties;
+import cern.c2mon.shared.daq.datatag.DataTagValueUpdateConverter;
 
 /**
  * @author Justin Lewis Salmon
@@ -101,6 +102,14 @@ public class DaqProperties {
      */
     private int maxMessageFrameSize = 1000;
 
+    /**
+     * Encoding of the tag update messages sent to the server. Possible values are:
+     *
+     * JSON:   JSON text messages (default), understood by all server versions
+     * BINARY: compact binary messages, requires a server supporting them
+     */
+    private DataTagValueUpdateConverter.Encoding updateEncoding = DataTagValueUpdateConverter.Encoding.JSON;
+
     /**
      * Interval in milliseconds at which High-Priority messages are to be sent to the server, if
      * there are tag updates to be processed and {@link #maxMessageFrameSize} is not reached.
@@ -130,6 +139,33 @@ public class DaqProperties {
      * @see DataTagAddress#PRIORITY_LOW
      */
     private long maxMessageDelayPriorityLow = 1000L;
+
+    /**
+     * If enabled, High-Priority tag updates are conflated: only the latest
+     * value of each tag is sent within the {@link #maxMessageDelayPriorityHigh}
+     * window. Updates of distinct tags are sent in their order of arrival.
+     * <p>
+     * Default is false
+     */
+    private boolean conflatePriorityHigh = false;
+
+    /**
+     * If enabled, Medium-Priority tag updates are conflated: only the latest
+     * value of each tag is sent within the {@link #maxMessageDelayPriorityMedium}
+     * window. Updates of distinct tags are sent in their order of arrival.
+     * <p>
+     * Default is false
+     */
+    private boolean conflatePriorityMedium = false;
+
+    /**
+     * If enabled, Low-Priority tag updates are conflated: only the latest
+     * value of each tag is sent within the {@link #maxMessageDelayPriorityLow}
+     * window. Updates of distinct tags are sent in their order of arrival.
+     * <p>
+     * Default is false
+     */
+    private boolean conflatePriorityLow = false;
   }
 
   /**
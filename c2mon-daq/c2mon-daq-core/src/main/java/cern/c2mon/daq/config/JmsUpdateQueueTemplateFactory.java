@@ -37,6 +37,7 @@ import cern.c2mon.shared.daq.datatag.DataTagValueUpdateConverter;
 public final class JmsUpdateQueueTemplateFactory {
   private final ConnectionFactory connectionFactory;
   private final Destination destination;
+  private final DataTagValueUpdateConverter.Encoding encoding;
   private final Map<QosSettings, JmsTemplate> jmsTemplateMap = new HashMap<>();
   
   /**
@@ -47,6 +48,7 @@ public final class JmsUpdateQueueTemplateFactory {
   public JmsUpdateQueueTemplateFactory(ConnectionFactory connectionFactory, DaqProperties properties) {
     this.connectionFactory = connectionFactory;
     destination = new ActiveMQQueue(properties.getJms().getQueuePrefix() + ".update." + properties.getName());
+    encoding = properties.getJms().getUpdateEncoding();
   }
   
   /**
@@ -70,7 +72,7 @@ public final class JmsUpdateQueueTemplateFactory {
     JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
     jmsTemplate.setDefaultDestination(destination);
     jmsTemplate.setQosSettings(settings);
-    jmsTemplate.setMessageConverter(new DataTagValueUpdateConverter());
+    jmsTemplate.setMessageConverter(new DataTagValueUpdateConverter(encoding));
     jmsTemplateMap.put(settings, jmsTemplate);
   }
 }
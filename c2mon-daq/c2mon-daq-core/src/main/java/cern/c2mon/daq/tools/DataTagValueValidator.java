@@ -18,10 +18,9 @@ package cern.c2mon.daq.tools;
 
 import cern.c2mon.shared.common.datatag.SourceDataTag;
 import cern.c2mon.shared.common.type.TypeConverter;
+import cern.c2mon.shared.common.type.ValueConverter;
 import lombok.extern.slf4j.Slf4j;
 
-import static cern.c2mon.shared.common.type.TypeConverter.getType;
-
 /**
  * Class with all possible validations for Data Tag Values
  *
@@ -57,12 +56,13 @@ public class DataTagValueValidator {
 
     boolean isInRange = true;
     Comparable convertedValue;
-    setDataTypeOfRangeValue(sdt);
+    ValueConverter converter = sdt.getValueConverter();
+    setDataTypeOfRangeValue(sdt, converter.getType());
 
     if (sdt.getMinValue() != null) {
       // Convert value before comparing (we assume if we get here the value is
       // convertible)
-      convertedValue = (Comparable) TypeConverter.cast(value, sdt.getDataType());
+      convertedValue = (Comparable) converter.convert(value);
       if (compare(sdt.getMinValue(), convertedValue) > 0) {
         log.trace("\tisInRange - out of range : " + convertedValue
             + " is less than the authorized minimum value " + sdt.getMinValue());
@@ -74,7 +74,7 @@ public class DataTagValueValidator {
       if (sdt.getMaxValue() != null) {
         // Convert value before comparing (we assume if we get here the value is
         // convertible)
-        convertedValue = (Comparable) TypeConverter.cast(value, sdt.getDataType());
+        convertedValue = (Comparable) converter.convert(value);
         if (compare(sdt.getMaxValue(), convertedValue) < 0) {
           log.trace("\tisInRange - out of range : " + convertedValue
               + " is greater than the authorized maximum value " + sdt.getMaxValue());
@@ -87,9 +87,7 @@ public class DataTagValueValidator {
     return isInRange;
   }
 
-  private void setDataTypeOfRangeValue(SourceDataTag sdt) {
-    Class<?> dataType = getType(sdt.getDataType());
-
+  private void setDataTypeOfRangeValue(SourceDataTag sdt, Class<?> dataType) {
     if (sdt.getMinValue() != null && !sdt.getMinValue().getClass().equals(dataType)) {
       sdt.setMinValue((Number) TypeConverter.castToType(sdt.getMinValue(), dataType));
     }
@@ -133,6 +131,6 @@ public class DataTagValueValidator {
    */
   public boolean isConvertible(final SourceDataTag tag, final Object tagValue) {
     log.trace("isConvertible - Tag #" + tag.getId() + " casting " + tagValue + " to " + tag.getDataType());
-    return TypeConverter.isConvertible(tagValue, tag.getDataType());
+    return tag.getValueConverter().isConvertible(tagValue);
   }
 }
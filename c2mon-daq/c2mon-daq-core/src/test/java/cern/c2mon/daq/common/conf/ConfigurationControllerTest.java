@@ -237,6 +237,39 @@ public class ConfigurationControllerTest {
         assertNotNull(report.getInfoMessage());
     }
 
+    @Test
+    public void testDataTagNameLookupFollowsReconfiguration() {
+        EquipmentConfiguration equipmentConfiguration = processConfiguration.getEquipmentConfigurations().get(
+                TEST_EQUIPMENT_ID);
+        assertEquals(TEST_DATA_TAG_ID, equipmentConfiguration.getSourceDataTagIdByName("DEFAULT").longValue());
+
+        SourceDataTag sourceDataTag = new SourceDataTag(2323L, "added", false);
+        DataTagAddress dataTagAddress = new DataTagAddress();
+        dataTagAddress.setHardwareAddress(new OPCHardwareAddressImpl("asd"));
+        sourceDataTag.setAddress(dataTagAddress);
+        configurationController.onDataTagAdd(new DataTagAdd(25L, TEST_EQUIPMENT_ID, sourceDataTag));
+        assertEquals(2323L, equipmentConfiguration.getSourceDataTagIdByName("Added").longValue());
+
+        DataTagUpdate dataTagUpdate = new DataTagUpdate(435L, TEST_DATA_TAG_ID, TEST_EQUIPMENT_ID);
+        dataTagUpdate.setName("renamed");
+        dataTagUpdate.setDataTagAddressUpdate(new DataTagAddressUpdate());
+        assertTrue(configurationController.onDataTagUpdate(dataTagUpdate).isSuccess());
+        assertEquals(TEST_DATA_TAG_ID, equipmentConfiguration.getSourceDataTagIdByName("RENAMED").longValue());
+        assertUnknownName(equipmentConfiguration, DEFAULT_NAME);
+
+        configurationController.onDataTagRemove(new DataTagRemove(3434L, TEST_DATA_TAG_ID, TEST_EQUIPMENT_ID));
+        assertUnknownName(equipmentConfiguration, "renamed");
+    }
+
+    private static void assertUnknownName(EquipmentConfiguration equipmentConfiguration, String name) {
+        try {
+            equipmentConfiguration.getSourceDataTagIdByName(name);
+            fail("Expected an IllegalArgumentException for the name " + name);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testAddSourceCommandTagSuccess() throws ConfigurationException {
         SourceCommandTag sourceCommandTag = new SourceCommandTag(233L, "none");
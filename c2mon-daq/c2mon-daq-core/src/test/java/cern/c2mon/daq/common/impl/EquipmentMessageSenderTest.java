@@ -18,6 +18,11 @@ package cern.c2mon.daq.common.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import cern.c2mon.daq.common.timer.FreshnessMonitor;
 import cern.c2mon.daq.config.DaqProperties;
@@ -26,9 +31,12 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Builder;
 import lombok.Data;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import cern.c2mon.daq.common.messaging.IProcessMessageSender;
 import cern.c2mon.daq.filter.IFilterMessageSender;
@@ -71,6 +79,9 @@ public class EquipmentMessageSenderTest {
 
   private EquipmentMessageSender equipmentMessageSender;
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Before
   public void setUp() {
     filterMessageSenderMock = createStrictMock(IFilterMessageSender.class);
@@ -251,13 +262,40 @@ public class EquipmentMessageSenderTest {
     verify(dynamicTimeDeadbandFilterActivatorMock, processMessageSenderMock);
   }
 
+  @Test
+  public void testSendValidTagBatch() throws Exception {
+    dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
+    dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt3.getId());
+    Capture<Collection<SourceDataTagValue>> batch = newCapture();
+    processMessageSenderMock.addValues(capture(batch));
+    // the repeated value of the second block is filtered out
+    filterMessageSenderMock.addValue(isA(FilteredDataTagValue.class));
+
+    replay(dynamicTimeDeadbandFilterActivatorMock, processMessageSenderMock, filterMessageSenderMock);
+
+    long timestamp = System.currentTimeMillis();
+    Map<Long, ValueUpdate> updates = new LinkedHashMap<>();
+    updates.put(sdt1.getId(), new ValueUpdate(true, "test", timestamp));
+    updates.put(sdt3.getId(), new ValueUpdate(100, timestamp));
+    assertEquals(2, this.equipmentMessageSender.update(updates));
+
+    updates.clear();
+    updates.put(sdt1.getId(), new ValueUpdate(true, "test", timestamp + 1L));
+    assertEquals(0, this.equipmentMessageSender.update(updates));
+
+    verify(dynamicTimeDeadbandFilterActivatorMock, processMessageSenderMock, filterMessageSenderMock);
+    assertEquals(Arrays.asList(sdt1.getId(), sdt3.getId()),
+        batch.getValue().stream().map(SourceDataTagValue::getId).collect(Collectors.toList()));
+    assertEquals(100, this.sdt3.getCurrentValue().getValue());
+  }
+
   @Test
   public void testSendValidTagTimeDeadbandEnabled() throws Exception {
     // 3 of the values will be recorded and the other one send to the filter
     dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
     expectLastCall().times(3);
 
-    processMessageSenderMock.addValue(isA(SourceDataTagValue.class));
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
     expectLastCall().times(3);
     filterMessageSenderMock.addValue(isA(FilteredDataTagValue.class));
     expectLastCall().times(1);
@@ -298,7 +336,7 @@ public class EquipmentMessageSenderTest {
   public void testSendValidInvalidTagTimeDeadbandEnabled() throws Exception {
     dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
     expectLastCall().times(3);
-    processMessageSenderMock.addValue(isA(SourceDataTagValue.class));
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
     expectLastCall().times(3);
 
     this.sdt1.getAddress().setTimeDeadband(1);
@@ -332,7 +370,7 @@ public class EquipmentMessageSenderTest {
   public void testSendValidInvalidValidTagTimeDeadbandEnabled() throws Exception {
     dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
     expectLastCall().times(4);
-    processMessageSenderMock.addValue(isA(SourceDataTagValue.class));
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
     expectLastCall().times(4);
 
     this.sdt1.getAddress().setTimeDeadband(1);
@@ -373,8 +411,8 @@ public class EquipmentMessageSenderTest {
   public void testSendInvalidTimeDeadbandEnabledDisable() throws Exception {
     dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
     expectLastCall().times(2);
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
     processMessageSenderMock.addValue(isA(SourceDataTagValue.class));
-    expectLastCall().times(2);
 
     this.sdt1.getAddress().setTimeDeadband(1);
     this.sdt1.update(new ValueUpdate(true));
@@ -405,8 +443,8 @@ public class EquipmentMessageSenderTest {
   public void testSendValidTimeDeadbandEnabledDisable() throws Exception {
     dynamicTimeDeadbandFilterActivatorMock.newTagValueSent(sdt1.getId());
     expectLastCall().times(2);
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
     processMessageSenderMock.addValue(isA(SourceDataTagValue.class));
-    expectLastCall().times(2);
 
     this.sdt1.getAddress().setTimeDeadband(1);
     this.sdt1.update(new ValueUpdate(true));
@@ -1489,7 +1527,7 @@ public class EquipmentMessageSenderTest {
       mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
       mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
 
-      File tempOut = new File("temp.json");
+      File tempOut = new File(folder.getRoot(), "temp.json");
 
       // Test Integer:
       SourceDataTagValue valueToWrite = sdt3.update(new ValueUpdate(1, "test", System.currentTimeMillis()));
@@ -0,0 +1,147 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.daq.common.impl;
+
+import java.util.Collection;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.daq.common.IDynamicTimeDeadbandFilterer;
+import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.daq.filter.IFilterMessageSender;
+import cern.c2mon.daq.tools.DataTagValueFilter;
+import cern.c2mon.shared.common.datatag.DataTagAddress;
+import cern.c2mon.shared.common.datatag.DataTagConstants;
+import cern.c2mon.shared.common.datatag.SourceDataTag;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.ValueUpdate;
+import cern.c2mon.shared.common.datatag.util.JmsMessagePriority;
+import cern.c2mon.shared.common.datatag.util.ValueDeadbandType;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeDeadbandWheelTest {
+
+  private static final long TICK = 10L;
+
+  private static final long PERIOD = 100L;
+
+  private TimeDeadbandWheel wheel;
+
+  private IProcessMessageSender processMessageSenderMock;
+
+  private EquipmentSenderFilterModule equipmentSenderFilterModule;
+
+  private IDynamicTimeDeadbandFilterer dynamicTimeDeadbandFiltererMock;
+
+  @Before
+  public void setUp() {
+    wheel = new TimeDeadbandWheel("Test wheel", TICK, false);
+    processMessageSenderMock = createStrictMock(IProcessMessageSender.class);
+    dynamicTimeDeadbandFiltererMock = createMock(IDynamicTimeDeadbandFilterer.class);
+    equipmentSenderFilterModule = new EquipmentSenderFilterModule(createMock(IFilterMessageSender.class));
+  }
+
+  @Test
+  public void testDueValuesAreSentInOneBatch() throws Exception {
+    long now = System.currentTimeMillis();
+    SDTTimeDeadbandScheduler scheduler1 = createScheduler(createTag(1L), "value 1");
+    SDTTimeDeadbandScheduler scheduler2 = createScheduler(createTag(2L), "value 2");
+    SDTTimeDeadbandScheduler scheduler3 = createScheduler(createTag(3L), null);
+    wheel.schedule(scheduler1, now, PERIOD);
+    wheel.schedule(scheduler2, now + 5, PERIOD);
+    wheel.schedule(scheduler3, now, PERIOD);
+
+    Capture<Collection<SourceDataTagValue>> batch = newCapture();
+    processMessageSenderMock.addValues(capture(batch));
+    replay(processMessageSenderMock);
+
+    wheel.advance(now + 2 * TICK);
+
+    verify(processMessageSenderMock);
+    assertEquals(2, batch.getValue().size());
+    assertEquals(1, wheel.getFlushCount());
+    assertEquals(2, wheel.getFlushedValueCount());
+  }
+
+  @Test
+  public void testSchedulersRunPeriodicallyUntilCancelled() throws Exception {
+    long now = System.currentTimeMillis();
+    SourceDataTag tag = createTag(1L);
+    SDTTimeDeadbandScheduler scheduler = createScheduler(tag, "value 1");
+    wheel.schedule(scheduler, now + PERIOD, PERIOD);
+
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
+    expectLastCall().times(2);
+    replay(processMessageSenderMock);
+
+    // not due yet
+    wheel.advance(now + PERIOD / 2);
+    wheel.advance(now + PERIOD + TICK);
+    // nothing new to send
+    wheel.advance(now + 2 * PERIOD + TICK);
+    tag.update(new ValueUpdate("value 2"));
+    scheduler.scheduleValueForSending();
+    wheel.advance(now + 3 * PERIOD + TICK);
+    assertEquals(1, wheel.size());
+
+    wheel.cancel(scheduler);
+    tag.update(new ValueUpdate("value 3"));
+    scheduler.scheduleValueForSending();
+    wheel.advance(now + 4 * PERIOD + TICK);
+
+    verify(processMessageSenderMock);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testSchedulingLag() throws Exception {
+    long now = System.currentTimeMillis();
+    SDTTimeDeadbandScheduler scheduler = createScheduler(createTag(1L), "value 1");
+    wheel.schedule(scheduler, now, PERIOD);
+
+    processMessageSenderMock.addValues(EasyMock.<Collection<SourceDataTagValue>>anyObject());
+    replay(processMessageSenderMock);
+
+    // one full wheel rotation and more later
+    wheel.advance(now + 20_000L);
+
+    verify(processMessageSenderMock);
+    assertTrue(wheel.getLastSchedulingLag() >= 20_000L - TICK);
+    assertEquals(wheel.getLastSchedulingLag(), wheel.getMaxSchedulingLag());
+  }
+
+  private SourceDataTag createTag(long id) {
+    DataTagAddress address = new DataTagAddress(null, 100, ValueDeadbandType.NONE, 0, (int) PERIOD, JmsMessagePriority.PRIORITY_LOW, false);
+    return new SourceDataTag(id, "tag" + id, false, DataTagConstants.MODE_OPERATIONAL, "String", address);
+  }
+
+  private SDTTimeDeadbandScheduler createScheduler(SourceDataTag tag, String value) {
+    SDTTimeDeadbandScheduler scheduler = new SDTTimeDeadbandScheduler(tag, processMessageSenderMock, equipmentSenderFilterModule, wheel,
+        new DataTagValueFilter(), dynamicTimeDeadbandFiltererMock);
+    if (value != null) {
+      tag.update(new ValueUpdate(value));
+      scheduler.scheduleValueForSending();
+    }
+    return scheduler;
+  }
+}
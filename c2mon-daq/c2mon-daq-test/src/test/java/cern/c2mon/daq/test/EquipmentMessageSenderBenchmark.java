@@ -0,0 +1,158 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.daq.test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cern.c2mon.daq.common.impl.EquipmentMessageSender;
+import cern.c2mon.daq.common.messaging.IProcessMessageSender;
+import cern.c2mon.daq.common.timer.FreshnessMonitor;
+import cern.c2mon.daq.config.DaqProperties;
+import cern.c2mon.daq.filter.IFilterMessageSender;
+import cern.c2mon.daq.filter.dynamic.IDynamicTimeDeadbandFilterActivator;
+import cern.c2mon.shared.common.datatag.DataTagAddress;
+import cern.c2mon.shared.common.datatag.DataTagConstants;
+import cern.c2mon.shared.common.datatag.SourceDataTag;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.ValueUpdate;
+import cern.c2mon.shared.common.datatag.util.JmsMessagePriority;
+import cern.c2mon.shared.common.datatag.util.ValueDeadbandType;
+import cern.c2mon.shared.common.process.EquipmentConfiguration;
+import cern.c2mon.shared.util.buffer.SynchroBufferQueue;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares sending the values of a PLC block one by one through
+ * {@link EquipmentMessageSender#update(Long, ValueUpdate)} with sending the
+ * whole block through {@link EquipmentMessageSender#update(Map)}.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+public class EquipmentMessageSenderBenchmark {
+
+  private static final Logger log = LoggerFactory.getLogger(EquipmentMessageSenderBenchmark.class);
+
+  private static final int NB_TAGS = 5000;
+
+  private static final int NB_BLOCKS = 40;
+
+  @Test
+  public void comparePerTagAndBatchedSubmission() {
+    QueueingProcessMessageSender perTagSender = new QueueingProcessMessageSender();
+    EquipmentMessageSender perTagEquipmentSender = createEquipmentMessageSender(perTagSender);
+    QueueingProcessMessageSender batchSender = new QueueingProcessMessageSender();
+    EquipmentMessageSender batchEquipmentSender = createEquipmentMessageSender(batchSender);
+
+    // warm up
+    sendPerTag(perTagEquipmentSender, createBlock(0));
+    batchEquipmentSender.update(createBlock(0));
+
+    long perTagTime = 0;
+    long batchTime = 0;
+    for (int block = 1; block <= NB_BLOCKS; block++) {
+      Map<Long, ValueUpdate> updates = createBlock(block);
+      long start = System.nanoTime();
+      sendPerTag(perTagEquipmentSender, updates);
+      perTagTime += System.nanoTime() - start;
+
+      updates = createBlock(block);
+      start = System.nanoTime();
+      batchEquipmentSender.update(updates);
+      batchTime += System.nanoTime() - start;
+    }
+
+    assertEquals(NB_TAGS * (NB_BLOCKS + 1), perTagSender.queue.size());
+    assertEquals(NB_TAGS * (NB_BLOCKS + 1), batchSender.queue.size());
+    assertEquals(NB_TAGS * (NB_BLOCKS + 1), perTagSender.calls);
+    assertEquals(NB_BLOCKS + 1, batchSender.calls);
+
+    log.info(String.format("%d blocks of %d values: per tag %.2f ms, batched %.2f ms (x%.2f)",
+        NB_BLOCKS, NB_TAGS, perTagTime / 1e6, batchTime / 1e6, (double) perTagTime / Math.max(batchTime, 1)));
+  }
+
+  private static void sendPerTag(EquipmentMessageSender sender, Map<Long, ValueUpdate> updates) {
+    for (Map.Entry<Long, ValueUpdate> update : updates.entrySet()) {
+      sender.update(update.getKey(), update.getValue());
+    }
+  }
+
+  private static Map<Long, ValueUpdate> createBlock(int block) {
+    long timestamp = System.currentTimeMillis() + block;
+    Map<Long, ValueUpdate> updates = new LinkedHashMap<>(NB_TAGS * 2);
+    for (long id = 1; id <= NB_TAGS; id++) {
+      updates.put(id, new ValueUpdate(block * 1000.0 + id, timestamp));
+    }
+    return updates;
+  }
+
+  private static EquipmentMessageSender createEquipmentMessageSender(IProcessMessageSender processMessageSender) {
+    EquipmentConfiguration configuration = new EquipmentConfiguration();
+    configuration.setId(1L);
+    configuration.setName("BENCHMARK");
+    configuration.setCommFaultTagId(100_000L);
+    configuration.setDynamicTimeDeadbandEnabled(false);
+    configuration.setHandlerClassName("benchmark");
+    for (long id = 1; id <= NB_TAGS; id++) {
+      DataTagAddress address = new DataTagAddress(null, 0, ValueDeadbandType.NONE, 0, 0, JmsMessagePriority.PRIORITY_LOW, false);
+      configuration.getDataTags().put(id, new SourceDataTag(id, "tag" + id, false, DataTagConstants.MODE_OPERATIONAL, "Double", address));
+    }
+
+    EquipmentMessageSender sender = new EquipmentMessageSender(createNiceMock(IFilterMessageSender.class), processMessageSender,
+        createNiceMock(IDynamicTimeDeadbandFilterActivator.class), new FreshnessMonitor(new DaqProperties()), new DaqProperties());
+    sender.init(configuration);
+    return sender;
+  }
+
+  /**
+   * Puts the values into a {@link SynchroBufferQueue}, like the process
+   * message sender does for non-urgent values.
+   */
+  private static class QueueingProcessMessageSender implements IProcessMessageSender {
+
+    private final SynchroBufferQueue<SourceDataTagValue> queue = new SynchroBufferQueue<>();
+
+    private int calls;
+
+    @Override
+    public synchronized void addValue(SourceDataTagValue dataTagValue) throws InterruptedException {
+      calls++;
+      queue.put(dataTagValue);
+    }
+
+    @Override
+    public synchronized void addValues(Collection<SourceDataTagValue> dataTagValues) {
+      calls++;
+      queue.addAll(dataTagValues);
+    }
+
+    @Override
+    public void sendCommfaultTag(long tagId, String tagName, boolean commOK, String description) {
+    }
+
+    @Override
+    public void sendProcessAlive() {
+    }
+  }
+}
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.List;
+
 import cern.c2mon.server.common.alive.AliveTimer;
 import cern.c2mon.server.common.equipment.AbstractEquipment;
 import cern.c2mon.server.common.process.Process;
@@ -83,6 +85,29 @@ public interface AliveTimerFacade {
    */
   boolean hasExpired(Long aliveTimerId);
 
+  /**
+   * Stops the active alive timers whose deadline has passed. Only the timers
+   * started or updated on this server node since the last call to
+   * {@link #rearmAllTimers()} are considered, and only the timers that are
+   * due are accessed. A due timer that was updated in the meantime (e.g. by
+   * another server node) is re-armed instead.
+   *
+   * @return the ids of the alive timers that were stopped
+   */
+  List<Long> stopExpiredTimers();
+
+  /**
+   * Re-arms the deadlines of all the active alive timers in the cache, e.g.
+   * when they were started before the server node came up.
+   */
+  void rearmAllTimers();
+
+  /**
+   * @return the number of alive timers considered by
+   * {@link #stopExpiredTimers()}
+   */
+  int getArmedTimerCount();
+
   /**
    * Generates the alive object and inserts it into the cache.
    * @param abstractEquipment for which the alive timer should be created in the cache 
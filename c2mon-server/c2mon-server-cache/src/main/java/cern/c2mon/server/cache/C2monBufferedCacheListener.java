@@ -51,4 +51,16 @@ public interface C2monBufferedCacheListener<S> {
    * Callback used for providing easy access to getting and setting thread name
    */
   String getThreadName();
+
+  /**
+   * Indicates whether the listener only needs the latest version of each
+   * cache object. If true, a collection passed to the listener contains at
+   * most one object per cache object id, and intermediate updates received
+   * within the buffering period are dropped.
+   *
+   * @return false by default, so that every update is passed on
+   */
+  default boolean isCoalescing() {
+    return false;
+  }
 }
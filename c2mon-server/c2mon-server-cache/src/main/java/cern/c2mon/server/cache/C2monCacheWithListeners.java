@@ -77,12 +77,14 @@ public interface C2monCacheWithListeners<K, T extends Cacheable> extends C2monCa
   
   /**
    * Registers a listener to be notified of updates on multiple threads.
+   * The updates of a given cache object are always notified on the same
+   * thread, in the order in which they occurred.
    * 
    * <p><b>Note</b> the listener is assumed to be thread-safe!
    * 
    * @param timCacheListener the listener to register
    * @param queueCapacity the capacity of the queue of notification
-   *        events (once full the server thread will be forced to wait)
+   *        events of each thread (once full the server thread will be forced to wait)
    * @param threadPoolSize the number of threads on which the listener
    *        will be invoked (should be > 0)
    * @return a Lifecycle object to start and stop the listener thread; the start should be called once the
@@ -66,6 +66,15 @@ public interface C2monCacheWithSupervision<K, T extends Tag> extends C2monCacheW
    *        status applied
    */
   void notifyListenersOfSupervisionChange(T tag);
+
+  /**
+   * Same as {@link #notifyListenersOfSupervisionChange(Tag)} for a batch of
+   * tags, which are passed to the listeners in a single call.
+   *
+   * @param tags the tags affected by the supervision change, *with* the
+   *        supervision status applied
+   */
+  void notifyListenersOfSupervisionChange(Collection<T> tags);
   
   /**
    * Check whether the cache contains a tag with
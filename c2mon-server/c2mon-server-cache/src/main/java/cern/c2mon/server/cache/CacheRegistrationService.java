@@ -36,7 +36,8 @@ import cern.c2mon.shared.daq.lifecycle.Lifecycle;
  * by default register on a single thread for update notifications. This 
  * thread is reserved for this particular listener. Methods that specify
  * the number of threads will use several threads to call the registered
- * listener notification method.
+ * listener notification method. All notifications for a given cache object
+ * are passed to the listener on the same thread, in order.
  * 
  * @author Mark Brightwell
  *
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.server.cache;
 
+import java.util.Collection;
+
 import cern.c2mon.server.common.tag.Tag;
 
 /**
@@ -47,5 +49,18 @@ public interface CacheSupervisionListener<T extends Tag> {
    * @param tag a copy of the Tag with new status applied
    */
   void onSupervisionChange(T tag);
-  
+
+  /**
+   * Called with a batch of Tags affected by the same supervision status
+   * change. By default, calls {@link #onSupervisionChange(Tag)} for each
+   * of them in turn.
+   *
+   * @param tags copies of the Tags with new status applied
+   */
+  default void onSupervisionChange(Collection<? extends T> tags) {
+    for (T tag : tags) {
+      onSupervisionChange(tag);
+    }
+  }
+
 }
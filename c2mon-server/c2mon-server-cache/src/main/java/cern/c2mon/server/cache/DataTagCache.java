@@ -59,4 +59,12 @@ public interface DataTagCache extends C2monCacheWithSupervision<Long, DataTag> {
    * @return The list ids of all dataTag attached to the subEquipment.
    */
   List<Long> getDataTagIdsBySubEquipmentId(Long equipmentId);
+
+  /**
+   * Receives a list of all dataTag ids which are attached to the given
+   * process id.
+   * @param processId the id of the process.
+   * @return The list ids of all dataTag attached to the process.
+   */
+  List<Long> getDataTagIdsByProcessId(Long processId);
 }
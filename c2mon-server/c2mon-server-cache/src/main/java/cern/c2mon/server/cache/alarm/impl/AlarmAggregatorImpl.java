@@ -16,11 +16,16 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.alarm.impl;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
@@ -29,19 +34,34 @@ import cern.c2mon.server.cache.C2monCacheListener;
 import cern.c2mon.server.cache.CacheRegistrationService;
 import cern.c2mon.server.cache.CacheSupervisionListener;
 import cern.c2mon.server.cache.TagFacadeGateway;
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.listener.StripedCacheListener;
 import cern.c2mon.server.common.alarm.Alarm;
 import cern.c2mon.server.common.tag.Tag;
 
 /**
  * This implementation registers for synchronous notifications from the cache
- * (i.e. on original JMS update thread). These calls are passed through to the
- * client module on the same thread.
+ * (i.e. on original JMS update thread) and passes the updated tags to a pool
+ * of evaluation threads, so that the alarm evaluation and the client
+ * publication do not slow down the processing of the incoming updates.
+ *
+ * <p>All updates and supervision changes of a given tag are evaluated on the
+ * same thread, in the order in which they were received from the cache, so
+ * every update is evaluated against the tag state it was made with. As the
+ * updates are received with the tag lock held, the cache update thread never
+ * waits for the evaluation threads: if they fall behind, the updates are
+ * queued beyond <code>c2mon.server.cache.listenerQueueCapacity</code> and a
+ * warning is logged.
+ *
+ * <p>If <code>c2mon.server.cache.alarmAggregatorThreads</code> is set to 0, the
+ * alarms are evaluated and the listeners notified on the cache update thread.
  * 
  * @author Mark Brightwell
  *
  */
 @Slf4j
 @Service
+@ManagedResource(description = "Bean evaluating the alarms of the updated tags")
 public class AlarmAggregatorImpl implements C2monCacheListener<Tag>, CacheSupervisionListener<Tag> {
 
   /**
@@ -55,6 +75,19 @@ public class AlarmAggregatorImpl implements C2monCacheListener<Tag>, CacheSuperv
   /** Required to notify listeners on tag and alarm updates */
   private final AlarmAggregatorNotifier notifier;
 
+  private final CacheProperties properties;
+
+  /**
+   * Threads evaluating the alarms, or <code>null</code> if they are evaluated
+   * on the cache update thread
+   */
+  private StripedCacheListener<Tag> evaluationStage;
+
+  /**
+   * Supervision change callback, created once for all notifications.
+   */
+  private final Consumer<Tag> supervisionChangeEvaluation = this::evaluateSupervisionChange;
+
   /**
    * Autowired constructor.
    * 
@@ -66,49 +99,113 @@ public class AlarmAggregatorImpl implements C2monCacheListener<Tag>, CacheSuperv
    * @param tagLocationService
    *          the Tag location service
    * @param notifier Required to notify listeners on tag and alarm updates
+   * @param properties the cache properties
    */
   @Autowired
-  public AlarmAggregatorImpl(final CacheRegistrationService cacheRegistrationService, final TagFacadeGateway tagFacadeGateway, final AlarmAggregatorNotifier notifier) {
+  public AlarmAggregatorImpl(final CacheRegistrationService cacheRegistrationService, final TagFacadeGateway tagFacadeGateway,
+                             final AlarmAggregatorNotifier notifier, final CacheProperties properties) {
     super();
     this.cacheRegistrationService = cacheRegistrationService;
     this.tagFacadeGateway = tagFacadeGateway;
     this.notifier = notifier;
+    this.properties = properties;
   }
 
   /**
    * Init method called on bean creation. Registers to cache updates
-   * (synchronous to guarantee evaluation of all alarms )
+   * (synchronous to guarantee evaluation of all alarms) and starts the
+   * evaluation threads.
    */
   @PostConstruct
   public void init() {
-    // notice: if change to non-synchronous, need to revisit evaluation method,
-    // which assumes a lock is held on the tag; else one update could overtake
-    // another
-    // one at this stage
+    int threads = properties.getAlarmAggregatorThreads();
+    if (threads > 0) {
+      // the updates of a tag must not overtake each other: they are always
+      // evaluated on the same thread. The updates are received with the tag
+      // write lock held, while the evaluation takes the tag read lock: the
+      // stage must therefore never block, and keeps queueing the updates
+      // beyond its capacity if a thread falls behind
+      evaluationStage = new StripedCacheListener<>(new C2monCacheListener<Tag>() {
+        @Override
+        public void notifyElementUpdated(final Tag tag) {
+          evaluateUpdate(tag);
+        }
+
+        @Override
+        public void confirmStatus(final Tag tag) {
+          // not forwarded to the evaluation threads
+        }
+      }, properties.getListenerQueueCapacity(), threads, true);
+      evaluationStage.start();
+    }
     cacheRegistrationService.registerSynchronousToAllTags(this);
     cacheRegistrationService.registerForSupervisionChanges(this);
   }
 
+  /**
+   * Evaluates the alarms of the updates still waiting in the queues before
+   * shutting down the evaluation threads.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (evaluationStage != null) {
+      evaluationStage.stop();
+    }
+  }
+
   /**
    * When an update to a Tag is received from the cache, evaluates the
    * associated Alarms and notifies the (alarm + tag) listeners.
    * 
    * <p>
-   * Notice that received Tag is a clone, but since the cache notification is
-   * synchronous a lock is already held on this tag, which can therefore not be
-   * modified during this call.
+   * Notice that received Tag is a clone taken while the lock was held on the
+   * tag, so it is the state of the tag resulting from this update, even if it
+   * is evaluated after a later update has been put in the cache.
    * 
    * @param tag
    *          a clone of the updated Tag received from the cache
    */
   @Override
   public void notifyElementUpdated(final Tag tag) {
-    List<Alarm> alarmList = evaluateAlarms(tag);
-    notifier.notifyOnUpdate(tag, alarmList);
+    if (evaluationStage != null) {
+      evaluationStage.notifyElementUpdated(tag);
+    } else {
+      evaluateUpdate(tag);
+    }
   }
 
   @Override
   public void onSupervisionChange(final Tag tag) {
+    if (evaluationStage != null) {
+      evaluationStage.execute(tag, supervisionChangeEvaluation);
+    } else {
+      evaluateSupervisionChange(tag);
+    }
+  }
+
+  /**
+   * Hands the tags affected by the same supervision change over to the
+   * evaluation threads in one go, rather than one by one.
+   *
+   * @param tags copies of the tags with the new supervision status applied
+   */
+  @Override
+  public void onSupervisionChange(final Collection<? extends Tag> tags) {
+    if (evaluationStage != null) {
+      evaluationStage.execute(tags, supervisionChangeEvaluation);
+    } else {
+      for (Tag tag : tags) {
+        evaluateSupervisionChange(tag);
+      }
+    }
+  }
+
+  private void evaluateUpdate(final Tag tag) {
+    List<Alarm> alarmList = evaluateAlarms(tag);
+    notifier.notifyOnUpdate(tag, alarmList);
+  }
+
+  private void evaluateSupervisionChange(final Tag tag) {
     log.trace("Evaluating alarm for tag #{} due to supervision status notification", tag.getId());
     List<Alarm> alarms = evaluateAlarms(tag);
     notifier.notifyOnSupervisionChange(tag, alarms);
@@ -141,4 +238,45 @@ public class AlarmAggregatorImpl implements C2monCacheListener<Tag>, CacheSuperv
     // re-evaluate all alarms.
   }
 
+  /**
+   * @return the number of tag updates waiting for their alarms to be evaluated
+   */
+  @ManagedOperation(description = "Returns the number of tag updates waiting for the evaluation of their alarms")
+  public int getEvaluationQueueSize() {
+    return evaluationStage == null ? 0 : evaluationStage.getTaskQueueSize();
+  }
+
+  /**
+   * @return the average time in ms between the cache update of a tag and
+   *         the notification of the listeners with the evaluated alarms
+   */
+  @ManagedOperation(description = "Returns the average latency (ms) of the alarm evaluation, including the time spent in the queue")
+  public double getAverageEvaluationLatency() {
+    return evaluationStage == null ? 0 : evaluationStage.getAverageLatency();
+  }
+
+  /**
+   * @return the highest evaluation latency in ms since the last reset
+   */
+  @ManagedOperation(description = "Returns the maximum latency (ms) of the alarm evaluation since the last reset")
+  public long getMaxEvaluationLatency() {
+    return evaluationStage == null ? 0 : evaluationStage.getMaxLatency();
+  }
+
+  /**
+   * @return the number of tag updates queued beyond the queue capacity, as
+   *         the evaluation threads were falling behind
+   */
+  @ManagedOperation(description = "Returns the number of tag updates queued beyond the capacity of the evaluation queues")
+  public long getOverflowingEvaluations() {
+    return evaluationStage == null ? 0 : evaluationStage.getOverflowCount();
+  }
+
+  @ManagedOperation(description = "Resets the maximum latency of the alarm evaluation")
+  public void resetMaxEvaluationLatency() {
+    if (evaluationStage != null) {
+      evaluationStage.resetMaxLatency();
+    }
+  }
+
 }
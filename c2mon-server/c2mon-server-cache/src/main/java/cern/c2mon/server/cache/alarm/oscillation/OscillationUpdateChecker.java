@@ -30,6 +30,7 @@ import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.*;
 import cern.c2mon.server.cache.alarm.AlarmAggregatorListener;
+import cern.c2mon.server.cache.config.CacheProperties;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.alarm.AlarmCacheObject;
 import cern.c2mon.server.common.alarm.AlarmCacheUpdater;
@@ -38,14 +39,16 @@ import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.shared.client.alarm.AlarmQuery;
 
 /**
- * Timer that regularly checks all the active alive timers monitoring the
- * connections to the DAQs, Equipment and SubEquipment.
+ * Timer that resets the oscillation flag of the alarms which stopped
+ * oscillating, i.e. had no state change for longer than
+ * <code>timeOscillationAlive</code> (see
+ * {@link cern.c2mon.server.cache.alarm.config.OscillationProperties}).
  *
  * <p>
- * Notice that an alive timer is considered expired when alive-interval +
- * alive-interval/3 milliseconds have expired since the last alive message
- * arrived, where alive-interval is specific to the AliveTimer object (see
- * <code>hasExpired</code> in {@link AliveTimerFacade}).
+ * Unless running in "multi" cache mode, only the alarms whose reset time has
+ * passed are checked, every second (see
+ * {@link OscillationUpdater#pollOscillationResets()}). In "multi" cache mode,
+ * all oscillating alarms are queried and checked every minute.
  */
 @Service
 @Slf4j
@@ -65,10 +68,16 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
   protected static final String LAST_CHECK_LONG = OscillationUpdateChecker.class.getName() + ".lastAliveTimerCheck";
 
   /**
-   * How often the timer checks whether the oscillation timer have expired.
+   * How often the timer checks whether the oscillation timer have expired,
+   * when querying all oscillating alarms.
    */
   protected static final long SCAN_INTERVAL = 60000L;
 
+  /**
+   * How often the timer checks the alarms whose reset time has passed.
+   */
+  protected static final long DEADLINE_CHECK_INTERVAL = 1000L;
+
   /**
    * The time the server waits before doing first checks at start up (this gives
    * time for incoming alarms to be processed).
@@ -97,6 +106,18 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
   
   private final AlarmFacade alarmFacade;
 
+  /**
+   * Whether only the alarms with a passed reset time are checked, rather
+   * than all oscillating alarms. The reset times are only known locally, so
+   * all alarms have to be queried in "multi" cache mode.
+   */
+  private final boolean deadlineDriven;
+
+  /**
+   * How often (in ms) the timer runs.
+   */
+  private final long checkInterval;
+
   /**
    * Constructor.
    *
@@ -112,6 +133,8 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
    *          Required to get the Tag instance for a given Tag id
    * @param alarmFacade 
    *          Required to notify {@link AlarmAggregatorListener} on alarm oscillation reset
+   * @param cacheProperties
+   *          the cache properties
    */
   @Autowired
   public OscillationUpdateChecker(final AlarmCache alarmCache, 
@@ -119,7 +142,8 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
                                   final OscillationUpdater oscillationUpdater, 
                                   final AlarmCacheUpdater alarmCacheUpdater, 
                                   final TagFacadeGateway tagFacadeGateway,
-                                  final AlarmFacade alarmFacade) {
+                                  final AlarmFacade alarmFacade,
+                                  final CacheProperties cacheProperties) {
     super();
     this.alarmCache = alarmCache;
     this.clusterCache = clusterCache;
@@ -127,6 +151,8 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
     this.alarmCacheUpdater = alarmCacheUpdater;
     this.tagFacadeGateway = tagFacadeGateway;
     this.alarmFacade = alarmFacade;
+    this.deadlineDriven = !"multi".equalsIgnoreCase(cacheProperties.getMode());
+    this.checkInterval = deadlineDriven ? DEADLINE_CHECK_INTERVAL : SCAN_INTERVAL;
   }
 
 
@@ -154,8 +180,11 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
   @Override
   public synchronized void start() {
     log.info("Starting the C2MON Alarm oscillation timer mechanism.");
+    if (deadlineDriven) {
+      scheduleOscillatingAlarms();
+    }
     timer = new Timer("AlarmOscillationChecker");
-    timer.schedule(this, INITIAL_SCAN_DELAY, SCAN_INTERVAL);
+    timer.schedule(this, INITIAL_SCAN_DELAY, checkInterval);
     running = true;
   }
 
@@ -180,16 +209,16 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
     clusterCache.acquireWriteLockOnKey(LAST_CHECK_LONG);
     try {
       Long lastCheck = (Long) clusterCache.getCopy(LAST_CHECK_LONG);
-      if (System.currentTimeMillis() - lastCheck.longValue() < SCAN_INTERVAL - 500L) {
+      if (System.currentTimeMillis() - lastCheck.longValue() < checkInterval - 500L) {
         log.debug("Skipping alarm oscillation check as already performed.");
       } else {
         log.debug("checking alarm oscillation timers ... ");
         try {
-          Collection<Long> oscillatingAlarmIds = alarmCache.findAlarm(alarmCacheQuery);
+          Collection<Long> oscillatingAlarmIds = deadlineDriven ? oscillationUpdater.pollOscillationResets() : alarmCache.findAlarm(alarmCacheQuery);
           if (oscillatingAlarmIds.isEmpty()) {
-            log.debug("Currently no oscillating alarms");
+            log.debug("Currently no oscillating alarms to check");
           } else {
-            log.info("Currently {} oscillating alarms", oscillatingAlarmIds.size());
+            log.info("Checking {} oscillating alarms", oscillatingAlarmIds.size());
             oscillatingAlarmIds.stream().forEach(this::updateAlarmOscillationFlag);
           }
         } catch (Exception e) {
@@ -211,7 +240,9 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
       log.trace("Checking oscillation expiry for alarm #{}", alarmId);
       AlarmCacheObject alarmCopy = (AlarmCacheObject) alarmCache.getCopy(alarmId);
 
-      if (!oscillationUpdater.checkOscillAlive(alarmCopy)) {
+      if (!alarmCopy.isOscillating()) {
+          log.trace(" -> Alarm #{} is not oscillating anymore - no change", alarmId);
+      } else if (!oscillationUpdater.checkOscillAlive(alarmCopy)) {
           log.trace(" -> ! Alarm #{} is not oscillating anymore, resetting oscillation flag", alarmId);
           Tag tag = tagFacadeGateway.getTag(alarmCopy.getDataTagId());
           if(tag != null) {
@@ -222,12 +253,29 @@ public class OscillationUpdateChecker extends TimerTask implements SmartLifecycl
           }
       } else {
           log.trace(" -> (!) Alarm #{} is still oscillating - no change", alarmId);
+          if (deadlineDriven) {
+            oscillationUpdater.scheduleOscillationReset(alarmCopy);
+          }
       }
     } catch (CacheElementNotFoundException e) {
       log.error("Failed to locate corresponding tag in cache for alarm #{}. This should never happen!", alarmId);
     }
   }
 
+  /**
+   * Schedules the oscillation reset of the alarms which are already
+   * oscillating, e.g. when loaded from a persistent cache.
+   */
+  private void scheduleOscillatingAlarms() {
+    try {
+      for (Long alarmId : alarmCache.findAlarm(alarmCacheQuery)) {
+        oscillationUpdater.scheduleOscillationReset((AlarmCacheObject) alarmCache.getCopy(alarmId));
+      }
+    } catch (Exception e) {
+      log.error("Unexpected exception when scheduling the oscillation reset of the oscillating alarms", e);
+    }
+  }
+
   @Override
   public boolean isAutoStartup() {
     return true;
@@ -17,7 +17,7 @@
 package cern.c2mon.server.cache.alarm.oscillation;
 
 import java.sql.Timestamp;
-import java.util.LinkedList;
+import java.util.List;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +26,9 @@ import org.springframework.stereotype.Component;
 
 import cern.c2mon.server.cache.AlarmCache;
 import cern.c2mon.server.cache.alarm.config.OscillationProperties;
+import cern.c2mon.server.cache.common.DeadlineWheel;
 import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.alarm.OscillationTimestamps;
 
 /**
  * Contains the logic for evaluating, if an alarm is oscillating
@@ -42,6 +44,9 @@ public final class OscillationUpdater {
 
     private final OscillationProperties oscillationProperties;
 
+    /** Times at which the oscillation flag of the oscillating alarms may be reset */
+    private final DeadlineWheel resetDeadlines = new DeadlineWheel();
+
     @Autowired
     public OscillationUpdater(AlarmCache alarmCache, OscillationProperties oscillationProperties) {
       this.alarmCache = alarmCache;
@@ -55,18 +60,51 @@ public final class OscillationUpdater {
      * @return true, if the alarm shall still keep its oscillation flag
      */
     public boolean checkOscillAlive(AlarmCacheObject alarmCacheObject) {
-      long alarmTs = alarmCacheObject.getSourceTimestamp().getTime();
-      if (!alarmCacheObject.getFifoSourceTimestamps().isEmpty()) {
-        alarmTs = alarmCacheObject.getFifoSourceTimestamps().getLast();
-      }
+      long resetTime = getOscillationResetTime(alarmCacheObject);
 
       long systemTime = System.currentTimeMillis();
       if (log.isTraceEnabled()) {
           log.trace(" -> checkOscillAlive(): Alarm #{} diff: {} systime : {} alarmts : {}",
-                  alarmCacheObject.getId(), (systemTime - alarmTs), new Timestamp(systemTime),
+                  alarmCacheObject.getId(), (systemTime - getLastStateChangeTime(alarmCacheObject)), new Timestamp(systemTime),
                   alarmCacheObject.getTimestamp().toString());
       }
-      return (systemTime - alarmTs) < (oscillationProperties.getTimeOscillationAlive() * 1000);
+      return systemTime < resetTime;
+    }
+
+    /**
+     * Schedules the next oscillation flag check of an oscillating alarm, for when its last state
+     * change will be older than the defined threshold.
+     * @see #pollOscillationResets()
+     * @param alarmCacheObject The current alarm object of the cache
+     */
+    public void scheduleOscillationReset(AlarmCacheObject alarmCacheObject) {
+      resetDeadlines.arm(alarmCacheObject.getId(), getOscillationResetTime(alarmCacheObject));
+    }
+
+    /**
+     * Returns the oscillating alarms which had no state change for longer than the defined threshold,
+     * according to the last call of {@link #scheduleOscillationReset(AlarmCacheObject)} on this server.
+     * The returned alarms are unscheduled, and must be checked with {@link #checkOscillAlive(AlarmCacheObject)}
+     * and rescheduled if still oscillating.
+     * @return the ids of the alarms whose oscillation flag may be reset
+     */
+    public List<Long> pollOscillationResets() {
+      return resetDeadlines.pollExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the time after which the alarm shall lose its oscillation flag, if no state change happens in between
+     */
+    private long getOscillationResetTime(AlarmCacheObject alarmCacheObject) {
+      return getLastStateChangeTime(alarmCacheObject) + oscillationProperties.getTimeOscillationAlive() * 1000L;
+    }
+
+    private static long getLastStateChangeTime(AlarmCacheObject alarmCacheObject) {
+      OscillationTimestamps timestamps = alarmCacheObject.getOscillationTimestamps();
+      if (timestamps == null || timestamps.isEmpty()) {
+        return alarmCacheObject.getSourceTimestamp().getTime();
+      }
+      return timestamps.getLast();
     }
 
     /**
@@ -82,23 +120,26 @@ public final class OscillationUpdater {
         log.debug("Setting oscillation flag == true for alarm #{}", alarmCacheObject.getId());
         alarmCacheObject.setOscillating(true);
       }
+
+      if (alarmCacheObject.isOscillating()) {
+        scheduleOscillationReset(alarmCacheObject);
+      }
     }
 
     /**
-     * Adds the current source timestamp to the oscillation FIFO list for comparison and makes sure that the list
-     * of n previous source timestamps is never bigger than the configured OSC numbers.
+     * Adds the current source timestamp to the oscillation ring buffer for comparison, which keeps the
+     * configured OSC numbers + 1 last source timestamps.
      *
      * @param alarmCacheObject the alarm to treat
      */
     private void updateOscTimestampList(AlarmCacheObject alarmCacheObject, long sourceTimestamp) {
-      if (alarmCacheObject.getFifoSourceTimestamps() == null) {
-        alarmCacheObject.setFifoSourceTimestamps(new LinkedList<>());
-      }
-
-      while (alarmCacheObject.getFifoSourceTimestamps().size() > oscillationProperties.getOscNumbers()) {
-        alarmCacheObject.getFifoSourceTimestamps().removeFirst();
+      int capacity = oscillationProperties.getOscNumbers() + 1;
+      OscillationTimestamps timestamps = alarmCacheObject.getOscillationTimestamps();
+      if (timestamps == null || timestamps.capacity() != capacity) {
+        timestamps = new OscillationTimestamps(capacity, timestamps);
+        alarmCacheObject.setOscillationTimestamps(timestamps);
       }
-      alarmCacheObject.getFifoSourceTimestamps().add(sourceTimestamp);
+      timestamps.add(sourceTimestamp);
     }
 
     /**
@@ -110,13 +151,13 @@ public final class OscillationUpdater {
      * @return true, if alarm shall be marked as oscillating.
      */
     private boolean isAlarmOscillating(AlarmCacheObject alarmCacheObject) {
-        return ((alarmCacheObject.getFifoSourceTimestamps().size() > oscillationProperties.getOscNumbers())
-                && isInOscillationTimeTriggerRange(alarmCacheObject));
+        return alarmCacheObject.getOscillationTimestamps().isFull()
+                && isInOscillationTimeTriggerRange(alarmCacheObject);
     }
 
     private boolean isInOscillationTimeTriggerRange(AlarmCacheObject alarmCacheObject) {
-      long first = alarmCacheObject.getFifoSourceTimestamps().getFirst();
-      long last = alarmCacheObject.getFifoSourceTimestamps().getLast();
+      long first = alarmCacheObject.getOscillationTimestamps().getFirst();
+      long last = alarmCacheObject.getOscillationTimestamps().getLast();
       if (log.isTraceEnabled()) {
         log.trace("isInOscillationTimeRange?: {} <= {}", last - first, oscillationProperties.getTimeRange() * 1000);
       }
@@ -16,12 +16,16 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.alive;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.AliveTimerCache;
 import cern.c2mon.server.cache.AliveTimerFacade;
+import cern.c2mon.server.cache.common.DeadlineWheel;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.alive.AliveTimer;
 import cern.c2mon.server.common.alive.AliveTimerCacheObject;
@@ -42,6 +46,11 @@ public class AliveTimerFacadeImpl implements AliveTimerFacade {
   private static final String CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS = "Cannot locate the AliveTimer in the cache (Id is ";
 private AliveTimerCache aliveTimerCache;
 
+  /**
+   * Deadlines of the alive timers started or updated on this server node.
+   */
+  private final DeadlineWheel deadlines = new DeadlineWheel();
+
   @Autowired
   public AliveTimerFacadeImpl(AliveTimerCache aliveTimerCache) {
     super();
@@ -60,6 +69,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(aliveId);
       update(aliveTimer);
       aliveTimerCache.put(aliveId, aliveTimer);
+      arm(aliveTimer);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + aliveId + ") - unable to update it.", cacheEx);
     } catch (Exception e) {
@@ -98,6 +108,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(id);
       start(aliveTimer);
       aliveTimerCache.put(id, aliveTimer);
+      arm(aliveTimer);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + id + ") - unable to start it.");
     } catch (Exception e) {
@@ -132,6 +143,7 @@ private AliveTimerCache aliveTimerCache;
       AliveTimer aliveTimer = aliveTimerCache.get(id);
       stop(aliveTimer);
       aliveTimerCache.put(id, aliveTimer);
+      deadlines.disarm(id);
     } catch (CacheElementNotFoundException cacheEx) {
       log.error(CANNOT_LOCATE_THE_ALIVE_TIMER_IN_THE_CACHE_ID_IS + id + ") - unable to stop it.");
     } catch (Exception e) {
@@ -168,12 +180,85 @@ private AliveTimerCache aliveTimerCache;
     aliveTimerCache.acquireReadLockOnKey(aliveTimerId);
     try {
         AliveTimer aliveTimer = aliveTimerCache.get(aliveTimerId);
-        return (System.currentTimeMillis() - aliveTimer.getLastUpdate() > aliveTimer.getAliveInterval() + aliveTimer.getAliveInterval() / 3);
+        return System.currentTimeMillis() > getDeadline(aliveTimer);
     } finally {
       aliveTimerCache.releaseReadLockOnKey(aliveTimerId);
     }
   }
 
+  @Override
+  public List<Long> stopExpiredTimers() {
+    List<Long> stoppedIds = new ArrayList<>();
+    for (Long id : deadlines.pollExpired(System.currentTimeMillis())) {
+      aliveTimerCache.acquireWriteLockOnKey(id);
+      try {
+        AliveTimer aliveTimer = aliveTimerCache.get(id);
+        if (aliveTimer.isActive()) {
+          if (System.currentTimeMillis() > getDeadline(aliveTimer)) {
+            stop(aliveTimer);
+            aliveTimerCache.put(id, aliveTimer);
+            stoppedIds.add(id);
+          } else {
+            // updated in the meantime, e.g. by another server node
+            arm(aliveTimer);
+          }
+        }
+      } catch (CacheElementNotFoundException cacheEx) {
+        log.debug("Alive timer " + id + " was removed from the cache before its expiration check.");
+      } catch (Exception e) {
+        log.error("Unable to check the expiration of the alive timer " + id, e);
+      } finally {
+        aliveTimerCache.releaseWriteLockOnKey(id);
+      }
+    }
+    return stoppedIds;
+  }
+
+  @Override
+  public void rearmAllTimers() {
+    log.debug("Re-arming the deadlines of all active alive timers in the cache.");
+    deadlines.clear();
+    try {
+      for (Long currentId : aliveTimerCache.getKeys()) {
+        aliveTimerCache.acquireReadLockOnKey(currentId);
+        try {
+          AliveTimer aliveTimer = aliveTimerCache.get(currentId);
+          if (aliveTimer.isActive()) {
+            arm(aliveTimer);
+          }
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.debug("Alive timer " + currentId + " was removed from the cache while re-arming the deadlines.");
+        } finally {
+          aliveTimerCache.releaseReadLockOnKey(currentId);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Unable to retrieve list of alive timers from cache when attempting to re-arm the timers.", e);
+    }
+  }
+
+  @Override
+  public int getArmedTimerCount() {
+    return deadlines.size();
+  }
+
+  /**
+   * Arms the deadline of an active alive timer.
+   */
+  private void arm(final AliveTimer aliveTimer) {
+    if (aliveTimer.isActive()) {
+      deadlines.arm(aliveTimer.getId(), getDeadline(aliveTimer));
+    }
+  }
+
+  /**
+   * @return the time after which the alive timer has expired if not updated
+   * in the meantime, i.e. last update + "alive interval" + 1/3 "alive interval"
+   */
+  private static long getDeadline(final AliveTimer aliveTimer) {
+    return aliveTimer.getLastUpdate() + aliveTimer.getAliveInterval() + aliveTimer.getAliveInterval() / 3;
+  }
+
   @Override
   public void startAllTimers() {
     log.debug("Starting all alive timers in cache.");
@@ -18,6 +18,7 @@ package cern.c2mon.server.cache.common;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
@@ -42,9 +43,10 @@ import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.cache.listener.BufferedKeyCacheListener;
 import cern.c2mon.server.cache.listener.CacheListener;
 import cern.c2mon.server.cache.listener.DefaultBufferedCacheListener;
-import cern.c2mon.server.cache.listener.MultiThreadedCacheListener;
+import cern.c2mon.server.cache.listener.StripedCacheListener;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.common.config.C2monCacheName;
+import cern.c2mon.server.common.util.DeepCloneable;
 import cern.c2mon.shared.common.Cacheable;
 import cern.c2mon.shared.daq.lifecycle.Lifecycle;
 
@@ -186,7 +188,8 @@ private final CacheProperties properties;
 
   /**
    * Find an object in the cache given the object id and create a deep copy.
-   * The copy is relealized through serialization and NOT by cloning.
+   * Objects implementing {@link DeepCloneable} are copied with their
+   * <code>clone()</code> method, all others through serialization.
    *
    * @param id the unique id of the cache object (should not be NULL)
    * @return Copy to the {@link Cacheable} object
@@ -199,20 +202,17 @@ private final CacheProperties properties;
   public final T getCopy(final K id) {
     if (id != null) {
         cache.acquireReadLockOnKey(id);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                ObjectOutputStream oos = new ObjectOutputStream(baos);) {
+        try {
             T reference = get(id);
-    
-            oos.writeObject(reference);
-    
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            return (T) ois.readObject();
+            if (reference instanceof DeepCloneable) {
+                return (T) reference.clone();
+            }
+            return serializedCopy(reference);
         } catch (CacheElementNotFoundException cenfe) {
             throw cenfe;
         } catch (Exception ex) {
             log.error(
-                    "Unable to get a serialized copy of the cache element as serialization is not supported for this object.",
+                    "Unable to get a copy of the cache element as neither cloning nor serialization is supported for this object.",
                     ex);
             throw new UnsupportedOperationException(
                     "The getCopy() method is not supported for this cache element since the cache object is not entirely serializable. Please revisit your object.",
@@ -228,6 +228,21 @@ private final CacheProperties properties;
     }
   }
 
+  /**
+   * Creates a deep copy of the given object through a serialization round trip.
+   */
+  @SuppressWarnings("unchecked")
+  private T serializedCopy(final T reference) throws IOException, ClassNotFoundException {
+    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+         ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(reference);
+      oos.flush();
+      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+        return (T) ois.readObject();
+      }
+    }
+  }
+
   /**
    * Puts an object in the cache, without notifying the cache listeners.
    * Wraps the call to the underlying Ehcache.
@@ -300,7 +315,7 @@ private final CacheProperties properties;
   }
 
   public Lifecycle registerThreadedListener(C2monCacheListener<? super T> cacheListener, int queueCapacity, int threadPoolSize) {
-    MultiThreadedCacheListener<? super T> threadedCacheListener = new MultiThreadedCacheListener<>(cacheListener, queueCapacity, threadPoolSize);
+    StripedCacheListener<? super T> threadedCacheListener = new StripedCacheListener<>(cacheListener, queueCapacity, threadPoolSize);
     cacheListeners.add(threadedCacheListener);
     return threadedCacheListener;
   }
@@ -413,8 +428,8 @@ private final CacheProperties properties;
   public List<Integer> getListenerTaskQueueSizes() {
     ArrayList<Integer> queueSizes = new ArrayList<Integer>();
     for (C2monCacheListener listener : cacheListeners) {
-      if (listener instanceof MultiThreadedCacheListener) {
-        queueSizes.add(((MultiThreadedCacheListener) listener).getTaskQueueSize());
+      if (listener instanceof StripedCacheListener) {
+        queueSizes.add(((StripedCacheListener) listener).getTaskQueueSize());
       } else if (listener instanceof CacheListener) {
         queueSizes.add(((CacheListener) listener).getTaskQueueSize());
       }
@@ -430,12 +445,43 @@ private final CacheProperties properties;
   public List<Integer> getActiveThreadNumber() {
     ArrayList<Integer> threadPoolSizes = new ArrayList<Integer>();
     for (C2monCacheListener listener : cacheListeners) {
-      if (listener instanceof MultiThreadedCacheListener) {
-        threadPoolSizes.add(((MultiThreadedCacheListener) listener).getActiveThreadPoolNumber());
+      if (listener instanceof StripedCacheListener) {
+        threadPoolSizes.add(((StripedCacheListener) listener).getActiveThreadPoolNumber());
       }
     }
     return threadPoolSizes;
   }
 
+  /**
+   * For management purposes.
+   * @return for each multi-threaded listener, the queue size of each of its threads
+   */
+  @ManagedOperation(description="Get listener queue sizes per thread.")
+  public List<List<Integer>> getListenerLaneQueueSizes() {
+    ArrayList<List<Integer>> laneSizes = new ArrayList<>();
+    for (C2monCacheListener listener : cacheListeners) {
+      if (listener instanceof StripedCacheListener) {
+        laneSizes.add(((StripedCacheListener) listener).getLaneQueueSizes());
+      }
+    }
+    return laneSizes;
+  }
+
+  /**
+   * For management purposes.
+   * @return for each multi-threaded listener, the age in ms of the oldest
+   *         pending notification of each of its threads
+   */
+  @ManagedOperation(description="Get listener lag (ms) per thread.")
+  public List<List<Long>> getListenerLaneLags() {
+    ArrayList<List<Long>> laneLags = new ArrayList<>();
+    for (C2monCacheListener listener : cacheListeners) {
+      if (listener instanceof StripedCacheListener) {
+        laneLags.add(((StripedCacheListener) listener).getLaneLags());
+      }
+    }
+    return laneLags;
+  }
+
 
 }
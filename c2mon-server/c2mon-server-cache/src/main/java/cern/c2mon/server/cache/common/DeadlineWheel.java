@@ -0,0 +1,188 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deadline index of cache objects (e.g. alive timers), implemented as a
+ * hashed timing wheel: each armed id is linked into the slot of the second
+ * of its deadline, and polling only visits the slots of the seconds elapsed
+ * since the last poll.
+ *
+ * <p>Arming, re-arming and disarming an id are constant time operations.
+ * Polling only touches the ids whose deadline has passed, plus the few ids
+ * of the visited slots with a deadline one or more wheel rotations (i.e.
+ * more than an hour) away.
+ *
+ * <p>The index is local to the server node, it is not shared with the
+ * other nodes of a cluster.
+ */
+public class DeadlineWheel {
+
+  /** Time span (in ms) covered by a slot of the wheel */
+  private static final long SLOT_DURATION = 1000;
+
+  /** Number of slots of the wheel */
+  private static final int WHEEL_SIZE = 4096;
+
+  /** Id -> wheel node, guarded by the wheel */
+  private final Map<Long, Node> nodes = new HashMap<>();
+
+  /** Head of the node list of each slot */
+  private final Node[] wheel = new Node[WHEEL_SIZE];
+
+  /** Index (in number of slots since the epoch) of the slot of the last poll */
+  private long cursor = 0;
+
+  /**
+   * Sets the deadline of the given id, replacing any previous one.
+   *
+   * @param id the cache object id
+   * @param deadline the time (in ms) after which the deadline has passed
+   */
+  public void arm(final Long id, final long deadline) {
+    synchronized (wheel) {
+      Node node = nodes.get(id);
+      if (node == null) {
+        node = new Node(id);
+        nodes.put(id, node);
+      } else if (slotIndex(deadline) == node.slot) {
+        node.deadline = deadline;
+        return;
+      } else {
+        unlink(node);
+      }
+      node.deadline = deadline;
+      link(node);
+    }
+  }
+
+  /**
+   * Removes the deadline of the given id, if armed.
+   *
+   * @param id the cache object id
+   */
+  public void disarm(final Long id) {
+    synchronized (wheel) {
+      Node node = nodes.remove(id);
+      if (node != null) {
+        unlink(node);
+      }
+    }
+  }
+
+  /**
+   * Removes all deadlines.
+   */
+  public void clear() {
+    synchronized (wheel) {
+      nodes.clear();
+      for (int i = 0; i < WHEEL_SIZE; i++) {
+        wheel[i] = null;
+      }
+    }
+  }
+
+  /**
+   * Removes and returns the ids whose deadline is before the given time.
+   * The returned ids are disarmed and must be re-armed by the caller if
+   * their deadline turns out to have been postponed in the meantime.
+   *
+   * @param now the current time (in ms)
+   * @return the ids whose deadline has passed
+   */
+  public List<Long> pollExpired(final long now) {
+    List<Long> expired = new ArrayList<>();
+    synchronized (wheel) {
+      long target = now / SLOT_DURATION;
+      long first = Math.max(cursor, target - WHEEL_SIZE + 1);
+      cursor = Math.max(cursor, target);
+      for (long slot = first; slot <= target; slot++) {
+        Node node = wheel[(int) Math.floorMod(slot, (long) WHEEL_SIZE)];
+        while (node != null) {
+          Node next = node.next;
+          if (node.deadline < now) {
+            unlink(node);
+            nodes.remove(node.id);
+            expired.add(node.id);
+          }
+          node = next;
+        }
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * @return the number of armed ids
+   */
+  public int size() {
+    synchronized (wheel) {
+      return nodes.size();
+    }
+  }
+
+  /**
+   * @return the slot of the given deadline, or the current slot if the
+   * deadline has already passed
+   */
+  private int slotIndex(final long deadline) {
+    return (int) Math.floorMod(Math.max(deadline / SLOT_DURATION, cursor), (long) WHEEL_SIZE);
+  }
+
+  private void link(final Node node) {
+    node.slot = slotIndex(node.deadline);
+    node.prev = null;
+    node.next = wheel[node.slot];
+    if (node.next != null) {
+      node.next.prev = node;
+    }
+    wheel[node.slot] = node;
+  }
+
+  private void unlink(final Node node) {
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      wheel[node.slot] = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.prev = null;
+    node.next = null;
+  }
+
+  /**
+   * Armed id, linked into the list of the slot of its deadline.
+   */
+  private static final class Node {
+    private final Long id;
+    private long deadline;
+    private int slot;
+    private Node prev;
+    private Node next;
+
+    private Node(final Long id) {
+      this.id = id;
+    }
+  }
+}
@@ -36,7 +36,34 @@ public class CacheProperties {
   private boolean skipPreloading = false;
 
   /**
-   * How long (in ms) the buffered cache listener should sleep between pulls
+   * Enable/disable the in-memory secondary indexes (tag name, process,
+   * equipment and sub-equipment id) of the tag caches. If disabled, the
+   * lookups are done via Ehcache search. The indexes are never used in
+   * "multi" mode.
+   */
+  private boolean tagIndexEnabled = true;
+
+  /**
+   * Size of the queue of each thread of the multi-threaded cache listeners.
+   * Update events are stored in these queues while waiting to be passed to
+   * the listener. If a queue fills up, the cache notification thread will
+   * have to wait, which will slow down the server (resulting in JMS queue
+   * increases if endemic in the listener module)
+   */
+  private int listenerQueueCapacity = 10000;
+
+  /**
+   * Number of threads evaluating the alarms of the updated tags and passing
+   * the result to the client publishers. The updates of a tag are always
+   * evaluated by the same thread, in order. The queues of these threads are
+   * unbounded: once a queue holds <code>listenerQueueCapacity</code> updates,
+   * a warning is logged but no update is dropped or waits. If set to 0, the
+   * alarms are evaluated on the thread updating the cache
+   */
+  private int alarmAggregatorThreads = 4;
+
+  /**
+   * Maximum time (in ms) an update waits in a buffered cache listener before being passed on
    */
   private int bufferedListenerPullFrequency = 5000;
 
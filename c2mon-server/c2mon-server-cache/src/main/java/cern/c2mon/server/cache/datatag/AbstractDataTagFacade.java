@@ -42,9 +42,10 @@ import cern.c2mon.shared.common.datatag.SourceDataTag;
 import cern.c2mon.shared.common.datatag.SourceDataTagValue;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 import cern.c2mon.shared.common.type.TypeConverter;
+import cern.c2mon.shared.common.type.ValueConverter;
+import cern.c2mon.shared.common.type.ValueConverterRegistry;
 import cern.c2mon.shared.daq.config.DataTagUpdate;
 
-import static cern.c2mon.shared.common.type.TypeConverter.isKnownClass;
 
 /**
  * {@link DataTagFacade} and {@link ControlTagFacade} have some functionalities in common which
@@ -393,11 +394,11 @@ public abstract class AbstractDataTagFacade<T extends DataTag> extends AbstractT
       // Before updating the new value to the cache convert the value to the proper type.
       // In the process of the deserialization the dataType can still divert from the defined dataType.
       // If the dataType is an arbitrary object do nothing because the server don't work with this kind of values at all.
-      if(sourceDataTagValue != null
-          && sourceDataTagValue.getValue() != null
-          && isKnownClass(dataTag.getDataType())){
-        Object convertedValue = TypeConverter.cast(sourceDataTagValue.getValue(), dataTag.getDataType());
-        sourceDataTagValue.setValue(convertedValue);
+      if (sourceDataTagValue != null && sourceDataTagValue.getValue() != null) {
+        ValueConverter converter = ValueConverterRegistry.getConverter(dataTag.getDataType());
+        if (converter.isKnownType()) {
+          sourceDataTagValue.setValue(converter.convert(sourceDataTagValue.getValue()));
+        }
       }
 
       Event<Boolean> returnEvent = updateFromSource(dataTag, sourceDataTagValue);
@@ -78,14 +78,44 @@ public class DataTagCacheImpl extends AbstractTagCache<DataTag> implements DataT
 
   @Override
   public List<Long> getDataTagIdsByEquipmentId(Long equipmentId) {
+    if (getTagIndex() != null) {
+      checkNotNull(equipmentId);
+      return getTagIndex().getIdsByEquipmentId(equipmentId);
+    }
     return getDataTagIds(equipmentId, "equipmentId");
   }
 
   @Override
   public List<Long> getDataTagIdsBySubEquipmentId(Long subEquipmentId) {
+    if (getTagIndex() != null) {
+      checkNotNull(subEquipmentId);
+      return getTagIndex().getIdsBySubEquipmentId(subEquipmentId);
+    }
     return getDataTagIds(subEquipmentId, "subEquipmentId");
   }
 
+  @Override
+  public List<Long> getDataTagIdsByProcessId(Long processId) {
+    checkNotNull(processId);
+    if (getTagIndex() != null) {
+      return getTagIndex().getIdsByProcessId(processId);
+    }
+    List<Long> tagIds = new LinkedList<>();
+    for (Long key : getKeys()) {
+      if (processId.equals(get(key).getProcessId())) {
+        tagIds.add(key);
+      }
+    }
+    return tagIds;
+  }
+
+  private static void checkNotNull(Long id) {
+    if (id == null) {
+      throw new IllegalArgumentException("Attempting to retrieve a List of DataTag ids from the cache with a NULL " +
+          "parameter.");
+    }
+  }
+
   /**
    * Receives a list of all DataTag ids which are attached to the given equipment or sub-equipment.
    * @param id The id of the (sub-)equipment
@@ -96,10 +126,7 @@ public class DataTagCacheImpl extends AbstractTagCache<DataTag> implements DataT
     List<Long> tagIds = new LinkedList<>();
     Results results = null;
 
-    if (id == null) {
-      throw new IllegalArgumentException("Attempting to retrieve a List of DataTag ids from the cache with a NULL " +
-          "parameter.");
-    }
+    checkNotNull(id);
 
     try {
       Attribute<Long> cacheEquipmentId = getCache().getSearchAttribute(searchAttribute);
@@ -16,9 +16,15 @@
  *****************************************************************************/
 package cern.c2mon.server.cache.listener;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +38,14 @@ import cern.c2mon.shared.daq.lifecycle.Lifecycle;
  * Abstract listener implementation that batches the notifications before
  * calling the BufferedListener
  *
+ * <p>The notifications are passed to the listener by a dedicated thread,
+ * which sleeps while the buffers are empty. A batch is passed on as soon as
+ * it contains 20000 objects, or once its oldest object
+ * has been waiting for the configured frequency.
+ *
+ * <p>If coalescing is enabled, a batch only contains the latest object
+ * received for each cache object id, at the position of the first one.
+ *
  * @author Mark Brightwell
  * @param <T> the type of cache object received
  * @param <S> the type of object passed to the listener
@@ -45,24 +59,43 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
    */
   private static final int MAX_TO_LISTENER = 20000;
 
-  private static final long CHECK_FREQUENCY = 500L;
-
   /**
-   * Max sleep time between pulls (could be longer if previous task is longer)
+   * Max time (in ms) an object waits in the buffer before being passed to the listener
    */
   private int frequency;
 
   /**
-   * Queues keeping the keys for supported methods.
+   * Only keep the latest object for each cache object id in a batch.
+   */
+  private final boolean coalescing;
+
+  /**
+   * Guards the buffers.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Signalled on the first arrival in an empty buffer, when a buffer is full
+   * and on shutdown.
+   */
+  private final Condition flushCondition = lock.newCondition();
+
+  /**
+   * Buffers for the supported methods.
    */
-  private final LinkedBlockingQueue<S> onUpdateQueue = new LinkedBlockingQueue<>();
-  private final LinkedBlockingQueue<S> statusConfirmationQueue = new LinkedBlockingQueue<>();
+  private final Buffer onUpdateBuffer = new Buffer();
+  private final Buffer statusConfirmationBuffer = new Buffer();
 
   /**
    * Wrapped listener.
    */
   private C2monBufferedCacheListener<S> bufferedCacheListener;
 
+  /**
+   * Thread passing the batches to the listener.
+   */
+  private Thread flushThread;
+
   /**
    * Indicates if the listener is enabled (if not, notifications are ignored and exception is thrown).
    */
@@ -70,14 +103,14 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
   private volatile boolean enabled;
 
   /**
-   * Notice that duplicate policy is ignored if finite capacity is set (duplicate.OK is set) - TODO rewrite/adapt SynchroBuffer for this...
-
    * @param bufferedCacheListener listener expecting collections of cache objects
-   * @param frequency the frequency (in ms) at which the buffer should be emptied
+   * @param frequency the maximum time (in ms) an object is buffered before being passed to the listener
+   * @param coalescing if true, only the latest object of each cache object id is kept in a batch
    */
-  public AbstractBufferedCacheListener(C2monBufferedCacheListener<S> bufferedCacheListener, int frequency) {
+  public AbstractBufferedCacheListener(C2monBufferedCacheListener<S> bufferedCacheListener, int frequency, boolean coalescing) {
     this.bufferedCacheListener = bufferedCacheListener;
     this.frequency = frequency;
+    this.coalescing = coalescing;
     enabled = false;
   }
 
@@ -86,11 +119,7 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
   @Override
   public void confirmStatus(T cacheable) {
     if (enabled) {
-      try {
-        statusConfirmationQueue.put(getDerivedObject(cacheable));
-      } catch (InterruptedException e) {
-        log.error("Interrupted while waiting to insert into queue", e);
-      }
+      add(statusConfirmationBuffer, cacheable);
     } else {
       String errorMessage = "Updated notification received with listener disabled";
       log.warn(errorMessage);
@@ -101,11 +130,7 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
   @Override
   public void notifyElementUpdated(T cacheable) {
     if (enabled) {
-      try {
-        onUpdateQueue.put(getDerivedObject(cacheable));
-      } catch (InterruptedException e) {
-        log.error("Interrupted while waiting to insert key into queue", e);
-      }
+      add(onUpdateBuffer, cacheable);
     } else {
       String errorMessage = "Update notification received with listener disabled for " + bufferedCacheListener.getThreadName();
       log.warn(errorMessage);
@@ -123,6 +148,20 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
     }
   }
 
+  private void add(final Buffer buffer, final T cacheable) {
+    S object = getDerivedObject(cacheable);
+    lock.lock();
+    try {
+      buffer.add(cacheable.getId(), object);
+      int size = buffer.size();
+      if (size == 1 || size == MAX_TO_LISTENER) {
+        flushCondition.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public synchronized boolean isRunning() {
     return enabled;
@@ -135,60 +174,163 @@ public abstract class AbstractBufferedCacheListener<T extends Cacheable, S> impl
   public synchronized void start() {
     if (!enabled) {
       log.info("Starting BufferedCacheListener for {}", bufferedCacheListener.getThreadName());
-
-      Runnable task = () -> {
-        while (enabled || !onUpdateQueue.isEmpty() || !statusConfirmationQueue.isEmpty()) {
-          long millisStart = System.currentTimeMillis();
-          flush();
-          while (System.currentTimeMillis() - millisStart < frequency) {
-            try {
-              Thread.sleep(CHECK_FREQUENCY);
-            } catch (InterruptedException e) {
-              log.error("Sleep interrupted in BufferedCacheListener thread");
-            }
-          }
-        }
-      };
-
-      new Thread(task, bufferedCacheListener.getThreadName()).start();
       enabled = true;
+      flushThread = new Thread(this::run, bufferedCacheListener.getThreadName());
+      flushThread.start();
     }
   }
 
+  /**
+   * Passes the buffered objects to the listener before returning.
+   */
   @Override
   public synchronized void stop() {
     if (enabled) {
       log.info("Shutting down BufferedKeyCacheListener for {}", bufferedCacheListener.getThreadName());
-      enabled = false;
-      flush();
+      lock.lock();
+      try {
+        enabled = false;
+        flushCondition.signal();
+      } finally {
+        lock.unlock();
+      }
+      try {
+        flushThread.join();
+      } catch (InterruptedException e) {
+        log.error("Interrupted while waiting for the BufferedCacheListener thread to terminate", e);
+        Thread.currentThread().interrupt();
+      }
     }
   }
 
-  private synchronized void flush() {
-    if (!onUpdateQueue.isEmpty()) {
-      LinkedList<S> updateKeys = new LinkedList<>();
-      onUpdateQueue.drainTo(updateKeys, MAX_TO_LISTENER);
-      if (!updateKeys.isEmpty()) {
-        try {
-          bufferedCacheListener.notifyElementUpdated(updateKeys);
-        } catch (Exception e) {
-          log.error("Uncaught exception occured in {} whilst notifying for update of {} elements!",  bufferedCacheListener.getThreadName(), updateKeys.size(), e);
+  /**
+   * Run by the flush thread until the listener is stopped and the buffers
+   * are empty.
+   */
+  private void run() {
+    while (true) {
+      Collection<S> updates;
+      Collection<S> confirmations;
+      lock.lock();
+      try {
+        if (!awaitBatch()) {
+          return;
         }
+        updates = onUpdateBuffer.drain();
+        confirmations = statusConfirmationBuffer.drain();
+      } catch (InterruptedException e) {
+        log.error("Interrupted while waiting for updates in BufferedCacheListener thread");
+        continue;
+      } finally {
+        lock.unlock();
       }
+      flush(updates, confirmations);
     }
+  }
 
-    if (!statusConfirmationQueue.isEmpty()) {
-      LinkedList<S> confirmationKeys = new LinkedList<>();
-      statusConfirmationQueue.drainTo(confirmationKeys, MAX_TO_LISTENER);
-      if (!confirmationKeys.isEmpty()) {
-        try {
-          bufferedCacheListener.confirmStatus(confirmationKeys);
-        } catch (Exception e) {
-          log.error("Uncaught exception occured in {} whilst confirming status of {} cache objects!", bufferedCacheListener.getThreadName(), confirmationKeys.size(), e);
-        }
+  /**
+   * Waits until a batch is complete. Must be called with the lock held.
+   *
+   * @return false if the listener is stopped and there is nothing left to flush
+   */
+  private boolean awaitBatch() throws InterruptedException {
+    while (true) {
+      boolean empty = onUpdateBuffer.size() == 0 && statusConfirmationBuffer.size() == 0;
+      if (!enabled) {
+        return !empty;
       }
+      if (empty) {
+        flushCondition.await();
+        continue;
+      }
+      if (onUpdateBuffer.size() >= MAX_TO_LISTENER || statusConfirmationBuffer.size() >= MAX_TO_LISTENER) {
+        return true;
+      }
+      long oldest = Math.min(onUpdateBuffer.firstArrival, statusConfirmationBuffer.firstArrival);
+      long wait = oldest + frequency - System.currentTimeMillis();
+      if (wait <= 0) {
+        return true;
+      }
+      flushCondition.await(wait, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void flush(final Collection<S> updates, final Collection<S> confirmations) {
+    for (List<S> updateKeys : split(updates)) {
+      try {
+        bufferedCacheListener.notifyElementUpdated(updateKeys);
+      } catch (Exception e) {
+        log.error("Uncaught exception occured in {} whilst notifying for update of {} elements!",  bufferedCacheListener.getThreadName(), updateKeys.size(), e);
+      }
+    }
+
+    for (List<S> confirmationKeys : split(confirmations)) {
+      try {
+        bufferedCacheListener.confirmStatus(confirmationKeys);
+      } catch (Exception e) {
+        log.error("Uncaught exception occured in {} whilst confirming status of {} cache objects!", bufferedCacheListener.getThreadName(), confirmationKeys.size(), e);
+      }
+    }
+  }
+
+  /**
+   * @return the objects in lists of at most {@link #MAX_TO_LISTENER} elements
+   */
+  private List<List<S>> split(final Collection<S> objects) {
+    if (objects.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<S> all = objects instanceof List ? (List<S>) objects : new ArrayList<>(objects);
+    if (all.size() <= MAX_TO_LISTENER) {
+      return Collections.singletonList(all);
+    }
+    List<List<S>> chunks = new ArrayList<>();
+    for (int i = 0; i < all.size(); i += MAX_TO_LISTENER) {
+      chunks.add(all.subList(i, Math.min(all.size(), i + MAX_TO_LISTENER)));
     }
+    return chunks;
   }
 
+  /**
+   * Objects waiting to be passed to the listener. Accessed with the lock held.
+   */
+  private final class Buffer {
+
+    private List<S> objects = new ArrayList<>();
+
+    private Map<Long, S> latestObjects = new LinkedHashMap<>();
+
+    /**
+     * Time of arrival of the oldest buffered object.
+     */
+    private long firstArrival = Long.MAX_VALUE;
 
+    private void add(final Long id, final S object) {
+      if (size() == 0) {
+        firstArrival = System.currentTimeMillis();
+      }
+      if (coalescing) {
+        latestObjects.put(id, object);
+      } else {
+        objects.add(object);
+      }
+    }
+
+    private int size() {
+      return coalescing ? latestObjects.size() : objects.size();
+    }
+
+    private Collection<S> drain() {
+      firstArrival = Long.MAX_VALUE;
+      Collection<S> drained;
+      if (coalescing) {
+        drained = latestObjects.values();
+        latestObjects = new LinkedHashMap<>();
+      } else {
+        drained = objects;
+        objects = new ArrayList<>();
+      }
+      return drained;
+    }
+  }
 }
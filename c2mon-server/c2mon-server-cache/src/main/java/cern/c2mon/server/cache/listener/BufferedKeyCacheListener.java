@@ -32,10 +32,11 @@ public class BufferedKeyCacheListener<T extends Cacheable> extends AbstractBuffe
    * Constructor
    *
    * @param bufferedKeyTimCacheListener the listener to register.
-   * @param frequency                   the frequency (in ms) at which the buffer should be emptied
+   * @param frequency                   the maximum time (in ms) a key is buffered before being passed to the listener
    */
   public BufferedKeyCacheListener(final C2monBufferedCacheListener<Long> bufferedKeyTimCacheListener, int frequency) {
-    super(bufferedKeyTimCacheListener, frequency);
+    // a key is only passed once per batch
+    super(bufferedKeyTimCacheListener, frequency, true);
   }
 
   /**
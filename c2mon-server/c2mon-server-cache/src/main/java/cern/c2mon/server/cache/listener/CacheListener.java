@@ -34,7 +34,7 @@ import cern.c2mon.shared.util.threadhandler.ThreadHandler;
  * <p>It instantiates threads for each cache notification method, and passes each
  * received object to the appropriate thread.
  *
- * <p><b>This class is deprecated and the {@link MultiThreadedCacheListener} should
+ * <p><b>This class is deprecated and the {@link StripedCacheListener} should
  * preferably be used instead (with #threads = 1 for a single-threaded listener)</b>
  *
  * @author Mark Brightwell
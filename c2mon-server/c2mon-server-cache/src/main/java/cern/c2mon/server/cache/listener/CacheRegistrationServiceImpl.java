@@ -41,7 +41,7 @@ import cern.c2mon.shared.util.threadhandler.ThreadHandler;
  *
  * <p>Internally, registration on a single thread uses the
  * {@link ThreadHandler} implementation while registrations
- * on several threads use the {@link MultiThreadedCacheListener}
+ * on several threads use the {@link StripedCacheListener}
  * and the Java concurrency library.
  *
  * @author Mark Brightwell
@@ -50,18 +50,6 @@ import cern.c2mon.shared.util.threadhandler.ThreadHandler;
 @Service
 public class CacheRegistrationServiceImpl implements CacheRegistrationService {
 
-  /**
-   * Size of the queue in which update events are
-   * stored.
-   *
-   * <p>Update events are stored in a queue while waiting
-   * to be passed to the listener. If the queue fills up,
-   * the cache notification thread will have to wait,
-   * which will slow down the server (resulting in JMS
-   * queue increases if endemic in the listener module).
-   */
-  public static final int QUEUE_SIZE_DEFAULT = Integer.MAX_VALUE;
-
   /**
    * Reference to the DataTag cache.
    */
@@ -110,7 +98,7 @@ public class CacheRegistrationServiceImpl implements CacheRegistrationService {
     if (threads == 1) {
       return registerToAllTags(tagCacheListener);
     } else {
-      MultiThreadedCacheListener<Tag> threadedCacheListener = new MultiThreadedCacheListener<Tag>(tagCacheListener, QUEUE_SIZE_DEFAULT, threads);
+      StripedCacheListener<Tag> threadedCacheListener = new StripedCacheListener<>(tagCacheListener, properties.getListenerQueueCapacity(), threads);
       registerListenerToTags(threadedCacheListener);
       return threadedCacheListener;
     }
@@ -146,7 +134,7 @@ public class CacheRegistrationServiceImpl implements CacheRegistrationService {
     if (threads == 1) {
       return dataTagCache.registerListener(dataTagCacheListener);
     } else {
-      return dataTagCache.registerThreadedListener(dataTagCacheListener, QUEUE_SIZE_DEFAULT, threads);
+      return dataTagCache.registerThreadedListener(dataTagCacheListener, properties.getListenerQueueCapacity(), threads);
     }
   }
 
@@ -161,7 +149,7 @@ public class CacheRegistrationServiceImpl implements CacheRegistrationService {
     if (threads == 1) {
       return ruleTagCache.registerListener(ruleTagCacheListener);
     } else {
-      return ruleTagCache.registerThreadedListener(ruleTagCacheListener, QUEUE_SIZE_DEFAULT, threads);
+      return ruleTagCache.registerThreadedListener(ruleTagCacheListener, properties.getListenerQueueCapacity(), threads);
     }
   }
 
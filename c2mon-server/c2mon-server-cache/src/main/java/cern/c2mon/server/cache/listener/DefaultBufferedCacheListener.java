@@ -32,10 +32,10 @@ public class DefaultBufferedCacheListener<T extends Cacheable> extends AbstractB
    * Constructor.
    *
    * @param bufferedCacheListener listener expecting collections of cache objects
-   * @param frequency the frequency (in seconds) at which the buffer should be emptied
+   * @param frequency the maximum time (in ms) an object is buffered before being passed to the listener
    */
   public DefaultBufferedCacheListener(final C2monBufferedCacheListener<T> bufferedCacheListener, int frequency) {
-    super(bufferedCacheListener, frequency);
+    super(bufferedCacheListener, frequency, bufferedCacheListener.isCoalescing());
   }
 
   /**
@@ -0,0 +1,519 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.listener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.cache.CacheRegistrationService;
+import cern.c2mon.shared.common.Cacheable;
+import cern.c2mon.shared.daq.lifecycle.Lifecycle;
+
+/**
+ * Cache listener implementation calling the wrapped {@link C2monCacheListener}
+ * on a fixed number of threads, while preserving the order of the
+ * notifications of each cache object.
+ *
+ * <p>Each thread consumes its own bounded queue (lane). The lane of a
+ * notification is chosen from the id of the cache object, so all updates of
+ * a given object are passed to the listener in the order in which they were
+ * received, on the same thread. Updates of different objects are processed
+ * in parallel.
+ *
+ * <p>If a lane is full, the notifying thread blocks until space is available
+ * again, so that a slow listener slows down the incoming updates rather than
+ * filling up the heap.
+ *
+ * <p>In overflowing mode, the notifying thread never blocks and no
+ * notification is dropped. This mode must be used if the notifications are
+ * made while a cache key lock is held and the listener itself takes cache key
+ * locks. The lanes are then unbounded: their capacity is only a high-water
+ * mark, above which a warning is logged and the notifications are counted as
+ * overflowing until the lane has drained below it again.
+ *
+ * <p>This class is used internally in the server core to wrap a module
+ * listener. The module should preferably register by using the
+ * {@link CacheRegistrationService} bean.
+ *
+ * @param <T> type of cache object expected by listener
+ */
+@Slf4j
+public class StripedCacheListener<T extends Cacheable> implements C2monCacheListener<T>, Lifecycle {
+
+  /**
+   * The number of milliseconds a thread waits between checking for shutdown requests.
+   */
+  private static final int THREAD_SHUTDOWN_CHECK_INTERVAL = 2000;
+
+  /**
+   * The wrapped listener.
+   */
+  private final C2monCacheListener<T> c2monCacheListener;
+
+  /**
+   * The listener callbacks, created once.
+   */
+  private final Consumer<T> updateAction;
+  private final Consumer<T> confirmAction;
+
+  /**
+   * One queue per thread.
+   */
+  private final List<Lane> lanes;
+
+  /**
+   * The pool of threads calling the C2monCacheListener (one task is submitted
+   * per lane, running until server shutdown).
+   */
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Number of notifications processed since start up.
+   */
+  private final LongAdder processedCount = new LongAdder();
+
+  /**
+   * Sum of the latencies (from reception to end of processing) of the
+   * processed notifications, in ms.
+   */
+  private final LongAdder totalLatency = new LongAdder();
+
+  /**
+   * Highest latency since the last call to {@link #resetMaxLatency()}, in ms.
+   */
+  private final AtomicLong maxLatency = new AtomicLong();
+
+  /**
+   * Number of notifications queued beyond the lane capacity, in overflowing mode.
+   */
+  private final LongAdder overflowCount = new LongAdder();
+
+  /**
+   * Shutdown request made.
+   */
+  private volatile boolean shutdownRequestMade = false;
+
+  /**
+   * The listener can only be started and stopped once.
+   */
+  private volatile boolean running = false;
+
+  /**
+   * Constructor.
+   * @param cacheListener the listener wrapped by this class
+   *        (the module listener)
+   * @param laneCapacity the capacity of the queue of each thread
+   * @param threadPoolSize the number of threads that the module
+   *        should be called on
+   */
+  public StripedCacheListener(final C2monCacheListener<T> cacheListener, final int laneCapacity, final int threadPoolSize) {
+    this(cacheListener, laneCapacity, threadPoolSize, false);
+  }
+
+  /**
+   * Constructor.
+   * @param cacheListener the listener wrapped by this class
+   *        (the module listener)
+   * @param laneCapacity the capacity of the queue of each thread
+   * @param threadPoolSize the number of threads that the module
+   *        should be called on
+   * @param overflowing if true, notifications are queued beyond the lane
+   *        capacity instead of blocking the notifying thread when a lane is full
+   */
+  public StripedCacheListener(final C2monCacheListener<T> cacheListener, final int laneCapacity, final int threadPoolSize,
+                              final boolean overflowing) {
+    this.c2monCacheListener = cacheListener;
+    this.updateAction = cacheListener::notifyElementUpdated;
+    this.confirmAction = cacheListener::confirmStatus;
+    this.lanes = new ArrayList<>(threadPoolSize);
+    executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, Long.MAX_VALUE, TimeUnit.NANOSECONDS, new SynchronousQueue<>());
+    for (int i = 0; i < threadPoolSize; i++) {
+      Lane lane = new Lane(i, laneCapacity, overflowing);
+      lanes.add(lane);
+      executor.submit(lane);
+    }
+  }
+
+  @Override
+  public void notifyElementUpdated(final T cacheable) {
+    execute(cacheable, updateAction);
+  }
+
+  @Override
+  public void confirmStatus(final T cacheable) {
+    execute(cacheable, confirmAction);
+  }
+
+  /**
+   * Runs the given action on the thread to which the object is assigned,
+   * after all notifications already received for this object.
+   *
+   * @param cacheable the object passed to the action
+   * @param action the action to run
+   */
+  public void execute(final T cacheable, final Consumer<? super T> action) {
+    if (shutdownRequestMade) {
+      log.warn("Attempt at notifying of element update after shutdown started "
+          + "- should not happen and indicates incorrect shutdown sequence!");
+      return;
+    }
+    try {
+      lanes.get(laneIndexOf(cacheable)).add(new Task(cacheable, action));
+    } catch (InterruptedException interEx) {
+      log.error("InterruptedException caught while waiting for StripedCacheListener queue to free space: ", interEx);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs the given action for each of the objects, as
+   * {@link #execute(Cacheable, Consumer)} does, but adds the notifications
+   * to each lane in one go.
+   *
+   * @param cacheables the objects passed to the action, in notification order
+   * @param action the action to run
+   */
+  public void execute(final Collection<? extends T> cacheables, final Consumer<? super T> action) {
+    if (shutdownRequestMade) {
+      log.warn("Attempt at notifying of element update after shutdown started "
+          + "- should not happen and indicates incorrect shutdown sequence!");
+      return;
+    }
+    List<List<Task>> tasksPerLane = new ArrayList<>(lanes.size());
+    for (int i = 0; i < lanes.size(); i++) {
+      tasksPerLane.add(new ArrayList<>());
+    }
+    for (T cacheable : cacheables) {
+      tasksPerLane.get(laneIndexOf(cacheable)).add(new Task(cacheable, action));
+    }
+    try {
+      for (int i = 0; i < lanes.size(); i++) {
+        if (!tasksPerLane.get(i).isEmpty()) {
+          lanes.get(i).addAll(tasksPerLane.get(i));
+        }
+      }
+    } catch (InterruptedException interEx) {
+      log.error("InterruptedException caught while waiting for StripedCacheListener queue to free space: ", interEx);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int laneIndexOf(final T cacheable) {
+    Object id = cacheable.getId();
+    if (id == null) {
+      return 0;
+    }
+    int hash = id.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+  }
+
+  /**
+   * Is running until a shutdown request is made.
+   */
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Can only be started once at server start-up.
+   */
+  @Override
+  public void start() {
+    running = true;
+  }
+
+  /**
+   * Waits for all queued notifications to be processed, then shuts down the
+   * threads. Should be called when the cache is closed on server shutdown.
+   * Will have no effect if called a second time.
+   */
+  @Override
+  public synchronized void stop() {
+    if (running) {
+      log.debug("Shutting down striped cache listener.");
+      running = false;
+      shutdownRequestMade = true;
+      executor.shutdown();
+      try {
+        while (!executor.awaitTermination(THREAD_SHUTDOWN_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+          log.debug("Waiting for {} notifications to be processed before shutdown", getTaskQueueSize());
+        }
+      } catch (InterruptedException ex) {
+        log.error("Interrupted while waiting for shutdown to complete", ex);
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * For management purposes.
+   * @return the number of threads currently notifying the listener
+   */
+  public int getActiveThreadPoolNumber() {
+    int active = 0;
+    for (Lane lane : lanes) {
+      if (lane.busy) {
+        active++;
+      }
+    }
+    return active;
+  }
+
+  /**
+   * For management purposes.
+   * @return the total number of notifications waiting in the queues
+   */
+  public int getTaskQueueSize() {
+    int size = 0;
+    for (Lane lane : lanes) {
+      size += lane.size();
+    }
+    return size;
+  }
+
+  /**
+   * For management purposes.
+   * @return the number of notifications waiting in the queue of each thread
+   */
+  public List<Integer> getLaneQueueSizes() {
+    List<Integer> sizes = new ArrayList<>(lanes.size());
+    for (Lane lane : lanes) {
+      sizes.add(lane.size());
+    }
+    return sizes;
+  }
+
+  /**
+   * For management purposes.
+   * @return for each thread, the time in milliseconds since the oldest
+   *         notification waiting in its queue was received (0 if the
+   *         queue is empty)
+   */
+  public List<Long> getLaneLags() {
+    long now = System.currentTimeMillis();
+    List<Long> lags = new ArrayList<>(lanes.size());
+    for (Lane lane : lanes) {
+      Task head = lane.peek();
+      lags.add(head == null ? 0L : Math.max(0L, now - head.timestamp));
+    }
+    return lags;
+  }
+
+  /**
+   * For management purposes.
+   * @return the number of notifications processed since start up
+   */
+  public long getProcessedCount() {
+    return processedCount.sum();
+  }
+
+  /**
+   * For management purposes.
+   * @return the average time in ms between the reception of a notification
+   *         and the end of its processing
+   */
+  public double getAverageLatency() {
+    long count = processedCount.sum();
+    return count == 0 ? 0 : (double) totalLatency.sum() / count;
+  }
+
+  /**
+   * For management purposes.
+   * @return the highest time in ms between the reception of a notification
+   *         and the end of its processing, since the last reset
+   */
+  public long getMaxLatency() {
+    return maxLatency.get();
+  }
+
+  /**
+   * Resets the value returned by {@link #getMaxLatency()}.
+   */
+  public void resetMaxLatency() {
+    maxLatency.set(0);
+  }
+
+  /**
+   * For management purposes.
+   * @return the number of notifications queued beyond the lane capacity
+   *         (always 0 if not overflowing)
+   */
+  public long getOverflowCount() {
+    return overflowCount.sum();
+  }
+
+  /**
+   * A notification waiting to be passed to the listener.
+   */
+  private final class Task {
+
+    private final T cacheable;
+
+    private final Consumer<? super T> action;
+
+    /**
+     * Time at which the notification was received.
+     */
+    private final long timestamp = System.currentTimeMillis();
+
+    private Task(final T cacheable, final Consumer<? super T> action) {
+      this.cacheable = cacheable;
+      this.action = action;
+    }
+  }
+
+  /**
+   * Queue consumed by a single thread, running from start up to shutdown.
+   * All accesses to the queue are synchronized on the lane.
+   */
+  private final class Lane implements Runnable {
+
+    private final Queue<Task> queue = new ArrayDeque<>();
+
+    private final int index;
+
+    private final int capacity;
+
+    private final boolean overflowing;
+
+    /**
+     * Set while the queue holds more tasks than its capacity, in overflowing mode.
+     */
+    private boolean overCapacity = false;
+
+    /**
+     * Set while the listener is being called.
+     */
+    private volatile boolean busy = false;
+
+    private Lane(final int index, final int capacity, final boolean overflowing) {
+      this.index = index;
+      this.capacity = capacity;
+      this.overflowing = overflowing;
+    }
+
+    private synchronized void add(final Task task) throws InterruptedException {
+      enqueue(task);
+      notifyAll();
+    }
+
+    private synchronized void addAll(final List<Task> tasks) throws InterruptedException {
+      for (Task task : tasks) {
+        enqueue(task);
+      }
+      notifyAll();
+    }
+
+    /**
+     * Must be called with the lane lock held.
+     */
+    private void enqueue(final Task task) throws InterruptedException {
+      if (overflowing) {
+        if (queue.size() >= capacity) {
+          if (!overCapacity) {
+            overCapacity = true;
+            log.warn("Queue of listener thread {} reached its capacity of {} notifications, "
+                + "the next ones are queued beyond it", index, capacity);
+          }
+          overflowCount.increment();
+        }
+      } else {
+        while (queue.size() >= capacity) {
+          // wake up the lane thread for the tasks already added
+          notifyAll();
+          wait();
+        }
+      }
+      queue.add(task);
+    }
+
+    private synchronized Task poll(final long timeout) throws InterruptedException {
+      if (queue.isEmpty() && timeout > 0) {
+        wait(timeout);
+      }
+      Task task = queue.poll();
+      if (task != null) {
+        if (overCapacity && queue.size() < capacity) {
+          overCapacity = false;
+          log.info("Queue of listener thread {} is back under its capacity of {} notifications", index, capacity);
+        }
+        notifyAll();
+      }
+      return task;
+    }
+
+    private synchronized int size() {
+      return queue.size();
+    }
+
+    private synchronized Task peek() {
+      return queue.peek();
+    }
+
+    @Override
+    public void run() {
+      while (!shutdownRequestMade) {
+        try {
+          Task task = poll(THREAD_SHUTDOWN_CHECK_INTERVAL);
+          if (task != null) {
+            call(task);
+          }
+        } catch (InterruptedException e) {
+          log.warn("Cache Listener thread interrupted in StripedCacheListener.", e);
+        }
+      }
+
+      //empty the queue before shutting down
+      try {
+        Task task;
+        while ((task = poll(0)) != null) {
+          call(task);
+        }
+      } catch (InterruptedException e) {
+        log.warn("Cache Listener thread interrupted in StripedCacheListener.", e);
+      }
+    }
+
+    private void call(final Task task) {
+      busy = true;
+      try {
+        task.action.accept(task.cacheable);
+      } catch (Exception e) {
+        log.error("Exception caught when notifying listener: the update could not be processed.", e);
+      } finally {
+        busy = false;
+        long latency = System.currentTimeMillis() - task.timestamp;
+        processedCount.increment();
+        totalLatency.add(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ import cern.c2mon.server.cache.C2monCacheWithSupervision;
 import cern.c2mon.server.cache.CacheSupervisionListener;
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.common.AbstractCache;
+import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.cache.loading.common.C2monCacheLoader;
 import cern.c2mon.server.cache.loading.SimpleCacheLoaderDAO;
 import cern.c2mon.server.common.tag.AbstractTagCacheObject;
@@ -65,6 +66,13 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
   private final List<CacheSupervisionListener< ? super T>> listenersWithSupervision;
   private final ReentrantReadWriteLock listenerLock;
 
+  /**
+   * Secondary indexes on the tag name and supervision ids. Is <code>null</code>
+   * if disabled or running in clustered mode, in which case the Ehcache search
+   * is used instead.
+   */
+  private final TagIndex<T> tagIndex;
+
   /**
    * Constructor.
    */
@@ -77,19 +85,126 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
     super(clusterCache, ehcache, cacheLoader, c2monCacheLoader, cacheLoaderDAO, properties);
     listenersWithSupervision = new ArrayList<>();
     listenerLock = new ReentrantReadWriteLock();
+    if (properties.isTagIndexEnabled() && !"multi".equalsIgnoreCase(properties.getMode())) {
+      tagIndex = new TagIndex<>();
+    } else {
+      tagIndex = null;
+    }
+  }
+
+  /**
+   * Runs the common cache initialization and builds the secondary indexes
+   * from the loaded cache content.
+   */
+  @Override
+  protected void commonInit() {
+    super.commonInit();
+    rebuildIndex();
+  }
+
+  /**
+   * Rebuilds the secondary tag indexes from scratch, from the current
+   * content of the cache.
+   */
+  public void rebuildIndex() {
+    if (tagIndex == null) {
+      return;
+    }
+    tagIndex.clear();
+    for (Long key : getKeys()) {
+      try {
+        tagIndex.put(get(key));
+      } catch (CacheElementNotFoundException e) {
+        log.debug("rebuildIndex() - Tag " + key + " was removed from the " + getCacheName() + " cache while indexing");
+      }
+    }
+    log.info("Indexed " + tagIndex.size() + " tags of the " + getCacheName() + " cache");
+  }
+
+  @Override
+  public void put(final Long key, final T value) {
+    if (tagIndex != null) {
+      tagIndex.put(value);
+    }
+    super.put(key, value);
+  }
+
+  @Override
+  public void putQuiet(final T value) {
+    if (tagIndex != null) {
+      tagIndex.put(value);
+    }
+    super.putQuiet(value);
+  }
+
+  @Override
+  public boolean remove(final Long id) {
+    boolean removed = super.remove(id);
+    if (tagIndex != null) {
+      tagIndex.remove(id);
+    }
+    return removed;
+  }
+
+  /**
+   * @return the secondary tag indexes, or <code>null</code> if the
+   *         indexes are disabled
+   */
+  protected TagIndex<T> getTagIndex() {
+    return tagIndex;
   }
 
 
   @Override
   public void notifyListenersOfSupervisionChange(final T tag) {
     //only notify if the current value in the cache is not more recent (a new update could have overraken the supervision notification)
-    if (!this.getCopy(tag.getId()).getCacheTimestamp().after(tag.getCacheTimestamp())) {
+    if (!isOvertakenInCache(tag)) {
       notifyListenersWithSupervision(tag);
     } else {
       log.info("Filtering out Tag supervison notification as newer value in cache - tag id is " + tag.getId());
     }
   }
 
+  @Override
+  public void notifyListenersOfSupervisionChange(final Collection<T> tags) {
+    List<T> tagsToNotify = new ArrayList<>(tags.size());
+    for (T tag : tags) {
+      try {
+        if (!isOvertakenInCache(tag)) {
+          tagsToNotify.add(tag);
+        } else {
+          log.info("Filtering out Tag supervison notification as newer value in cache - tag id is " + tag.getId());
+        }
+      } catch (CacheElementNotFoundException e) {
+        log.warn("Unable to locate Tag #{} in cache during supervision notification (removed during reconfiguration?)", tag.getId());
+      }
+    }
+    if (tagsToNotify.isEmpty()) {
+      return;
+    }
+    listenerLock.readLock().lock();
+    try {
+      for (CacheSupervisionListener< ? super T> cacheListener : listenersWithSupervision) {
+        cacheListener.onSupervisionChange(tagsToNotify);
+      }
+    } finally {
+      listenerLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param tag Tag copy with the supervision status applied
+   * @return true if the Tag in the cache has a more recent cache timestamp
+   */
+  private boolean isOvertakenInCache(final T tag) {
+    acquireReadLockOnKey(tag.getId());
+    try {
+      return get(tag.getId()).getCacheTimestamp().after(tag.getCacheTimestamp());
+    } finally {
+      releaseReadLockOnKey(tag.getId());
+    }
+  }
+
   /**
    * Private method for notifying all listeners registered for supervision changes
    * to Tags (i.e. they get a Tag update call on a supervision change also)
@@ -123,6 +238,10 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
       throw new IllegalArgumentException("Attempting to retrieve a Tag from the cache with a NULL or empty name parameter.");
     }
 
+    if (tagIndex != null) {
+      return tagIndex.getIdByName(name) != null;
+    }
+
     // This will prevent wildcard searches
     if (name.contains("*")) {
       name = name.replace("*", "\\*");
@@ -157,6 +276,19 @@ public abstract class AbstractTagCache<T extends Tag> extends AbstractCache<Long
       throw new IllegalArgumentException("Attempting to retrieve a Tag from the cache with a NULL or empty name parameter.");
     }
 
+    if (tagIndex != null) {
+      Long id = tagIndex.getIdByName(name);
+      if (id == null) {
+        return null;
+      }
+      try {
+        return get(id);
+      } catch (CacheElementNotFoundException e) {
+        // removed in the meantime
+        return null;
+      }
+    }
+
     // This will prevent wildcard searches
     if (name.contains("*")) {
       name = name.replace("*", "\\*");
@@ -0,0 +1,233 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.tag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cern.c2mon.server.common.tag.Tag;
+
+/**
+ * In-memory secondary indexes of a tag cache. Maps the case insensitive tag
+ * name to the tag id, and the process, equipment and sub-equipment ids to the
+ * ids of the tags attached to them.
+ *
+ * <p>The index is kept up to date by the owning {@link AbstractTagCache} on
+ * every put and remove. It only reflects the writes of the local server, and
+ * must therefore not be used in the clustered cache mode.
+ *
+ * <p>Lookups are lock free. Updates for a tag whose indexed fields did not
+ * change (i.e. all value updates) do not take any lock either.
+ *
+ * @param <T> the tag type of the indexed cache
+ */
+public class TagIndex<T extends Tag> {
+
+  /**
+   * Tag id -> snapshot of the indexed fields, used to remove the
+   * previous index entries when a tag is updated or removed.
+   */
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Lower case tag name -> tag id */
+  private final Map<String, Long> nameIndex = new ConcurrentHashMap<>();
+
+  /** Process id -> tag ids */
+  private final Map<Long, Set<Long>> processIndex = new ConcurrentHashMap<>();
+
+  /** Equipment id -> tag ids */
+  private final Map<Long, Set<Long>> equipmentIndex = new ConcurrentHashMap<>();
+
+  /** Sub-equipment id -> tag ids */
+  private final Map<Long, Set<Long>> subEquipmentIndex = new ConcurrentHashMap<>();
+
+  /**
+   * Adds the tag to the index, or updates the index entries if the name or
+   * the supervision ids of the tag changed since the last call.
+   *
+   * @param tag the tag that was put into the cache
+   */
+  public void put(final T tag) {
+    Entry current = entries.get(tag.getId());
+    if (current != null && current.matches(tag)) {
+      return;
+    }
+    synchronized (this) {
+      Entry previous = entries.get(tag.getId());
+      if (previous != null) {
+        unindex(tag.getId(), previous);
+      }
+      Entry entry = new Entry(tag);
+      entries.put(tag.getId(), entry);
+      if (entry.name != null) {
+        nameIndex.put(entry.name, tag.getId());
+      }
+      index(processIndex, entry.processIds, tag.getId());
+      index(equipmentIndex, entry.equipmentIds, tag.getId());
+      index(subEquipmentIndex, entry.subEquipmentIds, tag.getId());
+    }
+  }
+
+  /**
+   * Removes all index entries of the given tag.
+   *
+   * @param id the id of the tag removed from the cache
+   */
+  public synchronized void remove(final Long id) {
+    Entry previous = entries.remove(id);
+    if (previous != null) {
+      unindex(id, previous);
+    }
+  }
+
+  /**
+   * Removes all entries from the index.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    nameIndex.clear();
+    processIndex.clear();
+    equipmentIndex.clear();
+    subEquipmentIndex.clear();
+  }
+
+  /**
+   * @param name the tag name (case insensitive)
+   * @return the id of the tag with the given name, or <code>null</code>
+   *         if no such tag is indexed
+   */
+  public Long getIdByName(final String name) {
+    return nameIndex.get(toKey(name));
+  }
+
+  /**
+   * @param processId the process id
+   * @return the ids of all tags attached to the given process
+   */
+  public List<Long> getIdsByProcessId(final Long processId) {
+    return lookup(processIndex, processId);
+  }
+
+  /**
+   * @param equipmentId the equipment id
+   * @return the ids of all tags attached to the given equipment
+   */
+  public List<Long> getIdsByEquipmentId(final Long equipmentId) {
+    return lookup(equipmentIndex, equipmentId);
+  }
+
+  /**
+   * @param subEquipmentId the sub-equipment id
+   * @return the ids of all tags attached to the given sub-equipment
+   */
+  public List<Long> getIdsBySubEquipmentId(final Long subEquipmentId) {
+    return lookup(subEquipmentIndex, subEquipmentId);
+  }
+
+  /**
+   * @return the number of indexed tags
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private void unindex(final Long id, final Entry entry) {
+    if (entry.name != null) {
+      nameIndex.remove(entry.name, id);
+    }
+    unindex(processIndex, entry.processIds, id);
+    unindex(equipmentIndex, entry.equipmentIds, id);
+    unindex(subEquipmentIndex, entry.subEquipmentIds, id);
+  }
+
+  private static void index(final Map<Long, Set<Long>> index, final Set<Long> keys, final Long id) {
+    for (Long key : keys) {
+      index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  private static void unindex(final Map<Long, Set<Long>> index, final Set<Long> keys, final Long id) {
+    for (Long key : keys) {
+      Set<Long> ids = index.get(key);
+      if (ids != null) {
+        ids.remove(id);
+        if (ids.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+  }
+
+  private static List<Long> lookup(final Map<Long, Set<Long>> index, final Long key) {
+    Set<Long> ids = index.get(key);
+    if (ids == null) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(ids);
+  }
+
+  private static String toKey(final String name) {
+    return name == null ? null : name.toLowerCase(Locale.ENGLISH);
+  }
+
+  private static Set<Long> snapshot(final Set<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(new HashSet<>(ids));
+  }
+
+  private static boolean sameIds(final Set<Long> indexed, final Set<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      return indexed.isEmpty();
+    }
+    return indexed.equals(ids);
+  }
+
+  /**
+   * Immutable snapshot of the indexed fields of a tag.
+   */
+  private static final class Entry {
+    private final String originalName;
+    private final String name;
+    private final Set<Long> processIds;
+    private final Set<Long> equipmentIds;
+    private final Set<Long> subEquipmentIds;
+
+    private Entry(final Tag tag) {
+      this.originalName = tag.getName();
+      this.name = toKey(originalName);
+      this.processIds = snapshot(tag.getProcessIds());
+      this.equipmentIds = snapshot(tag.getEquipmentIds());
+      this.subEquipmentIds = snapshot(tag.getSubEquipmentIds());
+    }
+
+    private boolean matches(final Tag tag) {
+      return Objects.equals(originalName, tag.getName())
+          && sameIds(processIds, tag.getProcessIds())
+          && sameIds(equipmentIds, tag.getEquipmentIds())
+          && sameIds(subEquipmentIds, tag.getSubEquipmentIds());
+    }
+  }
+}
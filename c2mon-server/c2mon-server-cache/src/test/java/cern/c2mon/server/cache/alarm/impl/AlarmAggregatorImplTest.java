@@ -18,12 +18,24 @@ package cern.c2mon.server.cache.alarm.impl;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.easymock.EasyMock;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -31,6 +43,7 @@ import org.junit.Test;
 import cern.c2mon.server.cache.CacheRegistrationService;
 import cern.c2mon.server.cache.TagFacadeGateway;
 import cern.c2mon.server.cache.TagLocationService;
+import cern.c2mon.server.cache.config.CacheProperties;
 import cern.c2mon.server.cache.alarm.AlarmAggregatorListener;
 import cern.c2mon.server.cache.alarm.impl.AlarmAggregatorImpl;
 import cern.c2mon.server.common.alarm.Alarm;
@@ -74,6 +87,8 @@ public class AlarmAggregatorImplTest {
    */
   private AlarmAggregatorListener listener1;
   private AlarmAggregatorListener listener2;
+
+  private CacheProperties properties;
   
   @Before
   public void init() {      
@@ -81,7 +96,8 @@ public class AlarmAggregatorImplTest {
    tagLocationService = createMock(TagLocationService.class);
    cacheRegistrationService = createMock(CacheRegistrationService.class);   
    notifier = new AlarmAggregatorNotifier();
-   alarmAggregator = new AlarmAggregatorImpl(cacheRegistrationService, tagFacadeGateway, notifier);
+   properties = new CacheProperties();
+   alarmAggregator = new AlarmAggregatorImpl(cacheRegistrationService, tagFacadeGateway, notifier, properties);
    
    //register 2 listeners
    listener1 = createMock(AlarmAggregatorListener.class);
@@ -129,5 +145,166 @@ public class AlarmAggregatorImplTest {
     verify(listener1);
     verify(listener2);
   }
-  
+
+  /**
+   * Tests that the updates of a tag are evaluated in order on the evaluation
+   * threads, and that the listeners are notified from these threads.
+   */
+  @Test
+  public void testAsynchronousEvaluation() throws InterruptedException {
+    final int nbUpdates = 100;
+    List<DataTag> tags = new ArrayList<>();
+    List<Long> received = new ArrayList<>();
+    CountDownLatch latch = new CountDownLatch(nbUpdates);
+    for (long i = 0; i < nbUpdates; i++) {
+      DataTagCacheObject tag = new DataTagCacheObject(5L, "test tag", "Long", DataTagConstants.MODE_OPERATIONAL);
+      tag.setValue(i);
+      tags.add(tag);
+      listener1.notifyOnUpdate(tag, null);
+      expectLastCall().andAnswer(() -> {
+        received.add((Long) tag.getValue());
+        latch.countDown();
+        return null;
+      });
+      listener2.notifyOnUpdate(tag, null);
+    }
+    cacheRegistrationService.registerSynchronousToAllTags(alarmAggregator);
+    cacheRegistrationService.registerForSupervisionChanges(alarmAggregator);
+
+    replay(cacheRegistrationService);
+    replay(tagFacadeGateway);
+    replay(listener1);
+    replay(listener2);
+
+    properties.setAlarmAggregatorThreads(2);
+    alarmAggregator.init();
+    for (DataTag tag : tags) {
+      alarmAggregator.notifyElementUpdated(tag);
+    }
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    alarmAggregator.shutdown();
+
+    for (int i = 0; i < nbUpdates; i++) {
+      assertEquals(Long.valueOf(i), received.get(i));
+    }
+    assertEquals(0, alarmAggregator.getEvaluationQueueSize());
+    verify(cacheRegistrationService);
+    verify(tagFacadeGateway);
+    verify(listener1);
+    verify(listener2);
+  }
+
+  /**
+   * Tests that the tags of a supervision change batch are all evaluated once
+   * on the evaluation threads.
+   */
+  @Test
+  public void testBatchSupervisionChange() throws InterruptedException {
+    final int nbTags = 10;
+    List<DataTag> tags = new ArrayList<>();
+    CountDownLatch latch = new CountDownLatch(nbTags);
+    for (long id = 0; id < nbTags; id++) {
+      DataTagCacheObject tag = new DataTagCacheObject(id, "test tag", "Long", DataTagConstants.MODE_OPERATIONAL);
+      tags.add(tag);
+      listener1.notifyOnSupervisionChange(tag, null);
+      expectLastCall().andAnswer(() -> {
+        latch.countDown();
+        return null;
+      });
+      listener2.notifyOnSupervisionChange(tag, null);
+    }
+    cacheRegistrationService.registerSynchronousToAllTags(alarmAggregator);
+    cacheRegistrationService.registerForSupervisionChanges(alarmAggregator);
+
+    replay(cacheRegistrationService);
+    replay(tagFacadeGateway);
+    replay(listener1);
+    replay(listener2);
+
+    properties.setAlarmAggregatorThreads(2);
+    alarmAggregator.init();
+    alarmAggregator.onSupervisionChange(tags);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    alarmAggregator.shutdown();
+
+    assertEquals(0, alarmAggregator.getEvaluationQueueSize());
+    verify(cacheRegistrationService);
+    verify(tagFacadeGateway);
+    verify(listener1);
+    verify(listener2);
+  }
+
+  /**
+   * Tests that updates received while the tag write lock is held do not
+   * block on a full evaluation queue, although the evaluation waits for the
+   * tag read lock (as in AbstractTagFacade.evaluateAlarms).
+   */
+  @Test
+  public void testFullQueueDoesNotBlockWithTagLockHeld() throws Exception {
+    final int nbUpdates = 50;
+    ReentrantReadWriteLock tagLock = new ReentrantReadWriteLock();
+    List<Long> received = new ArrayList<>();
+    CountDownLatch lastReceived = new CountDownLatch(1);
+    List<DataTag> tags = new ArrayList<>();
+    for (long i = 0; i < nbUpdates; i++) {
+      DataTagCacheObject tag = new DataTagCacheObject(5L, "test tag", "Long", DataTagConstants.MODE_OPERATIONAL);
+      tag.setValue(i);
+      tag.setAlarmIds(new ArrayList<>(Arrays.asList(10L)));
+      tags.add(tag);
+    }
+    expect(tagFacadeGateway.evaluateAlarms(EasyMock.anyObject())).andAnswer(() -> {
+      tagLock.readLock().lock();
+      tagLock.readLock().unlock();
+      return new ArrayList<>(Arrays.asList(new AlarmCacheObject(10L)));
+    }).anyTimes();
+    listener1.notifyOnUpdate(EasyMock.anyObject(), EasyMock.anyObject());
+    expectLastCall().andAnswer(() -> {
+      Long value = (Long) ((DataTag) EasyMock.getCurrentArguments()[0]).getValue();
+      received.add(value);
+      if (value == nbUpdates - 1) {
+        lastReceived.countDown();
+      }
+      return null;
+    }).anyTimes();
+    listener2.notifyOnUpdate(EasyMock.anyObject(), EasyMock.anyObject());
+    expectLastCall().anyTimes();
+    cacheRegistrationService.registerSynchronousToAllTags(alarmAggregator);
+    cacheRegistrationService.registerForSupervisionChanges(alarmAggregator);
+
+    replay(cacheRegistrationService);
+    replay(tagFacadeGateway);
+    replay(listener1);
+    replay(listener2);
+
+    properties.setAlarmAggregatorThreads(1);
+    properties.setListenerQueueCapacity(2);
+    alarmAggregator.init();
+
+    // the cache notifies its listeners with the tag write lock held
+    ExecutorService cacheUpdater = Executors.newSingleThreadExecutor();
+    Future<?> updates = cacheUpdater.submit(() -> {
+      tagLock.writeLock().lock();
+      try {
+        for (DataTag tag : tags) {
+          alarmAggregator.notifyElementUpdated(tag);
+        }
+      } finally {
+        tagLock.writeLock().unlock();
+      }
+    });
+    updates.get(5, TimeUnit.SECONDS);
+    cacheUpdater.shutdown();
+
+    assertTrue(lastReceived.await(5, TimeUnit.SECONDS));
+    alarmAggregator.shutdown();
+
+    // every update is evaluated, in order
+    assertTrue(alarmAggregator.getOverflowingEvaluations() > 0);
+    assertEquals(nbUpdates, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      assertEquals(Long.valueOf(i), received.get(i));
+    }
+    verify(cacheRegistrationService);
+    verify(tagFacadeGateway);
+  }
 }
@@ -20,6 +20,7 @@ import static org.easymock.EasyMock.createMock;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
@@ -32,6 +33,7 @@ import cern.c2mon.server.cache.AlarmCache;
 import cern.c2mon.server.cache.alarm.config.OscillationProperties;
 import cern.c2mon.server.cache.alarm.oscillation.OscillationUpdater;
 import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.alarm.OscillationTimestamps;
 import cern.c2mon.server.common.datatag.DataTagCacheObject;
 import cern.c2mon.shared.client.alarm.condition.ValueAlarmCondition;
 import cern.c2mon.shared.common.datatag.DataTagConstants;
@@ -96,7 +98,7 @@ public class AlarmCacheUpdaterImplTest {
     assertFalse(alarmCacheObject.isOscillating());
     assertEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
     assertNotEquals(oldAlarmTime, alarmCacheObject.getTimestamp());
-    assertEquals(Long.valueOf(tag.getTimestamp().getTime()), alarmCacheObject.getFifoSourceTimestamps().getFirst());
+    assertEquals(tag.getTimestamp().getTime(), alarmCacheObject.getOscillationTimestamps().getFirst());
   }
 
   /**
@@ -184,7 +186,7 @@ public class AlarmCacheUpdaterImplTest {
     assertFalse(alarmCacheObject.isOscillating());
     assertEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
     assertNotEquals(oldAlarmTime, alarmCacheObject.getTimestamp());
-    assertTrue(alarmCacheObject.getFifoSourceTimestamps().isEmpty());
+    assertNull(alarmCacheObject.getOscillationTimestamps());
   }
   
   /**
@@ -214,7 +216,7 @@ public class AlarmCacheUpdaterImplTest {
     assertFalse(alarmCacheObject.isOscillating());
     assertEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
     assertNotEquals(oldAlarmTime, alarmCacheObject.getTimestamp());
-    assertTrue(alarmCacheObject.getFifoSourceTimestamps().isEmpty());
+    assertNull(alarmCacheObject.getOscillationTimestamps());
   }
 
   /**
@@ -241,7 +243,7 @@ public class AlarmCacheUpdaterImplTest {
     assertTrue(alarmCacheObject.isOscillating());
     assertNotEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
     assertEquals(oldAlarmTime, alarmCacheObject.getTimestamp());
-    assertEquals(Long.valueOf(tag.getTimestamp().getTime()), alarmCacheObject.getFifoSourceTimestamps().getFirst());
+    assertEquals(tag.getTimestamp().getTime(), alarmCacheObject.getOscillationTimestamps().getFirst());
   }
 
   private void testCommitAlarmStateChangeWithOscillationDetect(short mode) {
@@ -253,9 +255,9 @@ public class AlarmCacheUpdaterImplTest {
     assertTrue((Boolean) tag.getValue());
     assertNotEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
 
-    int n = 1;
-    while(alarmCacheObject.getFifoSourceTimestamps().size() < oscillationProperties.getOscNumbers()) {
-      alarmCacheObject.getFifoSourceTimestamps().addFirst(tag.getSourceTimestamp().getTime() - (1000 * n++));
+    alarmCacheObject.setOscillationTimestamps(new OscillationTimestamps(oscillationProperties.getOscNumbers() + 1));
+    for (int n = oscillationProperties.getOscNumbers(); n > 0; n--) {
+      alarmCacheObject.getOscillationTimestamps().add(tag.getSourceTimestamp().getTime() - (1000 * n));
     }
 
     alarmCache.put(alarmCacheObject.getId(), alarmCacheObject);
@@ -270,6 +272,6 @@ public class AlarmCacheUpdaterImplTest {
     assertTrue(alarmCacheObject.isOscillating());
     assertEquals(tag.getTimestamp(), alarmCacheObject.getSourceTimestamp());
     assertNotEquals(oldAlarmTime, alarmCacheObject.getTimestamp());
-    assertEquals(Long.valueOf(tag.getTimestamp().getTime()), alarmCacheObject.getFifoSourceTimestamps().getLast());
+    assertEquals(tag.getTimestamp().getTime(), alarmCacheObject.getOscillationTimestamps().getLast());
   }
 }
@@ -30,8 +30,10 @@ import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.TagFacadeGateway;
 import cern.c2mon.server.cache.alarm.config.OscillationProperties;
 import cern.c2mon.server.cache.alarm.impl.AlarmCacheUpdaterImpl;
+import cern.c2mon.server.cache.config.CacheProperties;
 import cern.c2mon.server.common.alarm.AlarmCacheObject;
 import cern.c2mon.server.common.alarm.AlarmCacheUpdater;
+import cern.c2mon.server.common.alarm.OscillationTimestamps;
 import cern.c2mon.server.common.alarm.ValueAlarmCondition;
 import cern.c2mon.server.common.datatag.DataTagCacheObject;
 import cern.c2mon.shared.common.datatag.DataTagQuality;
@@ -50,6 +52,9 @@ public class OscillationUpdateCheckerTest {
   private DataTagCacheObject tag;
   private AlarmCache alarmCache;
   private TagFacadeGateway tagFacadeGateway;
+  private OscillationUpdater oscillationUpdater;
+  private AlarmCacheUpdater alarmCacheUpdater;
+  private AlarmFacade alarmFacade;
   OscillationProperties oscillationProperties;
 
   @Before
@@ -58,10 +63,10 @@ public class OscillationUpdateCheckerTest {
     clusterCache = EasyMock.createNiceMock(ClusterCache.class);
     tagFacadeGateway = EasyMock.createStrictMock(TagFacadeGateway.class);
     oscillationProperties = new OscillationProperties();
-    OscillationUpdater oscillationUpdater = new OscillationUpdater(alarmCache, oscillationProperties);
-    AlarmCacheUpdater alarmCacheUpdater = new AlarmCacheUpdaterImpl(alarmCache, oscillationUpdater);
-    AlarmFacade alarmFacade = EasyMock.createNiceMock(AlarmFacade.class);
-    oscillationUpdateChecker = new OscillationUpdateChecker(alarmCache, clusterCache, oscillationUpdater, alarmCacheUpdater, tagFacadeGateway, alarmFacade);
+    oscillationUpdater = new OscillationUpdater(alarmCache, oscillationProperties);
+    alarmCacheUpdater = new AlarmCacheUpdaterImpl(alarmCache, oscillationUpdater);
+    alarmFacade = EasyMock.createNiceMock(AlarmFacade.class);
+    oscillationUpdateChecker = createChecker("multi");
 
     tag = new DataTagCacheObject();
     tag.setId(987L);
@@ -79,12 +84,18 @@ public class OscillationUpdateCheckerTest {
     alarm.setTimestamp(new Timestamp(System.currentTimeMillis() - 500000L));
     alarm.setSourceTimestamp(alarm.getTimestamp());
     alarm.setCondition(new ValueAlarmCondition(Boolean.TRUE));
-    int n = 1;
-    while(alarm.getFifoSourceTimestamps().size() < oscillationProperties.getOscNumbers()) {
-      alarm.getFifoSourceTimestamps().add(alarm.getSourceTimestamp().getTime() + (30000 * n++));
+    alarm.setOscillationTimestamps(new OscillationTimestamps(oscillationProperties.getOscNumbers() + 1));
+    for (int n = 1; n <= oscillationProperties.getOscNumbers(); n++) {
+      alarm.getOscillationTimestamps().add(alarm.getSourceTimestamp().getTime() + (30000 * n));
     }
   }
 
+  private OscillationUpdateChecker createChecker(String cacheMode) {
+    CacheProperties cacheProperties = new CacheProperties();
+    cacheProperties.setMode(cacheMode);
+    return new OscillationUpdateChecker(alarmCache, clusterCache, oscillationUpdater, alarmCacheUpdater, tagFacadeGateway, alarmFacade, cacheProperties);
+  }
+
   @Test
   public void testRunWithNoOscillation() {
     assertFalse(alarm.isOscillating());
@@ -120,12 +131,7 @@ public class OscillationUpdateCheckerTest {
 
   @Test
   public void testRunWithKeepingOscillation() {
-    int n = 1;
-    long currentTime = System.currentTimeMillis();
-    alarm.getFifoSourceTimestamps().clear();
-    while(alarm.getFifoSourceTimestamps().size() < oscillationProperties.getOscNumbers()) {
-      alarm.getFifoSourceTimestamps().addFirst(currentTime - (10000 * n++));
-    }
+    setRecentOscillationTimestamps(alarm);
     setOscillating(alarm);
     assertTrue(alarm.isOscillating());
     assertTrue(alarm.isInternalActive());
@@ -208,6 +214,59 @@ public class OscillationUpdateCheckerTest {
     checkResult(true);
   }
 
+  @Test
+  public void testDeadlineRunWithOscillation() {
+    oscillationUpdateChecker = createChecker("single-nonpersistent");
+    setOscillating(alarm);
+    oscillationUpdater.scheduleOscillationReset(alarm);
+
+    EasyMock.reset(clusterCache, alarmCache, tagFacadeGateway);
+    clusterCache.acquireWriteLockOnKey(OscillationUpdateChecker.LAST_CHECK_LONG);
+    EasyMock.expect(clusterCache.getCopy(OscillationUpdateChecker.LAST_CHECK_LONG)).andReturn(Long.valueOf(0L));
+    EasyMock.expect(alarmCache.getCopy(alarm.getId())).andReturn(alarm);
+    alarmCache.put(alarm.getId(), alarm);
+    EasyMock.expect(tagFacadeGateway.getTag(alarm.getDataTagId())).andReturn(tag);
+    EasyMock.replay(clusterCache, alarmCache, tagFacadeGateway);
+
+    oscillationUpdateChecker.run();
+    checkResult(false);
+
+    // not checked again
+    EasyMock.reset(clusterCache, alarmCache, tagFacadeGateway);
+    EasyMock.expect(clusterCache.getCopy(OscillationUpdateChecker.LAST_CHECK_LONG)).andReturn(Long.valueOf(0L));
+    EasyMock.replay(clusterCache, alarmCache, tagFacadeGateway);
+    oscillationUpdateChecker.run();
+    EasyMock.verify(alarmCache, tagFacadeGateway);
+  }
+
+  @Test
+  public void testDeadlineRunWithKeepingOscillation() {
+    oscillationUpdateChecker = createChecker("single-nonpersistent");
+    setRecentOscillationTimestamps(alarm);
+    setOscillating(alarm);
+    oscillationUpdater.scheduleOscillationReset(alarm);
+
+    // the reset time is not reached, the alarm is not even looked up
+    EasyMock.reset(clusterCache, alarmCache, tagFacadeGateway);
+    clusterCache.acquireWriteLockOnKey(OscillationUpdateChecker.LAST_CHECK_LONG);
+    EasyMock.expect(clusterCache.getCopy(OscillationUpdateChecker.LAST_CHECK_LONG)).andReturn(Long.valueOf(0L));
+    EasyMock.replay(clusterCache, alarmCache, tagFacadeGateway);
+
+    oscillationUpdateChecker.run();
+
+    EasyMock.verify(clusterCache, alarmCache, tagFacadeGateway);
+    assertTrue(alarm.isOscillating());
+    assertEquals("[OSC]", alarm.getInfo());
+  }
+
+  private void setRecentOscillationTimestamps(AlarmCacheObject alarm) {
+    long currentTime = System.currentTimeMillis();
+    alarm.setOscillationTimestamps(new OscillationTimestamps(oscillationProperties.getOscNumbers() + 1));
+    for (int n = oscillationProperties.getOscNumbers(); n > 0; n--) {
+      alarm.getOscillationTimestamps().add(currentTime - (10000 * n));
+    }
+  }
+
   private void recordMockCallsForOscillatingAlarm() {
     EasyMock.reset(clusterCache, alarmCache, tagFacadeGateway);
     clusterCache.acquireWriteLockOnKey(OscillationUpdateChecker.LAST_CHECK_LONG);
@@ -262,7 +262,7 @@ public class OscillationUpdaterTest {
       EasyMock.replay(alarmCache);
 
       myAlarmCacheUpdater.update(alarmCacheObject, dataTagCacheObject);
-      log.info("ALARM ACTIVE: {} - INTERNAL ACTIVE: {} OSCILLATION: {} INFO: {} firstOscTS {} counter {} ", alarmCacheObject.isActive(), alarmCacheObject.isInternalActive(), alarmCacheObject.isOscillating(), alarmCacheObject.getInfo(), alarmCacheObject.getFifoSourceTimestamps().getFirst(), alarmCacheObject.getFifoSourceTimestamps().size());
+      log.info("ALARM ACTIVE: {} - INTERNAL ACTIVE: {} OSCILLATION: {} INFO: {} firstOscTS {} counter {} ", alarmCacheObject.isActive(), alarmCacheObject.isInternalActive(), alarmCacheObject.isOscillating(), alarmCacheObject.getInfo(), alarmCacheObject.getOscillationTimestamps().getFirst(), alarmCacheObject.getOscillationTimestamps().size());
       assertEquals(alarmCacheObject.isOscillating(), alarmCacheObject.getInfo().contains(Alarm.ALARM_INFO_OSC));
       if(alarmCacheObject.isOscillating()) {
         assertTrue("If an alarm is oscillating, it must be active", alarmCacheObject.isActive());
@@ -271,7 +271,7 @@ public class OscillationUpdaterTest {
       EasyMock.reset(alarmCache);
     }
     log.info("===========================");
-    alarmCacheObject.getFifoSourceTimestamps().clear();
+    alarmCacheObject.setOscillationTimestamps(null);
     alarmCacheObject.setOscillating(false);
     alarmCacheObject.setActive(false);
     alarmCacheObject.setInternalActive(false);
@@ -289,7 +289,7 @@ public class OscillationUpdaterTest {
       EasyMock.replay(alarmCache);
 
       myAlarmCacheUpdater.update(alarmCacheObject, dataTagCacheObject);
-      log.info("ALARM ACTIVE: {} - INTERNAL ACTIVE: {} OSCILLATION: {} INFO: {} firstOscTS {} counter {} ", alarmCacheObject.isActive(), alarmCacheObject.isInternalActive(), alarmCacheObject.isOscillating(), alarmCacheObject.getInfo(), alarmCacheObject.getFifoSourceTimestamps().getFirst(), alarmCacheObject.getFifoSourceTimestamps().size());
+      log.info("ALARM ACTIVE: {} - INTERNAL ACTIVE: {} OSCILLATION: {} INFO: {} firstOscTS {} counter {} ", alarmCacheObject.isActive(), alarmCacheObject.isInternalActive(), alarmCacheObject.isOscillating(), alarmCacheObject.getInfo(), alarmCacheObject.getOscillationTimestamps().getFirst(), alarmCacheObject.getOscillationTimestamps().size());
 
       EasyMock.verify(alarmCache);
       EasyMock.reset(alarmCache);
@@ -0,0 +1,157 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.alive;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.common.DeadlineWheel;
+import cern.c2mon.server.common.alive.AliveTimer;
+import cern.c2mon.server.common.alive.AliveTimerCacheObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates 50k alive timers receiving their alives, a fraction of which stop
+ * at some point, and compares the {@link DeadlineWheel} polled
+ * every second with the scan of copies of all timers previously done every
+ * 10 seconds. The simulation runs on a virtual clock, only the checks are
+ * timed.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class AliveTimerDeadlineBenchmark {
+
+  private static final int NB_TIMERS = 50000;
+
+  private static final int[] ALIVE_INTERVALS = {10000, 30000, 60000};
+
+  /** One timer in DEAD_RATIO stops sending alives during the simulation */
+  private static final int DEAD_RATIO = 100;
+
+  private static final long TICK = 1000;
+
+  private static final long SCAN_INTERVAL = 10000;
+
+  private static final long DURATION = 300000;
+
+  /** Time of the next alive of each timer */
+  private final long[] nextAlives = new long[NB_TIMERS];
+
+  private final long[] deathTimes = new long[NB_TIMERS];
+
+  /** Timers checked by scanning */
+  private final AliveTimerCacheObject[] scanTimers = new AliveTimerCacheObject[NB_TIMERS];
+
+  /** Timers checked via the deadline queue */
+  private final AliveTimerCacheObject[] queueTimers = new AliveTimerCacheObject[NB_TIMERS];
+
+  private final DeadlineWheel deadlines = new DeadlineWheel();
+
+  @Test
+  public void compareExpirationChecks() throws CloneNotSupportedException {
+    Random random = new Random(0);
+    for (int id = 0; id < NB_TIMERS; id++) {
+      int interval = ALIVE_INTERVALS[random.nextInt(ALIVE_INTERVALS.length)];
+      scanTimers[id] = createTimer(id, interval);
+      queueTimers[id] = createTimer(id, interval);
+      nextAlives[id] = random.nextInt(interval);
+      deathTimes[id] = random.nextInt(DEAD_RATIO) == 0 ? random.nextInt((int) DURATION / 2) : Long.MAX_VALUE;
+    }
+
+    Set<Long> scanExpirations = new HashSet<>();
+    Set<Long> queueExpirations = new HashSet<>();
+    long scanTime = 0;
+    long queueTime = 0;
+    long scanMaxDelay = 0;
+    long queueMaxDelay = 0;
+    for (long now = TICK; now <= DURATION; now += TICK) {
+      receiveAlives(now);
+
+      if (now % SCAN_INTERVAL == 0) {
+        long start = System.nanoTime();
+        for (int id = 0; id < NB_TIMERS; id++) {
+          AliveTimer copy = scanTimers[id].clone();
+          if (copy.isActive() && now > getDeadline(copy)) {
+            scanTimers[id].setActive(false);
+            scanExpirations.add(copy.getId());
+            scanMaxDelay = Math.max(scanMaxDelay, now - getDeadline(copy));
+          }
+        }
+        scanTime += System.nanoTime() - start;
+      }
+
+      long start = System.nanoTime();
+      for (Long id : deadlines.pollExpired(now)) {
+        AliveTimer timer = queueTimers[id.intValue()];
+        if (timer.isActive() && now > getDeadline(timer)) {
+          timer.setActive(false);
+          queueExpirations.add(id);
+          queueMaxDelay = Math.max(queueMaxDelay, now - getDeadline(timer));
+        }
+      }
+      queueTime += System.nanoTime() - start;
+    }
+
+    assertFalse(scanExpirations.isEmpty());
+    assertEquals(scanExpirations, queueExpirations);
+    assertTrue(queueMaxDelay <= TICK);
+    log.info(String.format("%d alive timers over %d s (%d expirations): %d ms scan %.2f ms (max detection delay %d ms), "
+            + "%d ms deadline queue %.2f ms (max detection delay %d ms)",
+        NB_TIMERS, DURATION / 1000, scanExpirations.size(), SCAN_INTERVAL, scanTime / 1e6, scanMaxDelay,
+        TICK, queueTime / 1e6, queueMaxDelay));
+  }
+
+  /**
+   * Updates the timers for all the alives sent until the given time.
+   */
+  private void receiveAlives(final long now) {
+    for (int id = 0; id < NB_TIMERS; id++) {
+      while (nextAlives[id] <= now) {
+        long time = nextAlives[id];
+        if (time >= deathTimes[id]) {
+          nextAlives[id] = Long.MAX_VALUE;
+          break;
+        }
+        update(scanTimers[id], time);
+        update(queueTimers[id], time);
+        deadlines.arm(queueTimers[id].getId(), getDeadline(queueTimers[id]));
+        nextAlives[id] = time + queueTimers[id].getAliveInterval();
+      }
+    }
+  }
+
+  private static AliveTimerCacheObject createTimer(final long id, final int aliveInterval) {
+    return new AliveTimerCacheObject(id, id, "BENCHMARK.EQ." + id, id, AliveTimer.ALIVE_TYPE_EQUIPMENT, aliveInterval);
+  }
+
+  private static void update(final AliveTimer timer, final long time) {
+    timer.setActive(true);
+    timer.setLastUpdate(time);
+  }
+
+  private static long getDeadline(final AliveTimer timer) {
+    return timer.getLastUpdate() + timer.getAliveInterval() + timer.getAliveInterval() / 3;
+  }
+}
@@ -0,0 +1,75 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.alive;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import cern.c2mon.server.cache.AbstractCacheIntegrationTest;
+import cern.c2mon.server.cache.AliveTimerCache;
+import cern.c2mon.server.cache.AliveTimerFacade;
+import cern.c2mon.server.common.alive.AliveTimer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AliveTimerFacadeImplTest extends AbstractCacheIntegrationTest {
+
+  @Autowired
+  private AliveTimerFacade aliveTimerFacade;
+
+  @Autowired
+  private AliveTimerCache aliveTimerCache;
+
+  @Test
+  public void testStopExpiredTimers() {
+    List<Long> ids = aliveTimerCache.getKeys();
+    Long expiredId = ids.get(0);
+    Long updatedId = ids.get(1);
+    aliveTimerFacade.start(expiredId);
+    aliveTimerFacade.update(updatedId);
+
+    // no alive received since the start
+    AliveTimer expiredTimer = aliveTimerCache.get(expiredId);
+    expiredTimer.setLastUpdate(System.currentTimeMillis() - 2 * expiredTimer.getAliveInterval());
+    aliveTimerCache.put(expiredId, expiredTimer);
+    aliveTimerFacade.rearmAllTimers();
+
+    List<Long> stoppedIds = aliveTimerFacade.stopExpiredTimers();
+    assertTrue(stoppedIds.contains(expiredId));
+    assertFalse(stoppedIds.contains(updatedId));
+    assertFalse(aliveTimerCache.get(expiredId).isActive());
+    assertTrue(aliveTimerCache.get(updatedId).isActive());
+
+    // not checked again until restarted
+    assertFalse(aliveTimerFacade.stopExpiredTimers().contains(expiredId));
+  }
+
+  @Test
+  public void testStoppedTimerIsDisarmed() {
+    Long id = aliveTimerCache.getKeys().get(0);
+    aliveTimerFacade.rearmAllTimers();
+    aliveTimerFacade.update(id);
+    int armed = aliveTimerFacade.getArmedTimerCount();
+
+    aliveTimerFacade.stop(id);
+    assertEquals(armed - 1, aliveTimerFacade.getArmedTimerCount());
+  }
+}
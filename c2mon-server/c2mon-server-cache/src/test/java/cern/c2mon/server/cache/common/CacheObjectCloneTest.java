@@ -0,0 +1,194 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import cern.c2mon.server.common.alarm.AlarmCacheObject;
+import cern.c2mon.server.common.alarm.OscillationTimestamps;
+import cern.c2mon.server.common.alive.AliveTimerCacheObject;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.common.equipment.EquipmentCacheObject;
+import cern.c2mon.server.common.process.ProcessCacheObject;
+import cern.c2mon.server.common.rule.RuleTagCacheObject;
+import cern.c2mon.server.common.util.DeepCloneable;
+import cern.c2mon.server.test.CacheObjectComparison;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.common.Cacheable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the cache objects copied with <code>clone()</code> by
+ * {@link AbstractCache#getCopy(Object)} are deep copies, equivalent to the
+ * serialization round trip previously used.
+ */
+public class CacheObjectCloneTest {
+
+  @Test
+  public void testDataTagCloneIsDeep() throws Exception {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    original.setAlarmIds(Arrays.asList(1L, 2L));
+    original.getMetadata().addMetadata("building", "864");
+    DataTagCacheObject copy = original.clone();
+
+    CacheObjectComparison.equals(original, copy);
+    assertEquals(original.getMetadata(), copy.getMetadata());
+    assertNotSame(original.getAddress(), copy.getAddress());
+    assertNotSame(original.getDataTagQuality(), copy.getDataTagQuality());
+
+    copy.getAlarmIds().add(3L);
+    copy.getRuleIds().add(4L);
+    copy.getMetadata().addMetadata("floor", "1");
+    copy.getDaqTimestamp().setTime(0);
+    copy.getSourceTimestamp().setTime(0);
+    copy.getCacheTimestamp().setTime(0);
+
+    assertEquals(Arrays.asList(1L, 2L), original.getAlarmIds());
+    assertEquals(Arrays.asList(130L), original.getRuleIds());
+    assertEquals(1, original.getMetadata().getMetadata().size());
+    assertTrue(original.getDaqTimestamp().getTime() != 0);
+    assertTrue(original.getSourceTimestamp().getTime() != 0);
+    assertTrue(original.getCacheTimestamp().getTime() != 0);
+  }
+
+  @Test
+  public void testTagCloneCopiesMutableValues() throws Exception {
+    DataTagCacheObject original = CacheObjectCreation.createTestDataTag();
+    HashMap<String, Integer> value = new HashMap<>();
+    value.put("x", 1);
+    original.setValue(value);
+    DataTagCacheObject copy = original.clone();
+
+    assertEquals(value, copy.getValue());
+    assertNotSame(value, copy.getValue());
+
+    RuleTagCacheObject rule = CacheObjectCreation.createTestRuleTag();
+    rule.setValue("immutable");
+    assertSame(rule.getValue(), rule.clone().getValue());
+  }
+
+  @Test
+  public void testAlarmCloneIsDeep() throws Exception {
+    AlarmCacheObject original = CacheObjectCreation.createTestAlarm1();
+    original.setOscillationTimestamps(new OscillationTimestamps(7));
+    original.getOscillationTimestamps().add(1L);
+    AlarmCacheObject copy = (AlarmCacheObject) original.clone();
+
+    CacheObjectComparison.equals(original, copy);
+    copy.getOscillationTimestamps().add(2L);
+    copy.getTimestamp().setTime(0);
+
+    assertEquals(1, original.getOscillationTimestamps().size());
+    assertTrue(original.getTimestamp().getTime() != 0);
+  }
+
+  @Test
+  public void testAliveTimerCloneWithoutDependentTimers() throws Exception {
+    AliveTimerCacheObject original = new AliveTimerCacheObject(1L, 2L, "P_TEST", 3L, AliveTimerCacheObject.ALIVE_TYPE_PROCESS, 60000);
+    AliveTimerCacheObject copy = original.clone();
+
+    assertEquals(original.getId(), copy.getId());
+    assertEquals(null, copy.getDependentAliveTimerIds());
+  }
+
+  @Test
+  public void testRuleTagCloneSharesTheParsedExpression() throws Exception {
+    RuleTagCacheObject original = CacheObjectCreation.createTestRuleTag();
+    RuleTagCacheObject copy = original.clone();
+
+    assertSame(original.getRuleExpression(), copy.getRuleExpression());
+    copy.setRuleText("(#100 = true)[2],true[3]");
+    assertNotSame(original.getRuleExpression(), copy.getRuleExpression());
+    assertTrue(copy.getRuleInputTagIds().contains(100L));
+    assertTrue(original.getRuleInputTagIds().contains(100000L));
+    assertTrue(!original.getRuleInputTagIds().contains(100L));
+  }
+
+  @Test
+  public void testCloneMatchesSerializedCopy() throws Exception {
+    for (Cacheable object : createTestObjects()) {
+      assertTrue(object.getClass().getSimpleName(), object instanceof DeepCloneable);
+      assertEquivalent(object, serializedCopy(object));
+      assertEquivalent(object, (Cacheable) object.clone());
+    }
+  }
+
+  /**
+   * @return one object of each deep cloneable cache object type
+   */
+  static Cacheable[] createTestObjects() {
+    DataTagCacheObject dataTag = CacheObjectCreation.createTestDataTag();
+    dataTag.getMetadata().addMetadata("building", "864");
+    return new Cacheable[] {
+        dataTag,
+        CacheObjectCreation.createTestRuleTag(),
+        CacheObjectCreation.createTestAlarm1(),
+        new AliveTimerCacheObject(1L, 2L, "P_TEST", 3L, AliveTimerCacheObject.ALIVE_TYPE_PROCESS, 60000),
+        CacheObjectCreation.createTestEquipment(),
+        CacheObjectCreation.createTestProcess1()
+    };
+  }
+
+  /**
+   * @return a copy of the object made with a serialization round trip
+   */
+  static Cacheable serializedCopy(final Cacheable object) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(object);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      return (Cacheable) ois.readObject();
+    }
+  }
+
+  private static void assertEquivalent(final Cacheable original, final Cacheable copy) {
+    assertNotSame(original, copy);
+    assertEquals(original.getClass(), copy.getClass());
+    if (original instanceof DataTagCacheObject) {
+      CacheObjectComparison.equals((DataTagCacheObject) original, (DataTagCacheObject) copy);
+    } else if (original instanceof RuleTagCacheObject) {
+      CacheObjectComparison.equalsTag((RuleTagCacheObject) original, (RuleTagCacheObject) copy);
+      assertEquals(((RuleTagCacheObject) original).getRuleText(), ((RuleTagCacheObject) copy).getRuleText());
+    } else if (original instanceof AlarmCacheObject) {
+      CacheObjectComparison.equals((AlarmCacheObject) original, (AlarmCacheObject) copy);
+    } else if (original instanceof AliveTimerCacheObject) {
+      AliveTimerCacheObject aliveTimer = (AliveTimerCacheObject) original;
+      assertEquals(aliveTimer.getRelatedId(), ((AliveTimerCacheObject) copy).getRelatedId());
+      assertEquals(aliveTimer.getAliveInterval(), ((AliveTimerCacheObject) copy).getAliveInterval());
+    } else if (original instanceof EquipmentCacheObject) {
+      EquipmentCacheObject equipment = (EquipmentCacheObject) original;
+      assertEquals(equipment.getName(), ((EquipmentCacheObject) copy).getName());
+      assertEquals(equipment.getCommandTagIds(), ((EquipmentCacheObject) copy).getCommandTagIds());
+    } else if (original instanceof ProcessCacheObject) {
+      ProcessCacheObject process = (ProcessCacheObject) original;
+      assertEquals(process.getName(), ((ProcessCacheObject) copy).getName());
+      assertEquals(process.getEquipmentIds(), ((ProcessCacheObject) copy).getEquipmentIds());
+    }
+  }
+}
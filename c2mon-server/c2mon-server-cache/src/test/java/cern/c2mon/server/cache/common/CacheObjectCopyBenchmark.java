@@ -0,0 +1,82 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.lang.management.ManagementFactory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import cern.c2mon.shared.common.Cacheable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the time and memory needed to copy the cache objects with
+ * <code>clone()</code>, as done by {@link AbstractCache#getCopy(Object)}, and
+ * with the serialization round trip previously used. The copies themselves
+ * are checked by {@link CacheObjectCloneTest}.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class CacheObjectCopyBenchmark {
+
+  private static final int NB_WARMUP = 1000;
+
+  private static final int NB_COPIES = 5000;
+
+  @Test
+  public void compareCloneWithSerialization() throws Exception {
+    for (Cacheable object : CacheObjectCloneTest.createTestObjects()) {
+      run(object, NB_WARMUP, true);
+      run(object, NB_WARMUP, false);
+
+      long allocatedBefore = allocatedBytes();
+      long start = System.nanoTime();
+      run(object, NB_COPIES, true);
+      long serializationNanos = System.nanoTime() - start;
+      long serializationBytes = allocatedBytes() - allocatedBefore;
+
+      allocatedBefore = allocatedBytes();
+      start = System.nanoTime();
+      run(object, NB_COPIES, false);
+      long cloneNanos = System.nanoTime() - start;
+      long cloneBytes = allocatedBytes() - allocatedBefore;
+
+      log.info("{}: serialization {} ns / {} bytes per copy, clone {} ns / {} bytes per copy",
+          object.getClass().getSimpleName(),
+          serializationNanos / NB_COPIES, serializationBytes / NB_COPIES,
+          cloneNanos / NB_COPIES, cloneBytes / NB_COPIES);
+    }
+  }
+
+  private static void run(final Cacheable object, final int nbCopies, final boolean serialize) throws Exception {
+    for (int i = 0; i < nbCopies; i++) {
+      Cacheable copy = serialize ? CacheObjectCloneTest.serializedCopy(object) : (Cacheable) object.clone();
+      assertEquals(object.getId(), copy.getId());
+    }
+  }
+
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
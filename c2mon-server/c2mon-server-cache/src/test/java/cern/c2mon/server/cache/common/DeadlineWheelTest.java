@@ -0,0 +1,139 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeadlineWheelTest {
+
+  private DeadlineWheel deadlines;
+
+  @Before
+  public void setUp() {
+    deadlines = new DeadlineWheel();
+  }
+
+  @Test
+  public void pollReturnsPassedDeadlinesOnly() {
+    deadlines.arm(1L, 1000);
+    deadlines.arm(2L, 3000);
+    deadlines.arm(3L, 2000);
+
+    assertTrue(deadlines.pollExpired(1000).isEmpty());
+    assertEquals(Arrays.asList(1L, 3L), deadlines.pollExpired(2500));
+    assertEquals(1, deadlines.size());
+    assertEquals(Collections.singletonList(2L), deadlines.pollExpired(5000));
+    assertEquals(0, deadlines.size());
+  }
+
+  @Test
+  public void rearmPostponesDeadline() {
+    deadlines.arm(1L, 1000);
+    deadlines.arm(1L, 4000);
+
+    assertTrue(deadlines.pollExpired(2000).isEmpty());
+    assertEquals(1, deadlines.size());
+    assertEquals(Collections.singletonList(1L), deadlines.pollExpired(5000));
+  }
+
+  @Test
+  public void rearmAdvancesDeadline() {
+    deadlines.arm(1L, 4000);
+    deadlines.arm(1L, 1000);
+
+    assertEquals(Collections.singletonList(1L), deadlines.pollExpired(4500));
+  }
+
+  @Test
+  public void disarmedTimerIsNotReturned() {
+    deadlines.arm(1L, 1000);
+    deadlines.disarm(1L);
+
+    assertTrue(deadlines.pollExpired(2000).isEmpty());
+    assertEquals(0, deadlines.size());
+  }
+
+  @Test
+  public void timerIsReturnedOnceAfterDisarmAndRearm() {
+    deadlines.arm(1L, 1000);
+    deadlines.disarm(1L);
+    deadlines.arm(1L, 1500);
+
+    assertEquals(Collections.singletonList(1L), deadlines.pollExpired(2000));
+    assertTrue(deadlines.pollExpired(3000).isEmpty());
+  }
+
+  @Test
+  public void expiredTimerCanBeRearmed() {
+    deadlines.arm(1L, 1000);
+    assertEquals(Collections.singletonList(1L), deadlines.pollExpired(2000));
+
+    deadlines.arm(1L, 3000);
+    assertEquals(1, deadlines.size());
+    assertEquals(Collections.singletonList(1L), deadlines.pollExpired(4000));
+  }
+
+  /**
+   * Random arming, disarming and polling, including deadlines more than one
+   * wheel rotation away, compared with a scan of all the deadlines.
+   */
+  @Test
+  public void pollMatchesScanOfAllDeadlines() {
+    Random random = new Random(0);
+    Map<Long, Long> armed = new HashMap<>();
+    long now = 0;
+    for (int step = 0; step < 2000; step++) {
+      for (int i = 0; i < 20; i++) {
+        long id = random.nextInt(500);
+        if (random.nextInt(10) == 0) {
+          deadlines.disarm(id);
+          armed.remove(id);
+        } else {
+          long deadline = now + random.nextInt(random.nextBoolean() ? 60000 : 10000000);
+          deadlines.arm(id, deadline);
+          armed.put(id, deadline);
+        }
+      }
+      now += random.nextInt(5000);
+
+      List<Long> expected = new ArrayList<>();
+      for (Iterator<Map.Entry<Long, Long>> it = armed.entrySet().iterator(); it.hasNext(); ) {
+        Map.Entry<Long, Long> entry = it.next();
+        if (entry.getValue() < now) {
+          expected.add(entry.getKey());
+          it.remove();
+        }
+      }
+      assertEquals(new HashSet<>(expected), new HashSet<>(deadlines.pollExpired(now)));
+      assertEquals(armed.size(), deadlines.size());
+    }
+  }
+}
@@ -144,6 +144,27 @@ public class DataTagCacheTest extends AbstractCacheIntegrationTest {
     
   }
   
+  @Test
+  public void testIndexFollowsCacheUpdates() {
+    DataTag tag = dataTagCache.getCopy(200002L);
+    List<Long> equipmentTagIds = dataTagCache.getDataTagIdsByEquipmentId(tag.getEquipmentId());
+    assertTrue(equipmentTagIds.contains(200002L));
+    assertTrue(dataTagCache.getDataTagIdsByProcessId(tag.getProcessId()).containsAll(equipmentTagIds));
+
+    ((DataTagCacheObject) tag).setName("sys.loadavg.renamed");
+    dataTagCache.putQuiet(tag);
+    assertNull(dataTagCache.get("sys.loadavg"));
+    assertEquals(Long.valueOf(200002L), dataTagCache.get("SYS.LOADAVG.RENAMED").getId());
+
+    dataTagCache.remove(200002L);
+    assertFalse(dataTagCache.hasTagWithName("sys.loadavg.renamed"));
+    assertFalse(dataTagCache.getDataTagIdsByEquipmentId(tag.getEquipmentId()).contains(200002L));
+
+    dataTagCache.loadFromDb(200002L);
+    assertTrue(dataTagCache.hasTagWithName("sys.loadavg"));
+    assertTrue(dataTagCache.getDataTagIdsByEquipmentId(tag.getEquipmentId()).contains(200002L));
+  }
+
   @Test
   public void testSearchWithNameWildcard() {
     Collection<DataTag> resultList = dataTagCache.findByNameWildcard("does_not_exist*");
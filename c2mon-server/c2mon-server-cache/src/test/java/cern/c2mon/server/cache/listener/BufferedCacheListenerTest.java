@@ -0,0 +1,170 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.C2monBufferedCacheListener;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the buffered cache listeners (so no Spring context).
+ */
+public class BufferedCacheListenerTest {
+
+  private AbstractBufferedCacheListener<DataTagCacheObject, ?> listener;
+
+  @After
+  public void tearDown() {
+    listener.stop();
+  }
+
+  @Test
+  public void testFlushAfterFrequency() throws InterruptedException {
+    RecordingListener<DataTagCacheObject> recorder = new RecordingListener<>(false);
+    listener = new DefaultBufferedCacheListener<>(recorder, 200);
+    listener.start();
+
+    long start = System.currentTimeMillis();
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.notifyElementUpdated(new DataTagCacheObject(2L));
+
+    Collection<DataTagCacheObject> batch = recorder.updates.poll(5, TimeUnit.SECONDS);
+    assertEquals(2, batch.size());
+    assertTrue(System.currentTimeMillis() - start >= 200);
+    assertNull(recorder.updates.poll(300, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testFlushWhenBatchIsFull() throws InterruptedException {
+    RecordingListener<DataTagCacheObject> recorder = new RecordingListener<>(false);
+    listener = new DefaultBufferedCacheListener<>(recorder, 60000);
+    listener.start();
+
+    for (long i = 0; i < 20000; i++) {
+      listener.notifyElementUpdated(new DataTagCacheObject(i));
+    }
+
+    Collection<DataTagCacheObject> batch = recorder.updates.poll(5, TimeUnit.SECONDS);
+    assertEquals(20000, batch.size());
+  }
+
+  @Test
+  public void testFlushOnStop() throws InterruptedException {
+    RecordingListener<DataTagCacheObject> recorder = new RecordingListener<>(false);
+    listener = new DefaultBufferedCacheListener<>(recorder, 60000);
+    listener.start();
+
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.confirmStatus(new DataTagCacheObject(2L));
+    listener.stop();
+
+    assertEquals(1, recorder.updates.poll().size());
+    assertEquals(1, recorder.confirmations.poll().size());
+  }
+
+  @Test
+  public void testNoCoalescingByDefault() throws InterruptedException {
+    RecordingListener<DataTagCacheObject> recorder = new RecordingListener<>(false);
+    listener = new DefaultBufferedCacheListener<>(recorder, 60000);
+    listener.start();
+
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.stop();
+
+    assertEquals(2, recorder.updates.poll().size());
+  }
+
+  @Test
+  public void testCoalescingKeepsLatestObject() throws InterruptedException {
+    RecordingListener<DataTagCacheObject> recorder = new RecordingListener<>(true);
+    listener = new DefaultBufferedCacheListener<>(recorder, 60000);
+    listener.start();
+
+    DataTagCacheObject latest = new DataTagCacheObject(1L);
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.notifyElementUpdated(new DataTagCacheObject(2L));
+    listener.notifyElementUpdated(latest);
+    listener.stop();
+
+    List<DataTagCacheObject> batch = new ArrayList<>(recorder.updates.poll());
+    assertEquals(2, batch.size());
+    assertTrue(batch.get(0) == latest);
+    assertEquals(Long.valueOf(2L), batch.get(1).getId());
+  }
+
+  @Test
+  public void testKeyListenerPassesEachKeyOnce() throws InterruptedException {
+    RecordingListener<Long> recorder = new RecordingListener<>(false);
+    listener = new BufferedKeyCacheListener<>(recorder, 60000);
+    listener.start();
+
+    for (long id : new long[] {3L, 1L, 3L, 2L, 1L}) {
+      listener.notifyElementUpdated(new DataTagCacheObject(id));
+    }
+    listener.stop();
+
+    assertEquals(Arrays.asList(3L, 1L, 2L), new ArrayList<>(recorder.updates.poll()));
+  }
+
+  private static class RecordingListener<S> implements C2monBufferedCacheListener<S> {
+
+    private final BlockingQueue<Collection<S>> updates = new LinkedBlockingQueue<>();
+
+    private final BlockingQueue<Collection<S>> confirmations = new LinkedBlockingQueue<>();
+
+    private final boolean coalescing;
+
+    RecordingListener(boolean coalescing) {
+      this.coalescing = coalescing;
+    }
+
+    @Override
+    public void notifyElementUpdated(Collection<S> collection) {
+      updates.add(new ArrayList<>(collection));
+    }
+
+    @Override
+    public void confirmStatus(Collection<S> eventCollection) {
+      confirmations.add(new ArrayList<>(eventCollection));
+    }
+
+    @Override
+    public String getThreadName() {
+      return "BufferedCacheListenerTest";
+    }
+
+    @Override
+    public boolean isCoalescing() {
+      return coalescing;
+    }
+  }
+}
@@ -0,0 +1,295 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.shared.common.Cacheable;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the StripedCacheListener class
+ * (so no Spring context).
+ */
+public class StripedCacheListenerTest {
+
+  /**
+   * Class to test.
+   */
+  private StripedCacheListener stripedListener;
+
+  /**
+   * Mock listener.
+   */
+  private C2monCacheListener mockCacheListener;
+
+  @Before
+  public void setUp() {
+    mockCacheListener = createMock(C2monCacheListener.class);
+    stripedListener = new StripedCacheListener(mockCacheListener, 2, 2);
+  }
+
+  @Test
+  public void testNotification() throws InterruptedException {
+    final Cacheable mockCacheable = createNiceMock(Cacheable.class);
+    CountDownLatch latch = new CountDownLatch(1);
+
+    mockCacheListener.notifyElementUpdated(mockCacheable);
+    expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    });
+
+    replay(mockCacheable);
+    replay(mockCacheListener);
+    stripedListener.notifyElementUpdated(mockCacheable);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    verify(mockCacheListener);
+  }
+
+  @Test
+  public void testTwoNotifications() throws InterruptedException {
+    final Cacheable mockCacheable = createNiceMock(Cacheable.class);
+    final Cacheable mockCacheable2 = createNiceMock(Cacheable.class);
+    expect(mockCacheable.getId()).andReturn(1L).anyTimes();
+    expect(mockCacheable2.getId()).andReturn(2L).anyTimes();
+    CountDownLatch latch = new CountDownLatch(2);
+
+    mockCacheListener.notifyElementUpdated(mockCacheable);
+    expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    });
+    mockCacheListener.confirmStatus(mockCacheable2);
+    expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    });
+
+    replay(mockCacheable);
+    replay(mockCacheable2);
+    replay(mockCacheListener);
+    stripedListener.notifyElementUpdated(mockCacheable);
+    stripedListener.confirmStatus(mockCacheable2);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    verify(mockCacheListener);
+  }
+
+  /**
+   * Updates of the same object must be received in order, even with a
+   * full queue blocking the notifying threads.
+   */
+  @Test
+  public void testUpdatesOfSameObjectAreOrdered() throws InterruptedException {
+    final int nbTags = 20;
+    final int nbUpdates = 500;
+    final Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+    final CountDownLatch latch = new CountDownLatch(nbTags * nbUpdates);
+
+    StripedCacheListener<DataTagCacheObject> listener = new StripedCacheListener<>(new C2monCacheListener<DataTagCacheObject>() {
+      @Override
+      public void notifyElementUpdated(DataTagCacheObject cacheable) {
+        received.computeIfAbsent(cacheable.getId(), id -> new ArrayList<>()).add((Long) cacheable.getValue());
+        latch.countDown();
+      }
+
+      @Override
+      public void confirmStatus(DataTagCacheObject cacheable) {
+      }
+    }, 10, 4);
+    listener.start();
+
+    for (long update = 0; update < nbUpdates; update++) {
+      for (long id = 0; id < nbTags; id++) {
+        DataTagCacheObject tag = new DataTagCacheObject(id);
+        tag.setValue(update);
+        listener.notifyElementUpdated(tag);
+      }
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    listener.stop();
+    assertEquals(nbTags, received.size());
+    for (List<Long> values : received.values()) {
+      assertEquals(nbUpdates, values.size());
+      for (int i = 0; i < nbUpdates; i++) {
+        assertEquals(Long.valueOf(i), values.get(i));
+      }
+    }
+    assertEquals(0, listener.getTaskQueueSize());
+  }
+
+  /**
+   * A batch larger than the lane capacity is handed over without losing or
+   * reordering the updates of an object.
+   */
+  @Test
+  public void testBatchExecution() throws InterruptedException {
+    final int nbTags = 100;
+    final int nbBatches = 50;
+    final Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+    final CountDownLatch latch = new CountDownLatch(nbTags * nbBatches);
+
+    StripedCacheListener<DataTagCacheObject> listener = new StripedCacheListener<>(createNiceMock(C2monCacheListener.class), 10, 4);
+    listener.start();
+
+    for (long batch = 0; batch < nbBatches; batch++) {
+      List<DataTagCacheObject> tags = new ArrayList<>();
+      for (long id = 0; id < nbTags; id++) {
+        DataTagCacheObject tag = new DataTagCacheObject(id);
+        tag.setValue(batch);
+        tags.add(tag);
+      }
+      listener.execute(tags, tag -> {
+        received.computeIfAbsent(tag.getId(), id -> new ArrayList<>()).add((Long) tag.getValue());
+        latch.countDown();
+      });
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    listener.stop();
+    assertEquals(nbTags, received.size());
+    for (List<Long> values : received.values()) {
+      assertEquals(nbBatches, values.size());
+      for (int i = 0; i < nbBatches; i++) {
+        assertEquals(Long.valueOf(i), values.get(i));
+      }
+    }
+    assertEquals(nbTags * nbBatches, listener.getProcessedCount());
+  }
+
+  @Test
+  public void testLaneStatistics() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    StripedCacheListener<DataTagCacheObject> listener = new StripedCacheListener<>(new C2monCacheListener<DataTagCacheObject>() {
+      @Override
+      public void notifyElementUpdated(DataTagCacheObject cacheable) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      @Override
+      public void confirmStatus(DataTagCacheObject cacheable) {
+      }
+    }, 10, 2);
+    listener.start();
+
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    listener.notifyElementUpdated(new DataTagCacheObject(1L));
+    Thread.sleep(20);
+
+    assertEquals(1, listener.getActiveThreadPoolNumber());
+    assertEquals(2, listener.getTaskQueueSize());
+    assertEquals(2, listener.getLaneQueueSizes().size());
+    assertTrue(listener.getLaneQueueSizes().contains(2));
+    assertTrue(listener.getLaneQueueSizes().contains(0));
+    long maxLag = listener.getLaneLags().stream().mapToLong(Long::longValue).max().getAsLong();
+    assertTrue(maxLag >= 20);
+
+    release.countDown();
+    listener.stop();
+    assertEquals(0, listener.getTaskQueueSize());
+  }
+
+  /**
+   * In overflowing mode, a full lane neither blocks the notifying thread nor
+   * drops any update.
+   */
+  @Test
+  public void testOverflowingLaneKeepsEveryUpdate() throws InterruptedException {
+    final int nbUpdates = 100;
+    final List<Long> received = new ArrayList<>();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(nbUpdates);
+
+    StripedCacheListener<DataTagCacheObject> listener = new StripedCacheListener<>(new C2monCacheListener<DataTagCacheObject>() {
+      @Override
+      public void notifyElementUpdated(DataTagCacheObject cacheable) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        received.add((Long) cacheable.getValue());
+        latch.countDown();
+      }
+
+      @Override
+      public void confirmStatus(DataTagCacheObject cacheable) {
+      }
+    }, 2, 1, true);
+    listener.start();
+
+    // the listener is blocked, so all but the first update stay queued
+    for (long update = 0; update < nbUpdates; update++) {
+      DataTagCacheObject tag = new DataTagCacheObject(1L);
+      tag.setValue(update);
+      listener.notifyElementUpdated(tag);
+    }
+    assertTrue(listener.getTaskQueueSize() >= nbUpdates - 1);
+    assertTrue(listener.getOverflowCount() >= nbUpdates - 3);
+
+    release.countDown();
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    listener.stop();
+    assertEquals(nbUpdates, received.size());
+    for (int i = 0; i < nbUpdates; i++) {
+      assertEquals(Long.valueOf(i), received.get(i));
+    }
+  }
+
+  /**
+   * Is allowed but logs a warning
+   */
+  @Test
+  public void testShutdown() {
+    stripedListener.start();
+    stripedListener.stop();
+    final Cacheable mockCacheable = createMock(Cacheable.class);
+    replay(mockCacheListener);
+    stripedListener.notifyElementUpdated(mockCacheable);
+    verify(mockCacheListener);
+  }
+
+  @After
+  public void shutdown() {
+    stripedListener.start();
+    stripedListener.stop();
+  }
+}
@@ -0,0 +1,167 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.tag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.config.SearchAttribute;
+import net.sf.ehcache.config.Searchable;
+import net.sf.ehcache.search.Attribute;
+import net.sf.ehcache.search.Result;
+import net.sf.ehcache.search.Results;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.common.datatag.DataTag;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the {@link TagIndex} lookups with the Ehcache search queries
+ * previously used by the tag caches, on a cache configured with the same
+ * search attributes as the production data tag cache.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class TagIndexBenchmark {
+
+  private static final int NB_TAGS = 50000;
+
+  private static final int NB_EQUIPMENTS = 500;
+
+  private static final int NB_LOOKUPS = 100;
+
+  private CacheManager cacheManager;
+
+  private Cache cache;
+
+  private TagIndex<DataTag> index;
+
+  @Before
+  public void setUp() {
+    Searchable searchable = new Searchable();
+    searchable.keys(false);
+    searchable.values(false);
+    searchable.addSearchAttribute(new SearchAttribute().name("tagName").expression("value.getName()"));
+    searchable.addSearchAttribute(new SearchAttribute().name("equipmentId").expression("value.getEquipmentId()"));
+
+    CacheConfiguration cacheConfiguration = new CacheConfiguration("benchmarkTagCache", NB_TAGS).eternal(true);
+    cacheConfiguration.addSearchable(searchable);
+
+    cacheManager = new CacheManager(new Configuration().name("tagIndexBenchmark"));
+    cache = new Cache(cacheConfiguration);
+    cacheManager.addCache(cache);
+
+    index = new TagIndex<>();
+    for (long id = 0; id < NB_TAGS; id++) {
+      DataTagCacheObject tag = TagIndexTest.createDataTag(id, "BENCHMARK.TAG." + id, id % 10, id % NB_EQUIPMENTS, null);
+      cache.put(new Element(id, tag));
+      index.put(tag);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    cacheManager.shutdown();
+  }
+
+  @Test
+  public void compareNameLookup() {
+    List<String> names = randomNames();
+
+    long start = System.nanoTime();
+    List<Long> queryResults = new ArrayList<>();
+    Attribute<String> tagName = cache.getSearchAttribute("tagName");
+    for (String name : names) {
+      Results results = cache.createQuery().includeKeys().addCriteria(tagName.ilike(name)).maxResults(1).execute();
+      for (Result result : results.all()) {
+        queryResults.add((Long) result.getKey());
+      }
+      results.discard();
+    }
+    long queryTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    List<Long> indexResults = new ArrayList<>();
+    for (String name : names) {
+      indexResults.add(index.getIdByName(name));
+    }
+    long indexTime = System.nanoTime() - start;
+
+    assertEquals(queryResults, indexResults);
+    report("name lookup", queryTime, indexTime);
+  }
+
+  @Test
+  public void compareEquipmentLookup() {
+    Random random = new Random(0);
+    List<Long> equipmentIds = new ArrayList<>();
+    for (int i = 0; i < NB_LOOKUPS; i++) {
+      equipmentIds.add((long) random.nextInt(NB_EQUIPMENTS));
+    }
+
+    long start = System.nanoTime();
+    List<HashSet<Long>> queryResults = new ArrayList<>();
+    Attribute<Long> equipmentId = cache.getSearchAttribute("equipmentId");
+    for (Long id : equipmentIds) {
+      Results results = cache.createQuery().includeKeys().addCriteria(equipmentId.eq(id)).execute();
+      HashSet<Long> ids = new HashSet<>();
+      for (Result result : results.all()) {
+        ids.add((Long) result.getKey());
+      }
+      queryResults.add(ids);
+      results.discard();
+    }
+    long queryTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    List<HashSet<Long>> indexResults = new ArrayList<>();
+    for (Long id : equipmentIds) {
+      indexResults.add(new HashSet<>(index.getIdsByEquipmentId(id)));
+    }
+    long indexTime = System.nanoTime() - start;
+
+    assertEquals(queryResults, indexResults);
+    report("equipment lookup", queryTime, indexTime);
+  }
+
+  private List<String> randomNames() {
+    Random random = new Random(0);
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < NB_LOOKUPS; i++) {
+      names.add("benchmark.tag." + random.nextInt(NB_TAGS));
+    }
+    return names;
+  }
+
+  private void report(String lookup, long queryTime, long indexTime) {
+    log.info(String.format("%d x %s on %d tags: Ehcache search %.2f ms, index %.2f ms (x%.0f)",
+        NB_LOOKUPS, lookup, NB_TAGS, queryTime / 1e6, indexTime / 1e6, (double) queryTime / Math.max(indexTime, 1)));
+  }
+}
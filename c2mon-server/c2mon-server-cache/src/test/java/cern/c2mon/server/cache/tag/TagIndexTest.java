@@ -0,0 +1,117 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.cache.tag;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.common.rule.RuleTagCacheObject;
+import cern.c2mon.server.common.tag.Tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TagIndexTest {
+
+  private TagIndex<Tag> index;
+
+  @Before
+  public void setUp() {
+    index = new TagIndex<>();
+  }
+
+  @Test
+  public void testNameLookupIsCaseInsensitive() {
+    index.put(createDataTag(1L, "Tag.Name", 10L, 100L, null));
+    assertEquals(Long.valueOf(1L), index.getIdByName("tag.name"));
+    assertEquals(Long.valueOf(1L), index.getIdByName("TAG.NAME"));
+    assertNull(index.getIdByName("tag.*"));
+  }
+
+  @Test
+  public void testSupervisionLookups() {
+    index.put(createDataTag(1L, "tag1", 10L, 100L, null));
+    index.put(createDataTag(2L, "tag2", 10L, 100L, 1000L));
+    index.put(createDataTag(3L, "tag3", 20L, 200L, null));
+
+    assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(index.getIdsByProcessId(10L)));
+    assertEquals(Arrays.asList(1L), index.getIdsByEquipmentId(100L));
+    assertEquals(Arrays.asList(2L), index.getIdsBySubEquipmentId(1000L));
+    assertEquals(Arrays.asList(3L), index.getIdsByEquipmentId(200L));
+    assertTrue(index.getIdsByEquipmentId(300L).isEmpty());
+  }
+
+  @Test
+  public void testUpdateMovesEntries() {
+    index.put(createDataTag(1L, "tag1", 10L, 100L, null));
+    index.put(createDataTag(1L, "renamed", 20L, 200L, null));
+
+    assertNull(index.getIdByName("tag1"));
+    assertEquals(Long.valueOf(1L), index.getIdByName("renamed"));
+    assertTrue(index.getIdsByProcessId(10L).isEmpty());
+    assertTrue(index.getIdsByEquipmentId(100L).isEmpty());
+    assertEquals(Arrays.asList(1L), index.getIdsByEquipmentId(200L));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testRemove() {
+    index.put(createDataTag(1L, "tag1", 10L, 100L, null));
+    index.put(createDataTag(2L, "tag2", 10L, 100L, null));
+    index.remove(1L);
+
+    assertNull(index.getIdByName("tag1"));
+    assertEquals(Arrays.asList(2L), index.getIdsByEquipmentId(100L));
+    assertEquals(1, index.size());
+
+    index.remove(2L);
+    assertTrue(index.getIdsByProcessId(10L).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void testRuleTagParentIdsChangedInPlace() {
+    RuleTagCacheObject rule = new RuleTagCacheObject(5L);
+    rule.setName("rule");
+    index.put(rule);
+    assertTrue(index.getIdsByProcessId(10L).isEmpty());
+
+    rule.setProcessIds(new HashSet<>(Arrays.asList(10L, 20L)));
+    rule.setEquipmentIds(new HashSet<>(Arrays.asList(100L)));
+    index.put(rule);
+
+    assertEquals(Arrays.asList(5L), index.getIdsByProcessId(10L));
+    assertEquals(Arrays.asList(5L), index.getIdsByProcessId(20L));
+    assertEquals(Arrays.asList(5L), index.getIdsByEquipmentId(100L));
+  }
+
+  static DataTagCacheObject createDataTag(Long id, String name, Long processId, Long equipmentId, Long subEquipmentId) {
+    DataTagCacheObject tag = new DataTagCacheObject(id, name, "Integer", (short) 0);
+    tag.setProcessId(processId);
+    if (subEquipmentId != null) {
+      tag.setSubEquipmentId(subEquipmentId);
+    } else {
+      tag.setEquipmentId(equipmentId);
+    }
+    return tag;
+  }
+}
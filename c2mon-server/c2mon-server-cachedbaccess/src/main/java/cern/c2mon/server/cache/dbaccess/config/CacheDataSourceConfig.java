@@ -5,9 +5,13 @@ import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -65,6 +69,15 @@ public class CacheDataSourceConfig {
     return sessionFactory;
   }
 
+  /**
+   * Session using the MyBatis batch executor, for sending the statements of a
+   * transaction as JDBC batches (used for the cache persistence).
+   */
+  @Bean
+  public SqlSessionTemplate cacheBatchSqlSessionTemplate(@Qualifier("cacheSqlSessionFactory") SqlSessionFactory cacheSqlSessionFactory) {
+    return new SqlSessionTemplate(cacheSqlSessionFactory, ExecutorType.BATCH);
+  }
+
   @Bean
   public static VendorDatabaseIdProvider databaseIdProvider() {
     VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
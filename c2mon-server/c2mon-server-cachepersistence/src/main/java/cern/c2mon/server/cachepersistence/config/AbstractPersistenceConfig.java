@@ -1,8 +1,15 @@
 package cern.c2mon.server.cachepersistence.config;
 
+import cern.c2mon.server.cache.C2monCache;
 import cern.c2mon.server.cache.ClusterCache;
 import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.cache.dbaccess.PersistenceMapper;
+import cern.c2mon.server.cachepersistence.CachePersistenceDAO;
+import cern.c2mon.server.cachepersistence.impl.CachePersistenceDAOImpl;
+import cern.c2mon.shared.common.Cacheable;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
@@ -21,4 +28,26 @@ public abstract class AbstractPersistenceConfig {
 
   @Autowired
   protected ThreadPoolTaskExecutor cachePersistenceThreadPoolTaskExecutor;
+
+  @Autowired
+  @Qualifier("cacheBatchSqlSessionTemplate")
+  protected SqlSessionTemplate cacheBatchSqlSessionTemplate;
+
+  /**
+   * Creates the persistence DAO of a cache, using JDBC batch updates if
+   * enabled in the {@link CachePersistenceProperties}.
+   *
+   * @param mapperType the mapper interface of the cache
+   * @param mapper the mapper bean
+   * @param cache the cache to persist
+   * @return the DAO
+   */
+  protected <T extends Cacheable> CachePersistenceDAO<T> createPersistenceDAO(final Class<? extends PersistenceMapper<T>> mapperType,
+                                                                              final PersistenceMapper<T> mapper,
+                                                                              final C2monCache<Long, T> cache) {
+    if (properties.isJdbcBatching()) {
+      return new CachePersistenceDAOImpl<>(mapper, cache, cacheBatchSqlSessionTemplate.getMapper(mapperType));
+    }
+    return new CachePersistenceDAOImpl<>(mapper, cache);
+  }
 }
@@ -23,4 +23,10 @@ public class CachePersistenceProperties {
 
   /** Set the capacity for the ThreadPoolExecutor's BlockingQueue */
   private int queueCapacity = 1000;
+
+  /**
+   * Send the updates of a persistence batch to the database as a single JDBC
+   * batch, instead of executing one statement per cache object
+   */
+  private boolean jdbcBatching = true;
 }
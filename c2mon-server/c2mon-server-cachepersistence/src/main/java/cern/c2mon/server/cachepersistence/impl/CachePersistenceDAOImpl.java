@@ -48,6 +48,13 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
    */
   private PersistenceMapper<T> persistenceMapper;
 
+  /**
+   * Mapper bound to a batch executor, used for persisting batches of cache
+   * objects with JDBC batch updates. If <code>null</code>, batches are
+   * persisted statement by statement with the {@link #persistenceMapper}.
+   */
+  private PersistenceMapper<T> batchPersistenceMapper;
+
   /**
    * Reference to the cache where the cache objects can be retrieved
    * (one of the only references to the cache module from the cache
@@ -67,6 +74,21 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
     this.cache = cache;
   }
 
+  /**
+   * Constructor for persisting batches with JDBC batch updates.
+   *
+   * @param persistenceMapper the mapper bean for this cache
+   * @param cache the cache that is being persisted
+   * @param batchPersistenceMapper the same mapper, obtained from a
+   *          {@link org.mybatis.spring.SqlSessionTemplate} using the
+   *          {@link org.apache.ibatis.session.ExecutorType#BATCH} executor
+   */
+  public CachePersistenceDAOImpl(final PersistenceMapper<T> persistenceMapper, final C2monCache<Long, T> cache,
+                                 final PersistenceMapper<T> batchPersistenceMapper) {
+    this(persistenceMapper, cache);
+    this.batchPersistenceMapper = batchPersistenceMapper;
+  }
+
   /**
    * Persists a single cacheable
    * setting).
@@ -80,18 +102,23 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
   /**
    * Used to persist a batch of cache objects in a single transaction.
    * An object that is not found in the cache will not be persisted and skipped.
+   *
+   * <p>With a batch mapper, the updates are sent to the database as a single
+   * JDBC batch when the transaction commits.
+   *
    * @param keyList keys of the elements that need persisting
    */
   @Transactional(value = "cacheTransactionManager")
   @Override
   public void persistBatch(final List<Long> keyList) {
+    PersistenceMapper<T> mapper = batchPersistenceMapper != null ? batchPersistenceMapper : persistenceMapper;
     T cacheObject;
     for (Long key : keyList) {
       try {
         cacheObject = cache.getCopy(key);
         //do not persist unconfigured tags TODO could remove as unconfigured not used
         if (cacheObject != null && (!(cacheObject instanceof Tag) || !((Tag) cacheObject).isInUnconfigured())) {
-          persistenceMapper.updateCacheable(cacheObject);
+          mapper.updateCacheable(cacheObject);
         }
       } catch (CacheElementNotFoundException ex) {
         log.warn("Cache element with id {} could not be persisted as not found in cache " +
@@ -99,6 +126,4 @@ public class CachePersistenceDAOImpl<T extends Cacheable> implements CachePersis
       }
     }
   }
-
-
 }
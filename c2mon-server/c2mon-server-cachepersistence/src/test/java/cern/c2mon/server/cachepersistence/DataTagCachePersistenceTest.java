@@ -18,6 +18,8 @@ package cern.c2mon.server.cachepersistence;
 
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
 
 import cern.c2mon.server.cache.config.CacheModule;
 import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
@@ -120,6 +122,28 @@ public class DataTagCachePersistenceTest {
     dataTagCache.remove(originalObject.getId());
 }
 
+  /**
+   * Tests that all tags of a batch are persisted with the JDBC batch updates.
+   */
+  @Test
+  public void testBatchPersistence() {
+    List<Long> ids = new ArrayList<>();
+    for (DataTag tag : dataTagMapper.getAll()) {
+      DataTagCacheObject cacheObject = (DataTagCacheObject) tag;
+      cacheObject.setValueDescription("batch persisted " + tag.getId());
+      cacheObject.setCacheTimestamp(new Timestamp(System.currentTimeMillis()));
+      dataTagCache.putQuiet(cacheObject);
+      ids.add(tag.getId());
+    }
+
+    dataTagPersistenceManager.persistList(ids);
+
+    for (Long id : ids) {
+      assertEquals("batch persisted " + id, dataTagMapper.getItem(id).getValueDescription());
+      dataTagCache.remove(id);
+    }
+  }
+
   /**
    * Tests that if 2 updates for the same tag are written to the cache at roughly
    * the same time, that only the most recent one ends up in the DB. This is testing
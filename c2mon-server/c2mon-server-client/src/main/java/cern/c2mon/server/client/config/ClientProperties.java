@@ -42,6 +42,15 @@ public class ClientProperties {
      * process ID will be appended.
      */
     private String tagTopicPrefix = "c2mon.client.tag";
+
+    /**
+     * Number of topics per process over which the data tags and rules are
+     * distributed, by hashing the tag id. The shard number is appended to
+     * the process topic if greater than 1. Clients subscribe to the topic
+     * received with the tag configuration, so they only receive the updates
+     * of the shards they need.
+     */
+    private int tagTopicShards = 1;
     
     /**
      * Set the time-to-live in seconds for all client messages that are distributed via JMS topics
@@ -49,6 +58,18 @@ public class ClientProperties {
      */
     private int clientTopicMsgTimeToLive = 60;
 
+    /**
+     * Capacity of the queue of tag updates waiting to be published to the
+     * clients. The updates are sent by a dedicated thread, so that a slow
+     * broker does not slow down the alarm evaluation. Once the queue is full,
+     * the evaluating threads have to wait. If set to 0, the updates are sent
+     * by the evaluating threads
+     */
+    private int tagPublicationQueueCapacity = 10000;
+
+    /** Maximum number of queued tag updates sent to the broker in one go */
+    private int tagPublicationBatchSize = 100;
+
     /** Specify the initial number of concurrent consumers to receive client requests */
     private int initialConsumers = 5;
 
@@ -0,0 +1,44 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.publish;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A tag update or configuration update serialized for the publication on
+ * a client tag topic. The same payload is used for the first publication
+ * attempt and, if it fails, for the re-publication.
+ */
+@Getter
+@AllArgsConstructor
+public final class TagValueMessage {
+
+  /** The id of the published tag */
+  private final Long tagId;
+
+  /** The topic to which the message is published */
+  private final String topic;
+
+  /** The JSON payload */
+  private final String payload;
+
+  @Override
+  public String toString() {
+    return "Update for tag " + tagId + " on topic " + topic;
+  }
+}
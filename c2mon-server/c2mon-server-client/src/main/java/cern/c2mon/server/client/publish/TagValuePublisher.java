@@ -16,7 +16,15 @@
  *****************************************************************************/
 package cern.c2mon.server.client.publish;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -51,6 +59,7 @@ import cern.c2mon.shared.daq.republisher.Publisher;
 import cern.c2mon.shared.daq.republisher.Republisher;
 import cern.c2mon.shared.daq.republisher.RepublisherFactory;
 import cern.c2mon.shared.util.jms.JmsSender;
+import cern.c2mon.shared.util.jms.TopicMessage;
 
 /**
  * This class implements the <code>AlarmAggregatorListener</code>
@@ -63,6 +72,14 @@ import cern.c2mon.shared.util.jms.JmsSender;
  * topics. The update information is transmitted as GSON message
  * with the <code>TransferTag</code> class.
  *
+ * Each update is serialized once into a {@link TagValueMessage}, which is
+ * also the payload kept for the re-publication if the publication fails.
+ *
+ * Once initialised, the tag value updates are queued and sent in batches by
+ * a dedicated publication thread, in the order in which they were received.
+ * The capacity of the queue is bounded: once full, the threads notifying the
+ * updates have to wait.
+ *
  * @author Matthias Braeger, Mark Brightwell, Ignacio Vilches
  *
  * @see AlarmAggregatorListener
@@ -72,7 +89,7 @@ import cern.c2mon.shared.util.jms.JmsSender;
 @Slf4j
 @Service
 @ManagedResource(description = "Bean publishing tag updates to the clients")
-public class TagValuePublisher implements AlarmAggregatorListener, ConfigurationUpdateListener, Publisher<TagWithAlarms> {
+public class TagValuePublisher implements AlarmAggregatorListener, ConfigurationUpdateListener, Publisher<TagValueMessage> {
 
   /** Bean providing for sending JMS messages and waiting for a response */
   private final JmsSender jmsSender;
@@ -84,7 +101,7 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
   private final AlarmAggregatorRegistration alarmAggregatorRegistration;
 
   /** Contains re-publication logic */
-  private Republisher<TagWithAlarms> republisher;
+  private Republisher<TagValueMessage> republisher;
 
   /** Time between republicaton attempts */
   private int republicationDelay;
@@ -103,6 +120,30 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
 
   private ClientProperties properties;
 
+  /**
+   * Tag updates waiting to be sent by the publication thread, or
+   * <code>null</code> if they are sent on the notifying thread
+   */
+  private final BlockingQueue<QueuedMessage> publicationQueue;
+
+  /** Thread sending the queued tag updates */
+  private Thread publicationThread;
+
+  /** Time (in ms) after which a thread waiting for space in the publication queue checks for shutdown */
+  private static final long QUEUE_OFFER_TIMEOUT = 100;
+
+  /** Set while the publication thread is accepting updates */
+  private volatile boolean running = false;
+
+  /** Number of tag updates sent by the publication thread */
+  private final LongAdder publishedCount = new LongAdder();
+
+  /** Sum of the times (in ms) the sent tag updates have spent in the queue */
+  private final LongAdder totalLatency = new LongAdder();
+
+  /** Highest time (in ms) a tag update spent in the queue since the last reset */
+  private final AtomicLong maxLatency = new AtomicLong();
+
   /**
    * Default Constructor
    * @param jmsSender Used for sending JMS messages and waiting for a response
@@ -128,6 +169,8 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
     this.tagLocationService = tagLocationService;
     this.republisher = RepublisherFactory.createRepublisher(this, "Tag");
     this.properties = properties;
+    int capacity = properties.getJms().getTagPublicationQueueCapacity();
+    this.publicationQueue = capacity > 0 ? new LinkedBlockingQueue<>(capacity) : null;
   }
 
   /**
@@ -147,14 +190,38 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
     if (republicationDelay != 0)
       republisher.setRepublicationDelay(republicationDelay);
     republisher.start();
+
+    if (publicationQueue != null) {
+      running = true;
+      publicationThread = new Thread(this::publishQueuedMessages, "TagValuePublisher");
+      publicationThread.start();
+    }
   }
 
   /**
-   * Before shutdown, stop republisher thread.
+   * Before shutdown, sends the queued updates and stops the publication and
+   * republisher threads.
    */
   @PreDestroy
   public void shutdown() {
     log.info("shutdown - Stopping tag publisher.");
+    running = false;
+    if (publicationThread != null) {
+      try {
+        publicationThread.join();
+      } catch (InterruptedException e) {
+        log.warn("shutdown - Interrupted while waiting for the queued tag updates to be published", e);
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (publicationQueue != null) {
+      // updates queued after the publication thread exited
+      List<QueuedMessage> batch = new ArrayList<>();
+      while (publicationQueue.drainTo(batch, Math.max(1, properties.getJms().getTagPublicationBatchSize())) > 0) {
+        publishBatch(batch);
+        batch.clear();
+      }
+    }
     republisher.stop();
   }
 
@@ -169,12 +236,84 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
   @Override
   public void notifyOnUpdate(final Tag tag, final List<Alarm> alarms) {
     TagWithAlarms tagWithAlarms = new TagWithAlarmsImpl(tag, alarms);
+    TransferTagValueImpl tagValue = TransferObjectFactory.createTransferTagValue(tagWithAlarms);
+    TagValueMessage message = new TagValueMessage(tag.getId(), TopicProvider.topicFor(tag, properties), TransferTagSerializer.toJson(tagValue));
+    if (running) {
+      QueuedMessage queued = new QueuedMessage(message);
+      try {
+        // wait for space in the queue, unless the publisher is shut down meanwhile
+        while (running) {
+          if (publicationQueue.offer(queued, QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            // if shutdown started meanwhile, the message may have been queued after the final
+            // drain: it is then published directly, unless it was taken from the queue already
+            if (running || !publicationQueue.remove(queued)) {
+              return;
+            }
+            break;
+          }
+        }
+      } catch (InterruptedException e) {
+        log.warn("notifyOnUpdate - Interrupted while waiting for space in the publication queue, publishing tag " + tag.getId() + " directly");
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      publish(message);
+    } catch (JmsException e) {
+      log.error("notifyOnUpdate - Error publishing tag update to topic for tag " + tag.getId() + " - submitting for republication", e);
+      republisher.publicationFailed(message);
+    }
+  }
+
+  /**
+   * Run by the publication thread until shutdown: sends the queued updates
+   * in batches of at most <code>tagPublicationBatchSize</code> messages.
+   */
+  private void publishQueuedMessages() {
+    int batchSize = Math.max(1, properties.getJms().getTagPublicationBatchSize());
+    List<QueuedMessage> batch = new ArrayList<>(batchSize);
+    while (running || !publicationQueue.isEmpty()) {
+      try {
+        QueuedMessage first = publicationQueue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        publicationQueue.drainTo(batch, batchSize - 1);
+        publishBatch(batch);
+      } catch (InterruptedException e) {
+        log.warn("publishQueuedMessages - Publication thread interrupted", e);
+      } catch (RuntimeException e) {
+        log.error("publishQueuedMessages - Unexpected exception while publishing tag updates", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void publishBatch(final List<QueuedMessage> batch) {
+    List<TopicMessage> messages = new ArrayList<>(batch.size());
+    for (QueuedMessage queued : batch) {
+      TagValueMessage message = queued.message;
+      log.trace("publish - Publishing tag update to client: {}", message.getPayload());
+      messages.add(new TopicMessage(message.getPayload(), message.getTopic(), tagIdProperty(message.getTagId())));
+    }
     try {
-      publish(tagWithAlarms);
+      jmsSender.sendToTopics(messages);
     } catch (JmsException e) {
-      log.error("notifyOnUpdate - Error publishing tag update to topic for tag " + tagWithAlarms.getTag().getId() + " - submitting for republication", e);
-      republisher.publicationFailed(tagWithAlarms);
+      log.error("publishBatch - Error publishing " + batch.size() + " tag updates to the client topics - submitting for republication", e);
+      for (QueuedMessage queued : batch) {
+        republisher.publicationFailed(queued.message);
+      }
+    }
+
+    long now = System.currentTimeMillis();
+    for (QueuedMessage queued : batch) {
+      long latency = now - queued.timestamp;
+      totalLatency.add(latency);
+      maxLatency.accumulateAndGet(latency, Math::max);
     }
+    publishedCount.add(batch.size());
   }
   
   @Override
@@ -183,11 +322,10 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
   }
 
   @Override
-  public void publish(final TagWithAlarms tagWithAlarms) {
-    TransferTagValueImpl tagValue = TransferObjectFactory.createTransferTagValue(tagWithAlarms);
-    log.trace("publish - Publishing tag update to client: " + TransferTagSerializer.toJson(tagValue));
+  public void publish(final TagValueMessage message) {
+    log.trace("publish - Publishing tag update to client: {}", message.getPayload());
 
-    jmsSender.sendToTopic(TransferTagSerializer.toJson(tagValue), TopicProvider.topicFor(tagWithAlarms.getTag(), properties));
+    jmsSender.sendToTopic(message.getPayload(), message.getTopic(), tagIdProperty(message.getTagId()));
   }
 
   @Override
@@ -195,23 +333,31 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
     tagLocationService.acquireReadLockOnKey(tagId);
     try {
       TagWithAlarms tagWithAlarms = this.tagFacadeGateway.getTagWithAlarms(tagId);
+      String topic = TopicProvider.topicFor(tagWithAlarms.getTag(), properties);
+      TransferTagImpl tag = TransferObjectFactory.createTransferTag(tagWithAlarms, aliveTimerFacade.isRegisteredAliveTimer(tagId), topic);
+      TagValueMessage message = new TagValueMessage(tagId, topic, TransferTagSerializer.toJson(tag));
       try {
-        String topic = TopicProvider.topicFor(tagWithAlarms.getTag(), properties);
-        TransferTagImpl tag = TransferObjectFactory.createTransferTag(tagWithAlarms, aliveTimerFacade.isRegisteredAliveTimer(tagId), topic);
-
-        log.trace("notifyOnConfigurationUpdate - Publishing configuration update to client: " + TransferTagSerializer.toJson(tag));
+        log.trace("notifyOnConfigurationUpdate - Publishing configuration update to client: {}", message.getPayload());
 
-        jmsSender.sendToTopic(TransferTagSerializer.toJson(tag), topic);
+        jmsSender.sendToTopic(message.getPayload(), topic, tagIdProperty(tagId));
       } catch (JmsException e) {
-        log.error("notifyOnConfigurationUpdate - Error publishing configuration update to topic for tag " + tagWithAlarms.getTag().getId()
+        log.error("notifyOnConfigurationUpdate - Error publishing configuration update to topic for tag " + tagId
             + " - submitting for republication", e);
-        republisher.publicationFailed(tagWithAlarms);
+        republisher.publicationFailed(message);
       }
     } finally {
       tagLocationService.releaseReadLockOnKey(tagId);
     }
   }
 
+  /**
+   * @return the message properties allowing clients to select the updates
+   *         of a tag
+   */
+  private static Map<String, String> tagIdProperty(Long tagId) {
+    return Collections.singletonMap(TagValueUpdate.TAG_ID_PROPERTY, tagId.toString());
+  }
+
   /**
    * @return the total number of failed publications since the publisher start
    */
@@ -227,4 +373,50 @@ public class TagValuePublisher implements AlarmAggregatorListener, Configuration
   public int getSizeUnpublishedList() {
     return republisher.getSizeUnpublishedList();
   }
+
+  /**
+   * @return the number of tag updates waiting for the publication thread
+   */
+  @ManagedOperation(description = "Returns the current number of tag updates waiting in the publication queue")
+  public int getPublicationQueueSize() {
+    return publicationQueue == null ? 0 : publicationQueue.size();
+  }
+
+  /**
+   * @return the average time in ms a tag update spent in the publication
+   *         queue, including its sending
+   */
+  @ManagedOperation(description = "Returns the average latency (ms) of the tag updates in the publication queue")
+  public double getAveragePublicationLatency() {
+    long count = publishedCount.sum();
+    return count == 0 ? 0 : (double) totalLatency.sum() / count;
+  }
+
+  /**
+   * @return the highest publication latency in ms since the last reset
+   */
+  @ManagedOperation(description = "Returns the maximum latency (ms) of the tag updates in the publication queue since the last reset")
+  public long getMaxPublicationLatency() {
+    return maxLatency.get();
+  }
+
+  @ManagedOperation(description = "Resets the maximum latency of the tag updates in the publication queue")
+  public void resetMaxPublicationLatency() {
+    maxLatency.set(0);
+  }
+
+  /**
+   * A tag update waiting in the publication queue.
+   */
+  private static final class QueuedMessage {
+
+    private final TagValueMessage message;
+
+    /** Time at which the update was queued */
+    private final long timestamp = System.currentTimeMillis();
+
+    private QueuedMessage(final TagValueMessage message) {
+      this.message = message;
+    }
+  }
 }
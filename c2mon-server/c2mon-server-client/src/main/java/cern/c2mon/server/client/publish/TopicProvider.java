@@ -17,9 +17,21 @@ public class TopicProvider {
     if (tag instanceof ControlTag) {
       return properties.getJms().getControlTagTopic();
     } else if (tag instanceof RuleTag) {
-      return trunk + "." + ((RuleTag) tag).getLowestProcessId();
+      return shard(trunk + "." + ((RuleTag) tag).getLowestProcessId(), tag, properties);
     } else {
-      return trunk + "." + ((DataTag) tag).getProcessId();
+      return shard(trunk + "." + ((DataTag) tag).getProcessId(), tag, properties);
     }
   }
+
+  /**
+   * Appends the shard of the tag to the process topic, if the tags of a
+   * process are distributed over several topics.
+   */
+  private static String shard(String processTopic, Tag tag, ClientProperties properties) {
+    int shards = properties.getJms().getTagTopicShards();
+    if (shards <= 1) {
+      return processTopic;
+    }
+    return processTopic + "." + Math.floorMod(Long.hashCode(tag.getId()), shards);
+  }
 }
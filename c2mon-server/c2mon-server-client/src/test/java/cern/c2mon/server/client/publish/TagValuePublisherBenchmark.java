@@ -0,0 +1,140 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.publish;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import cern.c2mon.server.client.config.ClientProperties;
+import cern.c2mon.server.client.util.TransferObjectFactory;
+import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.common.alarm.TagWithAlarmsImpl;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.client.serializer.TransferTagSerializer;
+import cern.c2mon.shared.client.tag.TransferTagValueImpl;
+import cern.c2mon.shared.util.jms.JmsSender;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the throughput of the {@link TagValuePublisher} with the previous
+ * publication, which serialized each update twice (once for the trace log
+ * message, once for the topic).
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class TagValuePublisherBenchmark {
+
+  private static final int NB_UPDATES = 100000;
+
+  private static final int NB_WARMUP = 20000;
+
+  @Test
+  public void comparePublication() throws JsonProcessingException {
+    CountingJmsSender jmsSender = new CountingJmsSender();
+    ClientProperties properties = new ClientProperties();
+    TagValuePublisher publisher = new TagValuePublisher(jmsSender, null, null, null, null, null, properties);
+    ObjectMapper mapper = TransferTagSerializer.getJacksonParser();
+
+    DataTagCacheObject tag = CacheObjectCreation.createTestDataTag();
+    List<Alarm> alarms = new ArrayList<>();
+    alarms.add(CacheObjectCreation.createTestAlarm1());
+
+    for (int i = 0; i < NB_WARMUP; i++) {
+      publishTwiceSerialized(jmsSender, mapper, tag, alarms, properties);
+      publisher.notifyOnUpdate(tag, alarms);
+    }
+
+    jmsSender.reset();
+    long start = System.nanoTime();
+    for (int i = 0; i < NB_UPDATES; i++) {
+      publishTwiceSerialized(jmsSender, mapper, tag, alarms, properties);
+    }
+    long previousTime = System.nanoTime() - start;
+    String previousPayload = jmsSender.lastPayload;
+    long previousBytes = jmsSender.bytes;
+
+    jmsSender.reset();
+    start = System.nanoTime();
+    for (int i = 0; i < NB_UPDATES; i++) {
+      publisher.notifyOnUpdate(tag, alarms);
+    }
+    long time = System.nanoTime() - start;
+
+    assertEquals(previousPayload, jmsSender.lastPayload);
+    assertEquals(previousBytes, jmsSender.bytes);
+    log.info(String.format("%d tag updates: serialized twice %.0f updates/s, serialized once %.0f updates/s (x%.1f)",
+        NB_UPDATES, NB_UPDATES / (previousTime / 1e9), NB_UPDATES / (time / 1e9), (double) previousTime / Math.max(time, 1)));
+  }
+
+  /**
+   * The publication as done before, where the trace message argument was
+   * serialized regardless of the log level.
+   */
+  private static void publishTwiceSerialized(JmsSender jmsSender, ObjectMapper mapper, DataTagCacheObject tag,
+                                             List<Alarm> alarms, ClientProperties properties) throws JsonProcessingException {
+    TransferTagValueImpl tagValue = TransferObjectFactory.createTransferTagValue(new TagWithAlarmsImpl(tag, alarms));
+    String trace = "publish - Publishing tag update to client: " + mapper.writeValueAsString(tagValue);
+    jmsSender.sendToTopic(mapper.writeValueAsString(tagValue), TopicProvider.topicFor(tag, properties));
+  }
+
+  private static class CountingJmsSender implements JmsSender {
+
+    private long bytes;
+
+    private String lastPayload;
+
+    private void reset() {
+      bytes = 0;
+      lastPayload = null;
+    }
+
+    @Override
+    public String sendRequestToQueue(String text, String jmsQueue, long timeout) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendToTopic(String text, String jmsTopic) {
+      bytes += text.length();
+      lastPayload = text;
+    }
+
+    @Override
+    public void sendToTopic(String text, String jmsTopic, Map<String, ?> properties) {
+      sendToTopic(text, jmsTopic);
+    }
+
+    @Override
+    public void send(String text) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendToQueue(String text, String jmsQueueName) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
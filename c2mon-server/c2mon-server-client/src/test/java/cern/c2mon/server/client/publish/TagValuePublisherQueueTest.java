@@ -0,0 +1,199 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.publish;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import cern.c2mon.server.cache.alarm.AlarmAggregatorRegistration;
+import cern.c2mon.server.client.config.ClientProperties;
+import cern.c2mon.server.client.util.TransferObjectFactory;
+import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.common.alarm.TagWithAlarmsImpl;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+import cern.c2mon.server.configuration.ConfigurationUpdate;
+import cern.c2mon.server.test.CacheObjectCreation;
+import cern.c2mon.shared.client.serializer.TransferTagSerializer;
+import cern.c2mon.shared.client.tag.TagValueUpdate;
+import cern.c2mon.shared.util.jms.JmsSender;
+import cern.c2mon.shared.util.jms.TopicMessage;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the direct and queued publication of the {@link TagValuePublisher}.
+ */
+public class TagValuePublisherQueueTest {
+
+  private static final int NB_UPDATES = 250;
+
+  /**
+   * Each update is serialized once, and the published message is the
+   * serialized transfer object of the tag and its alarms.
+   */
+  @Test
+  public void testPublishedMessageIsTheSerializedTransferTag() throws Exception {
+    ClientProperties properties = new ClientProperties();
+    RecordingJmsSender sender = new RecordingJmsSender();
+    TagValuePublisher publisher = new TagValuePublisher(sender, null, null, null, null, null, properties);
+
+    DataTagCacheObject tag = CacheObjectCreation.createTestDataTag();
+    List<Alarm> alarms = new ArrayList<>();
+    alarms.add(CacheObjectCreation.createTestAlarm1());
+    publisher.notifyOnUpdate(tag, alarms);
+
+    String expected = TransferTagSerializer.getJacksonParser()
+        .writeValueAsString(TransferObjectFactory.createTransferTagValue(new TagWithAlarmsImpl(tag, alarms)));
+    assertEquals(1, sender.texts.size());
+    assertEquals(expected, sender.texts.get(0));
+    assertEquals(TopicProvider.topicFor(tag, properties), sender.topics.get(0));
+  }
+
+  @Test
+  public void testQueuedUpdatesArePublishedInOrder() {
+    ClientProperties properties = new ClientProperties();
+    properties.getJms().setTagPublicationBatchSize(100);
+
+    RecordingJmsSender directSender = new RecordingJmsSender();
+    TagValuePublisher directPublisher = new TagValuePublisher(directSender, null, null, null, null, null, properties);
+
+    RecordingJmsSender queuedSender = new RecordingJmsSender();
+    AlarmAggregatorRegistration registration = createNiceMock(AlarmAggregatorRegistration.class);
+    ConfigurationUpdate configurationUpdate = createNiceMock(ConfigurationUpdate.class);
+    replay(registration, configurationUpdate);
+    TagValuePublisher queuedPublisher = new TagValuePublisher(queuedSender, registration, null, configurationUpdate, null, null, properties);
+    queuedPublisher.init();
+
+    DataTagCacheObject tag = CacheObjectCreation.createTestDataTag();
+    for (int i = 0; i < NB_UPDATES; i++) {
+      tag.setValueDescription("update " + i);
+      directPublisher.notifyOnUpdate(tag, null);
+      queuedPublisher.notifyOnUpdate(tag, null);
+    }
+    queuedPublisher.shutdown();
+
+    assertEquals(NB_UPDATES, directSender.texts.size());
+    assertEquals(directSender.texts, queuedSender.texts);
+    assertEquals(directSender.topics, queuedSender.topics);
+    assertTrue(queuedSender.batches > 0);
+    assertTrue("Batches must not exceed the configured size", queuedSender.maxBatchSize <= 100);
+    assertEquals(tag.getId().toString(), queuedSender.tagIds.get(0));
+    assertEquals(0, queuedPublisher.getPublicationQueueSize());
+    assertEquals(0, queuedPublisher.getSizeUnpublishedList());
+  }
+
+  @Test
+  public void testNoUpdateIsLostOrBlockedDuringShutdown() throws InterruptedException {
+    ClientProperties properties = new ClientProperties();
+    properties.getJms().setTagPublicationQueueCapacity(5);
+    properties.getJms().setTagPublicationBatchSize(2);
+
+    RecordingJmsSender sender = new RecordingJmsSender() {
+      @Override
+      public void sendToTopics(List<TopicMessage> messages) {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.sendToTopics(messages);
+      }
+    };
+    AlarmAggregatorRegistration registration = createNiceMock(AlarmAggregatorRegistration.class);
+    ConfigurationUpdate configurationUpdate = createNiceMock(ConfigurationUpdate.class);
+    replay(registration, configurationUpdate);
+    TagValuePublisher publisher = new TagValuePublisher(sender, registration, null, configurationUpdate, null, null, properties);
+    publisher.init();
+
+    int nbProducers = 4;
+    List<Thread> producers = new ArrayList<>();
+    for (int p = 0; p < nbProducers; p++) {
+      Thread producer = new Thread(() -> {
+        DataTagCacheObject tag = CacheObjectCreation.createTestDataTag();
+        for (int i = 0; i < NB_UPDATES; i++) {
+          publisher.notifyOnUpdate(tag, null);
+        }
+      });
+      producers.add(producer);
+      producer.start();
+    }
+    // shut down while the producers are still waiting for space in the queue
+    Thread.sleep(20);
+    publisher.shutdown();
+
+    for (Thread producer : producers) {
+      producer.join(TimeUnit.SECONDS.toMillis(10));
+      assertFalse("Producer blocked after shutdown", producer.isAlive());
+    }
+    assertEquals(nbProducers * NB_UPDATES, sender.texts.size());
+    assertEquals(0, publisher.getPublicationQueueSize());
+  }
+
+  private static class RecordingJmsSender implements JmsSender {
+
+    private final List<String> texts = new ArrayList<>();
+
+    private final List<String> topics = new ArrayList<>();
+
+    private final List<Object> tagIds = new ArrayList<>();
+
+    private int batches;
+
+    private int maxBatchSize;
+
+    @Override
+    public String sendRequestToQueue(String text, String jmsQueue, long timeout) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized void sendToTopic(String text, String jmsTopic) {
+      texts.add(text);
+      topics.add(jmsTopic);
+    }
+
+    @Override
+    public synchronized void sendToTopic(String text, String jmsTopic, Map<String, ?> properties) {
+      sendToTopic(text, jmsTopic);
+      tagIds.add(properties.get(TagValueUpdate.TAG_ID_PROPERTY));
+    }
+
+    @Override
+    public synchronized void sendToTopics(List<TopicMessage> messages) {
+      batches++;
+      maxBatchSize = Math.max(maxBatchSize, messages.size());
+      JmsSender.super.sendToTopics(messages);
+    }
+
+    @Override
+    public void send(String text) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendToQueue(String text, String jmsQueueName) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.client.publish;
+
+import org.junit.Test;
+
+import cern.c2mon.server.client.config.ClientProperties;
+import cern.c2mon.server.common.datatag.DataTagCacheObject;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test of the TopicProvider.
+ */
+public class TopicProviderTest {
+
+  @Test
+  public void testProcessTopic() {
+    ClientProperties properties = new ClientProperties();
+    assertEquals("c2mon.client.tag.50", TopicProvider.topicFor(createDataTag(123L), properties));
+  }
+
+  @Test
+  public void testShardedProcessTopic() {
+    ClientProperties properties = new ClientProperties();
+    properties.getJms().setTagTopicShards(4);
+
+    assertEquals("c2mon.client.tag.50.3", TopicProvider.topicFor(createDataTag(123L), properties));
+    assertEquals("c2mon.client.tag.50.0", TopicProvider.topicFor(createDataTag(124L), properties));
+  }
+
+  private static DataTagCacheObject createDataTag(Long id) {
+    DataTagCacheObject tag = new DataTagCacheObject(id);
+    tag.setProcessId(50L);
+    return tag;
+  }
+}
@@ -17,11 +17,11 @@
 package cern.c2mon.server.common.alarm;
 
 import java.sql.Timestamp;
-import java.util.LinkedList;
 
 import lombok.Data;
 
 import cern.c2mon.server.common.metadata.Metadata;
+import cern.c2mon.server.common.util.DeepCloneable;
 import cern.c2mon.shared.client.alarm.condition.AlarmCondition;
 import cern.c2mon.shared.common.Cacheable;
 
@@ -35,7 +35,7 @@ import cern.c2mon.shared.common.Cacheable;
  *
  */
 @Data
-public class AlarmCacheObject implements Cloneable, Cacheable, Alarm {
+public class AlarmCacheObject implements Cloneable, DeepCloneable, Cacheable, Alarm {
 
   /** Serial version UID */
   private static final long serialVersionUID = 794087757524662419L;
@@ -108,8 +108,11 @@ public class AlarmCacheObject implements Cloneable, Cacheable, Alarm {
    */
   private boolean internalActive;
 
-  /** Used to keep the n last source timestamps to calculate the oscillation time range */
-  private LinkedList<Long> fifoSourceTimestamps = new LinkedList<>();
+  /**
+   * Used to keep the n last source timestamps to calculate the oscillation time range.
+   * <code>null</code> until the first alarm state change.
+   */
+  private OscillationTimestamps oscillationTimestamps;
 
   /** Set to <code>true</code>, if alarm starts oscillating */
   private boolean oscillating;
@@ -157,6 +160,9 @@ public class AlarmCacheObject implements Cloneable, Cacheable, Alarm {
     if (this.sourceTimestamp != null) {
       alarmCacheObject.sourceTimestamp = (Timestamp) this.sourceTimestamp.clone();
     }
+    if (this.oscillationTimestamps != null) {
+      alarmCacheObject.oscillationTimestamps = this.oscillationTimestamps.copy();
+    }
     return alarmCacheObject;
   }
 
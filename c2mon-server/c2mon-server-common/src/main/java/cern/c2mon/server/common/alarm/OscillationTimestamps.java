@@ -0,0 +1,171 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.common.alarm;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Fixed size ring buffer of the last source timestamps of an alarm state
+ * change, used to detect alarm oscillations. Once the buffer is full, every
+ * new timestamp replaces the oldest one.
+ */
+public final class OscillationTimestamps implements Serializable {
+
+  private static final long serialVersionUID = -4203532934813412283L;
+
+  private final long[] timestamps;
+
+  /** Index of the next write, i.e. of the oldest timestamp once full */
+  private int next;
+
+  private int size;
+
+  /**
+   * @param capacity the maximum number of timestamps kept
+   */
+  public OscillationTimestamps(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+    }
+    this.timestamps = new long[capacity];
+  }
+
+  /**
+   * Creates a buffer with the given capacity, initialised with the most
+   * recent timestamps of the given buffer (e.g. after a change of the
+   * oscillation configuration).
+   *
+   * @param capacity the maximum number of timestamps kept
+   * @param previous the buffer to copy, may be <code>null</code>
+   */
+  public OscillationTimestamps(final int capacity, final OscillationTimestamps previous) {
+    this(capacity);
+    if (previous != null) {
+      for (int i = Math.max(0, previous.size - capacity); i < previous.size; i++) {
+        add(previous.get(i));
+      }
+    }
+  }
+
+  private OscillationTimestamps(final OscillationTimestamps other) {
+    this.timestamps = other.timestamps.clone();
+    this.next = other.next;
+    this.size = other.size;
+  }
+
+  /**
+   * Adds a timestamp, replacing the oldest one if the buffer is full.
+   *
+   * @param timestamp the source timestamp to add
+   */
+  public void add(final long timestamp) {
+    timestamps[next] = timestamp;
+    next = (next + 1) % timestamps.length;
+    if (size < timestamps.length) {
+      size++;
+    }
+  }
+
+  /**
+   * @return the oldest timestamp
+   * @throws NoSuchElementException if the buffer is empty
+   */
+  public long getFirst() {
+    checkNotEmpty();
+    return get(0);
+  }
+
+  /**
+   * @return the most recent timestamp
+   * @throws NoSuchElementException if the buffer is empty
+   */
+  public long getLast() {
+    checkNotEmpty();
+    return get(size - 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return timestamps.length;
+  }
+
+  public boolean isFull() {
+    return size == timestamps.length;
+  }
+
+  /**
+   * @return an independent copy of this buffer
+   */
+  public OscillationTimestamps copy() {
+    return new OscillationTimestamps(this);
+  }
+
+  /**
+   * @return the timestamps, from the oldest to the most recent
+   */
+  public long[] toArray() {
+    long[] result = new long[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = get(i);
+    }
+    return result;
+  }
+
+  /**
+   * @param i the position, 0 being the oldest timestamp
+   */
+  private long get(final int i) {
+    return timestamps[(next - size + i + timestamps.length) % timestamps.length];
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0) {
+      throw new NoSuchElementException("No oscillation timestamp");
+    }
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof OscillationTimestamps)) {
+      return false;
+    }
+    OscillationTimestamps other = (OscillationTimestamps) obj;
+    return capacity() == other.capacity() && Arrays.equals(toArray(), other.toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * capacity() + Arrays.hashCode(toArray());
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
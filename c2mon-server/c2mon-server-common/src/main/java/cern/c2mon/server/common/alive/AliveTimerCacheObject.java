@@ -20,9 +20,10 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import cern.c2mon.server.common.util.DeepCloneable;
 import cern.c2mon.shared.common.Cacheable;
 
-public class AliveTimerCacheObject implements AliveTimer, Cacheable, Cloneable {
+public class AliveTimerCacheObject implements AliveTimer, Cacheable, Cloneable, DeepCloneable {
 
     private static final long serialVersionUID = 2151886747282763819L;
 
@@ -148,7 +149,9 @@ public class AliveTimerCacheObject implements AliveTimer, Cacheable, Cloneable {
     @Override
     public AliveTimerCacheObject clone() throws CloneNotSupportedException {
         AliveTimerCacheObject aliveTimer = (AliveTimerCacheObject) super.clone();
-        aliveTimer.dependentAliveTimerIds = new ArrayList<Long>(this.dependentAliveTimerIds);
+        if (this.dependentAliveTimerIds != null) {
+            aliveTimer.dependentAliveTimerIds = new ArrayList<Long>(this.dependentAliveTimerIds);
+        }
         
         return aliveTimer;
     }
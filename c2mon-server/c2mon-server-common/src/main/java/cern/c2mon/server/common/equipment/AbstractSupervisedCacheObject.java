@@ -19,6 +19,7 @@ package cern.c2mon.server.common.equipment;
 import java.sql.Timestamp;
 
 import cern.c2mon.server.common.supervision.Supervised;
+import cern.c2mon.server.common.util.DeepCloneable;
 import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStatus;
 
 /**
@@ -27,7 +28,7 @@ import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStat
  * 
  * @author Mark Brightwell
  */
-public abstract class AbstractSupervisedCacheObject implements Supervised, Cloneable {
+public abstract class AbstractSupervisedCacheObject implements Supervised, Cloneable, DeepCloneable {
 
     private static final long serialVersionUID = -7826198425602484249L;
 
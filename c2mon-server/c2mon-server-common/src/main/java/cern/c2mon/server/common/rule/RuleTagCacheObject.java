@@ -129,12 +129,9 @@ public class RuleTagCacheObject extends AbstractTagCacheObject implements RuleTa
                 ruleTagCacheObject.parentProcesses.add(procId);
             }
         }
-        ruleTagCacheObject.ruleExpression = null;
-        if (this.ruleExpression != null && ruleText != null) {
-          // TODO: Test correct clone support to all rule objects and replace then again the statement
-//         ruleTagCacheObject.ruleExpression = (RuleExpression) this.ruleExpression.clone();
-          ruleTagCacheObject.setRuleText(ruleText);
-        }
+        // The parsed expression is never modified once created, and setRuleText()
+        // replaces it, so the copy shares it instead of parsing the rule text again
+        ruleTagCacheObject.ruleExpression = this.ruleExpression;
 
         return ruleTagCacheObject;
     }
@@ -20,8 +20,10 @@ import cern.c2mon.shared.common.datatag.DataTagConstants;
 import cern.c2mon.shared.common.datatag.DataTagQuality;
 import cern.c2mon.shared.common.datatag.DataTagQualityImpl;
 import cern.c2mon.server.common.metadata.Metadata;
+import cern.c2mon.server.common.util.DeepCloneable;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.SerializationUtils;
 
 import java.io.Serializable;
 import java.sql.Timestamp;
@@ -39,7 +41,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  */
 @Slf4j
 @Data
-public abstract class AbstractTagCacheObject implements DataTagConstants, Cloneable, Serializable {
+public abstract class AbstractTagCacheObject implements DataTagConstants, Cloneable, DeepCloneable, Serializable {
 
   // TODO remove UID if not needed
   /**
@@ -115,8 +117,8 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
 
   /**
    * Current value of the datatag (if any, null before first value reception). The value is of type
-   * Boolean, Float, String etc. as indicated in the {@link #dataType} field (and is cloneable with a
-   * shallow copy).
+   * Boolean, Float, String etc. as indicated in the {@link #dataType} field. Values of other than
+   * immutable types are deep copied when cloning the tag (see {@link #clone()}).
    */
   private Object value;
 
@@ -220,6 +222,10 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
    * The clone is provided with <b>new</b> locks: these do not lock access
    * to the object residing in the cache (the clone is no longer in the
    * cache).
+   * <p>
+   * Values of primitive wrapper, <code>String</code> and enum types are
+   * shared with the clone. Other serializable values (e.g. arbitrary objects)
+   * are copied through serialization, any other value is shared.
    */
   @Override
   public Object clone() throws CloneNotSupportedException {
@@ -230,14 +236,37 @@ public abstract class AbstractTagCacheObject implements DataTagConstants, Clonea
     if (dataTagQuality != null) {
       cacheObject.dataTagQuality = (DataTagQuality) dataTagQuality.clone();
     }
-    cacheObject.alarmIds = (ArrayList<Long>) ((ArrayList<Long>) alarmIds).clone();
-    cacheObject.ruleIds = (ArrayList<Long>) ((ArrayList<Long>) ruleIds).clone();
+    cacheObject.alarmIds = new ArrayList<>(alarmIds);
+    cacheObject.ruleIds = new ArrayList<>(ruleIds);
+    if (metadata != null) {
+      cacheObject.metadata = metadata.clone();
+    }
     if (cacheTimestamp != null) {
       cacheObject.cacheTimestamp = (Timestamp) cacheTimestamp.clone();
     }
+    cacheObject.value = copyValue(value);
     return cacheObject;
   }
 
+  private static Object copyValue(final Object value) throws CloneNotSupportedException {
+    if (value == null || isImmutable(value) || !(value instanceof Serializable)) {
+      return value;
+    }
+    try {
+      return SerializationUtils.deserialize(SerializationUtils.serialize(value));
+    } catch (RuntimeException e) {
+      CloneNotSupportedException cloneException = new CloneNotSupportedException(
+          "Unable to copy the tag value of type " + value.getClass().getName());
+      cloneException.initCause(e);
+      throw cloneException;
+    }
+  }
+
+  private static boolean isImmutable(final Object value) {
+    return value instanceof String || value instanceof Number && value.getClass().getName().startsWith("java.lang.")
+        || value instanceof Boolean || value instanceof Character || value instanceof Enum;
+  }
+
   /**
    * only compare ids so far
    */
@@ -0,0 +1,29 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.common.util;
+
+/**
+ * Marks cache objects whose {@link Object#clone()} implementation returns a
+ * deep copy, i.e. a copy sharing no mutable state with the original object.
+ * <p>
+ * The cache <code>getCopy()</code> method relies on this to copy these
+ * objects with <code>clone()</code> instead of a Java serialization round
+ * trip. Make sure to keep the <code>clone()</code> method up to date when
+ * adding mutable fields to an implementing class.
+ */
+public interface DeepCloneable {
+}
@@ -0,0 +1,87 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.common.alarm;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OscillationTimestampsTest {
+
+  @Test
+  public void testAddUntilFull() {
+    OscillationTimestamps timestamps = new OscillationTimestamps(3);
+    assertTrue(timestamps.isEmpty());
+
+    timestamps.add(1L);
+    timestamps.add(2L);
+    assertEquals(2, timestamps.size());
+    assertFalse(timestamps.isFull());
+    assertEquals(1L, timestamps.getFirst());
+    assertEquals(2L, timestamps.getLast());
+
+    timestamps.add(3L);
+    assertTrue(timestamps.isFull());
+    assertArrayEquals(new long[] {1L, 2L, 3L}, timestamps.toArray());
+  }
+
+  @Test
+  public void testOldestIsReplacedWhenFull() {
+    OscillationTimestamps timestamps = new OscillationTimestamps(3);
+    for (long i = 1; i <= 7; i++) {
+      timestamps.add(i);
+    }
+    assertEquals(3, timestamps.size());
+    assertEquals(5L, timestamps.getFirst());
+    assertEquals(7L, timestamps.getLast());
+    assertArrayEquals(new long[] {5L, 6L, 7L}, timestamps.toArray());
+  }
+
+  @Test
+  public void testResizeKeepsMostRecent() {
+    OscillationTimestamps timestamps = new OscillationTimestamps(4);
+    for (long i = 1; i <= 5; i++) {
+      timestamps.add(i);
+    }
+    assertArrayEquals(new long[] {4L, 5L}, new OscillationTimestamps(2, timestamps).toArray());
+    assertArrayEquals(new long[] {2L, 3L, 4L, 5L}, new OscillationTimestamps(6, timestamps).toArray());
+    assertTrue(new OscillationTimestamps(2, null).isEmpty());
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    OscillationTimestamps timestamps = new OscillationTimestamps(3);
+    timestamps.add(1L);
+    OscillationTimestamps copy = timestamps.copy();
+    assertEquals(timestamps, copy);
+
+    copy.add(2L);
+    assertEquals(1, timestamps.size());
+    assertNotEquals(timestamps, copy);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testGetLastOnEmpty() {
+    new OscillationTimestamps(3).getLast();
+  }
+}
@@ -22,6 +22,7 @@ import java.util.Properties;
 
 import cern.c2mon.server.configuration.config.ConfigurationProperties;
 import cern.c2mon.server.daq.JmsContainerManager;
+import cern.c2mon.server.daq.update.ProcessIngestRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -85,12 +86,18 @@ public class ProcessConfigHandlerImpl implements ProcessConfigHandler {
    */
   private JmsContainerManager jmsContainerManager;
 
+  /**
+   * Snapshot of the Process PIKs used for validating DAQ updates.
+   */
+  private ProcessIngestRegistry processIngestRegistry;
+
   @Autowired
   public ProcessConfigHandlerImpl(EquipmentConfigHandler equipmentConfigHandler,
                                   ControlTagConfigHandler controlTagConfigHandler,
                                   ProcessCache processCache,
                                   ProcessFacade processFacade,
                                   JmsContainerManager jmsContainerManager,
+                                  ProcessIngestRegistry processIngestRegistry,
                                   ConfigurationProperties properties) {
     super();
     this.equipmentConfigHandler = equipmentConfigHandler;
@@ -98,6 +105,7 @@ public class ProcessConfigHandlerImpl implements ProcessConfigHandler {
     this.processCache = processCache;
     this.processFacade = processFacade;
     this.jmsContainerManager = jmsContainerManager;
+    this.processIngestRegistry = processIngestRegistry;
     this.allowRunningProcessRemoval = properties.isAllowRunningProcessRemoval();
   }
 
@@ -152,6 +160,7 @@ public class ProcessConfigHandlerImpl implements ProcessConfigHandler {
           processFacade.removeAliveTimer(processId);
           jmsContainerManager.unsubscribe(process);
           processCache.remove(processId);
+          processIngestRegistry.remove(processId);
          }
         return processChange;
       } catch (RuntimeException ex) {
@@ -0,0 +1,173 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.daq.update;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.common.process.Process;
+import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStatus;
+
+/**
+ * Read-mostly registry of the Process metadata needed to validate incoming
+ * DAQ updates (id, name, PIK and supervision state).
+ *
+ * <p>The registry is registered as synchronous listener on the Process cache,
+ * so a new immutable {@link Snapshot} is published every time a Process is
+ * put back into the cache, i.e. after every PIK change done by the
+ * {@link cern.c2mon.server.cache.ProcessFacade} (start, stop,
+ * setProcessPIK) or by the configuration handlers. The validation of
+ * incoming updates can then be done without locking the Process cache entry.
+ *
+ * <p>The listeners of a clustered cache are only notified of the local writes,
+ * so a PIK changed on another server would never reach the snapshot. The
+ * registry is therefore disabled in "multi" cache mode, where
+ * {@link #accepts(Long, Long)} always returns <code>false</code>. Otherwise it
+ * only ever confirms an update whose PIK matches the published one. All other
+ * cases must be checked against the cache.
+ */
+@Slf4j
+@Component
+public class ProcessIngestRegistry implements C2monCacheListener<Process> {
+
+  private final ProcessCache processCache;
+
+  /** Process id -> latest published snapshot */
+  private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  /** False in clustered cache mode, where the snapshots can be outdated */
+  private final boolean enabled;
+
+  @Autowired
+  public ProcessIngestRegistry(final ProcessCache processCache, final CacheProperties cacheProperties) {
+    this.processCache = processCache;
+    this.enabled = !"multi".equalsIgnoreCase(cacheProperties.getMode());
+  }
+
+  /**
+   * Registers the registry on the Process cache, unless running in clustered
+   * cache mode.
+   */
+  @PostConstruct
+  public void init() {
+    if (enabled) {
+      processCache.registerSynchronousListener(this);
+    } else {
+      log.info("Clustered cache mode: incoming DAQ updates are always checked against the Process cache");
+    }
+  }
+
+  @Override
+  public void notifyElementUpdated(final Process process) {
+    publish(process);
+  }
+
+  @Override
+  public void confirmStatus(final Process process) {
+    publish(process);
+  }
+
+  /**
+   * Publishes a new snapshot of the given Process, replacing the previous one.
+   *
+   * @param process the Process as it is currently in the cache
+   */
+  public void publish(final Process process) {
+    if (!enabled) {
+      return;
+    }
+    Snapshot snapshot = new Snapshot(process);
+    snapshots.put(snapshot.getId(), snapshot);
+    log.trace("Published PIK {} of Process {}", snapshot.getProcessPIK(), snapshot.getName());
+  }
+
+  /**
+   * Removes the snapshot of a Process, for instance after it was removed
+   * from the server configuration.
+   *
+   * @param processId the id of the Process
+   */
+  public void remove(final Long processId) {
+    snapshots.remove(processId);
+  }
+
+  /**
+   * @param processId the id of the Process
+   * @return the latest published snapshot of the Process, or <code>null</code>
+   *         if nothing was published for this Process yet
+   */
+  public Snapshot get(final Long processId) {
+    return processId == null ? null : snapshots.get(processId);
+  }
+
+  /**
+   * Lock-free check of an incoming update.
+   *
+   * @param processId the id of the Process sending the update
+   * @param processPIK the PIK sent with the update
+   * @return <code>true</code> if the PIK is the one registered for the
+   *         Process; <code>false</code> if this could not be confirmed from
+   *         the published snapshot or the registry is disabled, in which case
+   *         the update has to be checked against the Process cache
+   */
+  public boolean accepts(final Long processId, final Long processPIK) {
+    Snapshot snapshot = get(processId);
+    return snapshot != null && processPIK != null && processPIK.equals(snapshot.getProcessPIK());
+  }
+
+  /**
+   * Immutable view of the ingest metadata of a Process.
+   */
+  public static final class Snapshot {
+    private final Long id;
+    private final String name;
+    private final Long processPIK;
+    private final SupervisionStatus supervisionStatus;
+
+    Snapshot(final Process process) {
+      this.id = process.getId();
+      this.name = process.getName();
+      this.processPIK = process.getProcessPIK();
+      this.supervisionStatus = process.getSupervisionStatus();
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Long getProcessPIK() {
+      return processPIK;
+    }
+
+    public SupervisionStatus getSupervisionStatus() {
+      return supervisionStatus;
+    }
+  }
+}
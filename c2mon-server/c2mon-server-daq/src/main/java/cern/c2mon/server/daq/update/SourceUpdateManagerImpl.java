@@ -102,6 +102,12 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
 
   private final ServerProperties properties;
 
+  /**
+   * Lock-free snapshot of the Process PIKs, used to validate updates
+   * without locking the Process cache entry.
+   */
+  private final ProcessIngestRegistry processIngestRegistry;
+
   /**
    * For management only. Number of JMS threads
    * currently active.
@@ -135,7 +141,8 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
                                  final DataTagValueUpdateConverter dataTagValueUpdateConverter,
                                  final ProcessFacade processFacade,
                                  final ProcessCache processCache,
-                                 final ServerProperties properties) {
+                                 final ServerProperties properties,
+                                 final ProcessIngestRegistry processIngestRegistry) {
     super();
     this.dataTagFacade = dataTagFacade;
     this.controlTagFacade = controlTagFacade;
@@ -144,6 +151,7 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
     this.processFacade = processFacade;
     this.processCache = processCache;
     this.properties = properties;
+    this.processIngestRegistry = processIngestRegistry;
   }
 
   /**
@@ -271,16 +279,26 @@ public class SourceUpdateManagerImpl implements SourceUpdateManager, SessionAwar
   /**
    * Function to check all possible process PIK scenarios
    *
+   * <p>Updates carrying the PIK published in the {@link ProcessIngestRegistry}
+   * are accepted without locking the Process (not in clustered cache mode,
+   * where the registry is disabled). All other updates are checked
+   * against the Process cache.
+   *
    * @param dataTagValueUpdate Update with all information
    * @return {@link #IGNORE_UPDATE} if PIK registered in server but no PIK or wrong PIK sent
    *         {@link #ACCEPT_UPDATE} in any other case
    */
   private Boolean checkProcessPIK(final DataTagValueUpdate dataTagValueUpdate) {
+    if (processIngestRegistry.accepts(dataTagValueUpdate.getProcessId(), dataTagValueUpdate.getProcessPIK())) {
+      return ACCEPT_UPDATE;
+    }
+
     Process process;
 
     processCache.acquireWriteLockOnKey(dataTagValueUpdate.getProcessId());
     try {
       process = this.processCache.get(dataTagValueUpdate.getProcessId());
+      processIngestRegistry.publish(process);
 
       // if PIK is registered in Server
       if (process.getProcessPIK() != null) {
@@ -0,0 +1,128 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.daq.update;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.config.CacheProperties;
+import cern.c2mon.server.common.process.ProcessCacheObject;
+import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test of the {@link ProcessIngestRegistry}.
+ */
+public class ProcessIngestRegistryTest {
+
+  private ProcessCache processCache;
+
+  private ProcessIngestRegistry registry;
+
+  private ProcessCacheObject process;
+
+  @Before
+  public void setUp() {
+    processCache = EasyMock.createMock(ProcessCache.class);
+    registry = new ProcessIngestRegistry(processCache, new CacheProperties());
+    process = new ProcessCacheObject(90L);
+    process.setName("P_TEST");
+    process.setProcessPIK(123456L);
+    process.setSupervisionStatus(SupervisionStatus.RUNNING);
+  }
+
+  @Test
+  public void testRegistersAsSynchronousListener() {
+    processCache.registerSynchronousListener(registry);
+    EasyMock.replay(processCache);
+    registry.init();
+    EasyMock.verify(processCache);
+  }
+
+  @Test
+  public void testDisabledInClusteredMode() {
+    CacheProperties properties = new CacheProperties();
+    properties.setMode("multi");
+    registry = new ProcessIngestRegistry(processCache, properties);
+    EasyMock.replay(processCache);
+    registry.init();
+    registry.notifyElementUpdated(process);
+
+    assertNull(registry.get(90L));
+    assertFalse(registry.accepts(90L, 123456L));
+    EasyMock.verify(processCache);
+  }
+
+  @Test
+  public void testNothingAcceptedBeforePublication() {
+    assertNull(registry.get(90L));
+    assertFalse(registry.accepts(90L, 123456L));
+    assertFalse(registry.accepts(null, 123456L));
+  }
+
+  @Test
+  public void testAcceptsPublishedPIK() {
+    registry.notifyElementUpdated(process);
+
+    assertTrue(registry.accepts(90L, 123456L));
+    assertFalse(registry.accepts(90L, 654321L));
+    assertFalse(registry.accepts(90L, null));
+    assertFalse(registry.accepts(91L, 123456L));
+
+    ProcessIngestRegistry.Snapshot snapshot = registry.get(90L);
+    assertEquals("P_TEST", snapshot.getName());
+    assertEquals(SupervisionStatus.RUNNING, snapshot.getSupervisionStatus());
+  }
+
+  @Test
+  public void testSnapshotIsNotAffectedByLaterChanges() {
+    registry.notifyElementUpdated(process);
+    process.setProcessPIK(654321L);
+
+    assertTrue(registry.accepts(90L, 123456L));
+    assertFalse(registry.accepts(90L, 654321L));
+
+    registry.notifyElementUpdated(process);
+    assertFalse(registry.accepts(90L, 123456L));
+    assertTrue(registry.accepts(90L, 654321L));
+  }
+
+  @Test
+  public void testStoppedProcessIsNotAccepted() {
+    registry.notifyElementUpdated(process);
+    process.setProcessPIK(null);
+    registry.notifyElementUpdated(process);
+
+    assertFalse(registry.accepts(90L, 123456L));
+    assertFalse(registry.accepts(90L, null));
+  }
+
+  @Test
+  public void testRemove() {
+    registry.notifyElementUpdated(process);
+    registry.remove(90L);
+
+    assertNull(registry.get(90L));
+    assertFalse(registry.accepts(90L, 123456L));
+  }
+}
@@ -16,8 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,11 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
  * Rest-based (check
  * <a href="https://www.elastic.co/guide/en/elasticsearch/client/java-rest/current/index.html>
  * Elasticsearch Documentation</a> for more details) supported index-related operations manager.
+ * <p>
+ * The names of the indices known to exist are cached locally, so that the
+ * existence check done before every write only goes to Elasticsearch when a
+ * new index name shows up (e.g. on a time-based index rollover). Lookups are
+ * lock free, index creation is serialized per index name only.
  *
  * @author James Hamilton
  * @author Serhiy Boychenko
@@ -38,7 +44,10 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 @Component
 public class IndexManager {
 
-  private final List<String> indexCache = new CopyOnWriteArrayList<>();
+  private final Set<String> indexCache = ConcurrentHashMap.newKeySet();
+
+  /** Index name -> lock serializing the creation of that index */
+  private final Map<String, Object> creationLocks = new ConcurrentHashMap<>();
 
   private final ElasticsearchClient client;
 
@@ -58,7 +67,12 @@ public class IndexManager {
    * @return true if the index was successfully created, false otherwise.
    */
   public boolean create(IndexMetadata indexMetadata, String mapping) {
-    synchronized (IndexManager.class) {
+    String name = indexMetadata.getName();
+    if (indexCache.contains(name)) {
+      return true;
+    }
+
+    synchronized (creationLocks.computeIfAbsent(name, key -> new Object())) {
       if (exists(indexMetadata)) {
         return true;
       }
@@ -68,7 +82,7 @@ public class IndexManager {
       client.waitForYellowStatus();
 
       if (created) {
-        indexCache.add(indexMetadata.getName());
+        indexCache.add(name);
       }
 
       return created;
@@ -83,13 +97,11 @@ public class IndexManager {
    * @return true if the document was successfully indexed, false otherwise.
    */
   public boolean index(IndexMetadata indexMetadata, String data) {
-    synchronized (IndexManager.class) {
-      boolean indexed = client.indexData(indexMetadata, data);
+    boolean indexed = client.indexData(indexMetadata, data);
 
-      client.waitForYellowStatus();
+    client.waitForYellowStatus();
 
-      return indexed;
-    }
+    return indexed;
   }
 
   /**
@@ -102,20 +114,16 @@ public class IndexManager {
    * @return true if the index exists, false otherwise.
    */
   public boolean exists(IndexMetadata indexMetadata) {
-    synchronized (IndexManager.class) {
-      if (indexCache.contains(indexMetadata.getName())) {
-        return true;
-      }
-
-      IndexMetadata.builder().name(indexMetadata.getName()).routing(indexMetadata.getRouting()).build();
-
-      if (client.isIndexExisting(indexMetadata)) {
-        indexCache.add(indexMetadata.getName());
-        return true;
-      }
+    if (indexCache.contains(indexMetadata.getName())) {
+      return true;
+    }
 
-      return false;
+    if (client.isIndexExisting(indexMetadata)) {
+      indexCache.add(indexMetadata.getName());
+      return true;
     }
+
+    return false;
   }
 
   /**
@@ -126,13 +134,11 @@ public class IndexManager {
    * @return true if index was successfully updated, false otherwise.
    */
   public boolean update(IndexMetadata indexMetadata, String data) {
-    synchronized (IndexManager.class) {
-      boolean updated = client.updateIndex(indexMetadata, data);
+    boolean updated = client.updateIndex(indexMetadata, data);
 
-      client.waitForYellowStatus();
+    client.waitForYellowStatus();
 
-      return updated;
-    }
+    return updated;
   }
 
   /**
@@ -142,20 +148,17 @@ public class IndexManager {
    * @return true if index was successfully deleted, false otherwise.
    */
   public boolean delete(IndexMetadata indexMetadata) {
-    synchronized (IndexManager.class) {
-      indexCache.remove(indexMetadata.getName());
-      boolean deleted = client.deleteIndex(indexMetadata);
-      client.waitForYellowStatus();
-      return deleted;
-    }
+    indexCache.remove(indexMetadata.getName());
+    boolean deleted = client.deleteIndex(indexMetadata);
+    client.waitForYellowStatus();
+    return deleted;
   }
 
   /**
    * Removes all cached components from index cache.
    */
   void purgeIndexCache() {
-    synchronized (IndexManager.class) {
-      indexCache.clear();
-    }
+    indexCache.clear();
+    creationLocks.clear();
   }
 }
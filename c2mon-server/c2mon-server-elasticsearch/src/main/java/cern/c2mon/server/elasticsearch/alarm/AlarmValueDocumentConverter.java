@@ -16,12 +16,19 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.alarm;
 
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.springframework.stereotype.Component;
 
 import cern.c2mon.server.common.alarm.Alarm;
+import cern.c2mon.server.elasticsearch.util.DocumentSerializer;
 
 /**
  * Converts {@link Alarm} instances to {@link AlarmDocument} instances with values included.
+ * <p>
+ * The document fields are streamed straight into the JSON source of the
+ * document, see {@link DocumentSerializer}.
  *
  * @author Alban Marguet
  * @author Justin Lewis Salmon
@@ -31,14 +38,21 @@ public class AlarmValueDocumentConverter extends BaseAlarmDocumentConverter {
 
   @Override
   public AlarmDocument convert(Alarm alarm) {
-    AlarmDocument document = super.convert(alarm);
-    document.put("tagId", alarm.getTagId());
-    document.put("active", alarm.isActive());
-    document.put("activeNumeric", alarm.isActive() ? 1 : 0);
-    document.put("info", alarm.getInfo());
-    document.put("timestamp", alarm.getTimestamp().getTime());
-    document.put("sourceTimestamp", alarm.getSourceTimestamp().getTime());
-    document.put("oscillating", alarm.isOscillating());
-    return document;
+    return new AlarmDocument(alarm.getId(), DocumentSerializer.serialize(generator -> writeFields(generator, alarm)));
+  }
+
+  private void writeFields(JsonGenerator generator, Alarm alarm) throws IOException {
+    generator.writeNumberField("id", alarm.getId());
+    generator.writeStringField("faultFamily", alarm.getFaultFamily());
+    generator.writeStringField("faultMember", alarm.getFaultMember());
+    generator.writeNumberField("faultCode", alarm.getFaultCode());
+    generator.writeObjectField("metadata", alarm.getMetadata().toMap());
+    generator.writeObjectField("tagId", alarm.getTagId());
+    generator.writeBooleanField("active", alarm.isActive());
+    generator.writeNumberField("activeNumeric", alarm.isActive() ? 1 : 0);
+    generator.writeStringField("info", alarm.getInfo());
+    generator.writeNumberField("timestamp", alarm.getTimestamp().getTime());
+    generator.writeNumberField("sourceTimestamp", alarm.getSourceTimestamp().getTime());
+    generator.writeBooleanField("oscillating", alarm.isOscillating());
   }
 }
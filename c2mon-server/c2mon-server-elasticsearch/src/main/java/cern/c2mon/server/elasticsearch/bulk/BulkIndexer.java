@@ -0,0 +1,138 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.elasticsearch.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+
+import cern.c2mon.server.elasticsearch.client.ElasticsearchClient;
+import cern.c2mon.server.elasticsearch.config.ElasticsearchProperties;
+
+/**
+ * Sends {@link IndexRequest}s to the Elasticsearch cluster in asynchronous
+ * bulk requests.
+ * <p>
+ * At most <code>concurrentRequests</code> (see {@link ElasticsearchProperties})
+ * bulk requests are in flight at the same time. Further submissions block the
+ * calling thread until one of them completed, which bounds the memory held by
+ * pending requests when the cluster slows down.
+ */
+@Slf4j
+public class BulkIndexer {
+
+  private final ElasticsearchClient client;
+
+  private final int bulkActions;
+
+  private final long bulkSizeInBytes;
+
+  private final Semaphore inFlight;
+
+  /**
+   * @param client to be used to communicate with Elasticsearch cluster.
+   * @param properties providing the bulk size and concurrency limits.
+   */
+  public BulkIndexer(ElasticsearchClient client, ElasticsearchProperties properties) {
+    this.client = client;
+    this.bulkActions = Math.max(1, properties.getBulkActions());
+    this.bulkSizeInBytes = new ByteSizeValue(properties.getBulkSize(), ByteSizeUnit.MB).getBytes();
+    this.inFlight = new Semaphore(Math.max(1, properties.getConcurrentRequests()));
+  }
+
+  /**
+   * Splits the given requests into bulk requests of at most
+   * <code>bulkActions</code> actions and <code>bulkSize</code> MB each (see
+   * {@link ElasticsearchProperties}), preserving their order.
+   *
+   * @param requests to be split
+   * @return the bulk requests
+   */
+  public List<BulkRequest> split(List<IndexRequest> requests) {
+    List<BulkRequest> bulks = new ArrayList<>();
+    BulkRequest bulk = new BulkRequest();
+
+    for (IndexRequest request : requests) {
+      if (bulk.numberOfActions() > 0 && (bulk.numberOfActions() >= bulkActions
+          || bulk.estimatedSizeInBytes() + request.source().length() > bulkSizeInBytes)) {
+        bulks.add(bulk);
+        bulk = new BulkRequest();
+      }
+      bulk.add(request);
+    }
+
+    if (bulk.numberOfActions() > 0) {
+      bulks.add(bulk);
+    }
+    return bulks;
+  }
+
+  /**
+   * Executes the given bulk request asynchronously, blocking first if the
+   * maximum number of concurrent requests is already in flight.
+   * <p>
+   * The returned future completes exceptionally if the bulk request as a whole
+   * failed. Failures of single documents are logged only.
+   *
+   * @param request to be executed
+   * @return future completed with the bulk response
+   * @throws InterruptedException if interrupted while waiting for a free slot
+   */
+  public CompletableFuture<BulkResponse> execute(BulkRequest request) throws InterruptedException {
+    inFlight.acquire();
+
+    CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+    log.debug("Going to execute new bulk operation composed of {} actions", request.numberOfActions());
+
+    try {
+      client.bulkAsync(request, new ActionListener<BulkResponse>() {
+        @Override
+        public void onResponse(BulkResponse response) {
+          inFlight.release();
+          if (response.hasFailures()) {
+            log.warn("Bulk operation composed of {} actions completed with failures: {}",
+                request.numberOfActions(), response.buildFailureMessage());
+          } else {
+            log.debug("Executed bulk operation composed of {} actions", request.numberOfActions());
+          }
+          future.complete(response);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+          inFlight.release();
+          log.warn("Error executing bulk operation composed of {} actions", request.numberOfActions(), e);
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RuntimeException e) {
+      inFlight.release();
+      future.completeExceptionally(e);
+    }
+
+    return future;
+  }
+}
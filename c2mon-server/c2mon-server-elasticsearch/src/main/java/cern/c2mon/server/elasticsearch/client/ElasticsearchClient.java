@@ -16,7 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.client;
 
-import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 
 import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 
@@ -27,12 +29,12 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
  */
 public interface ElasticsearchClient {
   /**
-   * Set up the {@link BulkProcessor} for provided {@link BulkProcessor.Listener}.
+   * Execute a bulk request asynchronously.
    *
-   * @param listener to be associated with {@link BulkProcessor}
-   * @return BulkProcessor instance
+   * @param request the bulk request to be executed
+   * @param listener notified once the request completed or failed
    */
-  BulkProcessor getBulkProcessor(BulkProcessor.Listener listener);
+  void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener);
 
   /**
    * Creates an index
@@ -21,7 +21,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.function.BiConsumer;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -36,7 +35,6 @@ import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
-import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -53,9 +51,6 @@ import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.common.settings.Settings;
-import org.elasticsearch.common.unit.ByteSizeUnit;
-import org.elasticsearch.common.unit.ByteSizeValue;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.RestStatus;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -93,16 +88,8 @@ public final class ElasticsearchClientRest implements ElasticsearchClient {
   }
 
   @Override
-  public BulkProcessor getBulkProcessor(BulkProcessor.Listener listener) {
-    BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkConsumer =
-        (request, bulkListener) -> client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener);
-
-    return BulkProcessor.builder(bulkConsumer, listener)
-        .setBulkActions(properties.getBulkActions())
-        .setBulkSize(new ByteSizeValue(properties.getBulkSize(), ByteSizeUnit.MB))
-        .setFlushInterval(TimeValue.timeValueSeconds(properties.getBulkFlushInterval()))
-        .setConcurrentRequests(properties.getConcurrentRequests())
-        .build();
+  public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
+    client.bulkAsync(request, RequestOptions.DEFAULT, listener);
   }
 
   @Override
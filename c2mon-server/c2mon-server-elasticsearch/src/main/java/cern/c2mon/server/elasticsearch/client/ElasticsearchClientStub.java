@@ -16,7 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.client;
 
-import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 
 import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 
@@ -30,7 +32,7 @@ public class ElasticsearchClientStub implements ElasticsearchClient {
   public static final String STUB_CLIENT_ERROR_MESSAGE = "Elasticsearch client stub does not support any operations.";
 
   @Override
-  public BulkProcessor getBulkProcessor(BulkProcessor.Listener listener) {
+  public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
     throw new UnsupportedOperationException(STUB_CLIENT_ERROR_MESSAGE);
   }
 
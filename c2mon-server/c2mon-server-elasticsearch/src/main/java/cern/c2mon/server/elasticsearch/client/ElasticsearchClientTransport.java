@@ -25,10 +25,12 @@ import java.util.concurrent.TimeoutException;
 
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.ResourceAlreadyExistsException;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
-import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
@@ -43,8 +45,6 @@ import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
-import org.elasticsearch.common.unit.ByteSizeUnit;
-import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.RestStatus;
@@ -87,13 +87,8 @@ public final class ElasticsearchClientTransport implements ElasticsearchClient {
   }
 
   @Override
-  public BulkProcessor getBulkProcessor(BulkProcessor.Listener listener) {
-    return BulkProcessor.builder(client, listener)
-        .setBulkActions(properties.getBulkActions())
-        .setBulkSize(new ByteSizeValue(properties.getBulkSize(), ByteSizeUnit.MB))
-        .setFlushInterval(TimeValue.timeValueSeconds(properties.getBulkFlushInterval()))
-        .setConcurrentRequests(properties.getConcurrentRequests())
-        .build();
+  public void bulkAsync(BulkRequest request, ActionListener<BulkResponse> listener) {
+    client.bulk(request, listener);
   }
 
   @Override
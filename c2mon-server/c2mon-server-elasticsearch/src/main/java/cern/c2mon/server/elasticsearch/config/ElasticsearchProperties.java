@@ -139,16 +139,12 @@ public class ElasticsearchProperties {
    */
   private int bulkSize = 1;
 
-  /**
-   * Flush interval in seconds for a batch of tags
-   */
-  private int bulkFlushInterval = 5;
-
   /**
    * Maximum number of concurrent requests allowed to be executed at the
-   * same time
+   * same time. Tag batches are blocked until a request completes once this
+   * limit is reached.
    */
-  private int concurrentRequests = 1;
+  private int concurrentRequests = 4;
 
   /**
    * Absolute path the file to which tag updates will be written in the
@@ -17,6 +17,7 @@
 package cern.c2mon.server.elasticsearch.supervision;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -38,6 +39,26 @@ public class SupervisionEventDocument extends HashMap<String, Object> implements
 
   private static final ObjectMapper mapper = new ObjectMapper();
 
+  /**
+   * JSON source written by the streaming converter, <code>null</code> if the
+   * fields are held as map entries
+   */
+  private final byte[] source;
+
+  public SupervisionEventDocument() {
+    this.source = null;
+  }
+
+  /**
+   * @param id the id of the supervised entity
+   * @param source the serialized JSON document
+   */
+  public SupervisionEventDocument(Object id, byte[] source) {
+    super(2);
+    super.put("id", id);
+    this.source = source;
+  }
+
   @Override
   public Object put(String key, Object value) {
     if (key.equals("timestamp")) {
@@ -60,8 +81,25 @@ public class SupervisionEventDocument extends HashMap<String, Object> implements
     }
   }
 
+  /**
+   * @return the UTF-8 encoded JSON document
+   */
+  public byte[] getSource() {
+    if (source != null) {
+      return source;
+    }
+    try {
+      return mapper.writeValueAsBytes(this);
+    } catch (JsonProcessingException e) {
+      throw new ProcessingException("Error serializing document", e);
+    }
+  }
+
   @Override
   public String toString() {
+    if (source != null) {
+      return new String(source, StandardCharsets.UTF_8);
+    }
     try {
       return mapper.writeValueAsString(this);
     } catch (JsonProcessingException e) {
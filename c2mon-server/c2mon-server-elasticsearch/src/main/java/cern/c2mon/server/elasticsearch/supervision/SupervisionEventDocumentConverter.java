@@ -16,40 +16,43 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.supervision;
 
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
+import cern.c2mon.server.elasticsearch.util.DocumentSerializer;
 import cern.c2mon.shared.client.supervision.SupervisionEvent;
 
 /**
  * Converts {@link SupervisionEvent} instances to {@link SupervisionEventDocument}
- * instances.
- *
- * @author Alban Marguet
+ * instances, streaming the document fields straight into their JSON source.
  */
 @Component
 public class SupervisionEventDocumentConverter implements Converter<SupervisionEvent, SupervisionEventDocument> {
 
   @Override
   public SupervisionEventDocument convert(final SupervisionEvent supervisionEvent) {
-    SupervisionEventDocument event = new SupervisionEventDocument();
+    return new SupervisionEventDocument(supervisionEvent.getEntityId(),
+        DocumentSerializer.serialize(generator -> writeFields(generator, supervisionEvent)));
+  }
 
-    event.put("id", supervisionEvent.getEntityId());
-    event.put("name", supervisionEvent.getName());
-    event.put("message", supervisionEvent.getMessage());
+  private void writeFields(JsonGenerator generator, SupervisionEvent supervisionEvent) throws IOException {
+    generator.writeObjectField("id", supervisionEvent.getEntityId());
+    generator.writeStringField("name", supervisionEvent.getName());
+    generator.writeStringField("message", supervisionEvent.getMessage());
 
     if (supervisionEvent.getEntity() != null) {
-      event.put("entity", supervisionEvent.getEntity().name());
+      generator.writeStringField("entity", supervisionEvent.getEntity().name());
     }
 
     if (supervisionEvent.getEventTime() != null) {
-      event.put("timestamp", supervisionEvent.getEventTime().getTime());
+      generator.writeNumberField("timestamp", supervisionEvent.getEventTime().getTime());
     }
 
     if (supervisionEvent.getStatus() != null) {
-      event.put("status", supervisionEvent.getStatus().name());
+      generator.writeStringField("status", supervisionEvent.getStatus().name());
     }
-
-    return event;
   }
 }
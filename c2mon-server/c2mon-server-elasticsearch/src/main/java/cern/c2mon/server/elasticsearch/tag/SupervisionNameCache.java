@@ -0,0 +1,121 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.elasticsearch.tag;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cern.c2mon.server.cache.C2monCacheListener;
+import cern.c2mon.server.cache.C2monCacheWithListeners;
+import cern.c2mon.server.cache.EquipmentCache;
+import cern.c2mon.server.cache.ProcessCache;
+import cern.c2mon.server.cache.SubEquipmentCache;
+import cern.c2mon.server.common.equipment.Equipment;
+import cern.c2mon.server.common.process.Process;
+import cern.c2mon.server.common.subequipment.SubEquipment;
+import cern.c2mon.shared.common.Cacheable;
+
+/**
+ * Per-id cache of the process, equipment and sub-equipment names written into
+ * every tag document, so that converting a tag does not need a cache get (and
+ * object copy) for each of them.
+ * <p>
+ * Names are loaded from the server caches on the first lookup and refreshed
+ * whenever the server cache notifies an update of the object. A single
+ * instance is shared by all tag document converters.
+ */
+@Component
+public class SupervisionNameCache {
+
+  private final ProcessCache processCache;
+  private final EquipmentCache equipmentCache;
+  private final SubEquipmentCache subEquipmentCache;
+
+  private final Map<Long, String> processNames = new ConcurrentHashMap<>();
+  private final Map<Long, String> equipmentNames = new ConcurrentHashMap<>();
+  private final Map<Long, String> subEquipmentNames = new ConcurrentHashMap<>();
+
+  /**
+   * @param processCache to load the process names from
+   * @param equipmentCache to load the equipment names from
+   * @param subEquipmentCache to load the sub-equipment names from
+   */
+  @Autowired
+  public SupervisionNameCache(final ProcessCache processCache, final EquipmentCache equipmentCache, final SubEquipmentCache subEquipmentCache) {
+    this.processCache = processCache;
+    this.equipmentCache = equipmentCache;
+    this.subEquipmentCache = subEquipmentCache;
+
+    register(processCache, processNames, Process::getName);
+    register(equipmentCache, equipmentNames, Equipment::getName);
+    register(subEquipmentCache, subEquipmentNames, SubEquipment::getName);
+  }
+
+  /**
+   * @param id the process id
+   * @return the process name
+   * @throws cern.c2mon.server.cache.exception.CacheElementNotFoundException
+   *         if the process is not in the cache
+   */
+  public String getProcessName(final Long id) {
+    return processNames.computeIfAbsent(id, key -> processCache.get(key).getName());
+  }
+
+  /**
+   * @param id the equipment id
+   * @return the equipment name
+   * @throws cern.c2mon.server.cache.exception.CacheElementNotFoundException
+   *         if the equipment is not in the cache
+   */
+  public String getEquipmentName(final Long id) {
+    return equipmentNames.computeIfAbsent(id, key -> equipmentCache.get(key).getName());
+  }
+
+  /**
+   * @param id the sub-equipment id
+   * @return the sub-equipment name
+   * @throws cern.c2mon.server.cache.exception.CacheElementNotFoundException
+   *         if the sub-equipment is not in the cache
+   */
+  public String getSubEquipmentName(final Long id) {
+    return subEquipmentNames.computeIfAbsent(id, key -> subEquipmentCache.get(key).getName());
+  }
+
+  private static <T extends Cacheable> void register(final C2monCacheWithListeners<Long, T> cache, final Map<Long, String> names,
+                                                     final Function<T, String> nameFunction) {
+    cache.registerSynchronousListener(new C2monCacheListener<T>() {
+      @Override
+      public void notifyElementUpdated(final T cacheable) {
+        String name = nameFunction.apply(cacheable);
+        if (name == null) {
+          names.remove(cacheable.getId());
+        } else {
+          names.put(cacheable.getId(), name);
+        }
+      }
+
+      @Override
+      public void confirmStatus(final T cacheable) {
+        // logic not required
+      }
+    });
+  }
+}
@@ -17,6 +17,7 @@
 package cern.c2mon.server.elasticsearch.tag;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -30,6 +31,10 @@ import cern.c2mon.server.elasticsearch.exception.ProcessingException;
  * Intermediate object (created from {@link Tag} instances) used for direct
  * serialization to JSON objects suitable for indexing as Elasticsearch
  * documents.
+ * <p>
+ * Documents created by the streaming converter only hold the id of the
+ * tag and the serialized JSON source. Documents read back from the fallback
+ * file hold all fields as map entries.
  *
  * @author Alban Marguet
  * @author Justin Lewis Salmon
@@ -38,6 +43,26 @@ public class TagDocument extends HashMap<String, Object> implements IFallback {
 
   private static final ObjectMapper mapper = new ObjectMapper();
 
+  /**
+   * JSON source written by the streaming converter, <code>null</code> if the
+   * fields are held as map entries
+   */
+  private final byte[] source;
+
+  public TagDocument() {
+    this.source = null;
+  }
+
+  /**
+   * @param id the id of the tag
+   * @param source the serialized JSON document
+   */
+  public TagDocument(Object id, byte[] source) {
+    super(2);
+    super.put("id", id);
+    this.source = source;
+  }
+
   @Override
   public Object put(String key, Object value) {
     if (key.equals("timestamp")) {
@@ -64,8 +89,25 @@ public class TagDocument extends HashMap<String, Object> implements IFallback {
     }
   }
 
+  /**
+   * @return the UTF-8 encoded JSON document
+   */
+  public byte[] getSource() {
+    if (source != null) {
+      return source;
+    }
+    try {
+      return mapper.writeValueAsBytes(this);
+    } catch (JsonProcessingException e) {
+      throw new ProcessingException("Error serializing document", e);
+    }
+  }
+
   @Override
   public String toString() {
+    if (source != null) {
+      return new String(source, StandardCharsets.UTF_8);
+    }
     try {
       return mapper.writeValueAsString(this);
     } catch (JsonProcessingException e) {
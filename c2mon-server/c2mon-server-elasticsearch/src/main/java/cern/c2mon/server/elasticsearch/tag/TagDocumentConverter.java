@@ -16,154 +16,141 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.tag;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
-import cern.c2mon.server.cache.EquipmentCache;
-import cern.c2mon.server.cache.ProcessCache;
-import cern.c2mon.server.cache.SubEquipmentCache;
 import cern.c2mon.server.common.datatag.DataTag;
 import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.elasticsearch.tag.TagFieldWriter.Fields;
+import cern.c2mon.server.elasticsearch.util.DocumentSerializer;
 import cern.c2mon.shared.common.datatag.DataTagQuality;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 import cern.c2mon.shared.common.type.TypeConverter;
 
 /**
  * Converts {@link Tag} instances to {@link TagDocument} instances.
+ * <p>
+ * The document fields are streamed straight into the JSON source of the
+ * document, which is then used as is for the Elasticsearch index request.
  *
  * @author Alban Marguet
  * @author Justin Lewis Salmon
  */
 @Slf4j
 @Component
-public class TagDocumentConverter extends BaseTagDocumentConverter<TagDocument> {
+public class TagDocumentConverter implements Converter<Tag, Optional<TagDocument>> {
+
+  private final TagFieldWriter fieldWriter;
 
   @Autowired
-  public TagDocumentConverter(final ProcessCache processCache, final EquipmentCache equipmentCache, final SubEquipmentCache subEquipmentCache) {
-    super(processCache, equipmentCache, subEquipmentCache, TagDocument::new);
+  public TagDocumentConverter(final TagFieldWriter fieldWriter) {
+    this.fieldWriter = fieldWriter;
   }
 
   @Override
   public Optional<TagDocument> convert(final Tag tag) {
     try {
-      return super.convert(tag).map(tagDocument -> fillAdditionalData(tagDocument, tag));
+      return Optional.of(new TagDocument(tag.getId(), DocumentSerializer.serialize(generator -> writeFields(generator, tag))));
     } catch (Exception e) {
       log.error("Error occurred during conversion of Tag #{} ({}) to Elasticsearch document. Unable to store update to Elasticsearch!", tag.getId(), tag.getName(), e);
     }
     return Optional.empty();
   }
 
-  private TagDocument fillAdditionalData(TagDocument tagDocument, Tag tag) {
-    tagDocument.put("timestamp", tag.getTimestamp().getTime());
-    tagDocument.put("quality", getQuality(tag));
-    tagDocument.put("valueDescription", tag.getValueDescription());
-    Class<?> clazz = TypeConverter.getType(tag.getDataType());
-    if (clazz == null) {
-      tagDocument.put("valueObject", tag.getValue());
-
-    } else if (Number.class.isAssignableFrom(clazz)) {
-      tagDocument.put("value", tag.getValue());
-
-      if (Long.class.isAssignableFrom(clazz)) {
-        tagDocument.put("valueLong", tag.getValue());
-      }
-    } else if (Boolean.class.isAssignableFrom(clazz)) {
-      tagDocument.put("valueBoolean", tag.getValue());
-
-      if (tag.getValue() != null) {
-        tagDocument.put("value", tag.getValue() != null ? 1 : 0);
-      }
-    } else if (String.class.isAssignableFrom(clazz)) {
-      tagDocument.put("valueString", tag.getValue());
-
-    } else {
-      tagDocument.put("valueObject", tag.getValue());
-    }
-    return tagDocument;
+  private void writeFields(JsonGenerator generator, Tag tag) throws IOException {
+    fieldWriter.writeBaseFields(Fields.of(generator), tag);
+    writeC2monMetadata(generator, tag);
+    generator.writeNumberField("timestamp", tag.getTimestamp().getTime());
+    writeQuality(generator, tag.getDataTagQuality());
+    generator.writeStringField("valueDescription", tag.getValueDescription());
+    writeValue(generator, tag);
   }
 
-  @Override
-  protected Map<String, Object> getC2monMetadata(Tag tag) {
-    Map<String, Object> map = super.getC2monMetadata(tag);
-    map.put("serverTimestamp", tag.getCacheTimestamp().getTime());
+  private void writeC2monMetadata(JsonGenerator generator, Tag tag) throws IOException {
+    generator.writeObjectFieldStart("c2mon");
+    fieldWriter.writeC2monFields(Fields.of(generator), tag);
+
+    generator.writeNumberField("serverTimestamp", tag.getCacheTimestamp().getTime());
 
     if (tag instanceof DataTag) {
       DataTag dataTag = (DataTag) tag;
 
       if (dataTag.getDaqTimestamp() != null) {
-        map.put("daqTimestamp", dataTag.getDaqTimestamp().getTime());
+        generator.writeNumberField("daqTimestamp", dataTag.getDaqTimestamp().getTime());
       }
 
       if (dataTag.getSourceTimestamp() != null) {
-        map.put("sourceTimestamp", dataTag.getSourceTimestamp().getTime());
+        generator.writeNumberField("sourceTimestamp", dataTag.getSourceTimestamp().getTime());
       }
     }
 
-    return map;
-  }
-
-  private Map<String, Object> getQuality(Tag tag) {
-    Map<String, Object> map = new HashMap<>();
-    DataTagQuality quality = tag.getDataTagQuality();
-
-    map.put("valid", quality.isValid());
-    map.put("status", calculateStatus(tag));
-    map.put("statusInfo", collectStatusInfo(quality));
-
-    return map;
+    generator.writeEndObject();
   }
 
   /**
-   * Calculates the accumulated status of a {@link Tag}, based on the
-   * individual quality statuses that it contains.
+   * Writes the validity, the accumulated status and the individual invalid
+   * statuses with their description (or a single value {@code "OK"}, if no
+   * invalid qualities were found).
    * <p>
-   * TODO: rewrite this to be somewhat readable. It looks like the guy who
-   * wrote it just found out about java 8 and got a bit over-excited.
-   *
-   * @param tag the {@link Tag} instance that is used to calculate the status
-   * @return the result of the accumulated statuses.
-   * If no invalid status was found (good quality) the result will be {@code 0}.
+   * The accumulated status is the sum of {@code 2^code} of all invalid
+   * statuses, i.e. {@code 0} for a good quality.
    */
-  private int calculateStatus(final Tag tag) {
-    return Optional.ofNullable(tag.getDataTagQuality())
-        .map(DataTagQuality::getInvalidQualityStates)
-        .map(Map::keySet)
-        .map(tagQualityStatuses -> tagQualityStatuses.stream()
-            .mapToInt(TagQualityStatus::getCode)
-            .map(statusCode -> (int) Math.pow(2, statusCode))
-            .sum())
-        .orElse(0);
-  }
+  private void writeQuality(JsonGenerator generator, DataTagQuality quality) throws IOException {
+    Map<TagQualityStatus, String> invalidQualityStates = quality.getInvalidQualityStates();
 
-  /**
-   * Collects the individual statuses with their description, if any, based on
-   * a {@link DataTagQuality} instance.
-   *
-   * @param dataTagQuality the tag quality instance, that contains the
-   *                       individual quality information
-   * @return a {@link Collection} of invalid statuses or a {@link Collection}
-   * with a single value {@code "OK"}, if no invalid qualities were found
-   */
-  private Collection<String> collectStatusInfo(final DataTagQuality dataTagQuality) {
-    Map<TagQualityStatus, String> invalidQualityStates = dataTagQuality.getInvalidQualityStates();
+    generator.writeObjectFieldStart("quality");
+    generator.writeBooleanField("valid", quality.isValid());
 
-    if (invalidQualityStates == null) {
-      return Collections.singleton("OK");
+    int status = 0;
+    if (invalidQualityStates != null) {
+      for (TagQualityStatus qualityStatus : invalidQualityStates.keySet()) {
+        status += (int) Math.pow(2, qualityStatus.getCode());
+      }
     }
+    generator.writeNumberField("status", status);
 
-    Collection<String> invalidQualityInfo = invalidQualityStates.entrySet().stream()
-        .map(invalidQualityState -> String.format("%s : %s",
-            invalidQualityState.getKey().name(), invalidQualityState.getValue()))
-        .collect(Collectors.toSet());
-
-    if (invalidQualityInfo.isEmpty()) {
-      return Collections.singleton("OK");
+    generator.writeArrayFieldStart("statusInfo");
+    if (invalidQualityStates == null || invalidQualityStates.isEmpty()) {
+      generator.writeString("OK");
+    } else {
+      for (Map.Entry<TagQualityStatus, String> invalidQualityState : invalidQualityStates.entrySet()) {
+        generator.writeString(invalidQualityState.getKey().name() + " : " + invalidQualityState.getValue());
+      }
     }
+    generator.writeEndArray();
 
-    return invalidQualityInfo;
+    generator.writeEndObject();
+  }
+
+  private void writeValue(JsonGenerator generator, Tag tag) throws IOException {
+    Class<?> clazz = TypeConverter.getType(tag.getDataType());
+    if (clazz == null) {
+      generator.writeObjectField("valueObject", tag.getValue());
+
+    } else if (Number.class.isAssignableFrom(clazz)) {
+      generator.writeObjectField("value", tag.getValue());
+
+      if (Long.class.isAssignableFrom(clazz)) {
+        generator.writeObjectField("valueLong", tag.getValue());
+      }
+    } else if (Boolean.class.isAssignableFrom(clazz)) {
+      generator.writeObjectField("valueBoolean", tag.getValue());
+
+      if (tag.getValue() != null) {
+        generator.writeNumberField("value", 1);
+      }
+    } else if (String.class.isAssignableFrom(clazz)) {
+      generator.writeObjectField("valueString", tag.getValue());
+
+    } else {
+      generator.writeObjectField("valueObject", tag.getValue());
+    }
   }
 }
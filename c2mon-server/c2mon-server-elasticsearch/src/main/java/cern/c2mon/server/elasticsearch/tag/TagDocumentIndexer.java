@@ -16,21 +16,28 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.tag;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import cern.c2mon.pmanager.IDBPersistenceHandler;
+import cern.c2mon.pmanager.persistence.IPersistenceManager;
 import cern.c2mon.pmanager.persistence.exception.IDBPersistenceException;
 import cern.c2mon.server.elasticsearch.IndexManager;
 import cern.c2mon.server.elasticsearch.IndexNameManager;
 import cern.c2mon.server.elasticsearch.MappingFactory;
-import cern.c2mon.server.elasticsearch.bulk.BulkProcessorProxy;
+import cern.c2mon.server.elasticsearch.bulk.BulkIndexer;
 import cern.c2mon.server.elasticsearch.client.ElasticsearchClient;
 import cern.c2mon.server.elasticsearch.config.ElasticsearchProperties;
 import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
@@ -38,6 +45,14 @@ import cern.c2mon.server.elasticsearch.domain.IndexMetadata;
 /**
  * This class manages the fallback-aware indexing of {@link TagDocument}
  * instances to the Elasticsearch cluster.
+ * <p>
+ * As long as the cluster is available, batches are sent in concurrent
+ * asynchronous bulk requests and {@link #storeData(List)} returns without
+ * waiting for them. The documents of a failed bulk request are handed back to
+ * the {@link IPersistenceManager} set with {@link #setPersistenceManager}.
+ * From then on, batches are indexed synchronously so that the persistence
+ * manager can write them to its fallback file, until the cluster accepts a
+ * batch again.
  *
  * @author Alban Marguet
  * @author Justin Lewis Salmon
@@ -50,7 +65,25 @@ public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
   private final IndexManager indexManager;
   private final IndexNameManager indexNameManager;
 
-  private BulkProcessorProxy bulkProcessor;
+  private BulkIndexer bulkIndexer;
+
+  /**
+   * Single thread handing the documents of failed asynchronous bulk requests
+   * back to the persistence manager
+   */
+  private final ExecutorService fallbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "ElasticsearchTagFallback");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private IPersistenceManager<TagDocument> persistenceManager;
+
+  /**
+   * Set to false once an asynchronous bulk request failed, and back to true
+   * once a batch was successfully indexed synchronously
+   */
+  private volatile boolean available = true;
 
   /**
    * @param client Elasticsearch client instance
@@ -63,10 +96,18 @@ public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
     this.indexNameManager = indexNameManager;
     this.indexManager = indexManager;
     if (properties.isEnabled()) {
-      bulkProcessor = new BulkProcessorProxy(client);
+      bulkIndexer = new BulkIndexer(client, properties);
     }
   }
 
+  /**
+   * @param persistenceManager receiving the documents of failed asynchronous
+   *                           bulk requests. If not set, they are lost.
+   */
+  public void setPersistenceManager(IPersistenceManager<TagDocument> persistenceManager) {
+    this.persistenceManager = persistenceManager;
+  }
+
   @Override
   public void storeData(TagDocument tag) throws IDBPersistenceException {
     storeData(Collections.singletonList(tag));
@@ -74,27 +115,93 @@ public class TagDocumentIndexer implements IDBPersistenceHandler<TagDocument> {
 
   @Override
   public void storeData(List<TagDocument> tags) throws IDBPersistenceException {
+    List<BulkRequest> bulks;
     try {
       log.debug("Trying to send a batch of size {}", tags.size());
-      tags.forEach(this::indexTag);
-
-      bulkProcessor.flush();
+      bulks = bulkIndexer.split(tags.stream().map(this::createIndexRequest).collect(Collectors.toList()));
     } catch (Exception e) {
       log.warn("Error indexing batch", e);
       throw new IDBPersistenceException(e);
     }
+
+    if (available) {
+      indexAsynchronously(tags, bulks);
+    } else {
+      indexSynchronously(bulks);
+      log.info("Elasticsearch is accepting tag documents again");
+      available = true;
+    }
+  }
+
+  private void indexAsynchronously(List<TagDocument> tags, List<BulkRequest> bulks) throws IDBPersistenceException {
+    int offset = 0;
+    for (BulkRequest bulk : bulks) {
+      // copied, since the failure callback may run after the caller reused the list
+      List<TagDocument> documents = new ArrayList<>(tags.subList(offset, offset + bulk.numberOfActions()));
+      offset += bulk.numberOfActions();
+
+      try {
+        bulkIndexer.execute(bulk).whenComplete((response, e) -> {
+          if (e != null) {
+            onBulkFailure(documents);
+          }
+        });
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        IDBPersistenceException exception = new IDBPersistenceException(e);
+        exception.setCommited(offset - bulk.numberOfActions());
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * Sends the bulk requests one after the other, so that the number of
+   * committed documents can be reported to the persistence manager if one
+   * of them fails.
+   */
+  private void indexSynchronously(List<BulkRequest> bulks) throws IDBPersistenceException {
+    int committed = 0;
+    for (BulkRequest bulk : bulks) {
+      try {
+        bulkIndexer.execute(bulk).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw createPersistenceException(e, committed);
+      } catch (ExecutionException e) {
+        throw createPersistenceException(e.getCause(), committed);
+      }
+      committed += bulk.numberOfActions();
+    }
   }
 
-  private void indexTag(TagDocument tag) {
+  private void onBulkFailure(List<TagDocument> documents) {
+    if (available) {
+      log.warn("Elasticsearch bulk request failed, switching to synchronous indexing");
+      available = false;
+    }
+
+    if (persistenceManager == null) {
+      log.error("No persistence manager set, {} tag documents are lost", documents.size());
+      return;
+    }
+    fallbackExecutor.execute(() -> persistenceManager.storeData(documents));
+  }
+
+  private static IDBPersistenceException createPersistenceException(Throwable cause, int committed) {
+    IDBPersistenceException exception = new IDBPersistenceException(cause);
+    exception.setCommited(committed);
+    return exception;
+  }
+
+  private IndexRequest createIndexRequest(TagDocument tag) {
     String index = getOrCreateIndex(tag);
 
     log.trace("Indexing tag (#{}, index={}, type={})", tag.getId(), index, ElasticsearchProperties.TYPE);
 
-    IndexRequest indexNewTag = new IndexRequest(index, ElasticsearchProperties.TYPE)
-        .source(tag.toString(), XContentType.JSON)
+    return new IndexRequest(index, ElasticsearchProperties.TYPE)
+        .source(tag.getSource(), XContentType.JSON)
         .routing(tag.getId());
-
-    bulkProcessor.add(indexNewTag);
   }
 
   private String getOrCreateIndex(TagDocument tag) {
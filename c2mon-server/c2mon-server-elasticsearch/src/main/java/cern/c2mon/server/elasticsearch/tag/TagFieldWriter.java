@@ -0,0 +1,185 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.elasticsearch.tag;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import cern.c2mon.server.common.commfault.CommFaultTag;
+import cern.c2mon.server.common.tag.Tag;
+
+/**
+ * Writes the fields shared by all tag documents, either streamed into a
+ * {@link JsonGenerator} or put into a map (see {@link Fields}).
+ */
+@Slf4j
+@Component
+public class TagFieldWriter {
+
+  private final SupervisionNameCache supervisionNames;
+
+  @Autowired
+  public TagFieldWriter(final SupervisionNameCache supervisionNames) {
+    this.supervisionNames = supervisionNames;
+  }
+
+  /**
+   * Writes the id, name, description, unit and mode of the tag, followed by
+   * its <code>metadata</code> object.
+   *
+   * @param fields to write to
+   * @param tag the tag
+   * @throws IOException if a field could not be written
+   */
+  public void writeBaseFields(final Fields fields, final Tag tag) throws IOException {
+    fields.put("id", tag.getId());
+    fields.put("name", tag.getName());
+    fields.put("description", tag.getDescription());
+    fields.put("unit", tag.getUnit());
+    fields.put("mode", tag.getMode());
+
+    Fields metadata = fields.startObject("metadata");
+    if (tag.getMetadata() != null) {
+      for (Map.Entry<String, Object> entry : tag.getMetadata().getMetadata().entrySet()) {
+        if (entry.getKey() != null && entry.getValue() != null) {
+          metadata.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    metadata.endObject();
+  }
+
+  /**
+   * Writes the data type and the process, equipment and sub-equipment names
+   * of the tag. To be called on the <code>c2mon</code> object of the document.
+   *
+   * @param c2mon the <code>c2mon</code> object to write to
+   * @param tag the tag
+   * @throws IOException if a field could not be written
+   */
+  public void writeC2monFields(final Fields c2mon, final Tag tag) throws IOException {
+    c2mon.put("dataType", tag.getDataType());
+
+    if (!(tag instanceof CommFaultTag) || !tag.getProcessIds().isEmpty()) {
+      writeName(c2mon, "process", tag, () -> supervisionNames.getProcessName(tag.getProcessIds().iterator().next()));
+    }
+    if (!tag.getEquipmentIds().isEmpty()) {
+      writeName(c2mon, "equipment", tag, () -> supervisionNames.getEquipmentName(tag.getEquipmentIds().iterator().next()));
+    }
+    if (!tag.getSubEquipmentIds().isEmpty()) {
+      writeName(c2mon, "subEquipment", tag, () -> supervisionNames.getSubEquipmentName(tag.getSubEquipmentIds().iterator().next()));
+    }
+  }
+
+  private void writeName(final Fields c2mon, final String field, final Tag tag, final NameLookup lookup) throws IOException {
+    String name;
+    try {
+      name = lookup.getName();
+    } catch (RuntimeException e) {
+      log.warn("Could not get {} name for tag #{} ({}) from cache. Reason: {}", field, tag.getId(), tag.getName(), e.getMessage());
+      return;
+    }
+    c2mon.put(field, name);
+  }
+
+  @FunctionalInterface
+  private interface NameLookup {
+    String getName();
+  }
+
+  /**
+   * Destination of the document fields.
+   */
+  public interface Fields {
+
+    /**
+     * @param name the field name
+     * @param value the field value, serialized as JSON
+     * @throws IOException if the field could not be written
+     */
+    void put(String name, Object value) throws IOException;
+
+    /**
+     * @param name the field name
+     * @return the fields of the new object, to be closed with {@link #endObject()}
+     * @throws IOException if the object could not be started
+     */
+    Fields startObject(String name) throws IOException;
+
+    /**
+     * Closes an object started with {@link #startObject(String)}.
+     *
+     * @throws IOException if the object could not be closed
+     */
+    void endObject() throws IOException;
+
+    /**
+     * @param generator positioned inside the object to write to
+     * @return the fields streamed into the given generator
+     */
+    static Fields of(final JsonGenerator generator) {
+      return new Fields() {
+        @Override
+        public void put(String name, Object value) throws IOException {
+          generator.writeObjectField(name, value);
+        }
+
+        @Override
+        public Fields startObject(String name) throws IOException {
+          generator.writeObjectFieldStart(name);
+          return this;
+        }
+
+        @Override
+        public void endObject() throws IOException {
+          generator.writeEndObject();
+        }
+      };
+    }
+
+    /**
+     * @param map to put the fields into; nested objects are put as new maps
+     * @return the fields put into the given map
+     */
+    static Fields of(final Map<String, Object> map) {
+      return new Fields() {
+        @Override
+        public void put(String name, Object value) {
+          map.put(name, value);
+        }
+
+        @Override
+        public Fields startObject(String name) {
+          Map<String, Object> object = new HashMap<>();
+          map.put(name, object);
+          return of(object);
+        }
+
+        @Override
+        public void endObject() {
+          // nothing to close
+        }
+      };
+    }
+  }
+}
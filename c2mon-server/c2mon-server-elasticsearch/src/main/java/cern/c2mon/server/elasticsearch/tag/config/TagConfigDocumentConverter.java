@@ -16,21 +16,20 @@
  *****************************************************************************/
 package cern.c2mon.server.elasticsearch.tag.config;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import cern.c2mon.server.cache.EquipmentCache;
-import cern.c2mon.server.cache.ProcessCache;
-import cern.c2mon.server.cache.SubEquipmentCache;
 import cern.c2mon.server.common.alarm.Alarm;
 import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.elasticsearch.alarm.BaseAlarmDocumentConverter;
 import cern.c2mon.server.elasticsearch.tag.BaseTagDocumentConverter;
+import cern.c2mon.server.elasticsearch.tag.TagFieldWriter;
+import cern.c2mon.server.elasticsearch.tag.TagFieldWriter.Fields;
 
 import static java.util.stream.Collectors.toList;
 
@@ -42,8 +41,8 @@ import static java.util.stream.Collectors.toList;
 public class TagConfigDocumentConverter extends BaseTagDocumentConverter<TagConfigDocument> {
 
   @Autowired
-  public TagConfigDocumentConverter(final ProcessCache processCache, final EquipmentCache equipmentCache, final SubEquipmentCache subEquipmentCache) {
-    super(processCache, equipmentCache, subEquipmentCache, TagConfigDocument::new);
+  public TagConfigDocumentConverter(final TagFieldWriter fieldWriter) {
+    super(fieldWriter, TagConfigDocument::new);
   }
 
   /**
@@ -68,9 +67,8 @@ public class TagConfigDocumentConverter extends BaseTagDocumentConverter<TagConf
   }
 
   @Override
-  protected Map<String, Object> getC2monMetadata(final Tag tag) {
-    Map<String, Object> map = super.getC2monMetadata(tag);
-    map.put("logged", tag.isLogged());
-    return map;
+  protected void writeC2monFields(final Fields c2mon, final Tag tag) throws IOException {
+    super.writeC2monFields(c2mon, tag);
+    c2mon.put("logged", tag.isLogged());
   }
 }
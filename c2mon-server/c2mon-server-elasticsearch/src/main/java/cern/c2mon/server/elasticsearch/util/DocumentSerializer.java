@@ -0,0 +1,72 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.elasticsearch.util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cern.c2mon.server.elasticsearch.exception.ProcessingException;
+
+/**
+ * Serializes Elasticsearch documents by streaming their fields with a
+ * {@link JsonGenerator}, without building an intermediate map.
+ * <p>
+ * The generator uses an {@link ObjectMapper} codec, so that arbitrary values
+ * (e.g. tag values or metadata) can still be written with
+ * {@link JsonGenerator#writeObject(Object)}.
+ */
+public final class DocumentSerializer {
+
+  private static final JsonFactory factory = new ObjectMapper().getFactory();
+
+  private DocumentSerializer() {
+    /* Only static methods below. */
+  }
+
+  /**
+   * Writes the fields of a JSON document.
+   */
+  @FunctionalInterface
+  public interface FieldWriter {
+
+    /**
+     * @param generator positioned inside the document object
+     * @throws IOException if a field could not be written
+     */
+    void writeFields(JsonGenerator generator) throws IOException;
+  }
+
+  /**
+   * @param writer writing the document fields
+   * @return the UTF-8 encoded JSON document
+   */
+  public static byte[] serialize(FieldWriter writer) {
+    ByteArrayBuilder buffer = new ByteArrayBuilder();
+    try (JsonGenerator generator = factory.createGenerator(buffer)) {
+      generator.writeStartObject();
+      writer.writeFields(generator);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new ProcessingException("Error serializing document", e);
+    }
+    return buffer.toByteArray();
+  }
+}
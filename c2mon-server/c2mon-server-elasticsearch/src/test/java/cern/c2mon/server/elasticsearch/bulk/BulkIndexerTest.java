@@ -0,0 +1,167 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.elasticsearch.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.elasticsearch.client.ElasticsearchClient;
+import cern.c2mon.server.elasticsearch.config.ElasticsearchProperties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link BulkIndexer}, using a client which only completes the bulk
+ * requests when told to.
+ */
+public class BulkIndexerTest {
+
+  private final List<ActionListener<BulkResponse>> pending = new ArrayList<>();
+
+  private ElasticsearchProperties properties;
+
+  private ElasticsearchClient client;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    properties = new ElasticsearchProperties();
+    properties.setBulkActions(3);
+    properties.setConcurrentRequests(2);
+
+    client = mock(ElasticsearchClient.class);
+    doAnswer(invocation -> {
+      synchronized (pending) {
+        pending.add((ActionListener<BulkResponse>) invocation.getArguments()[1]);
+      }
+      return null;
+    }).when(client).bulkAsync(any(BulkRequest.class), any(ActionListener.class));
+  }
+
+  @Test
+  public void splitByNumberOfActions() {
+    BulkIndexer indexer = new BulkIndexer(client, properties);
+
+    List<BulkRequest> bulks = indexer.split(createRequests(7, "{}"));
+
+    assertEquals(3, bulks.size());
+    assertEquals(3, bulks.get(0).numberOfActions());
+    assertEquals(3, bulks.get(1).numberOfActions());
+    assertEquals(1, bulks.get(2).numberOfActions());
+  }
+
+  @Test
+  public void splitBySize() {
+    properties.setBulkActions(1000);
+    BulkIndexer indexer = new BulkIndexer(client, properties);
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 300 * 1024; i++) {
+      value.append('x');
+    }
+
+    List<BulkRequest> bulks = indexer.split(createRequests(8, "{\"value\":\"" + value + "\"}"));
+
+    assertEquals("Each 1 MB bulk should hold 3 documents of 300 KB", 3, bulks.size());
+    assertEquals(3, bulks.get(0).numberOfActions());
+    assertEquals(2, bulks.get(2).numberOfActions());
+  }
+
+  @Test
+  public void executeBlocksWhileMaximumRequestsInFlight() throws Exception {
+    BulkIndexer indexer = new BulkIndexer(client, properties);
+    List<BulkRequest> bulks = indexer.split(createRequests(9, "{}"));
+
+    CompletableFuture<BulkResponse> first = indexer.execute(bulks.get(0));
+    indexer.execute(bulks.get(1));
+
+    CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+      try {
+        indexer.execute(bulks.get(2));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    try {
+      third.get(200, TimeUnit.MILLISECONDS);
+      fail("The third bulk request should wait for a free slot");
+    } catch (TimeoutException e) {
+      // expected
+    }
+
+    complete(0);
+    third.get(5, TimeUnit.SECONDS);
+    assertFalse(first.isCompletedExceptionally());
+    assertEquals(3, pending.size());
+  }
+
+  @Test
+  public void failedRequestCompletesExceptionallyAndReleasesSlot() throws Exception {
+    properties.setConcurrentRequests(1);
+    BulkIndexer indexer = new BulkIndexer(client, properties);
+    List<BulkRequest> bulks = indexer.split(createRequests(6, "{}"));
+
+    CompletableFuture<BulkResponse> first = indexer.execute(bulks.get(0));
+    pending.get(0).onFailure(new IllegalStateException("cluster unavailable"));
+
+    try {
+      first.get();
+      fail("The future should have completed exceptionally");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    CompletableFuture<BulkResponse> second = indexer.execute(bulks.get(1));
+    complete(1);
+    assertEquals(0, second.get(5, TimeUnit.SECONDS).getItems().length);
+  }
+
+  private void complete(int index) {
+    ActionListener<BulkResponse> listener;
+    synchronized (pending) {
+      listener = pending.get(index);
+    }
+    listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1L));
+  }
+
+  private static List<IndexRequest> createRequests(int count, String source) {
+    List<IndexRequest> requests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      requests.add(new IndexRequest("c2mon-tag_2020-01", ElasticsearchProperties.TYPE).source(source, XContentType.JSON));
+    }
+    return requests;
+  }
+}
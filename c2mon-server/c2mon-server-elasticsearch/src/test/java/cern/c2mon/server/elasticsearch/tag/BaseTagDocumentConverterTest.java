@@ -50,6 +50,13 @@ public class BaseTagDocumentConverterTest {
   @Mock
   protected SubEquipmentCache subEquipmentCache;
 
+  /**
+   * @return a field writer looking up the supervision names in the mocked caches
+   */
+  protected TagFieldWriter createFieldWriter() {
+    return new TagFieldWriter(new SupervisionNameCache(processCache, equipmentCache, subEquipmentCache));
+  }
+
   protected void assertBaseFieldsMatch(DataTag tag, Map<String, Object> document) {
     assertEquals(tag.getId().intValue(), document.get("id"));
     assertEquals(tag.getName(), document.get("name"));
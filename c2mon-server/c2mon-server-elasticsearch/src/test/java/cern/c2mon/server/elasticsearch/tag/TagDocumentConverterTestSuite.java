@@ -22,7 +22,6 @@ import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import cern.c2mon.server.common.datatag.DataTag;
@@ -33,6 +32,8 @@ import cern.c2mon.server.elasticsearch.util.EntityUtils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -49,11 +50,12 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class TagDocumentConverterTestSuite extends BaseTagDocumentConverterTest {
 
-  @InjectMocks
   private TagDocumentConverter converter;
 
   @Before
   public void setUp() {
+    converter = new TagDocumentConverter(createFieldWriter());
+
     ProcessCacheObject process = new ProcessCacheObject(1L);
     process.setName("P_TEST");
 
@@ -105,4 +107,19 @@ public class TagDocumentConverterTestSuite extends BaseTagDocumentConverterTest
 
     assertTrue("We expect the converter not to fail.", document.isPresent());
   }
+
+  @Test
+  public void supervisionNamesAreCached() {
+    DataTag tag = EntityUtils.createDataTag();
+
+    converter.convert(tag);
+    TagDocument document = converter.convert(tag).orElseThrow(() -> new IllegalArgumentException("TagDocument conversion failed"));
+    document = (TagDocument) document.getObject(document.toString());
+
+    Map<String, Object> c2monMetadata = (Map<String, Object>) document.get("c2mon");
+    assertEquals("P_TEST", c2monMetadata.get("process"));
+    assertEquals("E_TEST", c2monMetadata.get("equipment"));
+    verify(processCache, times(1)).get(any());
+    verify(equipmentCache, times(1)).get(any());
+  }
 }
@@ -19,8 +19,8 @@ package cern.c2mon.server.elasticsearch.tag.config;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
 import org.junit.Test;
-import org.mockito.InjectMocks;
 
 import cern.c2mon.server.common.datatag.DataTag;
 import cern.c2mon.server.common.equipment.EquipmentCacheObject;
@@ -45,9 +45,13 @@ import static org.mockito.Mockito.when;
  */
 public class TagConfigDocumentConverterTestSuite extends BaseTagDocumentConverterTest {
 
-  @InjectMocks
   private TagConfigDocumentConverter converter;
 
+  @Before
+  public void setUp() {
+    converter = new TagConfigDocumentConverter(createFieldWriter());
+  }
+
   @Test
   public void toAndFromJson() throws Exception {
     DataTag tag = EntityUtils.createDataTag();
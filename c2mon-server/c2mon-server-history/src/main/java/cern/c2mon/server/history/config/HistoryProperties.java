@@ -30,4 +30,11 @@ public class HistoryProperties {
    */
   private String commandFallbackFile = "/tmp/command-fallback.txt";
 
+  /**
+   * Only log the latest value of a tag updated several times within the
+   * buffering period of the history writer. Reduces the database load for
+   * fast changing tags, at the cost of dropping the intermediate values.
+   */
+  private boolean coalesceTagUpdates = false;
+
 }
@@ -32,6 +32,7 @@ import cern.c2mon.server.cache.C2monBufferedCacheListener;
 import cern.c2mon.server.cache.CacheRegistrationService;
 import cern.c2mon.server.common.config.ServerConstants;
 import cern.c2mon.server.common.tag.Tag;
+import cern.c2mon.server.history.config.HistoryProperties;
 import cern.c2mon.server.history.logger.BatchLogger;
 import cern.c2mon.shared.daq.lifecycle.Lifecycle;
 
@@ -60,6 +61,8 @@ public class TagRecordListener implements C2monBufferedCacheListener<Tag>, Smart
    */
   private BatchLogger<Tag> tagLogger;
 
+  private HistoryProperties properties;
+
   /**
    * Listener container lifecycle hook.
    */
@@ -75,12 +78,15 @@ public class TagRecordListener implements C2monBufferedCacheListener<Tag>, Smart
    *
    * @param cacheRegistrationService for registering cache listeners
    * @param tagLogger for logging cache objects to the STL
+   * @param properties the history module properties
    */
   @Autowired
-  public TagRecordListener(final CacheRegistrationService cacheRegistrationService, @Qualifier("tagLogger") final BatchLogger<Tag> tagLogger) {
+  public TagRecordListener(final CacheRegistrationService cacheRegistrationService, @Qualifier("tagLogger") final BatchLogger<Tag> tagLogger,
+                           final HistoryProperties properties) {
     super();
     this.cacheRegistrationService = cacheRegistrationService;
     this.tagLogger = tagLogger;
+    this.properties = properties;
   }
 
   /**
@@ -101,6 +107,11 @@ public class TagRecordListener implements C2monBufferedCacheListener<Tag>, Smart
     return "DbPersister";
   }
 
+  @Override
+  public boolean isCoalescing() {
+    return properties.isCoalesceTagUpdates();
+  }
+
   @Override
   public void notifyElementUpdated(Collection<Tag> tagCollection) {
     ArrayList<Tag> tagsToLog = new ArrayList<>(tagCollection.size());
@@ -14,4 +14,16 @@ public class RuleProperties {
    * Number of threads that the rule evaluation engine will use
    */
   private int numEvaluationThreads = 1;
+
+  /**
+   * Time window (in milliseconds) during which the rules triggered by tag
+   * updates are collected, before being evaluated once each. Set to 0 for
+   * evaluating the rules on every update of their input tags.
+   */
+  private int evaluationWindow = 20;
+
+  /**
+   * Number of threads writing the buffered rule results to the cache
+   */
+  private int numCacheUpdaterThreads = 2;
 }
@@ -0,0 +1,214 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.rule.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the rules that need to be re-evaluated during a short time window
+ * and then evaluates each of them once. A burst of updates of the input tags
+ * of a rule therefore results in a single evaluation of the rule.
+ * <p>
+ * The collected rules are evaluated in parallel if more than one evaluation
+ * thread is configured. No order is imposed between rules depending on each
+ * other: the result of a rule only reaches its dependent rules through the
+ * cache, once flushed by the {@link RuleUpdateBuffer}, which then triggers
+ * their evaluation. A rule that is triggered again while the collected rules
+ * are evaluated is collected for the next evaluation cycle.
+ */
+@Slf4j
+class RuleEvaluationQueue {
+
+  /** Rules waiting for their evaluation */
+  private final ConcurrentHashMap<Long, Boolean> dirtyRules = new ConcurrentHashMap<>();
+
+  /** Set while an evaluation cycle is scheduled but has not yet collected the dirty rules */
+  private final AtomicBoolean cycleScheduled = new AtomicBoolean(false);
+
+  private final long windowMillis;
+
+  private final Consumer<Long> evaluator;
+
+  private final ScheduledExecutorService scheduler;
+
+  /** Pool evaluating the collected rules in parallel, null if single-threaded */
+  private final ExecutorService evaluationPool;
+
+  private final AtomicLong evaluationRequests = new AtomicLong();
+
+  private final AtomicLong coalescedRequests = new AtomicLong();
+
+  private final AtomicLong evaluations = new AtomicLong();
+
+  private final AtomicLong evaluationCycles = new AtomicLong();
+
+  /**
+   * @param windowMillis time during which the rules are collected before being evaluated
+   * @param numThreads number of threads evaluating the rules
+   * @param evaluator evaluates the rule with the given id
+   */
+  RuleEvaluationQueue(final long windowMillis, final int numThreads, final Consumer<Long> evaluator) {
+    this.windowMillis = windowMillis;
+    this.evaluator = evaluator;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "RuleEvaluationScheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (numThreads > 1) {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.evaluationPool = Executors.newFixedThreadPool(numThreads, r -> {
+        Thread thread = new Thread(r, "RuleEvaluation-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.evaluationPool = null;
+    }
+  }
+
+  /**
+   * Marks the given rules for evaluation in the next evaluation cycle.
+   *
+   * @param ruleIds ids of the rules to evaluate
+   */
+  void add(final Collection<Long> ruleIds) {
+    for (Long ruleId : ruleIds) {
+      evaluationRequests.incrementAndGet();
+      if (dirtyRules.putIfAbsent(ruleId, Boolean.TRUE) != null) {
+        coalescedRequests.incrementAndGet();
+      }
+    }
+    if (!ruleIds.isEmpty() && cycleScheduled.compareAndSet(false, true)) {
+      try {
+        scheduler.schedule(this::runEvaluationCycle, windowMillis, TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        cycleScheduled.set(false);
+        log.error("Unable to schedule the evaluation of rules {}", ruleIds, e);
+      }
+    }
+  }
+
+  /**
+   * Evaluates all rules collected so far.
+   */
+  void runEvaluationCycle() {
+    cycleScheduled.set(false);
+    List<Long> ruleIds = new ArrayList<>();
+    for (Long ruleId : dirtyRules.keySet()) {
+      if (dirtyRules.remove(ruleId) != null) {
+        ruleIds.add(ruleId);
+      }
+    }
+    if (ruleIds.isEmpty()) {
+      return;
+    }
+    evaluationCycles.incrementAndGet();
+
+    try {
+      log.trace("Evaluating {} rules", ruleIds.size());
+      evaluate(ruleIds);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.error("Unexpected error during the evaluation of rules {}", ruleIds, e);
+    }
+  }
+
+  private void evaluate(final List<Long> ruleIds) throws InterruptedException {
+    if (evaluationPool == null || ruleIds.size() == 1) {
+      for (Long ruleId : ruleIds) {
+        evaluateRule(ruleId);
+      }
+      return;
+    }
+    List<Callable<Object>> tasks = new ArrayList<>(ruleIds.size());
+    for (Long ruleId : ruleIds) {
+      tasks.add(Executors.callable(() -> evaluateRule(ruleId)));
+    }
+    evaluationPool.invokeAll(tasks);
+  }
+
+  private void evaluateRule(final Long ruleId) {
+    evaluations.incrementAndGet();
+    try {
+      evaluator.accept(ruleId);
+    } catch (Exception e) {
+      log.error("Error caught when evaluating rule #{}", ruleId, e);
+    }
+  }
+
+  /**
+   * Stops the evaluation threads. Rules collected but not yet evaluated are dropped.
+   */
+  void shutdown() {
+    scheduler.shutdownNow();
+    if (evaluationPool != null) {
+      evaluationPool.shutdownNow();
+    }
+  }
+
+  /**
+   * @return the number of rule evaluations requested by tag updates
+   */
+  long getEvaluationRequests() {
+    return evaluationRequests.get();
+  }
+
+  /**
+   * @return the number of requested evaluations that were saved, since the
+   *         rule was already waiting for its evaluation
+   */
+  long getCoalescedRequests() {
+    return coalescedRequests.get();
+  }
+
+  /**
+   * @return the number of rule evaluations started, including the ones that failed
+   */
+  long getEvaluations() {
+    return evaluations.get();
+  }
+
+  /**
+   * @return the number of evaluation cycles performed
+   */
+  long getEvaluationCycles() {
+    return evaluationCycles.get();
+  }
+
+  /**
+   * @return the number of rules waiting for their evaluation
+   */
+  int getSize() {
+    return dirtyRules.size();
+  }
+}
@@ -26,6 +26,8 @@ import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.SmartLifecycle;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
@@ -53,12 +55,19 @@ import cern.c2mon.shared.rule.RuleEvaluationException;
  * input tags in the cache. The result of the evaluation is passed
  * to the RuleUpdateBuffer where rapid successive updates are
  * clustered into a single update.
+ * <p>
+ * The rules triggered by tag updates are collected during a short
+ * time window and then evaluated once each (see
+ * {@link RuleEvaluationQueue}). This only coalesces the evaluations: a rule
+ * depending on other rules is evaluated again once their results are
+ * written to the cache, not within the same evaluation cycle.
  *
  * @author mbrightw
  *
  */
 @Slf4j
 @Service
+@ManagedResource(objectName = "cern.c2mon:name=ruleEvaluator", description = "Bean evaluating the rules on updates of their input tags")
 public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycle, RuleEvaluator {
 
   private final RuleTagCache ruleTagCache;
@@ -72,6 +81,12 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
 
   private final RuleProperties properties;
 
+  /**
+   * Collects the rules triggered by tag updates, null if the rules are
+   * evaluated directly on every update.
+   */
+  private final RuleEvaluationQueue evaluationQueue;
+
   /**
    * Listener container lifecycle hook.
    */
@@ -94,6 +109,12 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
     this.tagLocationService = tagLocationService;
     this.cacheRegistrationService = cacheRegistrationService;
     this.properties = properties;
+    if (properties.getEvaluationWindow() > 0) {
+      this.evaluationQueue = new RuleEvaluationQueue(properties.getEvaluationWindow(), properties.getNumEvaluationThreads(),
+          this::evaluateRule);
+    } else {
+      this.evaluationQueue = null;
+    }
   }
 
   /**
@@ -122,6 +143,10 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
     // For each rule id related to the tag
     if (!tag.getRuleIds().isEmpty()) {
       log.trace("For rule #{} triggering re-evaluation of {} rules : {}", tag.getId(), tag.getRuleIds().size(), tag.getRuleIds());
+      if (evaluationQueue != null) {
+        evaluationQueue.add(tag.getRuleIds());
+        return;
+      }
       for (Long ruleId : tag.getRuleIds()) {
          evaluateRule(ruleId);
       }
@@ -201,6 +226,9 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
   public void stop() {
     log.debug("Stopping rule evaluator");
     listenerContainer.stop();
+    if (evaluationQueue != null) {
+      evaluationQueue.shutdown();
+    }
     running = false;
   }
 
@@ -208,6 +236,26 @@ public class RuleEvaluatorImpl implements C2monCacheListener<Tag>, SmartLifecycl
   public int getPhase() {
     return ServerConstants.PHASE_INTERMEDIATE;
   }
+
+  @ManagedOperation(description = "Returns the number of rule evaluations requested by tag updates")
+  public long getNumberEvaluationRequests() {
+    return evaluationQueue == null ? 0 : evaluationQueue.getEvaluationRequests();
+  }
+
+  @ManagedOperation(description = "Returns the number of rule evaluations saved by collecting the requests of the same rule")
+  public long getNumberSavedEvaluations() {
+    return evaluationQueue == null ? 0 : evaluationQueue.getCoalescedRequests();
+  }
+
+  @ManagedOperation(description = "Returns the number of rule evaluations triggered by tag updates")
+  public long getNumberEvaluations() {
+    return evaluationQueue == null ? 0 : evaluationQueue.getEvaluations();
+  }
+
+  @ManagedOperation(description = "Returns the number of rules waiting for their evaluation")
+  public int getNumberPendingEvaluations() {
+    return evaluationQueue == null ? 0 : evaluationQueue.getSize();
+  }
   
   
   /**
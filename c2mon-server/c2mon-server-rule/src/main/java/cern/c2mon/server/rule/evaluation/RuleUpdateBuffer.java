@@ -17,7 +17,22 @@
 package cern.c2mon.server.rule.evaluation;
 
 import java.sql.Timestamp;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +41,7 @@ import org.springframework.stereotype.Service;
 
 import cern.c2mon.server.cache.RuleTagFacade;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
+import cern.c2mon.server.rule.config.RuleProperties;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 
 /**
@@ -34,6 +50,11 @@ import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
  * time or within a very short time interval. The <code>RuleUpdateBuffer</code> acts
  * in this cases like a time-deadband which sends only the latest value after it did
  * not receive any further evaluations after the last cacheUpdate intervals.
+ * <p>
+ * The buffered results are kept in a concurrent map, so that evaluation threads
+ * updating different rules do not contend. The rules that are ready are written
+ * to the cache in batches, in parallel if more than one cache updater thread is
+ * configured.
  *
  * In C2MON, instantiated as a Spring singleton using annotations.
  *
@@ -42,57 +63,65 @@ import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 @Slf4j
 @Service
 public final class RuleUpdateBuffer {
-  
+
   /** The initial buffer size */
   private static final int INITIAL_BUFFER_SIZE = 1000;
-  
-  /** The schedule interval for the <code>CacheUpdaterTask</code> */
+
+  /** The schedule interval for the cache updater task */
   private static final int BUFFER_TIMER_MILLIS = 75; // we chose this value due to the JMS message delivering delay
-  
-  /** 
-   * The maximum amount of check cycles that the cache updater shall 
+
+  /**
+   * The maximum amount of check cycles that the cache updater shall
    * wait before forcing a cache update for a particular rule.
    */
   private static final int MAX_CYCLES_WAIT = 6; // 6 * 75 = 450 ms <== max delay
-  
-  /** thread synchronization object */
-  private static final Object BUFFER_LOCK = new Object();
-  
+
+  /** Number of rules written to the cache by the same cache updater thread in a row */
+  private static final int CACHE_UPDATE_BATCH_SIZE = 100;
+
   /**
    * Reference to the local home interface of the
    * <code>DataTagFacade</code> session bean.
    */
-  private static RuleTagFacade ruleTagFacade;
-  
-  /** The internal buffer used for the */
-  protected static final Map<Long, RuleBufferObject> RULE_OBJECT_BUF = new Hashtable<Long, RuleBufferObject>(INITIAL_BUFFER_SIZE);
-  
-  /** 
-   * Map containing the flags which indicates that an update was received
-   * within the last cache updater cycle.
-   */
-  private static final Map<Long, Boolean> UPDATE_RECEIVED_FLAGS  = new Hashtable<Long, Boolean>(INITIAL_BUFFER_SIZE);
-  
-  /**
-   * The counters for checking the cycles that a specific rule is already been buffered.
-   * When the counter exceeds the MAX_CYCLES_WAIT the <code>CacheUpdaterTask</code> forces
-   * a cache update.
-   */
-  private static final Map<Long, Integer> CYCLE_COUNTERS = new Hashtable<Long, Integer>(INITIAL_BUFFER_SIZE);
-  
-  /** Timer instance that schedules the <code>CacheUpdaterTask</code> */
-  private final Timer timer;
-  
-  /** will be set to true, once the timer is running */ 
-  private static boolean isCacheUpdaterRunning = false;
-  
+  private final RuleTagFacade ruleTagFacade;
+
+  /** The internal buffer, containing the latest result of each rule */
+  private final ConcurrentHashMap<Long, RuleBufferObject> ruleObjectBuffer = new ConcurrentHashMap<>(INITIAL_BUFFER_SIZE);
+
+  /** Set while a cache updater cycle is scheduled */
+  private final AtomicBoolean cacheUpdaterScheduled = new AtomicBoolean(false);
+
+  /** Schedules the cache updater cycles */
+  private final ScheduledExecutorService scheduler;
+
+  /** Pool writing the batches of rules to the cache in parallel, null if single-threaded */
+  private final ExecutorService cacheUpdaterPool;
+
+  private final AtomicLong bufferUpdates = new AtomicLong();
+
+  private final AtomicLong cacheUpdates = new AtomicLong();
+
   /**
-   * Constructor 
+   * Constructor
    */
   @Autowired
-  protected RuleUpdateBuffer(RuleTagFacade ruleTagFacade) {
-    this.timer = new Timer("RuleUpdater");
-    RuleUpdateBuffer.ruleTagFacade = ruleTagFacade;
+  protected RuleUpdateBuffer(RuleTagFacade ruleTagFacade, RuleProperties properties) {
+    this.ruleTagFacade = ruleTagFacade;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "RuleUpdater");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (properties.getNumCacheUpdaterThreads() > 1) {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.cacheUpdaterPool = Executors.newFixedThreadPool(properties.getNumCacheUpdaterThreads(), r -> {
+        Thread thread = new Thread(r, "RuleUpdater-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.cacheUpdaterPool = null;
+    }
   }
 
   /**
@@ -103,20 +132,17 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation.
    */
   public void update(final Long pId, final Object pValue, final String pValueDesc, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering update()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, pValue, pValueDesc, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
-      }
-      else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
+    ruleObjectBuffer.compute(pId, (id, bufferObj) -> {
+      if (bufferObj == null) {
+        bufferObj = new RuleBufferObject(id, pValue, pValueDesc, pTimestamp);
+      } else {
         bufferObj.update(pValue, pValueDesc, pTimestamp);
       }
-      scheduleCacheUpdaterTask(pId);
-    }
+      bufferObj.updateReceived = true;
+      return bufferObj;
+    });
+    scheduleCacheUpdaterTask();
     log.trace(pId + " leaving update()");
   }
 
@@ -128,23 +154,20 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation
    */
   public void invalidate(final Long pId, final TagQualityStatus pReason, final String pDescription, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering invalidate()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, null, pReason, pDescription, null, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
-      }
-      else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
+    ruleObjectBuffer.compute(pId, (id, bufferObj) -> {
+      if (bufferObj == null) {
+        bufferObj = new RuleBufferObject(id, null, pReason, pDescription, null, pTimestamp);
+      } else {
         bufferObj.invalidate(pReason, pDescription, pTimestamp);
       }
-      scheduleCacheUpdaterTask(pId);
-    }
+      bufferObj.updateReceived = true;
+      return bufferObj;
+    });
+    scheduleCacheUpdaterTask();
     log.trace(pId + " leaving invalidate()");
   }
-  
+
   /**
    * Updates the internal rule buffer with an invalidation message
    * @param pId rule data tag id
@@ -154,47 +177,182 @@ public final class RuleUpdateBuffer {
    * @param pTimestamp the timestamp of the rule evaluation
    */
   public void invalidate(final Long pId, final Object value, final TagQualityStatus pReason, final String pDescription, final Timestamp pTimestamp) {
-    final RuleBufferObject bufferObj;
-    
     log.trace(pId + " entering invalidate()");
-    synchronized (BUFFER_LOCK) {
-      if (!RULE_OBJECT_BUF.containsKey(pId)) {
-        bufferObj = new RuleBufferObject(pId, null, pReason, pDescription, null, pTimestamp);
-        RULE_OBJECT_BUF.put(pId, bufferObj);
+    ruleObjectBuffer.compute(pId, (id, bufferObj) -> {
+      if (bufferObj == null) {
+        bufferObj = new RuleBufferObject(id, null, pReason, pDescription, null, pTimestamp);
       } else {
-        bufferObj = (RuleBufferObject) RULE_OBJECT_BUF.get(pId);
         bufferObj.invalidate(pReason, pDescription, pTimestamp);
       }
-      
       bufferObj.value = value;
-      
-      scheduleCacheUpdaterTask(pId);
-    }
+      bufferObj.updateReceived = true;
+      return bufferObj;
+    });
+    scheduleCacheUpdaterTask();
     log.trace(pId + " leaving invalidate()");
   }
 
   /**
-   * Registers an update for the given rule id and triggers
-   * the start of the <code>CacheUpdaterTask</code>, if not
-   * yet done.
-   * @param pId the rule process id that has been updated. 
+   * Triggers the start of the cache updater cycles, if not yet done.
    */
-  private void scheduleCacheUpdaterTask(final Long pId) {
-    UPDATE_RECEIVED_FLAGS.put(pId, Boolean.TRUE);
-    if (!isCacheUpdaterRunning) {
+  private void scheduleCacheUpdaterTask() {
+    bufferUpdates.incrementAndGet();
+    if (cacheUpdaterScheduled.compareAndSet(false, true)) {
       try {
-        log.trace(pId + " scheduleCacheUpdaterTask() - Initialize new cache updater task");
-        timer.schedule(new CacheUpdaterTask(), BUFFER_TIMER_MILLIS, BUFFER_TIMER_MILLIS);
-        isCacheUpdaterRunning = true;
-      } catch (IllegalStateException ise) {
-        log.error(pId + "scheduleCacheUpdaterTask() - Catched illegal state exception", ise);
-      }      
+        log.trace("scheduleCacheUpdaterTask() - Initialize new cache updater task");
+        scheduler.schedule(this::runCacheUpdaterCycle, BUFFER_TIMER_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        cacheUpdaterScheduled.set(false);
+        log.error("scheduleCacheUpdaterTask() - Unable to schedule the cache updater task", e);
+      }
+    }
+  }
+
+  /**
+   * Takes care of the cache update for all rules that haven't been updated
+   * since the last check, or that have been delayed for more than
+   * {@link #MAX_CYCLES_WAIT} cycles. Schedules the next cycle as long as
+   * rules are left in the buffer.
+   */
+  void runCacheUpdaterCycle() {
+    // reset first, so that an update arriving after the last check below schedules a new cycle
+    cacheUpdaterScheduled.set(false);
+    try {
+      List<RuleBufferObject> rulesToUpdate = new ArrayList<>();
+      for (Long ruleId : ruleObjectBuffer.keySet()) {
+        ruleObjectBuffer.computeIfPresent(ruleId, (id, rbo) -> {
+          boolean forceCacheUpdate = rbo.cycles >= MAX_CYCLES_WAIT;
+          if (!rbo.updateReceived || forceCacheUpdate) {
+            // no recent update of that rule OR the buffer was updated more than MAX_CYCLES_WAIT cycle in a row
+            if (forceCacheUpdate) {
+              log.debug("CacheUpdaterTask() - Forcing a cache update for rule "
+                  + id + " since it was already delayed by "
+                  + MAX_CYCLES_WAIT * BUFFER_TIMER_MILLIS + " ms.");
+            }
+            rulesToUpdate.add(rbo);
+            return null;
+          }
+          // Set the flag to false in order indicate a cache update at the next check
+          rbo.updateReceived = false;
+          rbo.cycles++;
+          return rbo;
+        });
+      }
+
+      updateCache(rulesToUpdate);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      log.error("Exception caught during rule update - should not be ignored!", ex);
+    } finally {
+      if (!ruleObjectBuffer.isEmpty() && cacheUpdaterScheduled.compareAndSet(false, true)) {
+        try {
+          scheduler.schedule(this::runCacheUpdaterCycle, BUFFER_TIMER_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+          cacheUpdaterScheduled.set(false);
+          log.error("CacheUpdaterTask() - Unable to schedule the next cache updater task", e);
+        }
+      } else {
+        log.trace("CacheUpdaterTask() - No next cache updater check, because there are no more updates registered.");
+      }
+    }
+  }
+
+  /**
+   * Writes the rules to the cache, in batches of {@link #CACHE_UPDATE_BATCH_SIZE} rules
+   * processed in parallel. Returns once all rules are written, so that the
+   * following cycle cannot overtake them.
+   */
+  private void updateCache(final List<RuleBufferObject> rulesToUpdate) throws InterruptedException {
+    if (cacheUpdaterPool == null || rulesToUpdate.size() <= CACHE_UPDATE_BATCH_SIZE) {
+      updateCacheBatch(rulesToUpdate);
+      return;
+    }
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int i = 0; i < rulesToUpdate.size(); i += CACHE_UPDATE_BATCH_SIZE) {
+      List<RuleBufferObject> batch = rulesToUpdate.subList(i, Math.min(rulesToUpdate.size(), i + CACHE_UPDATE_BATCH_SIZE));
+      tasks.add(Executors.callable(() -> updateCacheBatch(batch)));
+    }
+    cacheUpdaterPool.invokeAll(tasks);
+  }
+
+  private void updateCacheBatch(final Collection<RuleBufferObject> rulesToUpdate) {
+    for (RuleBufferObject rbo : rulesToUpdate) {
+      if (rbo.qualityCollection.isEmpty()) {
+        log.trace("CacheUpdaterTask() - updating cache for rule id " + rbo.id
+            + ": value=" + rbo.value
+            + ", description=" + rbo.valueDesc
+            + ", timestamp=" + rbo.timestamp);
+        try {
+          ruleTagFacade.updateAndValidate(rbo.id, rbo.value, rbo.valueDesc, rbo.timestamp);
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.warn("Unable to update rule (can happen during rule reconfiguration)", cacheEx);
+        } catch (Exception exception) {
+          log.warn("Unexpected error during rule evaluation", exception);
+        }
+      } else {
+        log.trace("CacheUpdaterTask() - invalidating cache for rule id " + rbo.id
+            + ": reasons=" + rbo.qualityCollection
+            + ", descriptions=" + rbo.qualityDescriptions
+            + ", timestamp=" + rbo.timestamp);
+        try {
+          ruleTagFacade.setQuality(rbo.id, rbo.qualityCollection, null, rbo.qualityDescriptions, rbo.timestamp);
+        } catch (CacheElementNotFoundException cacheEx) {
+          log.warn("Unable to update rule as could not be located in cache (normal during rule reconfiguration)", cacheEx);
+        } catch (Exception exception) {
+          log.warn("Unexpected error during rule evaluation", exception);
+        }
+      }
+      cacheUpdates.incrementAndGet();
     }
   }
-  
+
+  /**
+   * Stops the cache updater threads. Buffered results not yet written to the cache are dropped.
+   */
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    if (cacheUpdaterPool != null) {
+      cacheUpdaterPool.shutdownNow();
+    }
+  }
+
+  /**
+   * @param ruleId the rule id
+   * @return the result of the rule waiting to be written to the cache, or null if none
+   */
+  RuleBufferObject get(final Long ruleId) {
+    return ruleObjectBuffer.get(ruleId);
+  }
+
+  /**
+   * @return the number of rule results received
+   */
+  long getBufferUpdates() {
+    return bufferUpdates.get();
+  }
+
+  /**
+   * @return the number of rule results written to the cache
+   */
+  long getCacheUpdates() {
+    return cacheUpdates.get();
+  }
+
+  /**
+   * @return the number of rules waiting to be written to the cache
+   */
+  int getSize() {
+    return ruleObjectBuffer.size();
+  }
+
   /**
    * Inner class which is used to store the rule update
    * information for the cache of the given rule data tag.
+   * <p>
+   * Only modified within the compute functions of the buffer map, which
+   * serialise the access for a given rule.
    *
    * @author Matthias Braeger
    */
@@ -209,23 +367,13 @@ public final class RuleUpdateBuffer {
     /** quality flag description */
     private HashMap<TagQualityStatus, String> qualityDescriptions = new HashMap<TagQualityStatus, String>();
     /** value description */
-    private String valueDesc = null; 
+    private String valueDesc = null;
     /** rule evaluation timestamp */
     private Timestamp timestamp = null;
-
-    /**
-     * Copy Constructor
-     * @param rbo The object to be copied
-     */
-    @SuppressWarnings("unchecked")
-    private RuleBufferObject(final RuleBufferObject rbo) {
-      this.id = rbo.id;
-      this.value = rbo.value;
-      this.qualityCollection = (HashSet<TagQualityStatus>) rbo.qualityCollection.clone();
-      this.qualityDescriptions = (HashMap<TagQualityStatus, String>) rbo.qualityDescriptions.clone();
-      this.valueDesc = rbo.valueDesc;     
-      this.timestamp = new Timestamp(rbo.timestamp.getTime());
-    }
+    /** indicates that an update was received within the last cache updater cycle */
+    private boolean updateReceived = false;
+    /** number of cache updater cycles during which the rule has already been buffered */
+    private int cycles = 0;
 
     /**
      * Constructor
@@ -253,8 +401,8 @@ public final class RuleUpdateBuffer {
           this.qualityCollection.add(pStatus);
           if (pQualityDesc != null) {
             this.qualityDescriptions.put(pStatus, pQualityDesc);
-          }          
-        }        
+          }
+        }
         this.valueDesc = pValueDesc;
         this.timestamp = pTimestamp;
     }
@@ -268,16 +416,14 @@ public final class RuleUpdateBuffer {
      */
     private boolean update(final Object pValue, final String pValueDesc, final Timestamp pTimestamp) {
       boolean retval = false;
-      synchronized (BUFFER_LOCK) {
-        if (this.timestamp.before(pTimestamp) || this.timestamp.equals(pTimestamp)) {
-          this.value = pValue;
-          this.qualityCollection.clear();
-          this.qualityDescriptions.clear();
-          this.valueDesc = pValueDesc;
-          this.timestamp = pTimestamp;
-          retval = true;
-        }
-      }      
+      if (this.timestamp.before(pTimestamp) || this.timestamp.equals(pTimestamp)) {
+        this.value = pValue;
+        this.qualityCollection.clear();
+        this.qualityDescriptions.clear();
+        this.valueDesc = pValueDesc;
+        this.timestamp = pTimestamp;
+        retval = true;
+      }
       return retval;
     }
 
@@ -302,106 +448,4 @@ public final class RuleUpdateBuffer {
       return retval;
     }
   } // end of RuleBufferObject class
-
-  /**
-   * This class extends the Java <code>TimerTask</code> and
-   * takes care of updating the oc4j cache via the <code>DataTagFacadeBean</code>.
-   *
-   * @author Matthias Braeger
-   */
-  private static class CacheUpdaterTask extends TimerTask {
-    /**
-     * This method is executed when it gets triggered
-     * by its <code>Timer</code> instance. It then takes
-     * care of the cache update for all rules that haven't 
-     * been updated since the last check.
-     */
-    public void run() {
-      //keep logic in try clause as exception will kill the timer thread here
-      try {        
-        Collection<RuleBufferObject> rulesToUpdate = null;
-  
-        // create first a copy of all rule objects that needs to be updated
-        synchronized (BUFFER_LOCK) {
-          rulesToUpdate = new ArrayList<RuleBufferObject>(); // List of rules where the cache shall be updated
-          Integer actCounter = null; // actual cycle counter
-          boolean hasJustBeenUpdated = false; // flag indicating, if the actual rule was updated since the last check
-          boolean forceCacheUpdate = false; // true, if a cache update shall be forced due to an exceed of the MAX_CYCLE_WAIT
-          for (Long actTagId : UPDATE_RECEIVED_FLAGS.keySet()) {
-            hasJustBeenUpdated = ((Boolean) UPDATE_RECEIVED_FLAGS.get(actTagId)).booleanValue();
-            actCounter = (Integer) CYCLE_COUNTERS.get(actTagId);
-            forceCacheUpdate = (actCounter != null && actCounter.intValue() >= MAX_CYCLES_WAIT);
-              
-            if (!hasJustBeenUpdated || forceCacheUpdate) {
-              // False ==> then we update the cache since there was no recent update of that rule
-              // OR we the buffer was updated more than MAX_CYCLES_WAIT cycle in a row ==> force update 
-              RuleBufferObject rbo = new RuleBufferObject((RuleBufferObject) RULE_OBJECT_BUF.get(actTagId));
-              rulesToUpdate.add(rbo);
-              if (forceCacheUpdate) {
-                log.debug("CacheUpdaterTask() - Forcing a cache update for rule "
-                    + actTagId + " since it was already delayed by "
-                    + MAX_CYCLES_WAIT * BUFFER_TIMER_MILLIS + " ms.");
-              }
-            }
-            else {
-              // Set the flag to FALSE in order indicate a cache update at the next check
-              UPDATE_RECEIVED_FLAGS.put(actTagId, Boolean.FALSE);
-              if (actCounter == null) {
-                CYCLE_COUNTERS.put(actTagId, new Integer(1));
-              }
-              else { // Increasing the counter
-                CYCLE_COUNTERS.put(actTagId, new Integer(actCounter.intValue() + 1));
-              }
-            }
-          }
-          
-          // Cleaning the buffer from all objects that are going to be put into the cache.
-          Long actTagId;
-          for (RuleBufferObject rbo : rulesToUpdate) {
-            actTagId = rbo.id;
-            UPDATE_RECEIVED_FLAGS.remove(actTagId);
-            RULE_OBJECT_BUF.remove(actTagId);
-            CYCLE_COUNTERS.remove(actTagId);
-          }
-          
-          if (UPDATE_RECEIVED_FLAGS.size() == 0) {
-            log.trace("CacheUpdaterTask() - Canceling next cache updater check, because there are no more updates registered.");
-            this.cancel();
-            isCacheUpdaterRunning = false;
-          }
-        } // end of synchronization
-        
-        if (rulesToUpdate.size() > 0) {
-          // Updating the cache
-          for (RuleBufferObject rbo : rulesToUpdate) {
-            if (rbo.qualityCollection.isEmpty()) {
-              log.trace("CacheUpdaterTask() - updating cache for rule id " + rbo.id
-                  + ": value=" + rbo.value
-                  + ", description=" + rbo.valueDesc
-                  + ", timestamp=" + rbo.timestamp);
-              try {
-                ruleTagFacade.updateAndValidate(rbo.id, rbo.value, rbo.valueDesc, rbo.timestamp);            
-              } catch (CacheElementNotFoundException cacheEx) {
-                log.warn("Unable to update rule (can happen during rule reconfiguration)", cacheEx);
-              } catch (Exception exception) {
-                log.warn("Unexpected error during rule evaluation", exception);
-              }
-            } else {
-              log.trace("CacheUpdaterTask() - invalidating cache for rule id " + rbo.id
-                  + ": reasons=" + rbo.qualityCollection
-                  + ", descriptions=" + rbo.qualityDescriptions
-                  + ", timestamp=" + rbo.timestamp);
-              try {                
-                ruleTagFacade.setQuality(rbo.id, rbo.qualityCollection, null, rbo.qualityDescriptions, rbo.timestamp);
-              } catch (CacheElementNotFoundException cacheEx) {
-                log.warn("Unable to update rule as could not be located in cache (normal during rule reconfiguration)", cacheEx);
-              }                          
-            }
-          } // end for                    
-        }      
-      } catch (Exception ex) {
-        log.error("Exception caught during rule update - should not be ignored!", ex);
-      }
-    }
-  } // end of CacheUpdaterTask class
 }
@@ -0,0 +1,88 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.rule.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RuleEvaluationQueueTest {
+
+  private RuleEvaluationQueue queue;
+
+  private List<Long> evaluatedRules;
+
+  private CountDownLatch latch;
+
+  @Before
+  public void setUp() {
+    evaluatedRules = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  @After
+  public void tearDown() {
+    if (queue != null) {
+      queue.shutdown();
+    }
+  }
+
+  @Test
+  public void testBurstIsEvaluatedOnce() throws InterruptedException {
+    createQueue(1, 3);
+    for (int i = 0; i < 100; i++) {
+      queue.add(Arrays.asList(30L, 20L, 10L));
+    }
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+    assertEquals(3, evaluatedRules.size());
+    assertEquals(new HashSet<>(Arrays.asList(10L, 20L, 30L)), new HashSet<>(evaluatedRules));
+    assertEquals(300, queue.getEvaluationRequests());
+    assertEquals(297, queue.getCoalescedRequests());
+    assertEquals(3, queue.getEvaluations());
+    assertEquals(0, queue.getSize());
+  }
+
+  @Test
+  public void testParallelEvaluation() throws InterruptedException {
+    createQueue(4, 5);
+    queue.add(Arrays.asList(30L, 41L, 20L, 40L, 10L));
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+    assertEquals(5, evaluatedRules.size());
+    assertEquals(new HashSet<>(Arrays.asList(10L, 20L, 30L, 40L, 41L)), new HashSet<>(evaluatedRules));
+    assertEquals(5, queue.getEvaluations());
+  }
+
+  private void createQueue(final int numThreads, final int expectedEvaluations) {
+    latch = new CountDownLatch(expectedEvaluations);
+    queue = new RuleEvaluationQueue(50, numThreads, ruleId -> {
+      evaluatedRules.add(ruleId);
+      latch.countDown();
+    });
+  }
+}
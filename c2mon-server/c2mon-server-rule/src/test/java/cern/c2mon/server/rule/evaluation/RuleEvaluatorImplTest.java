@@ -43,10 +43,10 @@ public class RuleEvaluatorImplTest {
   public void before() {
     ruleTagCache = EasyMock.createNiceMock(RuleTagCache.class);
     RuleTagFacade ruleTagFacade = EasyMock.createNiceMock(RuleTagFacade.class);
-    ruleUpdateBuffer = new RuleUpdateBuffer(ruleTagFacade); 
+    RuleProperties properties = new RuleProperties();
+    ruleUpdateBuffer = new RuleUpdateBuffer(ruleTagFacade, properties);
     tagLocationService = EasyMock.createNiceMock(TagLocationService.class);
     CacheRegistrationService cacheRegistrationService = EasyMock.createNiceMock(CacheRegistrationService.class);
-    RuleProperties properties = new RuleProperties();
     ruleEvaluator = new RuleEvaluatorImpl(ruleTagCache, ruleUpdateBuffer, tagLocationService, cacheRegistrationService, properties);
   }
   
@@ -83,7 +83,7 @@ public class RuleEvaluatorImplTest {
     
     ruleEvaluator.evaluateRule(ruleId);
     
-    RuleBufferObject result = RuleUpdateBuffer.RULE_OBJECT_BUF.get(ruleId);
+    RuleBufferObject result = ruleUpdateBuffer.get(ruleId);
     Assert.assertNotNull(result);
     Assert.assertEquals("null value", result.getQualityDescriptions().values().iterator().next());
     EasyMock.verify(ruleTagCache, tagLocationService);
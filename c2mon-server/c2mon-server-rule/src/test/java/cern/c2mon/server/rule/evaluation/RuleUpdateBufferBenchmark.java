@@ -0,0 +1,109 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.rule.evaluation;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.server.cache.RuleTagFacade;
+import cern.c2mon.server.rule.config.RuleProperties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the throughput of the {@link RuleUpdateBuffer} with many rule
+ * evaluation threads updating overlapping sets of rules concurrently.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class RuleUpdateBufferBenchmark {
+
+  private static final int NB_THREADS = 16;
+
+  private static final int NB_RULES = 5000;
+
+  private static final int NB_UPDATES_PER_THREAD = 100000;
+
+  private RuleUpdateBuffer buffer;
+
+  @Before
+  public void setUp() {
+    RuleTagFacade ruleTagFacade = EasyMock.createNiceMock(RuleTagFacade.class);
+    EasyMock.replay(ruleTagFacade);
+    RuleProperties properties = new RuleProperties();
+    properties.setNumCacheUpdaterThreads(4);
+    buffer = new RuleUpdateBuffer(ruleTagFacade, properties);
+  }
+
+  @After
+  public void tearDown() {
+    buffer.shutdown();
+  }
+
+  @Test
+  public void measureUpdateThroughput() throws InterruptedException {
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < NB_THREADS; t++) {
+      final int offset = t;
+      Thread thread = new Thread(() -> {
+        try {
+          startSignal.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < NB_UPDATES_PER_THREAD; i++) {
+          long ruleId = (offset + (long) i * 7) % NB_RULES;
+          buffer.update(ruleId, i, "Rule result", timestamp);
+        }
+      }, "RuleEvaluator-" + t);
+      thread.start();
+      threads.add(thread);
+    }
+
+    long start = System.nanoTime();
+    startSignal.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long time = System.nanoTime() - start;
+
+    long total = (long) NB_THREADS * NB_UPDATES_PER_THREAD;
+    assertEquals(total, buffer.getBufferUpdates());
+    log.info(String.format("%d threads x %d updates of %d rules: %.2f ms, %.0f updates/s, %d cache updates so far",
+        NB_THREADS, NB_UPDATES_PER_THREAD, NB_RULES, time / 1e6, total / (time / 1e9), buffer.getCacheUpdates()));
+
+    // every rule must eventually be written to the cache once the updates stop
+    long deadline = System.currentTimeMillis() + 10000;
+    while ((buffer.getSize() > 0 || buffer.getCacheUpdates() < NB_RULES) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(0, buffer.getSize());
+    assertTrue(buffer.getCacheUpdates() >= NB_RULES);
+  }
+}
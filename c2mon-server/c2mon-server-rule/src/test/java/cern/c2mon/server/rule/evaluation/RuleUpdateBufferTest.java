@@ -17,60 +17,155 @@
 package cern.c2mon.server.rule.evaluation;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Test;
 
+import cern.c2mon.server.cache.RuleTagFacade;
+import cern.c2mon.server.rule.config.RuleProperties;
 import cern.c2mon.shared.common.datatag.util.TagQualityStatus;
 
 import static org.junit.Assert.*;
 
 
 /**
- * It is difficult to test the full <code>RuleUpdateBuffer</code> logic,
- * since it uses JNDI and needs a J2EE container. However, you can comment
- * out the call to the <code>DataTagFacadeBean</code> and test the basic
- * behavior.
- * 
- * TODO need to adapt this to C2MON code ... only started so far
+ * Unit test of the <code>RuleUpdateBuffer</code>, with a mock
+ * <code>RuleTagFacade</code> (so no Spring context).
  *
  * @author Matthias Braeger
  */
 public class RuleUpdateBufferTest {
   
-  /** Singleton instance */
+  /** Class to test */
   private RuleUpdateBuffer rub = null;
-  
-  
+
+  private RuleTagFacade ruleTagFacade;
+
   /**
    * It is called before running any of the tests defined on this class
    */
   @Before
-  protected final void setUp() {
-    //rub = RuleUpdateBuffer.getInstance();
+  public final void setUp() {
+    ruleTagFacade = EasyMock.createStrictMock(RuleTagFacade.class);
+    rub = new RuleUpdateBuffer(ruleTagFacade, new RuleProperties());
   }
-  
-  
-  public final void testUpdate() {
-    for (int i = 0; i < 100; i++) {
-      rub.update(new Long(1234L), (Object) ("test " + i), "testUpdate " + i, new Timestamp(System.currentTimeMillis()));
-//      try {Thread.sleep(40);} catch (InterruptedException e) {}
-      rub.update(new Long(1235L), (Object) ("test " + i), "testUpdate " + i, new Timestamp(System.currentTimeMillis()));
-      try {Thread.sleep(65);} catch (InterruptedException e) {}
-      System.out.println(i);
+
+  @After
+  public final void tearDown() {
+    rub.shutdown();
+  }
+
+  @Test
+  public final void testUpdate() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+    ruleTagFacade.updateAndValidate(1234L, "test 9", "testUpdate 9", timestamp);
+    EasyMock.expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    });
+    EasyMock.replay(ruleTagFacade);
+
+    for (int i = 0; i < 10; i++) {
+      rub.update(1234L, "test " + i, "testUpdate " + i, timestamp);
     }
-    
-    try {Thread.sleep(1000);} catch (InterruptedException e) {}
-    assertTrue(true);
+    assertEquals(1, rub.getSize());
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, rub.getSize());
+    assertEquals(10, rub.getBufferUpdates());
+    EasyMock.verify(ruleTagFacade);
   }
-  
-  public final void testInvalidate() {
-    for (int i = 0; i < 100; i++) {
-      rub.invalidate(new Long(12345L), TagQualityStatus.INACCESSIBLE, "testUpdate " + i, new Timestamp(System.currentTimeMillis()));
-      try {Thread.sleep(60);} catch (InterruptedException e) {}
-      System.out.println(i);
+
+  @Test
+  public final void testInvalidate() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    ruleTagFacade.setQuality(EasyMock.eq(12345L), EasyMock.anyObject(), EasyMock.isNull(), EasyMock.anyObject(), EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    });
+    EasyMock.replay(ruleTagFacade);
+
+    rub.update(12345L, "test", "testInvalidate", new Timestamp(System.currentTimeMillis()));
+    rub.invalidate(12345L, TagQualityStatus.INACCESSIBLE, "testInvalidate", new Timestamp(System.currentTimeMillis() + 1));
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    RuleUpdateBuffer.RuleBufferObject rbo = rub.get(12345L);
+    assertNull(rbo);
+    EasyMock.verify(ruleTagFacade);
+  }
+
+  /**
+   * A rule updated continuously must still be written to the cache
+   * after the maximum delay.
+   */
+  @Test
+  public final void testForcedUpdate() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    ruleTagFacade.updateAndValidate(EasyMock.eq(1L), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      latch.countDown();
+      return null;
+    }).anyTimes();
+    EasyMock.replay(ruleTagFacade);
+
+    long start = System.currentTimeMillis();
+    while (latch.getCount() > 0 && System.currentTimeMillis() - start < 5000) {
+      rub.update(1L, "test", "testForcedUpdate", new Timestamp(System.currentTimeMillis()));
+      Thread.sleep(10);
+    }
+    assertEquals(0, latch.getCount());
+    assertTrue(System.currentTimeMillis() - start < 2000);
+  }
+
+  /**
+   * Concurrent updates of overlapping rules are all counted, and every rule
+   * is written to the cache once the updates stop.
+   */
+  @Test
+  public final void testConcurrentUpdates() throws InterruptedException {
+    final int nbThreads = 4;
+    final int nbRules = 50;
+    final int nbUpdatesPerThread = 1000;
+    Set<Long> written = ConcurrentHashMap.newKeySet();
+    ruleTagFacade.updateAndValidate(EasyMock.anyLong(), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      written.add((Long) EasyMock.getCurrentArguments()[0]);
+      return null;
+    }).anyTimes();
+    EasyMock.replay(ruleTagFacade);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nbThreads; t++) {
+      final int offset = t;
+      Thread thread = new Thread(() -> {
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < nbUpdatesPerThread; i++) {
+          rub.update((offset + (long) i * 7) % nbRules, i, "testConcurrentUpdates", timestamp);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(nbThreads * nbUpdatesPerThread, rub.getBufferUpdates());
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (written.size() < nbRules && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
     }
-    
-    try {Thread.sleep(1000);} catch (InterruptedException e) {}
-    assertTrue(true);
+    assertEquals(nbRules, written.size());
+    assertEquals(0, rub.getSize());
   }
 }
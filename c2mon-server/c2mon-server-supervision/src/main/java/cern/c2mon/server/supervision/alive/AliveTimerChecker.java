@@ -31,15 +31,22 @@ import org.springframework.stereotype.Service;
 import cern.c2mon.server.cache.AliveTimerCache;
 import cern.c2mon.server.cache.AliveTimerFacade;
 import cern.c2mon.server.cache.ClusterCache;
+import cern.c2mon.server.cache.config.CacheProperties;
 import cern.c2mon.server.cache.exception.CacheElementNotFoundException;
 import cern.c2mon.server.common.alive.AliveTimer;
 import cern.c2mon.server.common.config.ServerConstants;
 import cern.c2mon.server.supervision.SupervisionManager;
+import cern.c2mon.server.supervision.config.SupervisionProperties;
 
 /**
  * Timer that regularly checks all the active alive timers monitoring
  * the connections to the DAQs, Equipment and SubEquipment.
  *
+ * <p>Unless running in "multi" cache mode, the checker does not scan all
+ * the alive timers: every <code>c2mon.server.supervision.aliveCheckTick</code>
+ * milliseconds, it only stops the timers whose deadline has passed (see
+ * <code>stopExpiredTimers</code> in {@link AliveTimerFacade}).
+ *
  * <p>Notice that an alive timer is considered expired when alive-interval
  *  + alive-interval/3 milliseconds have expired since the last alive
  *  message arrived, where alive-interval is specific to the AliveTimer
@@ -79,7 +86,8 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
 
   /**
    * How often the timer checks whether the alive
-   * timer have expired.
+   * timer have expired, when scanning all timers. Also the
+   * interval at which the number of timers down is checked.
    */
   private static final int SCAN_INTERVAL = 10000;
 
@@ -133,6 +141,23 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
   /** Reference to the clusterCache to share values accross teh cluster nodes */
   private final ClusterCache clusterCache;
 
+  /**
+   * Whether only the alive timers with a passed deadline are checked, rather
+   * than all timers. The deadlines are only known locally, so all timers
+   * have to be scanned in "multi" cache mode.
+   */
+  private final boolean deadlineDriven;
+
+  /**
+   * How often (in ms) the timer runs.
+   */
+  private final int checkInterval;
+
+  /**
+   * Time of the last check of the number of timers down.
+   */
+  private long lastDownCountCheck = 0L;
+
   private static final int SWITCH_OFF_COUNTDOWN = 60; //10mins
 
   /**
@@ -141,17 +166,23 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
    * @param aliveTimerFacade the alive timer facade bean
    * @param supervisionManager the supervision manager bean
    * @param clusterCache Reference to the clusterCache to share values accross teh cluster nodes
+   * @param cacheProperties the cache properties
+   * @param supervisionProperties the supervision properties
    */
   @Autowired
   public AliveTimerChecker(final AliveTimerCache cache,
                            final AliveTimerFacade aliveTimerFacade,
                            final SupervisionManager supervisionManager,
-                           final ClusterCache clusterCache) {
+                           final ClusterCache clusterCache,
+                           final CacheProperties cacheProperties,
+                           final SupervisionProperties supervisionProperties) {
     super();
     this.aliveTimerCache = cache;
     this.aliveTimerFacade = aliveTimerFacade;
     this.supervisionManager = supervisionManager;
     this.clusterCache = clusterCache;
+    this.deadlineDriven = !"multi".equalsIgnoreCase(cacheProperties.getMode());
+    this.checkInterval = deadlineDriven ? supervisionProperties.getAliveCheckTick() : SCAN_INTERVAL;
   }
 
   /**
@@ -178,8 +209,11 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
   @Override
   public synchronized void start() {
     LOGGER.info("Starting the C2MON alive timer mechanism.");
+    if (deadlineDriven) {
+      aliveTimerFacade.rearmAllTimers();
+    }
     timer = new Timer("AliveChecker");
-    timer.schedule(this, INITIAL_SCAN_DELAY, SCAN_INTERVAL);
+    timer.schedule(this, INITIAL_SCAN_DELAY, checkInterval);
     running = true;
   }
 
@@ -204,41 +238,17 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
     clusterCache.acquireWriteLockOnKey(LAST_ALIVE_TIMER_CHECK_LONG);
     try {
       Long lastCheck = (Long) clusterCache.getCopy(LAST_ALIVE_TIMER_CHECK_LONG);
-      if (System.currentTimeMillis() - lastCheck.longValue() < 9000) { //results in check on a single server
+      if (System.currentTimeMillis() - lastCheck.longValue() < checkInterval * 9 / 10) { //results in check on a single server
         LOGGER.debug("Skipping alive check as already performed.");
       } else {
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("run() : checking alive timers ... ");
         }
-        short aliveDownCount = 0;
         try {
-          for (Long currentId : aliveTimerCache.getKeys()) {
-            AliveTimer aliveTimerCopy = null;
-            boolean aliveExpiration = false;
-            aliveTimerCopy = aliveTimerCache.getCopy(currentId);
-
-            if (aliveTimerCopy.isActive()) {
-              if (aliveTimerFacade.hasExpired(currentId)) {
-                aliveTimerFacade.stop(currentId);
-                aliveExpiration = true;
-                aliveDownCount++;
-              }
-            } else {
-              aliveDownCount++;
-            }
-
-            if (aliveExpiration) {
-              onAliveTimerExpiration(currentId);
-            }
-
-          }
-          if (!alarmActive && aliveDownCount > WARNING_THRESHOLD) {
-            alarmActive = true;
-            SMS_LOGGER.warn("Over " + WARNING_THRESHOLD + " DAQ/Equipment are currently down.");
-          } else if (alarmActive && warningSwitchOffCountDown.decrementAndGet() == 0) {
-            SMS_LOGGER.warn("DAQ/Equipment status back to normal (" + aliveDownCount + " detected as down)");
-            alarmActive = false;
-            warningSwitchOffCountDown = new AtomicInteger(SWITCH_OFF_COUNTDOWN);
+          if (deadlineDriven) {
+            checkDueTimers();
+          } else {
+            checkAllTimers();
           }
         } catch (CacheElementNotFoundException cacheEx) {
           LOGGER.warn("Failed to locate alive timer in cache on expiration check (may happen exceptionally if just removed).", cacheEx);
@@ -256,6 +266,70 @@ public class AliveTimerChecker extends TimerTask implements SmartLifecycle {
     }
   }
 
+  /**
+   * Stops and notifies the alive timers whose deadline has passed.
+   */
+  private void checkDueTimers() {
+    for (Long expiredId : aliveTimerFacade.stopExpiredTimers()) {
+      try {
+        onAliveTimerExpiration(expiredId);
+      } catch (Exception e) {
+        LOGGER.error("Unexpected exception when notifying the expiration of alive timer " + expiredId, e);
+      }
+    }
+    long now = System.currentTimeMillis();
+    if (now - lastDownCountCheck >= SCAN_INTERVAL) {
+      lastDownCountCheck = now;
+      checkDownCount(aliveTimerCache.getKeys().size() - aliveTimerFacade.getArmedTimerCount());
+    }
+  }
+
+  /**
+   * Checks all the alive timers in the cache, and stops and notifies
+   * the expired ones.
+   */
+  private void checkAllTimers() {
+    int aliveDownCount = 0;
+    for (Long currentId : aliveTimerCache.getKeys()) {
+      AliveTimer aliveTimerCopy = null;
+      boolean aliveExpiration = false;
+      aliveTimerCopy = aliveTimerCache.getCopy(currentId);
+
+      if (aliveTimerCopy.isActive()) {
+        if (aliveTimerFacade.hasExpired(currentId)) {
+          aliveTimerFacade.stop(currentId);
+          aliveExpiration = true;
+          aliveDownCount++;
+        }
+      } else {
+        aliveDownCount++;
+      }
+
+      if (aliveExpiration) {
+        onAliveTimerExpiration(currentId);
+      }
+
+    }
+    checkDownCount(aliveDownCount);
+  }
+
+  /**
+   * Sends a warning to the admin if too many DAQ/Equipment are down, and
+   * the end of warning once back to normal.
+   *
+   * @param aliveDownCount the number of alive timers currently down
+   */
+  private void checkDownCount(final int aliveDownCount) {
+    if (!alarmActive && aliveDownCount > WARNING_THRESHOLD) {
+      alarmActive = true;
+      SMS_LOGGER.warn("Over " + WARNING_THRESHOLD + " DAQ/Equipment are currently down.");
+    } else if (alarmActive && warningSwitchOffCountDown.decrementAndGet() == 0) {
+      SMS_LOGGER.warn("DAQ/Equipment status back to normal (" + aliveDownCount + " detected as down)");
+      alarmActive = false;
+      warningSwitchOffCountDown = new AtomicInteger(SWITCH_OFF_COUNTDOWN);
+    }
+  }
+
   /**
    * Notifies the supervision manager.
    *
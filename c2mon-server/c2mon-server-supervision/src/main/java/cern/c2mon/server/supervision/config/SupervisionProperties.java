@@ -0,0 +1,46 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.server.supervision.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "c2mon.server.supervision")
+public class SupervisionProperties {
+
+  /**
+   * How often (in ms) the alive timers whose deadline has passed are checked,
+   * i.e. the maximum delay between the expiration of an alive timer and its
+   * detection. Not used in "multi" cache mode, in which all alive timers are
+   * scanned every 10 seconds.
+   */
+  private int aliveCheckTick = 1000;
+
+  /**
+   * Number of threads notifying the tags of a DAQ or equipment of a
+   * supervision status change. Set to 1 to notify them on the supervision
+   * notification thread.
+   */
+  private int tagNotificationThreads = 4;
+
+  /**
+   * Number of tags processed by a tag notification thread in a row, and
+   * passed to the cache supervision listeners in a single call.
+   */
+  private int tagNotificationBatchSize = 500;
+}
@@ -18,10 +18,19 @@ package cern.c2mon.server.supervision.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +49,7 @@ import cern.c2mon.server.common.rule.RuleTag;
 import cern.c2mon.server.common.tag.Tag;
 import cern.c2mon.server.supervision.SupervisionListener;
 import cern.c2mon.server.supervision.SupervisionNotifier;
+import cern.c2mon.server.supervision.config.SupervisionProperties;
 import cern.c2mon.shared.client.supervision.SupervisionEvent;
 import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStatus;
 import cern.c2mon.shared.daq.lifecycle.Lifecycle;
@@ -68,6 +78,10 @@ import cern.c2mon.shared.daq.lifecycle.Lifecycle;
  * notifications, the corresponding callback may fail for the given element and any
  * dependent elements (eg. Rules dependent on a Tag).
  *
+ * <p>The Tags are notified level by level: first the DataTags of the Process/Equipment,
+ * then the Rules depending on them, then the Rules depending on these Rules, etc. Each
+ * level is split into batches processed in parallel, and each Tag is notified once only.
+ *
  * @author Mark Brightwell
  *
  */
@@ -140,6 +154,12 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
   /** For distributed locking on the cluster */
   private final ClusterCache clusterCache;
 
+  /** Number of Tags per batch */
+  private final int batchSize;
+
+  /** Pool notifying the batches of a level in parallel, null if single-threaded */
+  private final ExecutorService notificationPool;
+
   /**
    * Constructor.
    * @param supervisionNotifier notifier bean
@@ -160,6 +180,7 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
    * @param subEquipmentEventCache
    *        Reference to a {@link C2monCache} instance for managing sub equipment supervision events
    *        also across multiple servers
+   * @param properties the supervision module properties
    */
   @Autowired
   public SupervisionTagNotifier(final SupervisionNotifier supervisionNotifier,
@@ -171,7 +192,8 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
                                 final SubEquipmentFacade subEquipmentFacade,
                                 @Qualifier("processEventCache") final C2monCache<Long, SupervisionEvent> processEventCache,
                                 @Qualifier("equipmentEventCache") final C2monCache<Long, SupervisionEvent> equipmentEventCache,
-                                @Qualifier("subEquipmentEventCache") final C2monCache<Long, SupervisionEvent> subEquipmentEventCache) {
+                                @Qualifier("subEquipmentEventCache") final C2monCache<Long, SupervisionEvent> subEquipmentEventCache,
+                                final SupervisionProperties properties) {
     super();
     this.supervisionNotifier = supervisionNotifier;
     this.tagLocationService = tagLocationService;
@@ -189,6 +211,28 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
     this.dataTagCache = cacheProvider.getDataTagCache();
     this.ruleTagCache = cacheProvider.getRuleTagCache();
     this.clusterCache = cacheProvider.getClusterCache();
+
+    this.batchSize = Math.max(1, properties.getTagNotificationBatchSize());
+    if (properties.getTagNotificationThreads() > 1) {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.notificationPool = Executors.newFixedThreadPool(properties.getTagNotificationThreads(), r -> {
+        Thread thread = new Thread(r, "SupervisionTagNotifier-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.notificationPool = null;
+    }
+  }
+
+  /**
+   * Stops the notification threads.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (notificationPool != null) {
+      notificationPool.shutdownNow();
+    }
   }
 
   /**
@@ -273,9 +317,16 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
    */
   private void notifyProcessTags(final Long processId) {
     Process process = processCache.getCopy(processId);
+    Collection<Long> tagIds = new ArrayList<>();
     for (Long equipmentId : process.getEquipmentIds()) { //no lock required as get copy
-      notifyEquipmentTags(equipmentId);
+      try {
+        tagIds.addAll(equipmentFacade.getDataTagIds(equipmentId));
+      } catch (CacheElementNotFoundException cacheEx) {
+        LOGGER.warn("Unable to locate Equipment element during Tag supervision "
+            + "change callback (so no invalidation callbacks performed for associated Tags)", cacheEx);
+      }
     }
+    notifyTags(tagIds);
   }
 
   /**
@@ -284,17 +335,7 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
    */
   private void notifyEquipmentTags(final Long equipementId) {
     try {
-      //local map so as not to notify rules twice; lock on map when modifying
-      Map<Long, Boolean> notifiedRules = new HashMap<>();
-      Collection<Long> tagIds = equipmentFacade.getDataTagIds(equipementId);
-      for (Long id : tagIds) {
-       try {
-         callCacheNotification(id, notifiedRules); //recursively notifies all dependent rules also, once only
-       } catch (CacheElementNotFoundException cacheEx) {
-         LOGGER.warn("Unable to locate Tag/Rule cache element during Tag supervision " //TODO ask DAQ refresh
-             + "change callback (some Tags/Rules may have been omitted)", cacheEx);
-       }
-      }
+      notifyTags(equipmentFacade.getDataTagIds(equipementId));
     } catch (CacheElementNotFoundException cacheEx) {
       LOGGER.warn("Unable to locate Equipment element during Tag supervision "
           + "change callback (so no invalidation callbacks performed for associated Tags)", cacheEx);
@@ -308,17 +349,7 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
    */
   private void notifySubEquipmentTags(final Long subEquipmentId) {
     try {
-      //local map so as not to notify rules twice; lock on map when modifying
-      Map<Long, Boolean> notifiedRules = new HashMap<>();
-      Collection<Long> tagIds = subEquipmentFacade.getDataTagIds(subEquipmentId);
-      for (Long id : tagIds) {
-       try {
-         callCacheNotification(id, notifiedRules); //recursively notifies all dependent rules also, once only
-       } catch (CacheElementNotFoundException cacheEx) {
-         LOGGER.warn("Unable to locate Tag/Rule cache element during Tag supervision " //TODO ask DAQ refresh
-             + "change callback (some Tags/Rules may have been omitted)", cacheEx);
-       }
-      }
+      notifyTags(subEquipmentFacade.getDataTagIds(subEquipmentId));
     } catch (CacheElementNotFoundException cacheEx) {
       LOGGER.warn("Unable to locate SubEquipment element during Tag supervision "
           + "change callback (so no invalidation callbacks performed for associated Tags)", cacheEx);
@@ -326,55 +357,137 @@ public class SupervisionTagNotifier implements SupervisionListener, SmartLifecyc
   }
 
   /**
-   * Private recursive method for calling all listeners; recursive calls for
-   * calling the notification for all dependent rules also.
-   * @param id tag id
-   * @param notifiedRules map for preventing multiple notifications for rules
+   * Notifies the given DataTags and all Rules depending on them, directly or
+   * through other Rules. Returns once all Tags have been notified.
+   *
+   * @param tagIds ids of the DataTags
    */
-  private void callCacheNotification(final Long id, final Map<Long, Boolean> notifiedRules) {
-    synchronized (notifiedRules) {
-      Tag tagCopy = tagLocationService.getCopy(id);
-      if (!notifiedRules.containsKey(tagCopy.getId())) {
-        LOGGER.trace("Performing supervision notification for tag " + id);
-        boolean dirtyTagContext = false;
-
-        for (Long procId : tagCopy.getProcessIds()) {
-          if (processEventCache.hasKey(procId)) { //null never override a value, so if statement ok out of lock
-            supervisionAppender.addSupervisionQuality(tagCopy, processEventCache.getCopy(procId));
-            dirtyTagContext = true;
-          }
+  private void notifyTags(final Collection<Long> tagIds) {
+    Notification notification = new Notification();
+    Collection<Long> level = tagIds;
+    try {
+      while (!level.isEmpty()) {
+        level = notification.notifyLevel(level);
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted during Tag supervision change callback (some Tags/Rules may have been omitted)");
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * State of the notification of the Tags affected by a supervision event.
+   */
+  private final class Notification {
+
+    /** Tags already notified, shared by the batches so as not to notify rules twice */
+    private final Set<Long> notifiedTags = ConcurrentHashMap.newKeySet();
+
+    /** Events fetched from the event caches, empty if no event is known for the id */
+    private final Map<Long, Optional<SupervisionEvent>> processEvents = new ConcurrentHashMap<>();
+    private final Map<Long, Optional<SupervisionEvent>> equipmentEvents = new ConcurrentHashMap<>();
+    private final Map<Long, Optional<SupervisionEvent>> subEquipmentEvents = new ConcurrentHashMap<>();
+
+    /**
+     * Notifies the Tags of a level in parallel batches.
+     *
+     * @param tagIds ids of the Tags of this level
+     * @return ids of the Rules depending on these Tags, which have not been notified yet
+     */
+    private Collection<Long> notifyLevel(final Collection<Long> tagIds) throws InterruptedException {
+      List<Long> ids = new ArrayList<>(tagIds);
+      Set<Long> nextLevel = ConcurrentHashMap.newKeySet();
+      if (notificationPool == null || ids.size() <= batchSize) {
+        notifyBatch(ids, nextLevel);
+      } else {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+          List<Long> batch = ids.subList(i, Math.min(ids.size(), i + batchSize));
+          tasks.add(Executors.callable(() -> notifyBatch(batch, nextLevel)));
         }
-        for (Long eqId : tagCopy.getEquipmentIds()) {
-          if (equipmentEventCache.hasKey(eqId)) {
-            supervisionAppender.addSupervisionQuality(tagCopy, equipmentEventCache.getCopy(eqId));
-            dirtyTagContext = true;
-          }
+        notificationPool.invokeAll(tasks);
+      }
+      nextLevel.removeAll(notifiedTags);
+      List<Long> sortedLevel = new ArrayList<>(nextLevel);
+      Collections.sort(sortedLevel);
+      return sortedLevel;
+    }
+
+    private void notifyBatch(final List<Long> tagIds, final Set<Long> nextLevel) {
+      List<DataTag> dataTags = new ArrayList<>();
+      List<RuleTag> ruleTags = new ArrayList<>();
+      for (Long id : tagIds) {
+        if (!notifiedTags.add(id)) {
+          continue;
         }
-        for (Long subEqId : tagCopy.getSubEquipmentIds()) {
-          if (subEquipmentEventCache.hasKey(subEqId)) {
-            supervisionAppender.addSupervisionQuality(tagCopy, subEquipmentEventCache.getCopy(subEqId));
-            dirtyTagContext = true;
+        try {
+          Tag tagCopy = tagLocationService.getCopy(id);
+          LOGGER.trace("Performing supervision notification for tag " + id);
+          if (addSupervisionQuality(tagCopy)) {
+            if (tagCopy instanceof DataTag) {
+              dataTags.add((DataTag) tagCopy);
+            } else if (tagCopy instanceof RuleTag) {
+              ruleTags.add((RuleTag) tagCopy);
+            } else {
+              throw new IllegalArgumentException("Unexpected call with Tag parameter that is neither DataTag or RuleTag; "
+                  + "type is " + tagCopy.getClass().getSimpleName());
+            }
           }
+          nextLevel.addAll(tagCopy.getRuleIds());
+        } catch (CacheElementNotFoundException cacheEx) {
+          LOGGER.warn("Unable to locate Tag/Rule cache element during Tag supervision " //TODO ask DAQ refresh
+              + "change callback (some Tags/Rules may have been omitted)", cacheEx);
+        } catch (RuntimeException e) {
+          LOGGER.error("Unexpected exception during supervision notification of Tag " + id, e);
         }
+      }
 
-        if (dirtyTagContext) {
-          if (tagCopy instanceof DataTag) {
-            dataTagCache.notifyListenersOfSupervisionChange((DataTag) tagCopy);
-          } else if (tagCopy instanceof RuleTag) {
-            ruleTagCache.notifyListenersOfSupervisionChange((RuleTag) tagCopy);
-          } else {
-            throw new IllegalArgumentException("Unexpected call with Tag parameter that is neither DataTag or RuleTag; "
-                + "type is " + tagCopy.getClass().getSimpleName());
-          }
+      try {
+        if (!dataTags.isEmpty()) {
+          dataTagCache.notifyListenersOfSupervisionChange(dataTags);
+        }
+        if (!ruleTags.isEmpty()) {
+          ruleTagCache.notifyListenersOfSupervisionChange(ruleTags);
         }
+      } catch (RuntimeException e) {
+        LOGGER.error("Unexpected exception when notifying the listeners of a Tag supervision change", e);
+      }
+    }
+
+    /**
+     * @param tagCopy copy of the Tag
+     * @return true if the status of at least one Process/Equipment/SubEquipment was added
+     */
+    private boolean addSupervisionQuality(final Tag tagCopy) {
+      boolean dirtyTagContext = false;
+      for (Long procId : tagCopy.getProcessIds()) {
+        dirtyTagContext |= addSupervisionQuality(tagCopy, getEvent(processEvents, processEventCache, procId));
       }
+      for (Long eqId : tagCopy.getEquipmentIds()) {
+        dirtyTagContext |= addSupervisionQuality(tagCopy, getEvent(equipmentEvents, equipmentEventCache, eqId));
+      }
+      for (Long subEqId : tagCopy.getSubEquipmentIds()) {
+        dirtyTagContext |= addSupervisionQuality(tagCopy, getEvent(subEquipmentEvents, subEquipmentEventCache, subEqId));
+      }
+      return dirtyTagContext;
+    }
 
-      Collection<Long> ruleIds;
-      ruleIds = new ArrayList<>(tagCopy.getRuleIds());
-      for (Long ruleId : ruleIds) {
-        callCacheNotification(ruleId, notifiedRules);
-        notifiedRules.put(ruleId, true);
+    private boolean addSupervisionQuality(final Tag tagCopy, final Optional<SupervisionEvent> event) {
+      if (event.isPresent()) {
+        supervisionAppender.addSupervisionQuality(tagCopy, event.get());
+        return true;
       }
+      return false;
+    }
+
+    /**
+     * Gets the event from the cache the first time it is needed during this notification.
+     */
+    private Optional<SupervisionEvent> getEvent(final Map<Long, Optional<SupervisionEvent>> events,
+                                                final C2monCache<Long, SupervisionEvent> eventCache, final Long id) {
+      return events.computeIfAbsent(id, key ->
+          //null never override a value, so if statement ok out of lock
+          eventCache.hasKey(key) ? Optional.of(eventCache.getCopy(key)) : Optional.empty());
     }
   }
 
@@ -22,7 +22,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
@@ -69,6 +72,9 @@ import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStat
 })
 public class SupervisionManagerTest {
 
+  /** Maximum time (in ms) to wait for the Tag notifications */
+  private static final long NOTIFICATION_TIMEOUT = 10000;
+
   @Rule
   @Autowired
   public SupervisionCachePopulationRule supervisionCachePopulationRule;
@@ -115,6 +121,9 @@ public class SupervisionManagerTest {
 
   private IMocksControl controller;
 
+  /** Tags passed to the cache supervision listener */
+  private final List<Tag> notifiedTags = Collections.synchronizedList(new ArrayList<>());
+
   @SuppressWarnings("unchecked")
   @Before
   public void setUp() {
@@ -135,10 +144,9 @@ public class SupervisionManagerTest {
    */
   @Test
   public void testProcessAliveTag() throws InterruptedException {
-    CountDownLatch latch = new CountDownLatch(6);
     supervisionListener.notifySupervisionEvent(EasyMock.isA(SupervisionEvent.class));
-    cacheSupervisionListener.onSupervisionChange(EasyMock.isA(Tag.class));
-    EasyMock.expectLastCall().andAnswer(() -> { latch.countDown(); return null; }).times(6);
+    cacheSupervisionListener.onSupervisionChange(EasyMock.<Collection<Tag>>anyObject());
+    EasyMock.expectLastCall().andAnswer(this::recordTags).anyTimes();
 
     controller.replay();
 
@@ -185,7 +193,7 @@ public class SupervisionManagerTest {
     assertEquals(SupervisionStatus.RUNNING.toString(), stateTag.getValue());
     assertEquals(processTime, stateTag.getCacheTimestamp());
 
-    latch.await(); //wait for notification on listener thread
+    assertNotifiedTags(6); //wait for notification on listener thread
     controller.verify();
   }
 
@@ -293,11 +301,10 @@ public class SupervisionManagerTest {
   @Test
   @Ignore("This test is flaky")
   public void testCommFaultTag() throws InterruptedException {
-    CountDownLatch latch1 = new CountDownLatch(6);
     //(1) Send CommFaultTag TRUE
     supervisionListener.notifySupervisionEvent(EasyMock.isA(SupervisionEvent.class));
-    cacheSupervisionListener.onSupervisionChange(EasyMock.isA(Tag.class));
-    EasyMock.expectLastCall().andAnswer(() -> { latch1.countDown(); return null; }).times(6);
+    cacheSupervisionListener.onSupervisionChange(EasyMock.<Collection<Tag>>anyObject());
+    EasyMock.expectLastCall().andAnswer(this::recordTags).anyTimes();
 
     Equipment equipment = equipmentCache.getCopy(150L);
     assertEquals(equipment.getSupervisionStatus(), SupervisionStatus.DOWN);
@@ -324,7 +331,7 @@ public class SupervisionManagerTest {
         .build();
     supervisionManager.processControlTag(value);
     //wait for Tag callback thread
-    latch1.await();
+    assertNotifiedTags(6);
 
     controller.verify();
 
@@ -339,11 +346,10 @@ public class SupervisionManagerTest {
 
     //(2) Send CommFaultTag FALSE
     controller.reset();
-    CountDownLatch latch2 = new CountDownLatch(6);
 
     supervisionListener.notifySupervisionEvent(EasyMock.isA(SupervisionEvent.class));
-    cacheSupervisionListener.onSupervisionChange(EasyMock.isA(Tag.class));
-    EasyMock.expectLastCall().andAnswer(() -> { latch2.countDown(); return null; }).times(6);
+    cacheSupervisionListener.onSupervisionChange(EasyMock.<Collection<Tag>>anyObject());
+    EasyMock.expectLastCall().andAnswer(this::recordTags).anyTimes();
 
     controller.replay();
 
@@ -361,7 +367,7 @@ public class SupervisionManagerTest {
         .timeToLive(10000)
         .build();
     supervisionManager.processControlTag(value2);
-    latch2.await();
+    assertNotifiedTags(6);
 
     controller.verify();
     equipment = equipmentCache.getCopy(150L);
@@ -384,12 +390,10 @@ public class SupervisionManagerTest {
   @Test
   @Ignore("This test is flaky")
   public void testSubEquipmentCommFaultTag() throws InterruptedException {
-    CountDownLatch latch1 = new CountDownLatch(2);
     // (1) Send CommFaultTag TRUE
     supervisionListener.notifySupervisionEvent(EasyMock.isA(SupervisionEvent.class));
-    cacheSupervisionListener.onSupervisionChange(EasyMock.isA(Tag.class));
-
-    EasyMock.expectLastCall().andAnswer(() -> { latch1.countDown(); return null; }).times(2);
+    cacheSupervisionListener.onSupervisionChange(EasyMock.<Collection<Tag>>anyObject());
+    EasyMock.expectLastCall().andAnswer(this::recordTags).anyTimes();
 
     SubEquipment subEquipment = subEquipmentCache.getCopy(250L);
     assertEquals(subEquipment.getSupervisionStatus(), SupervisionStatus.DOWN);
@@ -416,7 +420,7 @@ public class SupervisionManagerTest {
         .build();
     supervisionManager.processControlTag(value);
     // wait for Tag callback thread
-    latch1.await();
+    assertNotifiedTags(2);
 
     controller.verify();
 
@@ -431,11 +435,10 @@ public class SupervisionManagerTest {
 
     //(2) Send CommFaultTag FALSE
     controller.reset();
-    CountDownLatch latch2 = new CountDownLatch(2);
 
     supervisionListener.notifySupervisionEvent(EasyMock.isA(SupervisionEvent.class));
-    cacheSupervisionListener.onSupervisionChange(EasyMock.isA(Tag.class));
-    EasyMock.expectLastCall().andAnswer(() -> { latch2.countDown(); return null; }).times(2);
+    cacheSupervisionListener.onSupervisionChange(EasyMock.<Collection<Tag>>anyObject());
+    EasyMock.expectLastCall().andAnswer(this::recordTags).anyTimes();
 
     controller.replay();
 
@@ -453,7 +456,7 @@ public class SupervisionManagerTest {
         .timeToLive(10000)
         .build();
     supervisionManager.processControlTag(value2);
-    latch2.await();
+    assertNotifiedTags(2);
 
     controller.verify();
     subEquipment = subEquipmentCache.getCopy(250L);
@@ -463,4 +466,35 @@ public class SupervisionManagerTest {
     assertFalse(secondDescription.equals(subEquipment.getStatusDescription()));
     assertEquals(SupervisionStatus.DOWN.toString(), controlTagCache.getCopy(subEquipment.getStateTagId()).getValue());
   }
+
+  /**
+   * Records the Tags passed to the cache supervision listener.
+   */
+  @SuppressWarnings("unchecked")
+  private Object recordTags() {
+    notifiedTags.addAll((Collection<Tag>) EasyMock.getCurrentArguments()[0]);
+    return null;
+  }
+
+  /**
+   * Waits for the expected number of Tags to be passed to the cache
+   * supervision listener (on the listener thread), then checks that no
+   * further Tag is notified and that no Tag was notified twice.
+   *
+   * @param expected the number of Tags affected by the supervision change
+   */
+  private void assertNotifiedTags(final int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + NOTIFICATION_TIMEOUT;
+    while (notifiedTags.size() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // leave time for unexpected notifications to arrive
+    Thread.sleep(200);
+    synchronized (notifiedTags) {
+      assertEquals(expected, notifiedTags.size());
+      assertEquals(expected, notifiedTags.stream().map(Tag::getId).distinct().count());
+      notifiedTags.clear();
+    }
+  }
+
 }
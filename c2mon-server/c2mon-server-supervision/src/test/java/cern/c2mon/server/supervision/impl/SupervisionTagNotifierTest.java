@@ -23,6 +23,7 @@ import cern.c2mon.server.cache.config.CacheModule;
 import cern.c2mon.server.cache.dbaccess.config.CacheDbAccessModule;
 import cern.c2mon.server.common.config.CommonModule;
 import cern.c2mon.server.supervision.config.SupervisionModule;
+import cern.c2mon.server.supervision.config.SupervisionProperties;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
 import org.junit.Before;
@@ -139,7 +140,8 @@ public class SupervisionTagNotifierTest {
 
     supervisionTagNotifier = new SupervisionTagNotifier(supervisionNotifier, cacheProvider,
                                                    tagLocationService, supervisionAppender, processFacade,
-                                                   equipmentFacade, subEquipmentFacade, processEventCache, equipmentEventCache, subEquipmentEventCache);
+                                                   equipmentFacade, subEquipmentFacade, processEventCache, equipmentEventCache, subEquipmentEventCache,
+                                                   new SupervisionProperties());
 
     EasyMock.reset(cacheProvider);
     process = new ProcessCacheObject(10L);
@@ -219,19 +221,16 @@ public class SupervisionTagNotifierTest {
     EasyMock.expect(equipmentFacade.getDataTagIds(30L)).andReturn(Arrays.asList(100L, 101L));
     EasyMock.expect(tagLocationService.getCopy(100L)).andReturn(dataTag);
     EasyMock.expect(tagLocationService.getCopy(101L)).andReturn(dataTag2);
-    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag).times(2);
+    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag); //only once although uses triggered by 2 different tags
     EasyMock.expect(tagLocationService.getCopy(201L)).andReturn(ruleTag2);
     EasyMock.expect(tagLocationService.getCopy(202L)).andReturn(ruleTag3);
     supervisionAppender.addSupervisionQuality(dataTag, event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag);
     supervisionAppender.addSupervisionQuality(dataTag2, event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag2);
+    dataTagCache.notifyListenersOfSupervisionChange(Arrays.asList(dataTag, dataTag2));
     supervisionAppender.addSupervisionQuality(ruleTag,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag); //only once although uses triggered by 2 different tags
     supervisionAppender.addSupervisionQuality(ruleTag2,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag2);
     supervisionAppender.addSupervisionQuality(ruleTag3,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag3);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag, ruleTag2, ruleTag3));
 
     mockControl.replay();
 
@@ -252,19 +251,16 @@ public class SupervisionTagNotifierTest {
     EasyMock.expect(equipmentFacade.getDataTagIds(30L)).andReturn(Arrays.asList(100L, 101L));
     EasyMock.expect(tagLocationService.getCopy(100L)).andReturn(dataTag);
     EasyMock.expect(tagLocationService.getCopy(101L)).andReturn(dataTag2);
-    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag).times(2);
+    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag); //only once although uses triggered by 2 different tags
     EasyMock.expect(tagLocationService.getCopy(201L)).andReturn(ruleTag2);
     EasyMock.expect(tagLocationService.getCopy(202L)).andReturn(ruleTag3);
-    supervisionAppender.addSupervisionQuality(dataTag,event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag);
-    supervisionAppender.addSupervisionQuality(dataTag2,event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag2);
+    supervisionAppender.addSupervisionQuality(dataTag, event);
+    supervisionAppender.addSupervisionQuality(dataTag2, event);
+    dataTagCache.notifyListenersOfSupervisionChange(Arrays.asList(dataTag, dataTag2));
     supervisionAppender.addSupervisionQuality(ruleTag,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag); //only once although uses triggered by 2 different tags
     supervisionAppender.addSupervisionQuality(ruleTag2,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag2);
     supervisionAppender.addSupervisionQuality(ruleTag3,event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag3);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag, ruleTag2, ruleTag3));
 
     mockControl.replay();
 
@@ -282,16 +278,14 @@ public class SupervisionTagNotifierTest {
     EasyMock.expect(subEquipmentFacade.getDataTagIds(50L)).andReturn(Arrays.asList(102L, 103L));
     EasyMock.expect(tagLocationService.getCopy(102L)).andReturn(dataTag3);
     EasyMock.expect(tagLocationService.getCopy(103L)).andReturn(dataTag4);
-    EasyMock.expect(tagLocationService.getCopy(203L)).andReturn(ruleTag4).times(2);
-    EasyMock.expect(tagLocationService.getCopy(204L)).andReturn(ruleTag5).times(2);
+    EasyMock.expect(tagLocationService.getCopy(203L)).andReturn(ruleTag4);
+    EasyMock.expect(tagLocationService.getCopy(204L)).andReturn(ruleTag5);
     supervisionAppender.addSupervisionQuality(dataTag3, event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag3);
     supervisionAppender.addSupervisionQuality(dataTag4, event);
-    dataTagCache.notifyListenersOfSupervisionChange(dataTag4);
+    dataTagCache.notifyListenersOfSupervisionChange(Arrays.asList(dataTag3, dataTag4));
     supervisionAppender.addSupervisionQuality(ruleTag4, event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag4);
     supervisionAppender.addSupervisionQuality(ruleTag5, event);
-    ruleTagCache.notifyListenersOfSupervisionChange(ruleTag5);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag4, ruleTag5));
 
     mockControl.replay();
 
@@ -299,4 +293,54 @@ public class SupervisionTagNotifierTest {
 
     mockControl.verify();
   }
+
+  /**
+   * Tests the Tags are notified once only when processed in parallel batches.
+   */
+  @Test
+  @DirtiesContext
+  public void testParallelNotification() {
+    SupervisionEvent event = new SupervisionEventImpl(SupervisionEntity.EQUIPMENT, 30L, "E_TEST", SupervisionStatus.DOWN, new Timestamp(System.currentTimeMillis()), "test message");
+    SupervisionProperties properties = new SupervisionProperties();
+    properties.setTagNotificationThreads(4);
+    properties.setTagNotificationBatchSize(1);
+    EasyMock.expect(cacheProvider.getProcessCache()).andReturn(processCache);
+    EasyMock.expect(cacheProvider.getEquipmentCache()).andReturn(equipmentCache);
+    EasyMock.expect(cacheProvider.getSubEquipmentCache()).andReturn(subEquipmentCache);
+    EasyMock.expect(cacheProvider.getDataTagCache()).andReturn(dataTagCache);
+    EasyMock.expect(cacheProvider.getRuleTagCache()).andReturn(ruleTagCache);
+    EasyMock.expect(cacheProvider.getClusterCache()).andReturn(clusterCache);
+    EasyMock.replay(cacheProvider);
+    SupervisionTagNotifier parallelNotifier = new SupervisionTagNotifier(supervisionNotifier, cacheProvider,
+        tagLocationService, supervisionAppender, processFacade,
+        equipmentFacade, subEquipmentFacade, processEventCache, equipmentEventCache, subEquipmentEventCache, properties);
+
+    mockControl.reset();
+    EasyMock.expect(equipmentFacade.getDataTagIds(30L)).andReturn(Arrays.asList(100L, 101L));
+    EasyMock.expect(tagLocationService.getCopy(100L)).andReturn(dataTag);
+    EasyMock.expect(tagLocationService.getCopy(101L)).andReturn(dataTag2);
+    EasyMock.expect(tagLocationService.getCopy(200L)).andReturn(ruleTag);
+    EasyMock.expect(tagLocationService.getCopy(201L)).andReturn(ruleTag2);
+    EasyMock.expect(tagLocationService.getCopy(202L)).andReturn(ruleTag3);
+    supervisionAppender.addSupervisionQuality(dataTag, event);
+    dataTagCache.notifyListenersOfSupervisionChange(Arrays.asList(dataTag));
+    supervisionAppender.addSupervisionQuality(dataTag2, event);
+    dataTagCache.notifyListenersOfSupervisionChange(Arrays.asList(dataTag2));
+    supervisionAppender.addSupervisionQuality(ruleTag, event);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag));
+    supervisionAppender.addSupervisionQuality(ruleTag2, event);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag2));
+    supervisionAppender.addSupervisionQuality(ruleTag3, event);
+    ruleTagCache.notifyListenersOfSupervisionChange(Arrays.asList(ruleTag3));
+
+    mockControl.replay();
+
+    try {
+      parallelNotifier.notifySupervisionEvent(event);
+    } finally {
+      parallelNotifier.shutdown();
+    }
+
+    mockControl.verify();
+  }
 }
@@ -83,4 +83,14 @@ public class ClientJmsProperties extends CommonJmsProperties{
    * Default is 10 seconds
    */
   private long messageTimeToLive = 10_000L;
+
+  /**
+   * Maximum number of tags for which the client subscribes to a tag topic
+   * with a JMS selector on the tag id, so that the broker only forwards the
+   * updates of these tags. Above this number the client receives the whole
+   * topic and drops the updates of unknown tags before decoding them.
+   * Requires a server setting the tag id message property. Default is 0
+   * (no selectors).
+   */
+  private int maxTagsPerSelector = 0;
 }
@@ -24,11 +24,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static cern.c2mon.shared.common.type.TypeConverter.cast;
 import static cern.c2mon.shared.common.type.TypeConverter.getType;
@@ -45,6 +48,13 @@ public class TransferTagSerializer {
 
   private static ObjectMapper mapper = new ObjectMapper();
 
+  /**
+   * Writers per tag update class, with the root serializer resolved once
+   * instead of on every call. The writers use the buffers recycled by the
+   * Jackson factory.
+   */
+  private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
   static {
     mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
@@ -64,7 +74,7 @@ public class TransferTagSerializer {
     String result = null;
 
     try {
-      result = mapper.writeValueAsString(tagUpdate);
+      result = writers.computeIfAbsent(tagUpdate.getClass(), mapper::writerFor).writeValueAsString(tagUpdate);
     } catch (JsonProcessingException e) {
       log.error("Serializing of tagUpdate failed: " + e.getMessage());
     }
@@ -33,6 +33,14 @@ import cern.c2mon.shared.common.datatag.DataTagQuality;
  * @see TagUpdate
  */
 public interface TagValueUpdate extends ClientRequestResult {
+
+  /**
+   * Name of the JMS message property holding the tag id, which is set on
+   * all messages published on the tag topics. It is a string property so
+   * that clients can subscribe with a <code>tagId IN (...)</code> selector.
+   */
+  String TAG_ID_PROPERTY = "tagId";
+
   /**
    * Returns the tag identifier
    * @return the tag identifier
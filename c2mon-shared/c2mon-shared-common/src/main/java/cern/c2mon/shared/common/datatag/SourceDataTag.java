@@ -21,8 +21,11 @@ import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import org.simpleframework.xml.Attribute;
@@ -35,6 +38,8 @@ import cern.c2mon.shared.common.datatag.address.HardwareAddress;
 import cern.c2mon.shared.common.datatag.util.JmsMessagePriority;
 import cern.c2mon.shared.common.datatag.util.ValueDeadbandType;
 import cern.c2mon.shared.common.type.TypeConverter;
+import cern.c2mon.shared.common.type.ValueConverter;
+import cern.c2mon.shared.common.type.ValueConverterRegistry;
 
 /**
  * The SourceDataTag class is the representation of a DataTag on the driver side. It contains all tag-specific
@@ -95,6 +100,11 @@ public class SourceDataTag implements Cloneable, ISourceDataTag {
     /** Current value of the SourceDataTag */
     private SourceDataTagValue currentValue;
 
+    /** Converter of the tag's data type, resolved on first use */
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient ValueConverter valueConverter;
+
     /**
      * Creates a new SourceDataTag
      *
@@ -127,6 +137,32 @@ public class SourceDataTag implements Cloneable, ISourceDataTag {
         adjustJmsPriority();
     }
 
+    /**
+     * Sets the data type of the tag's values.
+     *
+     * @param dataType The data type of this tag.
+     */
+    public void setDataType(final String dataType) {
+        this.dataType = dataType;
+        this.valueConverter = null;
+    }
+
+    /**
+     * Gets the converter of the tag's data type, which is resolved once
+     * and then kept with the tag.
+     *
+     * @return The value converter of this tag.
+     */
+    @JsonIgnore
+    public ValueConverter getValueConverter() {
+        ValueConverter converter = this.valueConverter;
+        if (converter == null) {
+            converter = ValueConverterRegistry.getConverter(this.dataType);
+            this.valueConverter = converter;
+        }
+        return converter;
+    }
+
     /**
      * Checks if the data tag is in operation mode.
      *
@@ -19,6 +19,7 @@ package cern.c2mon.shared.common.process;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -121,6 +122,13 @@ public class EquipmentConfiguration implements IEquipmentConfiguration, Cloneabl
    */
   private Map<Long, SourceDataTag> sourceDataTags = new ConcurrentHashMap<>();
 
+  /**
+   * Lower case tag name -> tag id of the source data tags. Entries are
+   * verified against {@link #sourceDataTags} on lookup, so that tags added,
+   * removed or renamed directly in the live map are still found.
+   */
+  private final Map<String, Long> sourceDataTagIdsByName = new ConcurrentHashMap<>();
+
   /**
    * Only used internally to deserialise from XML! Please use {@link #sourceDataTags} instead
    * The list of SourceDataTags that will be deserialised and converted to the
@@ -157,7 +165,7 @@ public class EquipmentConfiguration implements IEquipmentConfiguration, Cloneabl
     }
 
     for (SourceDataTag tag : sourceDataTagList) {
-      sourceDataTags.put(tag.getId(), tag);
+      putSourceDataTag(tag);
     }
 
     for (SourceCommandTag tag : sourceCommandTagList) {
@@ -409,6 +417,48 @@ public class EquipmentConfiguration implements IEquipmentConfiguration, Cloneabl
     return sourceDataTags;
   }
 
+  /**
+   * Adds the data tag to the equipment, or replaces the data tag with the
+   * same id.
+   *
+   * @param sourceDataTag The data tag to add.
+   */
+  public void putSourceDataTag(final SourceDataTag sourceDataTag) {
+    SourceDataTag previous = sourceDataTags.put(sourceDataTag.getId(), sourceDataTag);
+    if (previous != null && previous.getName() != null) {
+      sourceDataTagIdsByName.remove(toNameKey(previous.getName()), previous.getId());
+    }
+    indexSourceDataTagName(sourceDataTag);
+  }
+
+  /**
+   * Removes the data tag with the given id from the equipment.
+   *
+   * @param dataTagId The id of the data tag to remove.
+   * @return The removed data tag or null if there was no data tag for the id.
+   */
+  public SourceDataTag removeSourceDataTag(final Long dataTagId) {
+    SourceDataTag removed = sourceDataTags.remove(dataTagId);
+    if (removed != null && removed.getName() != null) {
+      sourceDataTagIdsByName.remove(toNameKey(removed.getName()), dataTagId);
+    }
+    return removed;
+  }
+
+  /**
+   * Updates the name index after the name of a data tag has been changed
+   * in place.
+   *
+   * @param sourceDataTag The renamed data tag.
+   * @param oldName The previous name of the data tag.
+   */
+  public void updateSourceDataTagName(final SourceDataTag sourceDataTag, final String oldName) {
+    if (oldName != null) {
+      sourceDataTagIdsByName.remove(toNameKey(oldName), sourceDataTag.getId());
+    }
+    indexSourceDataTagName(sourceDataTag);
+  }
+
   /**
    * Returns a copy of the map of command tags. Adding tags to this map will not
    * affect the rest of the application.
@@ -460,14 +510,38 @@ public class EquipmentConfiguration implements IEquipmentConfiguration, Cloneabl
 
   @Override
   public Long getSourceDataTagIdByName(String name) {
-   SourceDataTag tag = sourceDataTags.values().stream()
+    if (name != null) {
+      String key = toNameKey(name);
+      Long id = sourceDataTagIdsByName.get(key);
+      if (id != null) {
+        SourceDataTag tag = sourceDataTags.get(id);
+        if (tag != null && name.equalsIgnoreCase(tag.getName())) {
+          return id;
+        }
+        sourceDataTagIdsByName.remove(key, id);
+      }
+    }
+
+    // not (or no longer) indexed, e.g. because the live map was modified directly
+    SourceDataTag tag = sourceDataTags.values().stream()
         .filter(t -> t.getName().equalsIgnoreCase(name))
         .findFirst()
         .orElseThrow(() -> new IllegalArgumentException("No SourceDataTag with the name " + name + " attached to the equipment."));
 
+    indexSourceDataTagName(tag);
     return tag.getId();
   }
 
+  private void indexSourceDataTagName(final SourceDataTag sourceDataTag) {
+    if (sourceDataTag.getName() != null) {
+      sourceDataTagIdsByName.put(toNameKey(sourceDataTag.getName()), sourceDataTag.getId());
+    }
+  }
+
+  private static String toNameKey(final String name) {
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+
   /**
    * Clones the equipment configuration. Be careful The contained maps will NOT
    * be cloned. So if you try to access for example the contained data tags the
@@ -538,26 +538,13 @@ public final class TypeConverter  {
     Object result = null;
 
     if (value != null && className != null && !className.isEmpty()) {
-      try {
-
-        Class<?> type = getType(className);
+      ValueConverter converter = ValueConverterRegistry.getConverter(className);
 
-        if (type != null) {
-
-          if (type.equals(String.class)) {
-            result = value.toString();
-          } else {
-            result = castToType(value, type);
-          }
-        }
-
-        if (result == null) {
-          log.error("Conversion error: Could not cast input value [" + value + "] of type "
-              + value.getClass().getName() + " to resulting type " + className);
-        }
-      } catch (ClassCastException cce) {
-        log.error("Conversion error: {}", cce.getMessage());
-        result = null;
+      if (converter.isKnownType()) {
+        result = converter.convert(value);
+      } else {
+        log.error("Conversion error: Could not cast input value [" + value + "] of type "
+            + value.getClass().getName() + " to resulting type " + className);
       }
     }
 
@@ -594,17 +581,7 @@ public final class TypeConverter  {
    * @return the class for the given name if known, {@literal null} otherwise
    */
   public static Class<?> getType(String typeName) {
-    if (typeName == null) {
-      return null;
-    }
-
-    String fullPath = typeName.contains(".") ? typeName : JAVA_LANG_PREFIX + typeName;
-
-    try {
-      return Class.forName(fullPath);
-    } catch (ClassNotFoundException e) {
-      return null;
-    }
+    return ValueConverterRegistry.getConverter(typeName).getType();
   }
 
   /**
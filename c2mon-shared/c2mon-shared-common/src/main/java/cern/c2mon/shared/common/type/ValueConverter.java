@@ -0,0 +1,72 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.common.type;
+
+/**
+ * Converts raw tag values into the data type of a tag. Converters are
+ * obtained from the {@link ValueConverterRegistry}, which resolves the data
+ * type once and returns a converter specialised for it.
+ *
+ * @see ValueConverterRegistry#getConverter(String)
+ */
+public interface ValueConverter {
+
+  /**
+   * @return the class of the data type, or {@literal null} if the data type
+   *         is not a known class
+   */
+  Class<?> getType();
+
+  /**
+   * @return <code>true</code>, if the data type is a known class
+   */
+  default boolean isKnownType() {
+    return getType() != null;
+  }
+
+  /**
+   * @return <code>true</code>, if the data type is a subclass of {@link Number}
+   */
+  boolean isNumber();
+
+  /**
+   * Tries to cast the given value into the data type. Behaves like
+   * {@link TypeConverter#cast(Object, String)}.
+   *
+   * @param value The object to be casted
+   * @return The casted object or <code>null</code>, if casting wasn't possible
+   */
+  Object convert(Object value);
+
+  /**
+   * @param value The object to be casted
+   * @return <code>true</code>, if the value can be casted into the data type
+   */
+  default boolean isConvertible(Object value) {
+    return convert(value) != null;
+  }
+
+  /**
+   * Checks whether the value can be mapped onto an instance of the data type,
+   * e.g. a POJO of another class with the same properties.
+   *
+   * @param value The object to be mapped
+   * @return <code>true</code>, if an instance of the data type can be created
+   *         from the value
+   */
+  boolean isInstantiable(Object value);
+}
@@ -0,0 +1,244 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.common.type;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the {@link ValueConverter}s of all data types. The class of a
+ * data type is resolved only once, when its converter is first requested:
+ * <ul>
+ * <li><code>String</code> values are converted with {@link Object#toString()}</li>
+ * <li>Enum constants are looked up by name in a map</li>
+ * <li>All other known classes are converted with {@link TypeConverter#castToType(Object, Class)}
+ * if the value is not already an instance of the class</li>
+ * <li>Unknown classes (e.g. <code>ArbitraryObject</code>) are not converted at all</li>
+ * </ul>
+ *
+ * <p>Data types whose class cannot be found are not registered, so that a
+ * class made available later on is still picked up.
+ *
+ * <p>Whether a POJO data type can be instantiated from a value of another
+ * class is checked on every call with a Jackson conversion, since the
+ * outcome depends on the content of the value. The value is converted
+ * through a token buffer, without being written to a JSON string.
+ */
+@Slf4j
+public final class ValueConverterRegistry {
+
+  private static final String JAVA_LANG_PREFIX = "java.lang.";
+
+  private static final Map<String, ValueConverter> converters = new ConcurrentHashMap<>();
+
+  private static final ObjectMapper mapper = new ObjectMapper()
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  /**
+   * Hidden default constructor
+   */
+  private ValueConverterRegistry() {
+    // Do nothing
+  }
+
+  /**
+   * @param dataType a simple class name within the java.lang.* package or the
+   *                 fully qualified class name
+   * @return the converter of the given data type, never {@literal null}
+   */
+  public static ValueConverter getConverter(final String dataType) {
+    if (dataType == null || dataType.isEmpty()) {
+      return UnknownTypeConverter.INSTANCE;
+    }
+    ValueConverter converter = converters.computeIfAbsent(dataType, ValueConverterRegistry::createConverter);
+    return converter != null ? converter : UnknownTypeConverter.INSTANCE;
+  }
+
+  /**
+   * @return the converter of the data type, or <code>null</code> if its class
+   *         cannot be found, in which case nothing is registered
+   */
+  private static ValueConverter createConverter(final String dataType) {
+    Class<?> type = loadClass(dataType);
+    if (type == null) {
+      return null;
+    } else if (type.equals(String.class)) {
+      return new StringConverter();
+    } else if (type.isEnum()) {
+      return new EnumConverter(type);
+    } else if (type.getName().startsWith(JAVA_LANG_PREFIX)) {
+      return new ClassConverter(type);
+    } else {
+      return new PojoConverter(type);
+    }
+  }
+
+  private static Class<?> loadClass(final String dataType) {
+    String fullPath = dataType.contains(".") ? dataType : JAVA_LANG_PREFIX + dataType;
+    try {
+      return Class.forName(fullPath);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Converter of the data types which are not known classes. Does not
+   * convert any value.
+   */
+  private static final class UnknownTypeConverter implements ValueConverter {
+
+    private static final UnknownTypeConverter INSTANCE = new UnknownTypeConverter();
+
+    @Override
+    public Class<?> getType() {
+      return null;
+    }
+
+    @Override
+    public boolean isNumber() {
+      return false;
+    }
+
+    @Override
+    public Object convert(final Object value) {
+      return null;
+    }
+
+    @Override
+    public boolean isInstantiable(final Object value) {
+      return false;
+    }
+  }
+
+  /**
+   * Converter of all known classes, casting the values with the
+   * {@link TypeConverter}.
+   */
+  private static class ClassConverter implements ValueConverter {
+
+    protected final Class<?> type;
+
+    private final boolean number;
+
+    ClassConverter(final Class<?> type) {
+      this.type = type;
+      this.number = Number.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Class<?> getType() {
+      return type;
+    }
+
+    @Override
+    public boolean isNumber() {
+      return number;
+    }
+
+    @Override
+    public Object convert(final Object value) {
+      if (value == null) {
+        return null;
+      }
+      if (type.isInstance(value)) {
+        return value;
+      }
+
+      Object result = null;
+      try {
+        result = doConvert(value);
+        if (result == null) {
+          log.error("Conversion error: Could not cast input value [" + value + "] of type "
+              + value.getClass().getName() + " to resulting type " + type.getName());
+        }
+      } catch (ClassCastException cce) {
+        log.error("Conversion error: {}", cce.getMessage());
+      }
+      return result;
+    }
+
+    /**
+     * Converts a value which is not an instance of the data type.
+     */
+    protected Object doConvert(final Object value) {
+      return TypeConverter.castToType(value, type);
+    }
+
+    @Override
+    public boolean isInstantiable(final Object value) {
+      return type.isInstance(value);
+    }
+  }
+
+  private static final class StringConverter extends ClassConverter {
+
+    StringConverter() {
+      super(String.class);
+    }
+
+    @Override
+    protected Object doConvert(final Object value) {
+      return value.toString();
+    }
+  }
+
+  private static final class EnumConverter extends ClassConverter {
+
+    private final Map<String, Object> constants = new HashMap<>();
+
+    EnumConverter(final Class<?> type) {
+      super(type);
+      for (Object constant : type.getEnumConstants()) {
+        constants.put(((Enum<?>) constant).name(), constant);
+      }
+    }
+
+    @Override
+    protected Object doConvert(final Object value) {
+      Object constant = value instanceof String ? constants.get(value) : null;
+      return constant != null ? constant : super.doConvert(value);
+    }
+  }
+
+  private static final class PojoConverter extends ClassConverter {
+
+    PojoConverter(final Class<?> type) {
+      super(type);
+    }
+
+    @Override
+    public boolean isInstantiable(final Object value) {
+      if (value == null) {
+        return false;
+      }
+      if (type.isInstance(value)) {
+        return true;
+      }
+      try {
+        return mapper.convertValue(value, type) != null;
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
+    }
+  }
+}
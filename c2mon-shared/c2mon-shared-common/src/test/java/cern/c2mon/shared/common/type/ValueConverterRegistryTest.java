@@ -0,0 +1,114 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.common.type;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import cern.c2mon.shared.common.supervision.SupervisionConstants.SupervisionStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ValueConverterRegistryTest {
+
+  @Test
+  public void testConverterIsResolvedOnce() {
+    ValueConverter converter = ValueConverterRegistry.getConverter("Integer");
+    assertSame(converter, ValueConverterRegistry.getConverter("Integer"));
+    assertEquals(Integer.class, converter.getType());
+    assertEquals(Integer.class, ValueConverterRegistry.getConverter("java.lang.Integer").getType());
+  }
+
+  @Test
+  public void testUnknownType() {
+    ValueConverter converter = ValueConverterRegistry.getConverter("ArbitraryObject");
+    assertFalse(converter.isKnownType());
+    assertFalse(converter.isNumber());
+    assertNull(converter.convert(25));
+    assertFalse(converter.isInstantiable(25));
+    assertFalse(ValueConverterRegistry.getConverter(null).isKnownType());
+    assertFalse(ValueConverterRegistry.getConverter("").isKnownType());
+  }
+
+  @Test
+  public void testNumberConversion() {
+    ValueConverter converter = ValueConverterRegistry.getConverter("Double");
+    assertTrue(converter.isNumber());
+    assertEquals(25.0, converter.convert(25));
+    assertEquals(25.0, converter.convert("25"));
+    assertNull(converter.convert("not a number"));
+    assertFalse(ValueConverterRegistry.getConverter("Boolean").isNumber());
+  }
+
+  @Test
+  public void testStringConversion() {
+    ValueConverter converter = ValueConverterRegistry.getConverter("String");
+    assertEquals("25.0", converter.convert(25.0));
+    assertEquals("true", converter.convert(true));
+  }
+
+  @Test
+  public void testEnumConversion() {
+    ValueConverter converter = ValueConverterRegistry.getConverter(SupervisionStatus.class.getName());
+    assertEquals(SupervisionStatus.DOWN, converter.convert("DOWN"));
+    assertEquals(SupervisionStatus.DOWN, converter.convert("down"));
+    assertEquals(SupervisionStatus.DOWN, converter.convert(SupervisionStatus.DOWN));
+    assertNull(converter.convert("UNKNOWN_STATUS"));
+  }
+
+  @Test
+  public void testPojoInstantiation() {
+    ValueConverter converter = ValueConverterRegistry.getConverter(Point.class.getName());
+    assertTrue(converter.isInstantiable(new Point()));
+    assertTrue(converter.isInstantiable(new OtherPoint()));
+    assertFalse(converter.isInstantiable("not a point"));
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("x", 1);
+    assertTrue(converter.isInstantiable(map));
+    map.put("x", "not a number");
+    assertFalse(converter.isInstantiable(map));
+
+    // the outcome depends on the content, not only on the class of the value
+    UntypedPoint point = new UntypedPoint();
+    point.x = 1;
+    assertTrue(converter.isInstantiable(point));
+    point.x = "not a number";
+    assertFalse(converter.isInstantiable(point));
+  }
+
+  public static class Point {
+    public int x;
+    public int y;
+  }
+
+  public static class OtherPoint {
+    public int x;
+    public int y;
+    public int z;
+  }
+
+  public static class UntypedPoint {
+    public Object x;
+  }
+}
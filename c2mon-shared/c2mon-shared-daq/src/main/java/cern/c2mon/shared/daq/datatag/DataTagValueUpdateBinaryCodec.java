@@ -0,0 +1,514 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.daq.datatag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
+
+/**
+ * Compact binary encoding of {@link DataTagValueUpdate} messages sent from the
+ * DAQ layer to the server.
+ *
+ * <p>A frame starts with a version byte and a flag byte, followed by the
+ * (optionally deflated) body. All ids and integers are written as varints,
+ * timestamps in milliseconds (like the JSON encoding) and strings in UTF-8.
+ * The tag values are written with a type marker and their raw content, so the
+ * value type of the DAQ is preserved. Values which are neither a Java
+ * primitive wrapper nor a String (arrays and arbitrary objects) are embedded
+ * as JSON, using the same mapper configuration as the JSON encoding.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class DataTagValueUpdateBinaryCodec {
+
+  /** Version of the binary frame layout */
+  static final byte VERSION = 1;
+
+  /** Flag set if the frame body is deflated */
+  private static final int FLAG_DEFLATED = 1;
+
+  /** Default body size in bytes above which frames are compressed */
+  public static final int DEFAULT_COMPRESSION_THRESHOLD = 8192;
+
+  private static final int VALUE_CONTROL_TAG = 1;
+  private static final int VALUE_GUARANTEED_DELIVERY = 1 << 1;
+  private static final int VALUE_SIMULATED = 1 << 2;
+  private static final int VALUE_HAS_QUALITY = 1 << 3;
+  private static final int VALUE_HAS_TIMESTAMP = 1 << 4;
+  private static final int VALUE_HAS_DAQ_TIMESTAMP = 1 << 5;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_BYTE = 2;
+  private static final byte TYPE_SHORT = 3;
+  private static final byte TYPE_INTEGER = 4;
+  private static final byte TYPE_LONG = 5;
+  private static final byte TYPE_FLOAT = 6;
+  private static final byte TYPE_DOUBLE = 7;
+  private static final byte TYPE_STRING = 8;
+  private static final byte TYPE_CHARACTER = 9;
+  private static final byte TYPE_JSON = 15;
+
+  /** Quality codes indexed by their numeric code */
+  private static final SourceDataTagQualityCode[] QUALITY_CODES;
+
+  static {
+    int max = 0;
+    for (SourceDataTagQualityCode code : SourceDataTagQualityCode.values()) {
+      max = Math.max(max, code.getQualityCode());
+    }
+    QUALITY_CODES = new SourceDataTagQualityCode[max + 1];
+    for (SourceDataTagQualityCode code : SourceDataTagQualityCode.values()) {
+      QUALITY_CODES[code.getQualityCode()] = code;
+    }
+  }
+
+  /**
+   * Used for the values which are not encoded natively.
+   */
+  private final ObjectMapper mapper;
+
+  private final int compressionThreshold;
+
+  /**
+   * @param mapper the mapper used for encoding values of other than primitive
+   *               types, should be configured like the one of the JSON encoding
+   * @param compressionThreshold body size in bytes above which a frame is
+   *                             deflated, or a negative value to never
+   *                             compress
+   */
+  public DataTagValueUpdateBinaryCodec(final ObjectMapper mapper, final int compressionThreshold) {
+    this.mapper = mapper;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Encodes the update into a binary frame.
+   *
+   * @param update the update to encode
+   * @return the encoded frame
+   * @throws IOException if a value cannot be encoded
+   */
+  public byte[] encode(final DataTagValueUpdate update) throws IOException {
+    Writer body = new Writer(update.getValues() == null ? 32 : 32 + 64 * update.getValues().size());
+    body.writeNullableLong(update.getProcessId());
+    body.writeNullableLong(update.getProcessPIK());
+    if (update.getValues() == null) {
+      body.writeVarLong(0);
+    } else {
+      body.writeVarLong(update.getValues().size() + 1L);
+      for (SourceDataTagValue value : update.getValues()) {
+        writeValue(body, value);
+      }
+    }
+
+    if (compressionThreshold >= 0 && body.size > compressionThreshold) {
+      byte[] deflated = deflate(body.buffer, body.size);
+      if (deflated != null) {
+        Writer frame = new Writer(deflated.length + 8);
+        frame.writeByte(VERSION);
+        frame.writeByte(FLAG_DEFLATED);
+        frame.writeVarLong(body.size);
+        frame.writeBytes(deflated, 0, deflated.length);
+        return frame.toByteArray();
+      }
+    }
+    Writer frame = new Writer(body.size + 2);
+    frame.writeByte(VERSION);
+    frame.writeByte(0);
+    frame.writeBytes(body.buffer, 0, body.size);
+    return frame.toByteArray();
+  }
+
+  /**
+   * Decodes a binary frame.
+   *
+   * @param frame the frame produced by {@link #encode(DataTagValueUpdate)}
+   * @return the decoded update
+   * @throws IOException if the frame is corrupted or of an unsupported version
+   */
+  public DataTagValueUpdate decode(final byte[] frame) throws IOException {
+    if (frame.length < 2) {
+      throw new IOException("Binary update frame is too short: " + frame.length + " bytes");
+    }
+    if (frame[0] != VERSION) {
+      throw new IOException("Unsupported binary update frame version: " + frame[0]);
+    }
+    Reader reader = new Reader(frame, 2, frame.length);
+    if ((frame[1] & FLAG_DEFLATED) != 0) {
+      int size = (int) reader.readVarLong();
+      reader = new Reader(inflate(frame, reader.position, size), 0, size);
+    }
+
+    Long processId = reader.readNullableLong();
+    Long processPIK = reader.readNullableLong();
+    DataTagValueUpdate update = new DataTagValueUpdate(processId, processPIK);
+    int count = (int) reader.readVarLong() - 1;
+    if (count < 0) {
+      update.setValues(null);
+    } else {
+      ArrayList<SourceDataTagValue> values = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        values.add(readValue(reader));
+      }
+      update.setValues(values);
+    }
+    return update;
+  }
+
+  private void writeValue(final Writer writer, final SourceDataTagValue value) throws IOException {
+    int flags = 0;
+    if (value.isControlTag()) {
+      flags |= VALUE_CONTROL_TAG;
+    }
+    if (value.isGuaranteedDelivery()) {
+      flags |= VALUE_GUARANTEED_DELIVERY;
+    }
+    if (value.isSimulated()) {
+      flags |= VALUE_SIMULATED;
+    }
+    // the getter creates a default quality if none is set
+    SourceDataTagQuality quality = value.getQuality();
+    if (quality != null) {
+      flags |= VALUE_HAS_QUALITY;
+    }
+    if (value.getTimestamp() != null) {
+      flags |= VALUE_HAS_TIMESTAMP;
+    }
+    if (value.getDaqTimestamp() != null) {
+      flags |= VALUE_HAS_DAQ_TIMESTAMP;
+    }
+
+    writer.writeNullableLong(value.getId());
+    writer.writeVarLong(flags);
+    writer.writeString(value.getName());
+    writeTagValue(writer, value.getValue());
+    writer.writeString(value.getValueDescription());
+    if (quality != null) {
+      SourceDataTagQualityCode code = quality.getQualityCode();
+      writer.writeVarLong(code == null ? 0 : code.getQualityCode() + 1L);
+      writer.writeString(quality.getDescription());
+    }
+    if (value.getTimestamp() != null) {
+      writer.writeZigZag(value.getTimestamp().getTime());
+    }
+    if (value.getDaqTimestamp() != null) {
+      writer.writeZigZag(value.getDaqTimestamp().getTime());
+    }
+    writer.writeZigZag(value.getPriority());
+    writer.writeZigZag(value.getTimeToLive());
+  }
+
+  private SourceDataTagValue readValue(final Reader reader) throws IOException {
+    SourceDataTagValue value = new SourceDataTagValue();
+    value.setId(reader.readNullableLong());
+    int flags = (int) reader.readVarLong();
+    value.setControlTag((flags & VALUE_CONTROL_TAG) != 0);
+    value.setGuaranteedDelivery((flags & VALUE_GUARANTEED_DELIVERY) != 0);
+    value.setSimulated((flags & VALUE_SIMULATED) != 0);
+    value.setName(reader.readString());
+    value.setValue(readTagValue(reader));
+    value.setValueDescription(reader.readString());
+    if ((flags & VALUE_HAS_QUALITY) != 0) {
+      int code = (int) reader.readVarLong() - 1;
+      SourceDataTagQuality quality = new SourceDataTagQuality(toQualityCode(code));
+      quality.setDescription(reader.readString());
+      value.setQuality(quality);
+    }
+    if ((flags & VALUE_HAS_TIMESTAMP) != 0) {
+      value.setTimestamp(new Timestamp(reader.readZigZag()));
+    }
+    if ((flags & VALUE_HAS_DAQ_TIMESTAMP) != 0) {
+      value.setDaqTimestamp(new Timestamp(reader.readZigZag()));
+    }
+    value.setPriority((int) reader.readZigZag());
+    value.setTimeToLive(reader.readZigZag());
+    return value;
+  }
+
+  private void writeTagValue(final Writer writer, final Object value) throws IOException {
+    if (value == null) {
+      writer.writeByte(TYPE_NULL);
+    } else if (value instanceof Boolean) {
+      writer.writeByte(TYPE_BOOLEAN);
+      writer.writeByte((Boolean) value ? 1 : 0);
+    } else if (value instanceof Integer) {
+      writer.writeByte(TYPE_INTEGER);
+      writer.writeZigZag((Integer) value);
+    } else if (value instanceof Long) {
+      writer.writeByte(TYPE_LONG);
+      writer.writeZigZag((Long) value);
+    } else if (value instanceof Double) {
+      writer.writeByte(TYPE_DOUBLE);
+      writer.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+    } else if (value instanceof Float) {
+      writer.writeByte(TYPE_FLOAT);
+      writer.writeFixedInt(Float.floatToRawIntBits((Float) value));
+    } else if (value instanceof String) {
+      writer.writeByte(TYPE_STRING);
+      writer.writeString((String) value);
+    } else if (value instanceof Short) {
+      writer.writeByte(TYPE_SHORT);
+      writer.writeZigZag((Short) value);
+    } else if (value instanceof Byte) {
+      writer.writeByte(TYPE_BYTE);
+      writer.writeByte((Byte) value);
+    } else if (value instanceof Character) {
+      writer.writeByte(TYPE_CHARACTER);
+      writer.writeVarLong((Character) value);
+    } else {
+      writer.writeByte(TYPE_JSON);
+      writer.writeString(mapper.writeValueAsString(value));
+    }
+  }
+
+  private Object readTagValue(final Reader reader) throws IOException {
+    byte type = reader.readByte();
+    switch (type) {
+      case TYPE_NULL:
+        return null;
+      case TYPE_BOOLEAN:
+        return reader.readByte() != 0;
+      case TYPE_BYTE:
+        return reader.readByte();
+      case TYPE_SHORT:
+        return (short) reader.readZigZag();
+      case TYPE_INTEGER:
+        return (int) reader.readZigZag();
+      case TYPE_LONG:
+        return reader.readZigZag();
+      case TYPE_FLOAT:
+        return Float.intBitsToFloat(reader.readFixedInt());
+      case TYPE_DOUBLE:
+        return Double.longBitsToDouble(reader.readFixedLong());
+      case TYPE_STRING:
+        return reader.readString();
+      case TYPE_CHARACTER:
+        return (char) reader.readVarLong();
+      case TYPE_JSON:
+        return mapper.readValue(reader.readString(), Object.class);
+      default:
+        throw new IOException("Unknown value type in binary update frame: " + type);
+    }
+  }
+
+  private static SourceDataTagQualityCode toQualityCode(final int code) {
+    if (code < 0) {
+      return null;
+    }
+    if (code >= QUALITY_CODES.length || QUALITY_CODES[code] == null) {
+      return SourceDataTagQualityCode.UNKNOWN;
+    }
+    return QUALITY_CODES[code];
+  }
+
+  /**
+   * @return the deflated data, or <code>null</code> if it is not smaller than
+   *         the original
+   */
+  private static byte[] deflate(final byte[] data, final int length) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data, 0, length);
+      deflater.finish();
+      byte[] out = new byte[length];
+      int size = 0;
+      while (!deflater.finished() && size < out.length) {
+        size += deflater.deflate(out, size, out.length - size);
+      }
+      return deflater.finished() ? Arrays.copyOf(out, size) : null;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(final byte[] data, final int offset, final int size) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data, offset, data.length - offset);
+      byte[] out = new byte[size];
+      int read = 0;
+      while (read < size && !inflater.finished()) {
+        int n = inflater.inflate(out, read, size - read);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IOException("Truncated binary update frame");
+        }
+        read += n;
+      }
+      return out;
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupted binary update frame", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Growable byte buffer with varint support.
+   */
+  private static final class Writer {
+    private byte[] buffer;
+    private int size;
+
+    private Writer(final int capacity) {
+      buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    private void ensure(final int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+
+    private void writeByte(final int b) {
+      ensure(1);
+      buffer[size++] = (byte) b;
+    }
+
+    private void writeBytes(final byte[] bytes, final int offset, final int length) {
+      ensure(length);
+      System.arraycopy(bytes, offset, buffer, size, length);
+      size += length;
+    }
+
+    private void writeVarLong(long value) {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeZigZag(final long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeNullableLong(final Long value) {
+      if (value == null) {
+        writeByte(0);
+      } else {
+        writeByte(1);
+        writeZigZag(value);
+      }
+    }
+
+    private void writeFixedInt(final int value) {
+      ensure(4);
+      buffer[size++] = (byte) (value >>> 24);
+      buffer[size++] = (byte) (value >>> 16);
+      buffer[size++] = (byte) (value >>> 8);
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeFixedLong(final long value) {
+      writeFixedInt((int) (value >>> 32));
+      writeFixedInt((int) value);
+    }
+
+    private void writeString(final String value) {
+      if (value == null) {
+        writeVarLong(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length + 1L);
+      writeBytes(bytes, 0, bytes.length);
+    }
+
+    private byte[] toByteArray() {
+      return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+  }
+
+  /**
+   * Bounds-checked reader of the {@link Writer} output.
+   */
+  private static final class Reader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    private Reader(final byte[] buffer, final int position, final int limit) {
+      this.buffer = buffer;
+      this.position = position;
+      this.limit = limit;
+    }
+
+    private byte readByte() throws IOException {
+      if (position >= limit) {
+        throw new IOException("Unexpected end of binary update frame");
+      }
+      return buffer[position++];
+    }
+
+    private long readVarLong() throws IOException {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw new IOException("Malformed varint in binary update frame");
+    }
+
+    private long readZigZag() throws IOException {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private Long readNullableLong() throws IOException {
+      return readByte() == 0 ? null : readZigZag();
+    }
+
+    private int readFixedInt() throws IOException {
+      return (readByte() & 0xFF) << 24 | (readByte() & 0xFF) << 16 | (readByte() & 0xFF) << 8 | (readByte() & 0xFF);
+    }
+
+    private long readFixedLong() throws IOException {
+      return ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+    }
+
+    private String readString() throws IOException {
+      int length = (int) readVarLong() - 1;
+      if (length < 0) {
+        return null;
+      }
+      if (length > limit - position) {
+        throw new IOException("Unexpected end of binary update frame");
+      }
+      String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+  }
+}
@@ -24,7 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.jms.support.converter.MessageConversionException;
 import org.springframework.jms.support.converter.MessageConverter;
 
-import javax.annotation.PostConstruct;
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Session;
@@ -32,20 +32,58 @@ import javax.jms.TextMessage;
 import java.io.IOException;
 
 /**
- * Converter class used to convert between JSON messages and
+ * Converter class used to convert between JMS messages and
  * {@link DataTagValueUpdate} instances.
  *
+ * <p>Updates are sent either as JSON {@link TextMessage} (default) or, if the
+ * converter is created with {@link Encoding#BINARY}, as {@link BytesMessage}
+ * encoded by the {@link DataTagValueUpdateBinaryCodec}. Binary messages are
+ * marked with the {@link #ENCODING_PROPERTY}, so the receiving side can decode
+ * updates from DAQs using either encoding.
+ *
  * @author Mark Brightwell
  */
 @Slf4j
 public class DataTagValueUpdateConverter implements MessageConverter {
 
+  /**
+   * Name of the JMS message property holding the {@link Encoding} of the update.
+   */
+  public static final String ENCODING_PROPERTY = "c2monUpdateEncoding";
+
+  /**
+   * The supported wire formats.
+   */
+  public enum Encoding {
+    /** JSON text message, understood by all server versions */
+    JSON,
+    /** Compact binary message, see {@link DataTagValueUpdateBinaryCodec} */
+    BINARY
+  }
+
   private ObjectMapper mapper;
 
+  private final DataTagValueUpdateBinaryCodec binaryCodec;
+
+  /**
+   * The encoding used for outgoing messages.
+   */
+  private final Encoding encoding;
+
   public DataTagValueUpdateConverter() {
+    this(Encoding.JSON);
+  }
+
+  /**
+   * @param encoding the encoding used for sending updates. Incoming messages
+   *                 are always decoded according to their own encoding.
+   */
+  public DataTagValueUpdateConverter(final Encoding encoding) {
     this.mapper = new ObjectMapper();
     mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    this.binaryCodec = new DataTagValueUpdateBinaryCodec(mapper, DataTagValueUpdateBinaryCodec.DEFAULT_COMPRESSION_THRESHOLD);
+    this.encoding = encoding == null ? Encoding.JSON : encoding;
   }
 
   /**
@@ -62,6 +100,11 @@ public class DataTagValueUpdateConverter implements MessageConverter {
       throw new MessageConversionException("Message must not be null!");
     }
 
+    if (message instanceof BytesMessage
+        && Encoding.BINARY.name().equals(message.getStringProperty(ENCODING_PROPERTY))) {
+      return fromBytesMessage((BytesMessage) message);
+    }
+
     if (!(message instanceof TextMessage)) {
       throw new MessageConversionException("Message must be an instance of TextMessage!");
     }
@@ -77,6 +120,21 @@ public class DataTagValueUpdateConverter implements MessageConverter {
     }
   }
 
+  private DataTagValueUpdate fromBytesMessage(final BytesMessage message) throws JMSException {
+    long length = message.getBodyLength();
+    if (length > Integer.MAX_VALUE) {
+      throw new MessageConversionException("Binary update of " + length + " bytes is too large");
+    }
+    byte[] frame = new byte[(int) length];
+    message.readBytes(frame);
+    try {
+      return binaryCodec.decode(frame);
+    } catch (IOException | RuntimeException e) {
+      log.error("Exception caught while decoding incoming binary update", e);
+      throw new MessageConversionException("Exception caught while decoding incoming binary update of " + length + " bytes", e);
+    }
+  }
+
   /**
    * Converts a {@link DataTagValueUpdate} to a JMS {@link Message}
    *
@@ -88,6 +146,19 @@ public class DataTagValueUpdateConverter implements MessageConverter {
    */
   @Override
   public Message toMessage(final Object tag, final Session session) throws JMSException {
+    if (encoding == Encoding.BINARY) {
+      try {
+        BytesMessage message = session.createBytesMessage();
+        message.writeBytes(binaryCodec.encode((DataTagValueUpdate) tag));
+        message.setStringProperty(ENCODING_PROPERTY, Encoding.BINARY.name());
+        return message;
+      } catch (IOException e) {
+        log.error("Exception caught in binary encoding of dataTagValueUpdate", e);
+        throw new MessageConversionException("Exception caught in converting dataTagValueUpdate to a binary message:"
+            + e.getMessage(), e);
+      }
+    }
+
     try {
       String json = mapper.writeValueAsString(tag);
       return session.createTextMessage(json);
@@ -99,4 +170,3 @@ public class DataTagValueUpdateConverter implements MessageConverter {
     }
   }
 }
-
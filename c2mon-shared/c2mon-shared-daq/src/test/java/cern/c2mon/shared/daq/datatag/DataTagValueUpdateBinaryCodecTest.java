@@ -0,0 +1,234 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.daq.datatag;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.jms.BytesMessage;
+import javax.jms.Session;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+import cern.c2mon.shared.common.datatag.SourceDataTagQuality;
+import cern.c2mon.shared.common.datatag.SourceDataTagValue;
+import cern.c2mon.shared.common.datatag.util.SourceDataTagQualityCode;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link DataTagValueUpdateBinaryCodec} and the binary mode of the
+ * {@link DataTagValueUpdateConverter}.
+ */
+public class DataTagValueUpdateBinaryCodecTest {
+
+  private ObjectMapper mapper;
+
+  private DataTagValueUpdateBinaryCodec codec;
+
+  @Before
+  public void setUp() {
+    mapper = new ObjectMapper();
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    codec = new DataTagValueUpdateBinaryCodec(mapper, DataTagValueUpdateBinaryCodec.DEFAULT_COMPRESSION_THRESHOLD);
+  }
+
+  @Test
+  public void testPrimitiveValueTypesArePreserved() throws IOException {
+    Object[] values = new Object[] {null, Boolean.TRUE, Boolean.FALSE, (byte) -3, (short) 300, Integer.MIN_VALUE, -1,
+        Long.MAX_VALUE, 1.5f, Float.NaN, -2.25d, Double.MAX_VALUE, "", "text é中", 'x'};
+
+    for (Object value : values) {
+      SourceDataTagValue decoded = roundTrip(createValue(1L, value)).getValues().iterator().next();
+      assertEquals(value, decoded.getValue());
+      if (value != null) {
+        assertEquals(value.getClass(), decoded.getValue().getClass());
+      }
+    }
+  }
+
+  @Test
+  public void testArraysAndObjectsAreDecodedLikeJson() throws IOException {
+    Object[] values = new Object[] {new Integer[] {1, 2, 3}, new String[] {"a", "b"}, new Double[] {1.1, 2.2}};
+    for (Object value : values) {
+      SourceDataTagValue decoded = roundTrip(createValue(1L, value)).getValues().iterator().next();
+      assertArrayEquals((Object[]) value, (Object[]) decoded.getValue());
+    }
+
+    SourceDataTagValue decoded = roundTrip(createValue(1L, new Pojo("name", 3))).getValues().iterator().next();
+    assertTrue(decoded.getValue() instanceof Map);
+    assertEquals("name", ((Map<?, ?>) decoded.getValue()).get("field"));
+    assertEquals(3, ((Map<?, ?>) decoded.getValue()).get("number"));
+  }
+
+  @Test
+  public void testAllFieldsArePreserved() throws IOException {
+    DataTagValueUpdate update = new DataTagValueUpdate(90L, 123456L);
+    SourceDataTagValue value = createValue(Long.MAX_VALUE, 42.0f);
+    value.setControlTag(true);
+    value.setGuaranteedDelivery(true);
+    value.setSimulated(true);
+    value.setPriority(9);
+    value.setTimeToLive(-1);
+    value.setValueDescription("description");
+    value.setQuality(new SourceDataTagQuality(SourceDataTagQualityCode.OUT_OF_BOUNDS, "too high"));
+    update.addValue(value);
+    SourceDataTagValue noTimestamps = createValue(-5L, null);
+    noTimestamps.setTimestamp(null);
+    noTimestamps.setDaqTimestamp(null);
+    update.addValue(noTimestamps);
+
+    DataTagValueUpdate decoded = roundTrip(update);
+
+    assertEquals(Long.valueOf(90L), decoded.getProcessId());
+    assertEquals(Long.valueOf(123456L), decoded.getProcessPIK());
+    assertEquals(new ArrayList<>(update.getValues()), new ArrayList<>(decoded.getValues()));
+    assertEquals(-1L, decoded.getValues().iterator().next().getTimeToLive());
+  }
+
+  @Test
+  public void testNullHeaderFields() throws IOException {
+    DataTagValueUpdate decoded = roundTrip(new DataTagValueUpdate(null, (ArrayList<SourceDataTagValue>) null));
+    assertNull(decoded.getProcessId());
+    assertNull(decoded.getProcessPIK());
+    assertNull(decoded.getValues());
+  }
+
+  @Test
+  public void testLargeFramesAreCompressed() throws IOException {
+    DataTagValueUpdate update = createBatch(1000);
+    byte[] compressed = codec.encode(update);
+    byte[] uncompressed = new DataTagValueUpdateBinaryCodec(mapper, -1).encode(update);
+
+    assertTrue(compressed.length < uncompressed.length);
+    assertEquals(new ArrayList<>(update.getValues()), new ArrayList<>(codec.decode(compressed).getValues()));
+    assertEquals(new ArrayList<>(update.getValues()), new ArrayList<>(codec.decode(uncompressed).getValues()));
+  }
+
+  @Test
+  public void testCorruptedFramesAreRejected() throws IOException {
+    byte[] frame = codec.encode(createBatch(10));
+    for (byte[] corrupted : new byte[][] {new byte[0], Arrays.copyOf(frame, frame.length / 2), {99, 0, 0}}) {
+      try {
+        codec.decode(corrupted);
+        fail("Corrupted frame must not be decoded");
+      } catch (IOException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testConverterBinaryRoundTrip() throws Exception {
+    DataTagValueUpdate update = createBatch(5);
+    Capture<byte[]> frame = EasyMock.newCapture();
+
+    BytesMessage sent = EasyMock.createMock(BytesMessage.class);
+    Session session = EasyMock.createMock(Session.class);
+    EasyMock.expect(session.createBytesMessage()).andReturn(sent);
+    sent.writeBytes(EasyMock.capture(frame));
+    sent.setStringProperty(DataTagValueUpdateConverter.ENCODING_PROPERTY, "BINARY");
+    EasyMock.replay(session, sent);
+
+    new DataTagValueUpdateConverter(DataTagValueUpdateConverter.Encoding.BINARY).toMessage(update, session);
+    EasyMock.verify(session, sent);
+
+    BytesMessage received = EasyMock.createMock(BytesMessage.class);
+    EasyMock.expect(received.getStringProperty(DataTagValueUpdateConverter.ENCODING_PROPERTY)).andReturn("BINARY");
+    EasyMock.expect(received.getBodyLength()).andReturn((long) frame.getValue().length);
+    EasyMock.expect(received.readBytes(EasyMock.<byte[]>anyObject())).andAnswer(() -> {
+      byte[] target = (byte[]) EasyMock.getCurrentArguments()[0];
+      System.arraycopy(frame.getValue(), 0, target, 0, target.length);
+      return target.length;
+    });
+    EasyMock.replay(received);
+
+    DataTagValueUpdate decoded = (DataTagValueUpdate) new DataTagValueUpdateConverter().fromMessage(received);
+    assertEquals(new ArrayList<>(update.getValues()), new ArrayList<>(decoded.getValues()));
+  }
+
+  private DataTagValueUpdate roundTrip(final DataTagValueUpdate update) throws IOException {
+    return codec.decode(codec.encode(update));
+  }
+
+  private DataTagValueUpdate roundTrip(final SourceDataTagValue value) throws IOException {
+    DataTagValueUpdate update = new DataTagValueUpdate(1L, 100000L);
+    update.addValue(value);
+    return roundTrip(update);
+  }
+
+  static DataTagValueUpdate createBatch(final int size) {
+    DataTagValueUpdate update = new DataTagValueUpdate(90L, 123456L);
+    for (int i = 0; i < size; i++) {
+      Object value;
+      switch (i % 4) {
+        case 0:
+          value = i * 1.5d;
+          break;
+        case 1:
+          value = i;
+          break;
+        case 2:
+          value = i % 3 == 0;
+          break;
+        default:
+          value = "value " + i;
+      }
+      update.addValue(createValue(100000L + i, value));
+    }
+    return update;
+  }
+
+  static SourceDataTagValue createValue(final Long id, final Object value) {
+    long now = System.currentTimeMillis();
+    return SourceDataTagValue.builder()
+        .id(id)
+        .name("P_TEST:EQ_TEST:TAG_" + id)
+        .value(value)
+        .valueDescription("")
+        .quality(new SourceDataTagQuality())
+        .timestamp(new Timestamp(now - 5))
+        .daqTimestamp(new Timestamp(now))
+        .priority(2)
+        .timeToLive(3600000)
+        .build();
+  }
+
+  public static class Pojo {
+    public String field;
+    public int number;
+
+    Pojo(final String field, final int number) {
+      this.field = field;
+      this.number = number;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.daq.datatag;
+
+import java.util.ArrayList;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+
+import cern.c2mon.shared.common.datatag.DataTagValueUpdate;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares encoding and decoding times and message sizes of the JSON and
+ * binary update encodings, on batches of the default
+ * <code>maxMessageFrameSize</code> of the DAQ.
+ *
+ * <p>Not part of the default build, run with <code>mvn test -Pbenchmark</code>.
+ */
+@Slf4j
+public class DataTagValueUpdateCodecBenchmark {
+
+  private static final int FRAME_SIZE = 1000;
+
+  private static final int WARMUP_ROUNDS = 200;
+
+  private static final int ROUNDS = 200;
+
+  @Test
+  public void compareJsonAndBinary() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
+    DataTagValueUpdateBinaryCodec binary = new DataTagValueUpdateBinaryCodec(mapper, -1);
+    DataTagValueUpdateBinaryCodec compressed =
+        new DataTagValueUpdateBinaryCodec(mapper, DataTagValueUpdateBinaryCodec.DEFAULT_COMPRESSION_THRESHOLD);
+    DataTagValueUpdate update = DataTagValueUpdateBinaryCodecTest.createBatch(FRAME_SIZE);
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      mapper.readValue(mapper.writeValueAsString(update), DataTagValueUpdate.class);
+      binary.decode(binary.encode(update));
+      compressed.decode(compressed.encode(update));
+    }
+
+    String json = null;
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      json = mapper.writeValueAsString(update);
+    }
+    long jsonEncode = System.nanoTime() - start;
+    DataTagValueUpdate fromJson = null;
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      fromJson = mapper.readValue(json, DataTagValueUpdate.class);
+    }
+    long jsonDecode = System.nanoTime() - start;
+
+    byte[] frame = null;
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      frame = binary.encode(update);
+    }
+    long binaryEncode = System.nanoTime() - start;
+    DataTagValueUpdate fromBinary = null;
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      fromBinary = binary.decode(frame);
+    }
+    long binaryDecode = System.nanoTime() - start;
+
+    byte[] compressedFrame = null;
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      compressedFrame = compressed.encode(update);
+    }
+    long compressedEncode = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      compressed.decode(compressedFrame);
+    }
+    long compressedDecode = System.nanoTime() - start;
+
+    assertEquals(new ArrayList<>(update.getValues()), new ArrayList<>(fromBinary.getValues()));
+    assertEquals(update.getValues().size(), fromJson.getValues().size());
+
+    report("JSON", json.getBytes("UTF-8").length, jsonEncode, jsonDecode);
+    report("binary", frame.length, binaryEncode, binaryDecode);
+    report("binary deflated", compressedFrame.length, compressedEncode, compressedDecode);
+  }
+
+  private void report(String encoding, int size, long encode, long decode) {
+    log.info(String.format("%s batch of %d values: %d bytes, encode %.1f us, decode %.1f us",
+        encoding, FRAME_SIZE, size, encode / 1e3 / ROUNDS, decode / 1e3 / ROUNDS));
+  }
+}
@@ -44,6 +44,12 @@ public final class FallbackProperties {
     /** It indicates the number of lines that can be read from the fallback file at each time*/
     public static final String NUMBER_LINES_FROM_FILE = "2000";
 
+    /** It indicates the format of the fallback files*/
+    public static final String FILE_FORMAT = "TEXT";
+
+    /** It indicates the size in megabytes of the segment files*/
+    public static final String SEGMENT_SIZE = "64";
+
     /** It indicates with which frequency (each number of lines) the check for the disc size should be done*/
     private int freeSpaceCheckFrequency = Integer.parseInt(FREE_SPACE_CHECK_FREQUENCY);
 
@@ -53,6 +59,12 @@ public final class FallbackProperties {
     /** Number of lines that will be read in each go from the fallback file */
     private int numberLinesToReadFromFile = Integer.parseInt(NUMBER_LINES_FROM_FILE);
 
+    /** Format of the fallback files */
+    private FileFormat fileFormat = FileFormat.valueOf(FILE_FORMAT);
+
+    /** Size of the segment files in megabytes, only used by the {@link FileFormat#SEGMENT} format */
+    private int segmentSize = Integer.parseInt(SEGMENT_SIZE);
+
     /** It indicates that an error while getting the free space in the system's disc has occurred*/
     public static final int CMD_FREE_SPACE_ERROR = -1;
 
@@ -89,6 +101,8 @@ public final class FallbackProperties {
             this.minimunDiscFreeSpace = Integer.parseInt(fallbackProperties.getProperty("fallback.minimum.freespace", FREE_SPACE_CHECK_FREQUENCY));
             this.freeSpaceCheckFrequency = Integer.parseInt(fallbackProperties.getProperty("fallback.discsize.check", DISC_SIZE_CHECK));
             this.numberLinesToReadFromFile = Integer.parseInt(fallbackProperties.getProperty("fallback.read.lines.per.iteration", NUMBER_LINES_FROM_FILE));
+            this.fileFormat = FileFormat.valueOf(fallbackProperties.getProperty("fallback.file.format", FILE_FORMAT).trim().toUpperCase());
+            this.segmentSize = Integer.parseInt(fallbackProperties.getProperty("fallback.segment.size", SEGMENT_SIZE));
           } else {
               LOG.warn(new StringBuffer("init() : Unable to find/read properties file ").append(PROPERTY_FILE_NAME).toString());
               LOG.info("init() : Using default values for the fallback parameters");
@@ -131,4 +145,42 @@ public final class FallbackProperties {
     public int getNumberLinesToReadFromFile() {
         return numberLinesToReadFromFile;
     }
+
+    /**
+     * @return the fileFormat
+     */
+    public FileFormat getFileFormat() {
+        return fileFormat;
+    }
+
+    /**
+     * @param fileFormat the fileFormat to set
+     */
+    public void setFileFormat(final FileFormat fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
+    /**
+     * @return the segment size in bytes
+     */
+    public long getSegmentSizeInBytes() {
+        return segmentSize * 1024L * 1024L;
+    }
+
+    /**
+     * @param segmentSize the segment size in megabytes to set
+     */
+    public void setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Formats in which the fallback data can be stored
+     */
+    public enum FileFormat {
+        /** One text line per object, handled by the {@link FallbackFileController} */
+        TEXT,
+        /** Length-prefixed records in memory-mapped segment files, handled by the {@link SegmentFallbackFileController} */
+        SEGMENT
+    }
 }
@@ -0,0 +1,495 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.pmanager.fallback;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
+import cern.c2mon.pmanager.fallback.manager.FallbackObjectContainer;
+
+/**
+ * Binary alternative to the {@link FallbackFileController}. The fallback
+ * objects are appended as length-prefixed UTF-8 records to a sequence of
+ * memory-mapped segment files, named {@code <fallbackFile>.<sequence>.seg}.
+ *
+ * <p>The position of the first record not yet committed back to the DB is
+ * persisted in the {@code <fallbackFile>.offset} file, so resuming after a
+ * restart or a failed commit is a seek rather than a re-read of the file.
+ * Segments which have been completely committed are deleted.
+ *
+ * <p>This class is not thread safe, the callers synchronise on the owning
+ * {@link cern.c2mon.pmanager.fallback.manager.FallbackFileManager}.
+ */
+public class SegmentFallbackFileController {
+
+  /** Logger for tags that cannot be logged to the database */
+  public static final Logger LOG = LoggerFactory.getLogger("HistoryFallbackLogger");
+
+  /** Size of the record header holding the payload length */
+  private static final int HEADER_SIZE = 4;
+
+  /** Size of the offset file: segment sequence number and position */
+  private static final int OFFSET_SIZE = 16;
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final String OFFSET_SUFFIX = ".offset";
+
+  /** The fallback file, used as prefix of the segment files */
+  private final File dataFile;
+
+  /** Size in bytes of newly created segments */
+  private final int segmentSize;
+
+  /** Segment sequence number -> mapped segment, oldest first */
+  private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+  /** Mapped offset file */
+  private MappedByteBuffer offsetBuffer;
+
+  /** Position of the next record to write in the last segment */
+  private int writePosition;
+
+  /** Sequence number of the next segment to create */
+  private long nextSegment;
+
+  /** Position of the first record not yet committed back to the DB */
+  private final Position committed = new Position();
+
+  /** Position of the next record to read */
+  private final Position read = new Position();
+
+  /** Number of records which are not yet committed back to the DB */
+  private int numberOfRecords;
+
+  /**
+   * Constructor for the class. Maps the existing segments of the given
+   * fallback file and restores the committed position.
+   *
+   * @param fallbackPath path of the fallback file
+   * @param segmentSize size in bytes of the segment files, limited to
+   *        {@link Integer#MAX_VALUE} which is the largest size that can be mapped
+   */
+  public SegmentFallbackFileController(final String fallbackPath, final long segmentSize) {
+    this.dataFile = new File(fallbackPath);
+    if (segmentSize > Integer.MAX_VALUE) {
+      LOG.warn("SegmentFallbackFileController() - The segment size of " + segmentSize
+          + " bytes cannot be mapped, using " + Integer.MAX_VALUE + " bytes instead");
+    }
+    this.segmentSize = (int) Math.min(segmentSize, Integer.MAX_VALUE);
+    try {
+      mapSegments();
+      mapOffsetFile();
+      restorePositions();
+      LOG.info("SegmentFallbackFileController() - The " + segments.size() + " segments of the "
+          + dataFile.getName() + " fallback file contain " + numberOfRecords + " records");
+    } catch (IOException e) {
+      LOG.error("Error while trying to initialize the segments of the fallback file " + dataFile.getName(), e);
+    }
+  }
+
+  /**
+   * @return the fallback file used as prefix for the segment files
+   */
+  public final File getDataFile() {
+    return dataFile;
+  }
+
+  /**
+   * @return the number of records not yet committed back to the DB
+   */
+  public final int getNumberOfRecords() {
+    return numberOfRecords;
+  }
+
+  /**
+   * Appends the given objects to the last segment, rolling over to a new
+   * segment when it is full. The segment is forced to disk once all objects
+   * have been written.
+   *
+   * @param objects the objects to write
+   * @throws DataFallbackException if a segment cannot be created
+   */
+  public final void write(final List<? extends IFallback> objects) throws DataFallbackException {
+    MappedByteBuffer segment = null;
+    for (IFallback object : objects) {
+      byte[] payload = object.toString().getBytes(StandardCharsets.UTF_8);
+      if (payload.length == 0) {
+        LOG.warn("write() - Ignoring the empty fallback record of the object with id " + object.getId());
+        continue;
+      }
+      segment = segmentFor(HEADER_SIZE + payload.length);
+      ByteBuffer slice = segment.duplicate();
+      slice.position(writePosition + HEADER_SIZE);
+      slice.put(payload);
+      // The length is written last, so that a partially written record is never read back
+      segment.putInt(writePosition, payload.length);
+      writePosition += HEADER_SIZE + payload.length;
+      numberOfRecords++;
+    }
+    if (segment != null) {
+      segment.force();
+    }
+  }
+
+  /**
+   * Reads the given number of records from the current read position.
+   *
+   * @param numberOfRecords maximum number of records to read
+   * @param fallbackObj object used to convert the records back to objects
+   * @return the read objects and the number of read records
+   */
+  public final FallbackObjectContainer read(final int numberOfRecords, final IFallback fallbackObj) {
+    List<IFallback> objects = new ArrayList<>();
+    int readRecords = 0;
+    while (readRecords < numberOfRecords && seek(read)) {
+      MappedByteBuffer segment = segments.get(read.segment);
+      int length = segment.getInt(read.offset);
+      byte[] payload = new byte[length];
+      ByteBuffer slice = segment.duplicate();
+      slice.position(read.offset + HEADER_SIZE);
+      slice.get(payload);
+      String record = new String(payload, StandardCharsets.UTF_8);
+      try {
+        objects.add(fallbackObj.getObject(record));
+      } catch (DataFallbackException e) {
+        LOG.error("read() - " + e.getMessage() + "" + record);
+      }
+      read.offset += HEADER_SIZE + length;
+      readRecords++;
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("read() - " + objects.size() + " records have been read from the segments of " + dataFile.getName());
+    }
+    return new FallbackObjectContainer(objects, readRecords);
+  }
+
+  /**
+   * Marks the given number of records as committed back to the DB, persists
+   * the new committed position and deletes the segments that have been fully
+   * committed.
+   *
+   * @param numberOfRecords number of records committed since the last call
+   * @throws DataFallbackException if a drained segment cannot be deleted
+   */
+  public final void commit(final int numberOfRecords) throws DataFallbackException {
+    skip(committed, numberOfRecords);
+    this.numberOfRecords = Math.max(0, this.numberOfRecords - numberOfRecords);
+    if (read.compareTo(committed) < 0) {
+      read.set(committed);
+    }
+
+    if (this.numberOfRecords == 0) {
+      deleteSegments(nextSegment);
+      writePosition = 0;
+      committed.set(nextSegment, 0);
+      read.set(committed);
+    } else {
+      deleteSegments(committed.segment);
+    }
+    persistOffset();
+  }
+
+  /**
+   * Moves the read position to the given number of records after the
+   * committed position, discarding the records read since.
+   *
+   * @param numberOfRecords number of records to skip after the committed position
+   */
+  public final void rewind(final int numberOfRecords) {
+    read.set(committed);
+    skip(read, numberOfRecords);
+  }
+
+  /**
+   * Forces the segments to disk and unmaps them.
+   */
+  public final void close() {
+    if (!segments.isEmpty()) {
+      segments.lastEntry().getValue().force();
+    }
+    for (MappedByteBuffer segment : segments.values()) {
+      unmap(segment);
+    }
+    segments.clear();
+    if (offsetBuffer != null) {
+      unmap(offsetBuffer);
+      offsetBuffer = null;
+    }
+  }
+
+  /**
+   * Returns the segment in which a record of the given size can be written
+   * at {@link #writePosition}, creating a new one if the last segment is full.
+   */
+  private MappedByteBuffer segmentFor(final int recordSize) throws DataFallbackException {
+    Map.Entry<Long, MappedByteBuffer> last = segments.lastEntry();
+    if (last != null && writePosition + recordSize <= last.getValue().capacity()) {
+      return last.getValue();
+    }
+    if (last != null) {
+      // The full segment is only read from now on
+      last.getValue().force();
+    }
+    long sequence = nextSegment++;
+    try {
+      MappedByteBuffer segment = map(segmentFile(sequence), Math.max(segmentSize, recordSize));
+      segments.put(sequence, segment);
+      writePosition = 0;
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("segmentFor() - Created the segment " + segmentFile(sequence).getName());
+      }
+      return segment;
+    } catch (IOException e) {
+      throw new DataFallbackException("segmentFor() : The segment " + segmentFile(sequence).getName()
+          + " could not be created " + e.getMessage());
+    }
+  }
+
+  /**
+   * Moves the given position to the start of the next record, switching to
+   * the next segment if the current one has been fully read.
+   *
+   * @return false if there is no record at or after the position
+   */
+  private boolean seek(final Position position) {
+    while (true) {
+      MappedByteBuffer segment = segments.get(position.segment);
+      if (segment != null && hasRecord(position.segment, segment, position.offset)) {
+        return true;
+      }
+      Long next = segments.higherKey(position.segment);
+      if (next == null) {
+        return false;
+      }
+      position.set(next, 0);
+    }
+  }
+
+  private void skip(final Position position, final int numberOfRecords) {
+    for (int i = 0; i < numberOfRecords && seek(position); i++) {
+      position.offset += HEADER_SIZE + segments.get(position.segment).getInt(position.offset);
+    }
+  }
+
+  private boolean hasRecord(final long sequence, final MappedByteBuffer segment, final int offset) {
+    int limit = sequence == segments.lastKey() ? writePosition : segment.capacity();
+    if (offset + HEADER_SIZE > limit) {
+      return false;
+    }
+    int length = segment.getInt(offset);
+    return length > 0 && offset + HEADER_SIZE + length <= limit;
+  }
+
+  /**
+   * Unmaps and deletes all segments older than the given sequence number.
+   */
+  private void deleteSegments(final long before) throws DataFallbackException {
+    Iterator<Map.Entry<Long, MappedByteBuffer>> iterator = segments.headMap(before, false).entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, MappedByteBuffer> segment = iterator.next();
+      File file = segmentFile(segment.getKey());
+      iterator.remove();
+      unmap(segment.getValue());
+      if (!file.delete()) {
+        throw new DataFallbackException("The segment " + file.getAbsolutePath() + " could not be deleted");
+      }
+      LOG.info("deleteSegments() - The committed segment " + file.getAbsolutePath() + " has been deleted");
+    }
+  }
+
+  private void persistOffset() {
+    if (offsetBuffer != null) {
+      offsetBuffer.putLong(0, committed.segment);
+      offsetBuffer.putLong(8, committed.offset);
+      offsetBuffer.force();
+    }
+  }
+
+  private void mapSegments() throws IOException {
+    Pattern pattern = Pattern.compile(Pattern.quote(dataFile.getName()) + "\\.(\\d+)" + Pattern.quote(SEGMENT_SUFFIX));
+    File[] files = dataFile.getAbsoluteFile().getParentFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        Matcher matcher = pattern.matcher(file.getName());
+        if (matcher.matches()) {
+          segments.put(Long.parseLong(matcher.group(1)), map(file, (int) file.length()));
+        }
+      }
+    }
+    nextSegment = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+  }
+
+  private void mapOffsetFile() throws IOException {
+    File offsetFile = new File(dataFile.getPath() + OFFSET_SUFFIX);
+    boolean exists = offsetFile.length() == OFFSET_SIZE;
+    offsetBuffer = map(offsetFile, OFFSET_SIZE);
+    if (exists) {
+      committed.set(offsetBuffer.getLong(0), (int) offsetBuffer.getLong(8));
+    } else {
+      committed.set(segments.isEmpty() ? 0 : segments.firstKey(), 0);
+    }
+  }
+
+  /**
+   * Finds the end of the written records in the last segment and counts the
+   * records which have not been committed yet.
+   */
+  private void restorePositions() {
+    if (segments.isEmpty()) {
+      // Never reuse the sequence numbers of the deleted segments
+      nextSegment = Math.max(nextSegment, committed.segment);
+      committed.set(nextSegment, 0);
+    } else {
+      MappedByteBuffer last = segments.lastEntry().getValue();
+      int position = 0;
+      while (position + HEADER_SIZE <= last.capacity()) {
+        int length = last.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > last.capacity()) {
+          break;
+        }
+        position += HEADER_SIZE + length;
+      }
+      writePosition = position;
+      if (committed.segment < segments.firstKey()) {
+        committed.set(segments.firstKey(), 0);
+      }
+    }
+    Position position = new Position();
+    position.set(committed);
+    while (seek(position)) {
+      position.offset += HEADER_SIZE + segments.get(position.segment).getInt(position.offset);
+      numberOfRecords++;
+    }
+    read.set(committed);
+  }
+
+  private File segmentFile(final long sequence) {
+    return new File(dataFile.getPath() + String.format(".%019d", sequence) + SEGMENT_SUFFIX);
+  }
+
+  private static MappedByteBuffer map(final File file, final int size) throws IOException {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      FileChannel channel = randomAccessFile.getChannel();
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  /**
+   * Releases the mapping of the given buffer right away instead of when it is
+   * garbage collected. The buffer must not be accessed afterwards.
+   */
+  private static void unmap(final MappedByteBuffer buffer) {
+    try {
+      Unmapper.unmap(buffer);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("unmap() - The buffer could not be unmapped, it will be released when garbage collected", e);
+    }
+  }
+
+  /**
+   * Looks up the JDK internal methods releasing a mapped buffer: the cleaner
+   * of the buffer on Java 8 and {@code Unsafe.invokeCleaner} on later versions.
+   */
+  private static final class Unmapper {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    private static final Method CLEANER;
+    private static final Method CLEAN;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      Method cleaner = null;
+      Method clean = null;
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        try {
+          invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+          Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+          theUnsafe.setAccessible(true);
+          unsafe = theUnsafe.get(null);
+        } catch (NoSuchMethodException e) {
+          cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+          clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+        }
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        LOG.warn("Mapped fallback segments cannot be unmapped on this JVM, they are released when garbage collected", e);
+        invokeCleaner = null;
+        cleaner = null;
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+      CLEANER = cleaner;
+      CLEAN = clean;
+    }
+
+    private static void unmap(final MappedByteBuffer buffer) throws ReflectiveOperationException {
+      if (INVOKE_CLEANER != null) {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+      } else if (CLEANER != null) {
+        Object cleaner = CLEANER.invoke(buffer);
+        if (cleaner != null) {
+          CLEAN.invoke(cleaner);
+        }
+      }
+    }
+  }
+
+  /**
+   * Position of a record in the segments.
+   */
+  private static final class Position implements Comparable<Position> {
+    private long segment;
+    private int offset;
+
+    private void set(final long segment, final int offset) {
+      this.segment = segment;
+      this.offset = offset;
+    }
+
+    private void set(final Position position) {
+      set(position.segment, position.offset);
+    }
+
+    @Override
+    public int compareTo(final Position other) {
+      int result = Long.compare(segment, other.segment);
+      return result != 0 ? result : Integer.compare(offset, other.offset);
+    }
+  }
+}
@@ -16,6 +16,8 @@
  *****************************************************************************/
 package cern.c2mon.pmanager.fallback.manager;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -24,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import cern.c2mon.pmanager.IFallback;
 import cern.c2mon.pmanager.fallback.FallbackFileController;
 import cern.c2mon.pmanager.fallback.FallbackProperties;
+import cern.c2mon.pmanager.fallback.SegmentFallbackFileController;
 import cern.c2mon.pmanager.fallback.exception.DataFallbackException;
 import cern.c2mon.pmanager.fallback.exception.SystemDiskSpaceException;
 import cern.c2mon.pmanager.fallback.util.SystemResourcesParameters;
@@ -32,7 +35,9 @@ import cern.c2mon.pmanager.fallback.util.SystemResourcesParameters;
  * This class is a helper that allows to encapsulate the mechanism that is being
  * used as a fallback, in this case a logfile. It works as a facade, making
  * totally independent the application logic from the final log system that is
- * used.
+ * used. Depending on the {@link FallbackProperties.FileFormat} the data is
+ * either written as text lines by a {@link FallbackFileController} or as
+ * binary records by a {@link SegmentFallbackFileController}.
  *
  * @author mruizgar
  *
@@ -42,9 +47,12 @@ public class FallbackFileManager {
     /** Log4j Logger for tags that cannot be logged to the database (emergency) */
     public static final Logger LOG = LoggerFactory.getLogger("HistoryFallbackLogger");
 
-    /** FallbackFileController instance */
+    /** FallbackFileController instance, null for the segment format */
     private final FallbackFileController fFileController;
 
+    /** SegmentFallbackFileController instance, null for the text format */
+    private final SegmentFallbackFileController segmentController;
+
     /**
      * Indicates which type of IFallback objects will be handled by this class
      * and by its FallbackFileController instance
@@ -84,7 +92,31 @@ public class FallbackFileManager {
      *
      */
     public FallbackFileManager(final String fallbackFile, final IFallback fallbackObj) {
-        this.fFileController = new FallbackFileController(fallbackFile);
+        this(fallbackFile, fallbackObj, FallbackProperties.getInstance().getFileFormat());
+    }
+
+    /**
+     * Public constructor
+     *
+     * @param fallbackFile
+     *            The absolute path for the fallback file
+     * @param fallbackObj
+     *            IFallback object used for knowing with which concrete
+     *            implementation of the interface deals each instance of this
+     *            class
+     * @param fileFormat
+     *            The format in which the fallback data is stored
+     */
+    public FallbackFileManager(final String fallbackFile, final IFallback fallbackObj,
+            final FallbackProperties.FileFormat fileFormat) {
+        if (fileFormat == FallbackProperties.FileFormat.SEGMENT) {
+            this.fFileController = null;
+            this.segmentController = new SegmentFallbackFileController(fallbackFile,
+                    FallbackProperties.getInstance().getSegmentSizeInBytes());
+        } else {
+            this.fFileController = new FallbackFileController(fallbackFile);
+            this.segmentController = null;
+        }
         this.fallbackObj = fallbackObj;
     }
 
@@ -98,6 +130,10 @@ public class FallbackFileManager {
      *             writing in the file
      */
     public final void fallback(final List data) throws DataFallbackException {
+        if (segmentController != null) {
+            segmentController.write(data);
+            return;
+        }
 
         // If the file is empty we close the reading descriptor since it means
         // that a new file is going to be created
@@ -125,6 +161,11 @@ public class FallbackFileManager {
      */
     public final void fallback(final IFallback fallbackObj) throws DataFallbackException {
 
+        if (segmentController != null) {
+            segmentController.write(Collections.singletonList(fallbackObj));
+            return;
+        }
+
         try {
             // If the file is empty we close the reading descriptor since it
             // means that
@@ -158,12 +199,12 @@ public class FallbackFileManager {
         final FallbackProperties fProperties = FallbackProperties.getInstance();
         boolean checkDone = false;
 
-        if (fFileController.getNumberOfLines() > nextCheckFallbackData) {
+        if (getNumberOfLines() > nextCheckFallbackData) {
             checkDone = true;
             if (LOG.isDebugEnabled())
                 LOG
                         .debug("isDiskSpaceCheckDone() : Doing the check since the number of lines are "
-                                + fFileController.getNumberOfLines()
+                                + getNumberOfLines()
                                 + " and the current value for nextcheck is "
                                 + nextCheckFallbackData);
             long freeSpace = SystemResourcesParameters.getFreeSpace();
@@ -172,7 +213,7 @@ public class FallbackFileManager {
                 throw new SystemDiskSpaceException("Reached the limit of free space of "
                         + minimumFreeSpace + ", current free space is " + freeSpace);
             } else {
-                nextCheckFallbackData = fFileController.getNumberOfLines()
+                nextCheckFallbackData = getNumberOfLines()
                         + fProperties.getFreeSpaceCheckFrequency();
                 if (LOG.isDebugEnabled())
                     LOG.debug("isDiskSpaceCheckDone() : New value of nextCheckDataTags is "
@@ -186,12 +227,23 @@ public class FallbackFileManager {
      * It retrieves an instance of the object in charge of dealing with the
      * fallback mechanism
      *
-     * @return A DataTagFallback object
+     * @return A DataTagFallback object, or null if the data is stored in
+     *         the segment format
      */
     public final FallbackFileController getFallbackFileController() {
         return this.fFileController;
     }
 
+    /**
+     * @return The fallback file, respectively the prefix of the segment files
+     */
+    public final File getDataFile() {
+        if (segmentController != null) {
+            return segmentController.getDataFile();
+        }
+        return fFileController.getDataFile();
+    }
+
     /**
      * Reads a number of lines from the fallback mechanism
      *
@@ -203,6 +255,9 @@ public class FallbackFileManager {
      *             reading the file
      */
     public final FallbackObjectContainer readDataBack(final int numberOfLines) throws DataFallbackException {
+        if (segmentController != null) {
+            return segmentController.read(numberOfLines, fallbackObj);
+        }
         // close the outputstream if it was still opened
         fFileController.closeFallbackOutputStream();
         fFileController.openFallbackInputStream();
@@ -230,6 +285,19 @@ public class FallbackFileManager {
 
         boolean removed = true;
 
+        if (segmentController != null) {
+            try {
+                segmentController.commit(numberOfLines);
+            } catch (DataFallbackException e) {
+                removed = false;
+                LOG.error("Exception caught while attempting to remove segments of the Fallback file", e);
+            }
+            if (segmentController.getNumberOfRecords() == 0) {
+                resetNextDiscSpaceCheck();
+            }
+            return removed;
+        }
+
         // Update the number of already committed datatags
         fFileController.setReadBackLines(numberOfLines + fFileController.getReadBackLines());
         // Virtually remove those datatags from the file
@@ -282,6 +350,10 @@ public class FallbackFileManager {
      */
     public final void goToLastProcessedLine(final int lastCommited)
             throws DataFallbackException {
+        if (segmentController != null) {
+            segmentController.rewind(lastCommited);
+            return;
+        }
         fFileController.closeFallbackInputStream();
         int readLines = fFileController.getReadBackLines();
         fFileController.goToLine(readLines + lastCommited);
@@ -293,13 +365,28 @@ public class FallbackFileManager {
      * @return The value indicating the status of the log
      */
     public final boolean isFallbackFileEmpty() {
-        return !((fFileController.getNumberOfLines()) > 0);
+        return !(getNumberOfLines() > 0);
+    }
+
+    /**
+     * @return The number of lines in the fallback file, respectively the
+     *         number of records not yet committed from the segment files
+     */
+    private int getNumberOfLines() {
+        if (segmentController != null) {
+            return segmentController.getNumberOfRecords();
+        }
+        return fFileController.getNumberOfLines();
     }
 
     /**
      * It releases the object memory
      */
     public final void finalize() {
-        this.fFileController.finalize();
+        if (segmentController != null) {
+            segmentController.close();
+        } else {
+            this.fFileController.finalize();
+        }
     }
 }
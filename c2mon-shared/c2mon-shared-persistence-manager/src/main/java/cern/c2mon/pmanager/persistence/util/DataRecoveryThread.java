@@ -122,7 +122,7 @@ public class DataRecoveryThread implements Runnable, FallbackAlarmsInterface {
         stopped = false;
         if (FALLBACK_LOG.isDebugEnabled())
             FALLBACK_LOG.debug("Thread of instance " + this.hashCode() + " beginning");
-        synchronized (persistenceManager.getFallbackManager().getFallbackFileController()) {
+        synchronized (persistenceManager.getFallbackManager()) {
             while (!persistenceManager.getFallbackManager().isFallbackFileEmpty() && committed
                     && isRunning()) {
                 int numberOfTags;
@@ -230,15 +230,13 @@ public class DataRecoveryThread implements Runnable, FallbackAlarmsInterface {
         if (!persistenceManager.getFallbackManager().removeReadData(size)) {
             persistenceManager.getAlarmSender().fileNotReachable(
                     ACTIVATED,
-                    persistenceManager.getFallbackManager().getFallbackFileController()
-                            .getDataFile());
+                    persistenceManager.getFallbackManager().getDataFile());
             FALLBACK_LOG
                     .error("commitFallbackCommandLogs() - CommandTags cannot be removed from the fallback log file");
         } else {
             persistenceManager.getAlarmSender().fileNotReachable(
                     DOWN,
-                    persistenceManager.getFallbackManager().getFallbackFileController()
-                            .getDataFile());
+                    persistenceManager.getFallbackManager().getDataFile());
         }
 
     }
@@ -0,0 +1,184 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.pmanager.fallback;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cern.c2mon.pmanager.IFallback;
+import cern.c2mon.pmanager.fallback.manager.FallbackObjectContainer;
+import cern.c2mon.pmanager.mock.FallbackImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * JUnit test for the SegmentFallbackFileController class
+ */
+public class SegmentFallbackFileControllerTest {
+
+  /** Small segments, to force roll overs */
+  private static final int SEGMENT_SIZE = 256;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private String fallbackPath;
+
+  @Before
+  public void setUp() {
+    fallbackPath = new File(folder.getRoot(), "DataTagFallback.log").getAbsolutePath();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    controller.write(createObjects(0, 10));
+    assertEquals(10, controller.getNumberOfRecords());
+
+    FallbackObjectContainer first = controller.read(4, new FallbackImpl());
+    FallbackObjectContainer second = controller.read(100, new FallbackImpl());
+
+    assertEquals(4, first.getReadLines());
+    assertEquals(6, second.getReadLines());
+    assertEquals("record 0", first.getObjects().get(0).toString());
+    assertEquals("record 9", second.getObjects().get(5).toString());
+  }
+
+  @Test
+  public void testResumeFromCommittedOffset() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    controller.write(createObjects(0, 20));
+    controller.read(7, new FallbackImpl());
+    controller.commit(7);
+    controller.close();
+
+    controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    assertEquals(13, controller.getNumberOfRecords());
+    FallbackObjectContainer data = controller.read(100, new FallbackImpl());
+    assertEquals(13, data.getReadLines());
+    assertEquals("record 7", data.getObjects().get(0).toString());
+
+    controller.write(createObjects(20, 1));
+    assertEquals("record 20", controller.read(100, new FallbackImpl()).getObjects().get(0).toString());
+  }
+
+  @Test
+  public void testRewindToLastCommittedRecord() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    controller.write(createObjects(0, 10));
+    controller.read(5, new FallbackImpl());
+
+    // Only 2 of the 5 read records could be committed
+    controller.rewind(2);
+    controller.commit(2);
+
+    FallbackObjectContainer data = controller.read(100, new FallbackImpl());
+    assertEquals(8, data.getReadLines());
+    assertEquals("record 2", data.getObjects().get(0).toString());
+  }
+
+  @Test
+  public void testCommittedSegmentsAreDeleted() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    controller.write(createObjects(0, 100));
+    assertTrue(countSegments() > 2);
+
+    controller.read(50, new FallbackImpl());
+    int segments = countSegments();
+    controller.commit(50);
+    assertTrue(countSegments() < segments);
+    assertEquals(50, controller.getNumberOfRecords());
+
+    controller.read(50, new FallbackImpl());
+    controller.commit(50);
+    assertEquals(0, countSegments());
+    assertEquals(0, controller.getNumberOfRecords());
+
+    // The store is reused once drained
+    controller.write(createObjects(100, 1));
+    controller.close();
+    controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    assertEquals(1, controller.getNumberOfRecords());
+    assertEquals("record 100", controller.read(1, new FallbackImpl()).getObjects().get(0).toString());
+  }
+
+  @Test
+  public void testRecordLargerThanSegment() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < SEGMENT_SIZE; i++) {
+      builder.append('x');
+    }
+    FallbackImpl large = new FallbackImpl();
+    large.setObjectData(builder.toString());
+    List<IFallback> objects = new ArrayList<>(createObjects(0, 1));
+    objects.add(large);
+    controller.write(objects);
+
+    FallbackObjectContainer data = controller.read(100, new FallbackImpl());
+    assertEquals(2, data.getReadLines());
+    assertEquals(builder.toString(), data.getObjects().get(1).toString());
+    assertEquals(2, controller.getNumberOfRecords());
+  }
+
+  @Test
+  public void testSegmentSizeOfSeveralGigabytes() {
+    FallbackProperties properties = FallbackProperties.getInstance();
+    try {
+      properties.setSegmentSize(4096);
+      assertEquals(4096L * 1024 * 1024, properties.getSegmentSizeInBytes());
+    } finally {
+      properties.setSegmentSize(Integer.parseInt(FallbackProperties.SEGMENT_SIZE));
+    }
+  }
+
+  @Test
+  public void testCloseReleasesSegments() throws Exception {
+    SegmentFallbackFileController controller = new SegmentFallbackFileController(fallbackPath, SEGMENT_SIZE);
+    controller.write(createObjects(0, 100));
+    controller.close();
+
+    // Unmapped segments can be deleted on every platform
+    File[] files = folder.getRoot().listFiles();
+    assertTrue(files.length > 2);
+    for (File file : files) {
+      assertTrue(file.delete());
+    }
+  }
+
+  private int countSegments() {
+    File[] files = folder.getRoot().listFiles((dir, name) -> name.endsWith(".seg"));
+    return files == null ? 0 : files.length;
+  }
+
+  private static List<FallbackImpl> createObjects(final int first, final int count) {
+    List<FallbackImpl> objects = new ArrayList<>();
+    for (int i = first; i < first + count; i++) {
+      FallbackImpl object = new FallbackImpl();
+      object.setObjectData("record " + i);
+      objects.add(object);
+    }
+    return objects;
+  }
+}
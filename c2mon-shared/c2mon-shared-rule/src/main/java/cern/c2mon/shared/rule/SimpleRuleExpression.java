@@ -16,12 +16,15 @@
  *****************************************************************************/
 package cern.c2mon.shared.rule;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 import cern.c2mon.shared.common.rule.RuleInputValue;
+import cern.c2mon.shared.rule.parser.CompiledExpression;
 import cern.c2mon.shared.rule.parser.InvalidExpressionParser;
 import cern.c2mon.shared.rule.parser.Parser;
 import cern.c2mon.shared.rule.parser.RuleConstant;
@@ -35,9 +38,32 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
      */
     private Object[] tokens = null;
 
+    /**
+     * Expression tree built from the tokens, or <code>null</code> if the
+     * tokens can only be evaluated by the token parser.
+     */
+    private transient CompiledExpression compiledExpression;
+
+    /**
+     * Input tag ids of the compiled expression, in the order expected by
+     * {@link CompiledExpression#evaluate(Object[], boolean)}.
+     */
+    private transient Long[] compiledInputTagIds;
+
     public SimpleRuleExpression(final String pExpression) throws RuleFormatException {
         super(pExpression, RuleType.Simple);
         this.tokens = tokenize(pExpression);
+        compile();
+    }
+
+    private void compile() {
+        this.compiledExpression = CompiledExpression.compile(tokens);
+        this.compiledInputTagIds = compiledExpression == null ? null : compiledExpression.getInputTagIds();
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        compile();
     }
 
     public Object clone() {
@@ -331,7 +357,7 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
     
     /**
      * @return True if the {@link SimpleRuleExpression} 
-     * contains the {@link RuleConstant#INVALID}.
+     * contains the {@link RuleConstant#INVALID_KEYWORD}.
      */
     public final boolean usesTheInvalidKeyword() {
 
@@ -389,6 +415,41 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
       return valueTokens;
     }
 
+    /**
+     * Same checks as {@link #splitToTokens(Map)} and {@link #splitToTokensAndAllowInvalidTags(Map)},
+     * but only the input values are returned, in the order expected by the compiled expression.
+     * 
+     * @return The input values, or <code>null</code> if one of them prevents the
+     * evaluation with the compiled expression (see {@link CompiledExpression#isStructuralValue(Object)})
+     * 
+     * @param pInputParams Map of value objects related to the input tag ids
+     * @param allowInvalid whether invalid tags are replaced by {@link RuleConstant#INTERNAL_INVALID}
+     * 
+     * @throws RuleEvaluationException in case the DataTags contained in the Rule
+     * are Null, or non-existent.
+     */
+    private Object[] resolveInputValues(final Map<Long, RuleInputValue> pInputParams, final boolean allowInvalid)
+        throws RuleEvaluationException {
+
+      final Object[] values = new Object[compiledInputTagIds.length];
+      for (int i = 0; i < compiledInputTagIds.length; i++) {
+        final RuleInputValue tag = pInputParams.get(compiledInputTagIds[i]);
+        if (tag == null) {
+          throw new RuleEvaluationException("Cannot evaluate rule: input tag missing " + compiledInputTagIds[i]);
+        }
+        if (allowInvalid && !tag.isValid()) {
+          values[i] = RuleConstant.INTERNAL_INVALID.toString();
+        } else if (tag.getValue() == null) {
+          throw new RuleEvaluationException("Cannot evaluate rule: tag " + tag.getId() + " is null.");
+        } else if (CompiledExpression.isStructuralValue(tag.getValue())) {
+          return null;
+        } else {
+          values[i] = tag.getValue();
+        }
+      }
+      return values;
+    }
+
     /**
      * @return The rule in token format
      * 
@@ -472,6 +533,12 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
     private Object handleRuleWithNoInvalidTags(final Map<Long, RuleInputValue> pInputParams)
         throws RuleEvaluationException {
 
+      if (compiledExpression != null) {
+        final Object[] values = resolveInputValues(pInputParams, false);
+        if (values != null) {
+          return compiledExpression.evaluate(values, false);
+        }
+      }
       final Object[] valueTokens = splitToTokens(pInputParams);
       final Object result = Parser.getInstance().eval(valueTokens); // => evaluate the expression as normal
       return result;
@@ -507,6 +574,12 @@ public class SimpleRuleExpression extends RuleExpression implements Cloneable {
     private Object tryToIgnoreInvalidTags(final Map<Long, RuleInputValue> pInputParams) 
         throws RuleEvaluationException {
       
+      if (compiledExpression != null) {
+        final Object[] values = resolveInputValues(pInputParams, true);
+        if (values != null) {
+          return compiledExpression.evaluate(values, true);
+        }
+      }
       final Object[] valueTokens = splitToTokensAndAllowInvalidTags(pInputParams);
       final Object result = InvalidExpressionParser.getInstance().eval(valueTokens);
       
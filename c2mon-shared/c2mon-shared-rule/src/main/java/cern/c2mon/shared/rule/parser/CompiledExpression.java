@@ -0,0 +1,517 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.rule.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cern.c2mon.shared.rule.RuleEvaluationException;
+import cern.c2mon.shared.rule.RuleInputTagId;
+
+/**
+ * Expression tree of a rule in token format, built once so that a rule
+ * can be evaluated without re-parsing its tokens on every call.
+ * <p>
+ * The tree is built by following exactly the same steps as
+ * {@link AbstractParser#eval(Object[])} on the rule tokens, and the
+ * operators are computed by the {@link Parser} or the
+ * {@link InvalidExpressionParser}, so that the results are the same as the
+ * ones of the token parser. In addition, arithmetic sub-expressions are
+ * computed on primitive doubles and are only boxed when the result leaves the
+ * arithmetic part of the expression.
+ * <p>
+ * The token parser identifies parenthesis and unary operators by their
+ * String representation, so that String input values like <code>"("</code>
+ * can change the structure of the evaluated expression. Such values are
+ * detected with {@link #isStructuralValue(Object)} and the rule must then be
+ * evaluated with the token parser.
+ * <p>
+ * Instances are immutable and can be shared by several threads.
+ *
+ * @see Parser
+ * @see InvalidExpressionParser
+ */
+public final class CompiledExpression {
+
+  /** Root of the expression tree */
+  private final Node root;
+
+  /** Identifiers of the input tags, in the order of their first occurrence in the rule */
+  private final Long[] inputTagIds;
+
+  private CompiledExpression(final Node root, final Long[] inputTagIds) {
+    this.root = root;
+    this.inputTagIds = inputTagIds;
+  }
+
+  /**
+   * Builds the expression tree of the given rule tokens.
+   *
+   * @param tokens the rule in token format, input tags being represented by
+   *               {@link RuleInputTagId} tokens
+   * @return the compiled expression, or <code>null</code> if the evaluation
+   *         of these tokens fails in any case, and should therefore be left to
+   *         the token parser which reports the error
+   */
+  public static CompiledExpression compile(final Object[] tokens) {
+    List<Long> inputTagIds = new ArrayList<>();
+    try {
+      Node root = compile(tokens, inputTagIds);
+      return new CompiledExpression(root, inputTagIds.toArray(new Long[0]));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the identifiers of the input tags, in the order of their first
+   *         occurrence in the rule. The values passed to
+   *         {@link #evaluate(Object[], boolean)} must follow the same order.
+   */
+  public Long[] getInputTagIds() {
+    return inputTagIds.clone();
+  }
+
+  /**
+   * @return the number of distinct input tags of the rule
+   */
+  public int getInputCount() {
+    return inputTagIds.length;
+  }
+
+  /**
+   * @return <code>true</code> if the given input value would be interpreted as
+   *         a parenthesis or a unary operator by the token parser. Rules with
+   *         such input values cannot be evaluated with the compiled expression.
+   *
+   * @param value an input value of the rule
+   */
+  public static boolean isStructuralValue(final Object value) {
+    if (value instanceof String) {
+      final String str = (String) value;
+      return str.isEmpty() || str.charAt(0) == '(' || str.charAt(0) == ')' || str.equals("!") || str.equals("-");
+    }
+    return value instanceof Character;
+  }
+
+  /**
+   * Evaluates the expression.
+   *
+   * @param values the values of the input tags, in the order of
+   *               {@link #getInputTagIds()}. Invalid tags are represented by
+   *               {@link RuleConstant#INTERNAL_INVALID}.
+   * @param allowInvalid whether the operators are computed by the
+   *                     {@link InvalidExpressionParser} instead of the {@link Parser}
+   * @return the result of the expression
+   * @throws ClassCastException if an operand has not the type expected by a unary operator
+   *         (same as {@link AbstractParser#eval(Object[])})
+   * @throws RuntimeException wrapping the {@link RuleEvaluationException} if an
+   *         operator cannot be computed (same as {@link AbstractParser#eval(Object[])})
+   */
+  public Object evaluate(final Object[] values, final boolean allowInvalid) {
+    if (root instanceof Leaf) {
+      return ((Leaf) root).value(values);
+    }
+    try {
+      if (allowInvalid) {
+        return root.evaluate(values, InvalidExpressionParser.getInstance());
+      }
+      return root.evaluate(values, Parser.getInstance());
+    } catch (ClassCastException cce) {
+      throw cce;
+    } catch (Exception e) {
+      throw new RuntimeException("Unexpected error during rule evaluation.", e);
+    }
+  }
+
+  /**
+   * Same steps as {@link AbstractParser#eval(Object[])}, building the nodes
+   * instead of computing the result.
+   */
+  private static Node compile(final Object[] token, final List<Long> inputTagIds) {
+    final AbstractParser parser = Parser.getInstance();
+    if (!parser.isParenthesisBalanced(token)) {
+      throw new IllegalArgumentException("Parenthesis not balanced!");
+    }
+
+    if (token.length == 1) {
+      return leaf(token[0], inputTagIds);
+    }
+
+    final Object[] x = parser.extractExpressionFromTheLeft(token);
+
+    if (token[0] instanceof String
+        && token[token.length - 1] instanceof String
+        && (x.length) == (token.length - 2)
+        && token[0].equals("(")
+        && token[token.length - 1].equals(")")) {
+      return compile(x, inputTagIds);
+    }
+
+    if (x.length == token.length) {
+      Object[] x2 = new Object[x.length - 1];
+      System.arraycopy(x, 1, x2, 0, x2.length);
+      if (x[0] instanceof String && x[0].equals("!")) {
+        return new Not(compile(x2, inputTagIds));
+      } else if (x[0] instanceof String && x[0].equals("-")) {
+        return new Negation(compile(x2, inputTagIds));
+      }
+      throw new IllegalArgumentException("Cannot handle unary operator " + x[0]);
+    }
+
+    final int operatorIndex = (token[0] instanceof String && ((String) token[0]).compareTo("(") == 0)
+        ? (x.length + 2) : (x.length);
+    final Operator op = Operator.fromString((String) token[operatorIndex]);
+    if (op == null) {
+      throw new IllegalArgumentException("Invalid operator " + token[operatorIndex]);
+    }
+    final Object[] y = new Object[token.length - operatorIndex - 1];
+    System.arraycopy(token, operatorIndex + 1, y, 0, y.length);
+
+    final Node left = compile(x, inputTagIds);
+    final Node right = compile(y, inputTagIds);
+    switch (op) {
+      case ADDITION:
+      case SUBTRACTION:
+      case MULTIPLICATION:
+      case DIVISION:
+      case RAISE_TO_POWER:
+      case BITWISE_AND:
+      case BITWISE_OR:
+        return new Arithmetic(left, right, op);
+      case GREATER_THAN_COMPARISON:
+      case LESS_THAN_COMPARISON:
+      case LESS_THAN_OR_EQUALS_COMPARISON:
+      case GREATER_THAN_OR_EQUALS_COMPARISON:
+      case EQUALS_COMPARISON:
+      case NOT_EQUALS_COMPARISON:
+        return new Comparison(left, right, op);
+      default:
+        return new Binary(left, right, op);
+    }
+  }
+
+  private static Node leaf(final Object token, final List<Long> inputTagIds) {
+    if (token instanceof RuleInputTagId) {
+      final Long id = ((RuleInputTagId) token).getId();
+      int index = inputTagIds.indexOf(id);
+      if (index < 0) {
+        index = inputTagIds.size();
+        inputTagIds.add(id);
+      }
+      return new Input(index);
+    }
+    if (token instanceof Number) {
+      return new NumberConstant(token);
+    }
+    return new Constant(token);
+  }
+
+  /**
+   * Node of the expression tree.
+   */
+  private abstract static class Node {
+
+    /**
+     * @return the result of the sub-expression, as returned by the token parser
+     */
+    abstract Object evaluate(Object[] values, Parser parser) throws RuleEvaluationException;
+
+    /**
+     * @return <code>true</code> if {@link #evaluateDouble(Object[], Parser)}
+     *         can be called with the given parser
+     */
+    boolean isNumeric(final Parser parser) {
+      return false;
+    }
+
+    /**
+     * Only supported by nodes for which {@link #isNumeric(Parser)} is <code>true</code>.
+     *
+     * @return the result of the sub-expression as a primitive double
+     */
+    double evaluateDouble(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Node without operator */
+  private abstract static class Leaf extends Node {
+
+    abstract Object value(Object[] values);
+
+    @Override
+    final Object evaluate(final Object[] values, final Parser parser) {
+      return value(values);
+    }
+  }
+
+  private static final class Constant extends Leaf {
+    private final Object value;
+
+    Constant(final Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object value(final Object[] values) {
+      return value;
+    }
+  }
+
+  private static final class NumberConstant extends Leaf {
+    private final Object value;
+    private final double doubleValue;
+
+    NumberConstant(final Object value) {
+      this.value = value;
+      this.doubleValue = ((Number) value).doubleValue();
+    }
+
+    @Override
+    Object value(final Object[] values) {
+      return value;
+    }
+
+    @Override
+    boolean isNumeric(final Parser parser) {
+      return true;
+    }
+
+    @Override
+    double evaluateDouble(final Object[] values, final Parser parser) {
+      return doubleValue;
+    }
+  }
+
+  private static final class Input extends Leaf {
+    private final int index;
+
+    Input(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    Object value(final Object[] values) {
+      return values[index];
+    }
+  }
+
+  /** Unary "!" operator */
+  private static final class Not extends Node {
+    private final Node operand;
+
+    Not(final Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      return operand.evaluate(values, parser).equals(Boolean.TRUE) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  /** Unary "-" operator */
+  private static final class Negation extends Node {
+    private final Node operand;
+
+    Negation(final Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      return Double.valueOf(evaluateDouble(values, parser));
+    }
+
+    @Override
+    boolean isNumeric(final Parser parser) {
+      return true;
+    }
+
+    @Override
+    double evaluateDouble(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      if (operand.isNumeric(parser)) {
+        return -operand.evaluateDouble(values, parser);
+      }
+      return -((Number) operand.evaluate(values, parser)).doubleValue();
+    }
+  }
+
+  /** Binary operator computed by the parser */
+  private static class Binary extends Node {
+    final Node left;
+    final Node right;
+    final Operator op;
+
+    Binary(final Node left, final Node right, final Operator op) {
+      this.left = left;
+      this.right = right;
+      this.op = op;
+    }
+
+    @Override
+    Object evaluate(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      final Object x = left.evaluate(values, parser);
+      final Object y = right.evaluate(values, parser);
+      return parser.calculateExpr(x, y, op);
+    }
+  }
+
+  /**
+   * Comparison of two values. Numeric operands are compared without boxing,
+   * all other cases are left to the parser.
+   */
+  private static final class Comparison extends Binary {
+
+    Comparison(final Node left, final Node right, final Operator op) {
+      super(left, right, op);
+    }
+
+    @Override
+    Object evaluate(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      final boolean leftNumeric = left.isNumeric(parser);
+      final boolean rightNumeric = right.isNumeric(parser);
+      if (!leftNumeric && !rightNumeric) {
+        return super.evaluate(values, parser);
+      }
+      Object x = null;
+      Object y = null;
+      final double dx;
+      final double dy;
+      if (leftNumeric) {
+        dx = left.evaluateDouble(values, parser);
+      } else {
+        x = left.evaluate(values, parser);
+        dx = x instanceof Number ? ((Number) x).doubleValue() : Double.NaN;
+      }
+      if (rightNumeric) {
+        dy = right.evaluateDouble(values, parser);
+      } else {
+        y = right.evaluate(values, parser);
+        dy = y instanceof Number ? ((Number) y).doubleValue() : Double.NaN;
+      }
+      if ((leftNumeric || x instanceof Number) && (rightNumeric || y instanceof Number)) {
+        return compare(dx, dy) ? Boolean.TRUE : Boolean.FALSE;
+      }
+      return parser.calculateExpr(leftNumeric ? Double.valueOf(dx) : x, rightNumeric ? Double.valueOf(dy) : y, op);
+    }
+
+    private boolean compare(final double x, final double y) {
+      switch (op) {
+        case GREATER_THAN_COMPARISON:
+          return x > y;
+        case LESS_THAN_COMPARISON:
+          return x < y;
+        case LESS_THAN_OR_EQUALS_COMPARISON:
+          return x <= y;
+        case GREATER_THAN_OR_EQUALS_COMPARISON:
+          return x >= y;
+        case EQUALS_COMPARISON:
+          return x == y;
+        default:
+          return x != y;
+      }
+    }
+  }
+
+  /**
+   * Arithmetic operator. With the {@link Parser} the result is always a
+   * Double and can be computed without boxing. The
+   * {@link InvalidExpressionParser} may also return INVALID, so that all
+   * operations are left to the parser in this case.
+   */
+  private static final class Arithmetic extends Binary {
+
+    Arithmetic(final Node left, final Node right, final Operator op) {
+      super(left, right, op);
+    }
+
+    @Override
+    Object evaluate(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      if (isNumeric(parser)) {
+        return Double.valueOf(evaluateDouble(values, parser));
+      }
+      return super.evaluate(values, parser);
+    }
+
+    @Override
+    boolean isNumeric(final Parser parser) {
+      return !(parser instanceof InvalidExpressionParser);
+    }
+
+    @Override
+    double evaluateDouble(final Object[] values, final Parser parser) throws RuleEvaluationException {
+      final boolean leftNumeric = left.isNumeric(parser);
+      final boolean rightNumeric = right.isNumeric(parser);
+      Object x = null;
+      Object y = null;
+      double dx = 0;
+      double dy = 0;
+      if (leftNumeric) {
+        dx = left.evaluateDouble(values, parser);
+      } else {
+        x = left.evaluate(values, parser);
+      }
+      if (rightNumeric) {
+        dy = right.evaluateDouble(values, parser);
+      } else {
+        y = right.evaluate(values, parser);
+      }
+      if ((!leftNumeric && !(x instanceof Number)) || (!rightNumeric && !(y instanceof Number))) {
+        // throws the error of the parser
+        parser.calculateExpr(leftNumeric ? Double.valueOf(dx) : x, rightNumeric ? Double.valueOf(dy) : y, op);
+        throw new RuleEvaluationException("Cannot evaluate " + x + " " + op + " " + y);
+      }
+
+      switch (op) {
+        case BITWISE_AND:
+          return longValue(leftNumeric, dx, x) & longValue(rightNumeric, dy, y);
+        case BITWISE_OR:
+          return longValue(leftNumeric, dx, x) | longValue(rightNumeric, dy, y);
+        default:
+          break;
+      }
+      if (!leftNumeric) {
+        dx = ((Number) x).doubleValue();
+      }
+      if (!rightNumeric) {
+        dy = ((Number) y).doubleValue();
+      }
+      switch (op) {
+        case ADDITION:
+          return dx + dy;
+        case SUBTRACTION:
+          return dx - dy;
+        case MULTIPLICATION:
+          return dx * dy;
+        case DIVISION:
+          return dx / dy;
+        default:
+          return Math.pow(dx, dy);
+      }
+    }
+
+    /**
+     * Intermediate results are Double values in the token parser, whereas
+     * input values keep their own conversion to long.
+     */
+    private static long longValue(final boolean numeric, final double d, final Object value) {
+      return numeric ? (long) d : ((Number) value).longValue();
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import cern.c2mon.shared.common.rule.RuleInputValue;
+import cern.c2mon.shared.rule.parser.InvalidExpressionParser;
+import cern.c2mon.shared.rule.parser.Parser;
+import cern.c2mon.shared.rule.parser.RuleConstant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the evaluation of {@link SimpleRuleExpression} based on the
+ * compiled expression tree with the evaluation of the token parser, on the
+ * rules extracted from the database and on a set of special cases.
+ */
+@Slf4j
+public class CompiledExpressionTest {
+
+  private static final String[] SPECIAL_CASES = {
+      "1 + 2 * 3 - 4",
+      "#1 + #2 * #3 - #4 / #5",
+      "(#1 + #2) / #3 > 1",
+      "#1 ^ 2 >= #2",
+      "#1 && 3",
+      "(#1 || #2) = 3",
+      "-#1",
+      "-(#1)",
+      "- 5",
+      "-(#1 + 2) < #2",
+      "!(#1 = 2)",
+      "!(#1 = 2) & !(#2 = 3)",
+      "#1 = \"ON\"",
+      "#1 > \"abc\"",
+      "#1 <= #2",
+      "#1 != #2",
+      "#1 = $INVALID",
+      "$INVALID != #1",
+      "(#1 = 1) | (#2 = 2)",
+      "(#1 = 1) & (#2 = 2) & (#3 = 3) | (#4 != #5)",
+      "\"(\" = #1",
+      "true",
+      "#1",
+      "",
+      "(#1",
+      "#1 +",
+      "#1 2",
+      "((#1))",
+  };
+
+  private static final Object[] VALUES = {
+      0d, 1d, 2d, 3d, 2.5d, 1f, 3f, 1, 2, 4L, 1L << 40, Boolean.TRUE, Boolean.FALSE,
+      "ON", "abc", "(", "(ON)", ")", "-", "!", "", '(', null
+  };
+
+  private static List<SimpleRuleExpression> expressions;
+
+  /** Tokens of the expressions, for the evaluation with the token parser */
+  private static Map<SimpleRuleExpression, Object[]> tokens;
+
+  @BeforeClass
+  public static void loadRules() throws Exception {
+    expressions = new ArrayList<>();
+    Collection<RuleExpression> rules = RuleExpression
+        .createExpressionFromDatabaseXML(new ClassPathResource("rules.xml").getFile().getAbsolutePath());
+    for (RuleExpression rule : rules) {
+      addSimpleExpressions(rule, expressions);
+    }
+    for (String rule : SPECIAL_CASES) {
+      expressions.add(new SimpleRuleExpression(rule));
+    }
+    tokens = new IdentityHashMap<>();
+    for (SimpleRuleExpression expression : expressions) {
+      tokens.put(expression, SimpleRuleExpression.tokenize(expression.getExpression()));
+    }
+  }
+
+  @Test
+  public void testSameResultsAsTokenParser() throws Exception {
+    Random random = new Random(42);
+    int nbErrors = 0;
+    for (SimpleRuleExpression expression : expressions) {
+      for (int i = 0; i < 50; i++) {
+        Map<Long, RuleInputValue> inputs = randomInputs(expression, random);
+        Object expected;
+        Object result;
+        try {
+          expected = evaluateWithTokenParser(expression, inputs);
+        } catch (Exception e) {
+          expected = e;
+        }
+        try {
+          result = expression.evaluate(inputs);
+        } catch (Exception e) {
+          result = e;
+        }
+        String message = expression.getExpression() + " with " + inputs.values();
+        if (expected instanceof Exception) {
+          nbErrors++;
+          assertTrue(message, result instanceof Exception);
+          assertEquals(message, expected.getClass(), result.getClass());
+          if (expected instanceof RuleEvaluationException) {
+            assertEquals(message, ((Exception) expected).getMessage(), ((Exception) result).getMessage());
+          } else {
+            assertEquals(message, rootCause((Exception) expected), rootCause((Exception) result));
+          }
+        } else {
+          assertEquals(message, expected, result);
+          assertEquals(message, expected.getClass(), result.getClass());
+        }
+      }
+    }
+    log.info("Compared {} expressions, {} evaluations failed in both parsers", expressions.size(), nbErrors);
+  }
+
+  @Test
+  public void testSerializedExpressionIsCompiled() throws Exception {
+    SimpleRuleExpression expression = new SimpleRuleExpression("(#1 + #2) > 3");
+    SimpleRuleExpression copy = (SimpleRuleExpression) org.apache.commons.lang.SerializationUtils.clone(expression);
+    Map<Long, RuleInputValue> inputs = new HashMap<>();
+    inputs.put(1L, new RuleInputValueImpl(1L, 1d, true));
+    inputs.put(2L, new RuleInputValueImpl(2L, 3d, true));
+    assertNotNull(copy);
+    assertEquals(Boolean.TRUE, copy.evaluate(inputs));
+  }
+
+  @Test
+  public void compareEvaluationTime() throws Exception {
+    Random random = new Random(7);
+    List<Map<Long, RuleInputValue>> inputs = new ArrayList<>();
+    List<SimpleRuleExpression> evaluable = new ArrayList<>();
+    for (SimpleRuleExpression expression : expressions) {
+      Map<Long, RuleInputValue> values = new HashMap<>();
+      for (Long id : expression.getInputTagIds()) {
+        values.put(id, new RuleInputValueImpl(id, (double) random.nextInt(4), true));
+      }
+      try {
+        evaluateWithTokenParser(expression, values);
+        evaluable.add(expression);
+        inputs.add(values);
+      } catch (Exception e) {
+        // only benchmark the successful evaluations
+      }
+    }
+
+    int nbRounds = 20;
+    for (int round = 0; round < 2; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < nbRounds; i++) {
+        for (int j = 0; j < evaluable.size(); j++) {
+          evaluateWithTokenParser(evaluable.get(j), inputs.get(j));
+        }
+      }
+      long tokenNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < nbRounds; i++) {
+        for (int j = 0; j < evaluable.size(); j++) {
+          evaluable.get(j).evaluate(inputs.get(j));
+        }
+      }
+      long compiledNanos = System.nanoTime() - start;
+
+      int nbEvaluations = nbRounds * evaluable.size();
+      log.info("{} evaluations: token parser {} ns, compiled expression {} ns per evaluation",
+          nbEvaluations, tokenNanos / nbEvaluations, compiledNanos / nbEvaluations);
+    }
+  }
+
+  private static void addSimpleExpressions(final IRuleExpression rule, final List<SimpleRuleExpression> result)
+      throws RuleFormatException {
+    if (rule instanceof SimpleRuleExpression) {
+      result.add((SimpleRuleExpression) rule);
+    } else if (rule instanceof IConditionedRule) {
+      for (IRuleCondition condition : ((IConditionedRule) rule).getConditions()) {
+        if (condition instanceof IConditionedRule) {
+          addSimpleExpressions(condition, result);
+        } else {
+          result.add(new SimpleRuleExpression(condition.getExpression()));
+        }
+      }
+    }
+  }
+
+  private static Map<Long, RuleInputValue> randomInputs(final SimpleRuleExpression expression, final Random random) {
+    Map<Long, RuleInputValue> inputs = new HashMap<>();
+    for (Long id : expression.getInputTagIds()) {
+      int choice = random.nextInt(100);
+      if (choice < 2) {
+        continue; // missing input
+      }
+      Object value = choice < 70 ? (double) random.nextInt(4) : VALUES[random.nextInt(VALUES.length)];
+      inputs.put(id, new RuleInputValueImpl(id, value, random.nextInt(10) != 0));
+    }
+    return inputs;
+  }
+
+  /**
+   * The evaluation of {@link SimpleRuleExpression} before the introduction
+   * of the compiled expressions.
+   */
+  private static Object evaluateWithTokenParser(final SimpleRuleExpression expression,
+                                                final Map<Long, RuleInputValue> inputs) throws RuleEvaluationException {
+    Object[] ruleTokens = tokens.get(expression);
+    if (expression.hasInvalidTags(inputs) || expression.usesTheInvalidKeyword()) {
+      Object result = InvalidExpressionParser.getInstance().eval(toValueTokens(ruleTokens, inputs, true));
+      if (RuleConstant.INTERNAL_INVALID.toString().equals(result)) {
+        throw new RuleEvaluationException("Cannot evaluate rule: Invalid tags found!");
+      }
+      return result;
+    }
+    return Parser.getInstance().eval(toValueTokens(ruleTokens, inputs, false));
+  }
+
+  private static Object[] toValueTokens(final Object[] ruleTokens, final Map<Long, RuleInputValue> inputs,
+                                        final boolean allowInvalid) throws RuleEvaluationException {
+    Object[] valueTokens = Arrays.copyOf(ruleTokens, ruleTokens.length);
+    for (int i = 0; i < ruleTokens.length; i++) {
+      if (ruleTokens[i] instanceof RuleInputTagId) {
+        RuleInputValue tag = inputs.get(((RuleInputTagId) ruleTokens[i]).getId());
+        if (tag == null) {
+          throw new RuleEvaluationException("Cannot evaluate rule: input tag missing " + ((RuleInputTagId) ruleTokens[i]).getId());
+        } else if (allowInvalid && !tag.isValid()) {
+          valueTokens[i] = RuleConstant.INTERNAL_INVALID.toString();
+        } else if (tag.getValue() == null) {
+          throw new RuleEvaluationException("Cannot evaluate rule: tag " + tag.getId() + " is null.");
+        } else {
+          valueTokens[i] = tag.getValue();
+        }
+      }
+    }
+    return valueTokens;
+  }
+
+  /**
+   * Only the class is compared, since the JVM omits the message of
+   * frequently thrown built-in exceptions.
+   */
+  private static Class<?> rootCause(final Throwable e) {
+    Throwable cause = e;
+    while (cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause.getClass();
+  }
+
+  @Data
+  @AllArgsConstructor
+  private static class RuleInputValueImpl implements RuleInputValue {
+    private Long id;
+    private Object value;
+    private boolean valid;
+  }
+}
@@ -0,0 +1,224 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.util.buffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A {@link SynchroBufferQueue} which only keeps the latest element per key.
+ * If an element is added while an older element with the same key is still
+ * waiting in the queue, the older element is replaced by the new one. The
+ * queue keeps the position of the first element, so the arrival order of
+ * elements with distinct keys is preserved.
+ * <p>
+ * In contrast to the {@link SynchroBufferQueue}, {@link #poll(long, int)}
+ * waits for the whole timeout (unless <code>maxSize</code> distinct keys are
+ * waiting), so that all updates of a key within this window are conflated
+ * into one.
+ * <p>
+ * Note that {@link #iterator()}, {@link #contains(Object)} and
+ * {@link #toArray()} may return replaced elements.
+ *
+ * @param <K> the type of the conflation key
+ * @param <E> the type of elements held in this collection
+ */
+public class ConflatingSynchroBufferQueue<K, E> extends SynchroBufferQueue<E> {
+
+  /** Serial version UID */
+  private static final long serialVersionUID = -4528407618623719337L;
+
+  /**
+   * Extracts the conflation key of an element
+   */
+  private final transient Function<? super E, ? extends K> keyFunction;
+
+  /**
+   * Latest element per key. The queue itself contains one placeholder per key,
+   * i.e. the element which was the first one with this key.
+   */
+  private final transient Map<K, E> latest = new ConcurrentHashMap<>();
+
+  /**
+   * Number of elements which were replaced by a newer element
+   */
+  private final AtomicLong conflatedCount = new AtomicLong();
+
+  private final ReentrantLock pollLock = new ReentrantLock();
+
+  private final Condition filled = pollLock.newCondition();
+
+  /**
+   * Queue size for which a poller waits, {@link Integer#MAX_VALUE} if none
+   */
+  private volatile int awaitedSize = Integer.MAX_VALUE;
+
+  /**
+   * @param keyFunction extracts the conflation key of an element, must not
+   *                    return <code>null</code>
+   */
+  public ConflatingSynchroBufferQueue(final Function<? super E, ? extends K> keyFunction) {
+    this.keyFunction = keyFunction;
+  }
+
+  @Override
+  public boolean offer(final E element) {
+    if (element == null) {
+      throw new NullPointerException();
+    }
+    if (latest.put(keyFunction.apply(element), element) != null) {
+      conflatedCount.incrementAndGet();
+      return true;
+    }
+    super.offer(element);
+    if (size() >= awaitedSize) {
+      pollLock.lock();
+      try {
+        filled.signalAll();
+      } finally {
+        pollLock.unlock();
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean offer(final E element, final long timeout, final TimeUnit unit) {
+    return offer(element);
+  }
+
+  @Override
+  public void put(final E element) {
+    offer(element);
+  }
+
+  @Override
+  public E poll() {
+    return resolve(super.poll());
+  }
+
+  @Override
+  public E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+    return resolve(super.poll(timeout, unit));
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    return resolve(super.take());
+  }
+
+  @Override
+  public E peek() {
+    E placeholder = super.peek();
+    if (placeholder == null) {
+      return null;
+    }
+    E element = latest.get(keyFunction.apply(placeholder));
+    return element == null ? placeholder : element;
+  }
+
+  @Override
+  public int drainTo(final Collection<? super E> collection) {
+    return drainTo(collection, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(final Collection<? super E> collection, final int maxElements) {
+    List<E> placeholders = new ArrayList<>();
+    super.drainTo(placeholders, maxElements);
+    int count = 0;
+    for (E placeholder : placeholders) {
+      E element = resolve(placeholder);
+      if (element != null) {
+        collection.add(element);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    latest.clear();
+  }
+
+  /**
+   * Retrieves and removes up to <code>maxSize</code> elements from the head of
+   * this queue, after waiting for the given timeout or until <code>maxSize</code>
+   * elements with distinct keys are available.
+   *
+   * @param timeout how long to wait in milliseconds. Passing a timeout <= 0
+   *                will immediately return the call with an empty list.
+   * @param maxSize The maximum elements that shall be put into the list.
+   *                Passing a maxSize = 0 will immediately return the call with an
+   *                empty list. A negative maxSize will result in an
+   *                {@link IllegalArgumentException}
+   * @return A list of elements which will have maximum <code>maxSize</code> elements
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @Override
+  public List<E> poll(final long timeout, final int maxSize) throws InterruptedException {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+    }
+    List<E> list = new ArrayList<>(Math.min(maxSize, Math.max(size(), 16)));
+    if (timeout <= 0 || maxSize == 0) {
+      return list;
+    }
+
+    long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+    pollLock.lockInterruptibly();
+    try {
+      awaitedSize = maxSize;
+      while (size() < maxSize && remaining > 0) {
+        remaining = filled.awaitNanos(remaining);
+      }
+    } finally {
+      awaitedSize = Integer.MAX_VALUE;
+      pollLock.unlock();
+    }
+
+    drainTo(list, maxSize);
+    return list;
+  }
+
+  /**
+   * @return the number of elements which were replaced by a newer element with the same key
+   */
+  public long getConflatedCount() {
+    return conflatedCount.get();
+  }
+
+  /**
+   * @return the latest element with the key of the given placeholder
+   */
+  private E resolve(final E placeholder) {
+    if (placeholder == null) {
+      return null;
+    }
+    return latest.remove(keyFunction.apply(placeholder));
+  }
+}
@@ -16,6 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.shared.util.jms;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -126,6 +129,53 @@ public class ActiveJmsSender implements JmsSender {
     });
   }
   
+  @Override
+  public void sendToTopic(final String text, final String jmsTopicName, final Map<String, ?> properties) {
+    if (text == null) {
+      throw new NullPointerException("Attempting to send a null text message.");
+    }
+    Destination topic = new ActiveMQTopic(jmsTopicName);
+    jmsTemplate.send(topic, session -> {
+      TextMessage message = session.createTextMessage(text);
+      for (Map.Entry<String, ?> property : properties.entrySet()) {
+        message.setObjectProperty(property.getKey(), property.getValue());
+      }
+      return message;
+    });
+  }
+
+  /**
+   * Sends all messages with the same session and producer.
+   */
+  @Override
+  public void sendToTopics(final List<TopicMessage> messages) {
+    for (TopicMessage message : messages) {
+      if (message.getText() == null) {
+        throw new NullPointerException("Attempting to send a null text message.");
+      }
+    }
+    jmsTemplate.execute(session -> {
+      MessageProducer producer = session.createProducer(null);
+      try {
+        for (TopicMessage message : messages) {
+          TextMessage textMessage = session.createTextMessage(message.getText());
+          for (Map.Entry<String, ?> property : message.getProperties().entrySet()) {
+            textMessage.setObjectProperty(property.getKey(), property.getValue());
+          }
+          Destination topic = new ActiveMQTopic(message.getTopic());
+          if (jmsTemplate.isExplicitQosEnabled()) {
+            producer.send(topic, textMessage, jmsTemplate.getDeliveryMode(), jmsTemplate.getPriority(), jmsTemplate.getTimeToLive());
+          } else {
+            producer.send(topic, textMessage);
+          }
+        }
+      } finally {
+        producer.close();
+      }
+      return null;
+    }, false);
+  }
+
   @Override
   public void sendToQueue(final String text, final String jmsQueueName) {
     if (text == null) {
@@ -16,6 +16,9 @@
  *****************************************************************************/
 package cern.c2mon.shared.util.jms;
 
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.jms.JmsException;
 
 /**
@@ -52,6 +55,36 @@ public interface JmsSender {
    * @throws JmsException if problem encountered with JMS
    */
   void sendToTopic(String text, String jmsTopic);
+
+  /**
+   * As for sendToTopic, but sets the given properties on the message, e.g.
+   * to allow the subscribers to filter the messages with a selector.
+   * Implementations not supporting message properties ignore them and
+   * send the plain message, which is the default behaviour.
+   * @param text the message
+   * @param jmsTopic the topic name
+   * @param properties the message properties
+   * @throws NullPointerException if either the text or topic argument is null
+   * @throws JmsException if problem encountered with JMS
+   */
+  default void sendToTopic(String text, String jmsTopic, Map<String, ?> properties) {
+    sendToTopic(text, jmsTopic);
+  }
+
+  /**
+   * Sends several text messages in the given order. Implementations may send
+   * them over a single JMS session, which is cheaper than calling
+   * {@link #sendToTopic(String, String, Map)} for each message.
+   * @param messages the messages to send
+   * @throws NullPointerException if the text or topic of a message is null
+   * @throws JmsException if problem encountered with JMS; the messages
+   *         preceding the failed one may have been sent
+   */
+  default void sendToTopics(List<TopicMessage> messages) {
+    for (TopicMessage message : messages) {
+      sendToTopic(message.getText(), message.getTopic(), message.getProperties());
+    }
+  }
   
   /**
    * Sends a text message to a default destination (the implementation must provide
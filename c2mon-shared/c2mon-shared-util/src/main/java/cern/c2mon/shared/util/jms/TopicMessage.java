@@ -0,0 +1,50 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.util.jms;
+
+import java.util.Collections;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A text message to be sent to a JMS topic, see
+ * {@link JmsSender#sendToTopics(java.util.List)}.
+ */
+@Getter
+@AllArgsConstructor
+public final class TopicMessage {
+
+  /** The message text */
+  private final String text;
+
+  /** The topic name */
+  private final String topic;
+
+  /** The message properties */
+  private final Map<String, ?> properties;
+
+  /**
+   * Creates a message without properties.
+   * @param text the message text
+   * @param topic the topic name
+   */
+  public TopicMessage(final String text, final String topic) {
+    this(text, topic, Collections.emptyMap());
+  }
+}
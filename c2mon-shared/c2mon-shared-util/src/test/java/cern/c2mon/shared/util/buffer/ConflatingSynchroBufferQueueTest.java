@@ -0,0 +1,101 @@
+/******************************************************************************
+ * Copyright (C) 2010-2020 CERN. All rights not expressly granted are reserved.
+ *
+ * This file is part of the CERN Control and Monitoring Platform 'C2MON'.
+ * C2MON is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the license.
+ *
+ * C2MON is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with C2MON. If not, see <http://www.gnu.org/licenses/>.
+ *****************************************************************************/
+package cern.c2mon.shared.util.buffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConflatingSynchroBufferQueueTest {
+
+  private ConflatingSynchroBufferQueue<String, String> queue;
+
+  @Before
+  public void before() {
+    // conflates on the first character
+    queue = new ConflatingSynchroBufferQueue<>(element -> element.substring(0, 1));
+  }
+
+  @Test
+  public void testLatestValuePerKeyInArrivalOrder() throws InterruptedException {
+    queue.addAll(Arrays.asList("a1", "b1", "a2", "c1", "b2", "a3"));
+
+    Assert.assertEquals(3, queue.size());
+    Assert.assertEquals(3, queue.getConflatedCount());
+    Assert.assertEquals("a3", queue.peek());
+    Assert.assertEquals(Arrays.asList("a3", "b2", "c1"), queue.poll(100L, 10));
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testPolledKeyIsQueuedAgain() {
+    queue.add("a1");
+    queue.add("b1");
+    Assert.assertEquals("a1", queue.poll());
+
+    queue.add("a2");
+    queue.add("b2");
+    List<String> list = new ArrayList<>();
+    queue.drainTo(list);
+    Assert.assertEquals(Arrays.asList("b2", "a2"), list);
+    Assert.assertEquals(1, queue.getConflatedCount());
+  }
+
+  @Test
+  public void testPollWaitsForWindow() throws InterruptedException {
+    long timeout = 200L;
+    queue.add("a1");
+    new Thread(() -> {
+      try {
+        Thread.sleep(50L);
+      } catch (InterruptedException e) {
+        return;
+      }
+      queue.add("a2");
+      queue.add("b1");
+    }).start();
+
+    long start = System.currentTimeMillis();
+    List<String> list = queue.poll(timeout, 10);
+    Assert.assertTrue(System.currentTimeMillis() - start >= timeout);
+    Assert.assertEquals(Arrays.asList("a2", "b1"), list);
+  }
+
+  @Test
+  public void testPollReturnsWhenMaxSizeIsReached() throws InterruptedException {
+    long timeout = 5000L;
+    queue.addAll(Arrays.asList("a1", "b1", "a2", "c1", "d1"));
+
+    long start = System.currentTimeMillis();
+    List<String> list = queue.poll(timeout, 3);
+    Assert.assertTrue(System.currentTimeMillis() - start < timeout);
+    Assert.assertEquals(Arrays.asList("a2", "b1", "c1"), list);
+    Assert.assertEquals(Arrays.asList("d1"), queue.poll(timeout, 1));
+  }
+
+  @Test
+  public void testPollWithWrongParameters() throws InterruptedException {
+    queue.add("a1");
+    Assert.assertTrue(queue.poll(0L, 10).isEmpty());
+    Assert.assertTrue(queue.poll(100L, 0).isEmpty());
+    Assert.assertEquals(1, queue.size());
+  }
+}